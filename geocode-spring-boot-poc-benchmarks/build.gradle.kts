@@ -0,0 +1,66 @@
+import org.springframework.boot.gradle.plugin.SpringBootPlugin
+
+plugins {
+    java
+    id("io.spring.dependency-management")
+}
+
+dependencyManagement {
+    imports {
+        mavenBom(SpringBootPlugin.BOM_COORDINATES)
+    }
+}
+
+dependencies {
+    implementation(project(":geocode-spring-boot-poc-models"))
+    implementation(project(":geocode-spring-boot-poc-server"))
+    implementation("org.springframework.data:spring-data-geode:2.7.18")
+    compileOnly("org.springframework.boot:spring-boot")
+    implementation("com.fasterxml.jackson.core:jackson-databind")
+    implementation("io.micrometer:micrometer-core")
+
+    implementation("org.openjdk.jmh:jmh-core:1.37")
+    annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks against an embedded Geode server and writes the results as JSON."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass = "org.openjdk.jmh.Main"
+
+    val results = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    args("-rf", "json", "-rff", results.absolutePath)
+    args((findProperty("jmh.args") as String? ?: "").split(" ").filter { it.isNotBlank() })
+
+    doFirst {
+        results.parentFile.mkdirs()
+    }
+}
+
+tasks.register<JavaExec>("regionLayoutBenchmark") {
+    group = "benchmark"
+    description = "Compares function fan-out between the default and colocated region layouts on a running cluster."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass = "com.github.tndavidson.geodespringbootpoc.benchmark.RegionLayoutBenchmark"
+    systemProperties(System.getProperties().filterKeys { it.toString().startsWith("benchmark.") }
+        .mapKeys { it.key.toString() })
+}
+
+tasks.register<JavaExec>("concurrencyBenchmark") {
+    group = "benchmark"
+    description = "Compares throughput and p99 latency of platform and virtual threads at 1k to 50k concurrent requests."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass = "com.github.tndavidson.geodespringbootpoc.benchmark.ConcurrencyBenchmark"
+    systemProperties(System.getProperties().filterKeys { it.toString().startsWith("benchmark.") }
+        .mapKeys { it.key.toString() })
+}
+
+tasks.register<JavaExec>("balanceContentionBenchmark") {
+    group = "benchmark"
+    description = "Checks that concurrent balance updates of hot accounts are not lost, and measures their throughput."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass = "com.github.tndavidson.geodespringbootpoc.benchmark.BalanceContentionBenchmark"
+    systemProperties(System.getProperties().filterKeys { it.toString().startsWith("benchmark.") }
+        .mapKeys { it.key.toString() })
+}
@@ -0,0 +1,64 @@
+package com.github.tndavidson.geodespringbootpoc.benchmark;
+
+import com.github.tndavidson.geodespringbootpoc.model.MinorUnits;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares summing a million amounts held as {@link BigDecimal}, as the balance function does when amounts are
+ * stored as decimals, with summing the same amounts held as {@code long} minor units.
+ *
+ * Run with {@code -prof gc} to compare the allocation rate: the minor units sum allocates nothing per amount.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AmountSumBenchmark {
+
+    private static final int AMOUNTS = 1_000_000;
+
+    private BigDecimal[] decimals;
+
+    private long[] minorUnits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var random = ThreadLocalRandom.current();
+        decimals = new BigDecimal[AMOUNTS];
+        minorUnits = new long[AMOUNTS];
+
+        for (int i = 0; i < AMOUNTS; i++) {
+            minorUnits[i] = random.nextLong(-100_000, 100_000);
+            decimals[i] = MinorUnits.toDecimal(minorUnits[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal sumDecimals() {
+        var sum = BigDecimal.ZERO;
+
+        for (BigDecimal amount : decimals) {
+            sum = sum.add(amount);
+        }
+
+        return sum.setScale(MinorUnits.SCALE, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public long sumMinorUnits() {
+        var sum = 0L;
+
+        for (long amount : minorUnits) {
+            sum = MinorUnits.add(sum, amount);
+        }
+
+        return sum;
+    }
+}
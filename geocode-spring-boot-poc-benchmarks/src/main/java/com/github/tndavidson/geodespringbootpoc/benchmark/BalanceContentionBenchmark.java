@@ -0,0 +1,169 @@
+package com.github.tndavidson.geodespringbootpoc.benchmark;
+
+import com.github.tndavidson.geodespringbootpoc.config.BalanceProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.processor.impl.AccountBalanceUpdater;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.client.ClientCache;
+import org.apache.geode.cache.client.ClientCacheFactory;
+import org.apache.geode.cache.client.ClientRegionShortcut;
+import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stress test of concurrent balance updates: many writers add 1.00 to the balance of a handful of hot accounts on a
+ * running cluster, and the final balances are compared with the number of updates made to each account.
+ *
+ * Each level is run with:
+ * - {@code unsafe}: read the account, add to its balance and put it back, as balances were written before
+ *   {@link AccountBalanceUpdater}. Concurrent updates of the same account overwrite each other, and the difference
+ *   between the updates made and the final balances is reported as lost.
+ * - {@code cas}: {@link AccountBalanceUpdater}, which replaces the account only if it has not changed since it was
+ *   read and retries otherwise. No update may be lost; the retries are reported as conflicts per update.
+ *
+ * With the same number of writers, fewer accounts mean more collisions, so the throughput of {@code cas} rises with
+ * the number of accounts as conflicts fall.
+ *
+ * The accounts are created with new IDs for each level and removed afterwards.
+ *
+ * Run with: {@code ./gradlew :geocode-spring-boot-poc-benchmarks:balanceContentionBenchmark}
+ *
+ * System properties:
+ * - {@code benchmark.locator}: locator host and port, default {@code localhost[10334]}
+ * - {@code benchmark.accounts}: comma-separated numbers of hot accounts, default {@code 1,4,16,64}
+ * - {@code benchmark.writers}: concurrent writer threads, default 64
+ * - {@code benchmark.updatesPerWriter}: balance updates made by each writer per level, default 500
+ */
+public class BalanceContentionBenchmark {
+
+    private static final String MODEL_PACKAGE_PATTERN = "com\\.github\\.tndavidson\\.geodespringbootpoc\\.model\\..*";
+
+    public static void main(String[] args) throws Exception {
+        var locator = System.getProperty("benchmark.locator", "localhost[10334]");
+        var host = locator.substring(0, locator.indexOf('['));
+        var port = Integer.parseInt(locator.substring(locator.indexOf('[') + 1, locator.indexOf(']')));
+        var levels = Arrays.stream(System.getProperty("benchmark.accounts", "1,4,16,64").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        var writers = Integer.getInteger("benchmark.writers", 64);
+        var updatesPerWriter = Integer.getInteger("benchmark.updatesPerWriter", 500);
+
+        ClientCache cache = new ClientCacheFactory()
+                .addPoolLocator(host, port)
+                .setPdxSerializer(new ReflectionBasedAutoSerializer(MODEL_PACKAGE_PATTERN))
+                .create();
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        var results = new ArrayList<Result>();
+
+        try {
+            Region<String, Account> accountRegion = cache.<String, Account>createClientRegionFactory(ClientRegionShortcut.PROXY)
+                    .create("account");
+            var meterRegistry = new SimpleMeterRegistry();
+            var updater = new AccountBalanceUpdater(accountRegion, new BalanceProperties(), meterRegistry);
+            var conflicts = meterRegistry.counter("account.balance.update.conflicts");
+
+            for (var accounts : levels) {
+                results.add(run("unsafe", accountRegion, executor, accounts, writers, updatesPerWriter, (id, amount) -> {
+                    var account = accountRegion.get(id);
+                    account.setBalance(account.getBalance().add(amount));
+                    account.setBalanceCalculatedDate(Instant.now());
+                    accountRegion.put(id, account);
+                }, () -> 0));
+
+                var conflictsBefore = conflicts.count();
+                results.add(run("cas", accountRegion, executor, accounts, writers, updatesPerWriter,
+                        (id, amount) -> updater.update(id, "apply transactions", current -> current.getBalance().add(amount)),
+                        () -> (long) (conflicts.count() - conflictsBefore)));
+            }
+        } finally {
+            executor.shutdownNow();
+            cache.close();
+        }
+
+        System.out.printf("%n%-8s %8s %8s %12s %10s %14s%n", "mode", "accounts", "writers", "updates/s", "lost",
+                "conflicts/op");
+        results.forEach(result -> System.out.printf("%-8s %8d %8d %12.1f %10d %14.3f%n", result.mode(),
+                result.accounts(), result.writers(), result.updatesPerSecond(), result.lost(),
+                result.conflictsPerUpdate()));
+    }
+
+    private static Result run(String mode, Region<String, Account> accountRegion, ExecutorService executor,
+                              int accounts, int writers, int updatesPerWriter, Update update,
+                              ConflictCount conflictCount) throws Exception {
+        var prefix = "contention-" + UUID.randomUUID() + "-";
+        Map<String, Account> seeded = new HashMap<>();
+
+        for (int a = 0; a < accounts; a++) {
+            var account = new Account();
+            account.setAccountId(prefix + a);
+            account.setCustomerId("contention");
+            account.setBalance(new BigDecimal("0.00"));
+            seeded.put(account.getAccountId(), account);
+        }
+
+        accountRegion.putAll(seeded);
+
+        var made = new AtomicLongArray(accounts);
+        var futures = new ArrayList<Future<?>>(writers);
+        var start = System.nanoTime();
+
+        for (int w = 0; w < writers; w++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < updatesPerWriter; i++) {
+                    var a = ThreadLocalRandom.current().nextInt(accounts);
+                    update.apply(prefix + a, BigDecimal.ONE);
+                    made.incrementAndGet(a);
+                }
+                return null;
+            }));
+        }
+
+        for (var future : futures) {
+            future.get();
+        }
+
+        var elapsed = System.nanoTime() - start;
+        var lost = 0L;
+        List<String> ids = new ArrayList<>(seeded.keySet());
+
+        for (var entry : accountRegion.getAll(ids).entrySet()) {
+            var a = Integer.parseInt(entry.getKey().substring(prefix.length()));
+            lost += made.get(a) - entry.getValue().getBalance().longValueExact();
+        }
+
+        accountRegion.removeAll(ids);
+
+        var updates = (long) writers * updatesPerWriter;
+        System.out.printf("%s with %d accounts: %d updates, %d lost%n", mode, accounts, updates, lost);
+
+        return new Result(mode, accounts, writers, updates / (elapsed / 1e9), lost,
+                (double) conflictCount.get() / updates);
+    }
+
+    private interface Update {
+        void apply(String accountId, BigDecimal amount);
+    }
+
+    private interface ConflictCount {
+        long get();
+    }
+
+    private record Result(String mode, int accounts, int writers, double updatesPerSecond, long lost,
+                          double conflictsPerUpdate) {
+    }
+}
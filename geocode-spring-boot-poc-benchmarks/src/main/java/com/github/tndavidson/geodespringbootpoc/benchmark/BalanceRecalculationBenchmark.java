@@ -0,0 +1,60 @@
+package com.github.tndavidson.geodespringbootpoc.benchmark;
+
+import com.github.tndavidson.geodespringbootpoc.function.AccountBalanceServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import org.apache.geode.cache.Region;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the server-side sum behind {@code AccountProcessor.recalculateBalance}, which executes
+ * {@link AccountBalanceServerSideFunction} for one account, as the account's history grows.
+ *
+ * The transaction region also holds the histories of other accounts, so the query has to select the account's
+ * transactions through the {@code accountId} index rather than reading the whole region.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BalanceRecalculationBenchmark {
+
+    private static final int OTHER_ACCOUNTS = 100;
+
+    private static final int OTHER_TRANSACTIONS_PER_ACCOUNT = 100;
+
+    @Param({"10", "1000", "100000"})
+    public int transactionsPerAccount;
+
+    private EmbeddedGeode geode;
+
+    private String accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        geode = EmbeddedGeode.start();
+        geode.seedCustomer(OTHER_ACCOUNTS, OTHER_TRANSACTIONS_PER_ACCOUNT);
+
+        var customer = geode.seedCustomer(1, transactionsPerAccount);
+        Region<String, Account> accounts = geode.region("account");
+        accountId = accounts.values().stream()
+                .filter(account -> account.getCustomerId().equals(customer.getId()))
+                .findFirst()
+                .orElseThrow()
+                .getAccountId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        geode.stop();
+    }
+
+    @Benchmark
+    public BigDecimal recalculateBalance() {
+        return geode.execute(AccountBalanceServerSideFunction.ID, accountId);
+    }
+}
@@ -0,0 +1,259 @@
+package com.github.tndavidson.geodespringbootpoc.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.client.ClientCache;
+import org.apache.geode.cache.client.ClientCacheFactory;
+import org.apache.geode.cache.client.ClientRegionShortcut;
+import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures throughput and p50/p99 latency with 1,000 to 50,000 concurrent clients, each sending its next request as
+ * soon as the previous one completes, to compare serving requests on Tomcat's platform threads and on virtual threads.
+ *
+ * With {@code benchmark.target=http}, the clients send {@code GET /customer/{id}} requests to a running application,
+ * for the customers of its first customer page. Run it once against the application started with
+ * {@code spring.threads.virtual.enabled=false} and once with {@code true}. Tomcat accepts 8,192 connections by
+ * default, so raise {@code server.tomcat.max-connections} for higher concurrency; a single client host can open about
+ * 28,000 connections to one port with the default ephemeral port range.
+ *
+ * With {@code benchmark.target=geode}, the clients read random customers from a running cluster themselves, in the
+ * same process, on:
+ * - {@code platform}: a pool of {@code benchmark.platformThreads} platform threads, like Tomcat's request threads;
+ * - {@code virtual}: their own virtual threads, which the Geode client pins to their carrier thread during each round
+ *   trip;
+ * - {@code offloaded}: {@code benchmark.geodeCallThreads} platform threads, as {@code GeodeCallOffloadPostProcessor}
+ *   executes the Geode calls of virtual threads.
+ *
+ * Run with: {@code ./gradlew :geocode-spring-boot-poc-benchmarks:concurrencyBenchmark -Dbenchmark.target=geode}
+ *
+ * System properties:
+ * - {@code benchmark.target}: {@code http} or {@code geode}, default {@code http}
+ * - {@code benchmark.url}: the application's base URL, default {@code http://localhost:8081}
+ * - {@code benchmark.locator}: locator host and port, default {@code localhost[10334]}
+ * - {@code benchmark.concurrency}: comma-separated numbers of concurrent clients, default {@code 1000,5000,10000,50000}
+ * - {@code benchmark.warmupSeconds}, {@code benchmark.seconds}: warm-up and measured time per level, default 5 and 20
+ * - {@code benchmark.customers}: customers seeded in the cluster when it holds fewer, default 10,000
+ * - {@code benchmark.maxConnections}: the client pool's maximum connections, default unlimited
+ * - {@code benchmark.platformThreads}, {@code benchmark.geodeCallThreads}: default 200 and 64
+ */
+public class ConcurrencyBenchmark {
+
+    private static final String MODEL_PACKAGE_PATTERN = "com\\.github\\.tndavidson\\.geodespringbootpoc\\.model\\..*";
+
+    public static void main(String[] args) throws Exception {
+        var target = System.getProperty("benchmark.target", "http");
+        var levels = Arrays.stream(System.getProperty("benchmark.concurrency", "1000,5000,10000,50000").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        var warmup = Duration.ofSeconds(Integer.getInteger("benchmark.warmupSeconds", 5));
+        var measured = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 20));
+
+        var results = new ArrayList<Result>();
+
+        if ("geode".equalsIgnoreCase(target)) {
+            geode(levels, warmup, measured, results);
+        } else {
+            http(levels, warmup, measured, results);
+        }
+
+        System.out.printf("%n%-12s %8s %12s %10s %10s %8s %8s%n", "path", "clients", "ops/s", "p50 ms", "p99 ms",
+                "errors", "starved");
+        results.forEach(result -> System.out.printf("%-12s %8d %12.1f %10.3f %10.3f %8d %8d%n", result.path(),
+                result.clients(), result.opsPerSecond(), result.p50Millis(), result.p99Millis(), result.errors(),
+                result.starved()));
+    }
+
+    private static void http(int[] levels, Duration warmup, Duration measured, List<Result> results) throws Exception {
+        var url = System.getProperty("benchmark.url", "http://localhost:8081");
+        var client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+        var page = client.send(HttpRequest.newBuilder(URI.create(url + "/customer?size=1000")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        var ids = new ArrayList<String>();
+        new ObjectMapper().readTree(page.body()).forEach(customer -> ids.add(customer.get("id").asText()));
+
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No customers found; create some with POST /customer/generate-fake-data/1000");
+        }
+
+        var requests = ids.stream()
+                .map(id -> HttpRequest.newBuilder(URI.create(url + "/customer/" + id)).timeout(Duration.ofSeconds(30)).build())
+                .toList();
+
+        for (var clients : levels) {
+            results.add(measure("http", clients, warmup, measured, () -> {
+                var request = requests.get(ThreadLocalRandom.current().nextInt(requests.size()));
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2;
+            }));
+        }
+    }
+
+    private static void geode(int[] levels, Duration warmup, Duration measured, List<Result> results) throws Exception {
+        var locator = System.getProperty("benchmark.locator", "localhost[10334]");
+        var host = locator.substring(0, locator.indexOf('['));
+        var port = Integer.parseInt(locator.substring(locator.indexOf('[') + 1, locator.indexOf(']')));
+
+        ClientCache cache = new ClientCacheFactory()
+                .addPoolLocator(host, port)
+                .setPoolMaxConnections(Integer.getInteger("benchmark.maxConnections", -1))
+                .setPdxSerializer(new ReflectionBasedAutoSerializer(MODEL_PACKAGE_PATTERN))
+                .create();
+
+        ExecutorService platform = Executors.newFixedThreadPool(Integer.getInteger("benchmark.platformThreads", 200));
+        ExecutorService offloaded = Executors.newFixedThreadPool(Integer.getInteger("benchmark.geodeCallThreads", 64));
+
+        try {
+            Region<String, Customer> customers = cache.<String, Customer>createClientRegionFactory(ClientRegionShortcut.PROXY)
+                    .create("customer");
+            var ids = seed(customers, Integer.getInteger("benchmark.customers", 10_000));
+
+            Callable<Boolean> read = () -> customers.get(ids.get(ThreadLocalRandom.current().nextInt(ids.size()))) != null;
+
+            for (var clients : levels) {
+                results.add(measure("platform", clients, warmup, measured, () -> platform.submit(read).get()));
+                results.add(measure("virtual", clients, warmup, measured, read));
+                results.add(measure("offloaded", clients, warmup, measured, () -> offloaded.submit(read).get()));
+            }
+        } finally {
+            platform.shutdownNow();
+            offloaded.shutdownNow();
+            cache.close();
+        }
+    }
+
+    private static List<String> seed(Region<String, Customer> customers, int count) {
+        var ids = new ArrayList<>(customers.keySetOnServer());
+
+        if (ids.size() >= count) {
+            return ids;
+        }
+
+        System.out.printf("Seeding %d customers%n", count - ids.size());
+
+        Map<String, Customer> batch = new HashMap<>();
+
+        for (int c = ids.size(); c < count; c++) {
+            var customer = new Customer();
+            customer.setId(UUID.randomUUID().toString());
+            customer.setFirstName("First" + c);
+            customer.setLastName("Last" + c);
+            batch.put(customer.getId(), customer);
+            ids.add(customer.getId());
+
+            if (batch.size() == 1_000) {
+                customers.putAll(batch);
+                batch.clear();
+            }
+        }
+
+        customers.putAll(batch);
+        return ids;
+    }
+
+    /**
+     * Runs the clients on virtual threads, each calling the request in a loop, and records the latencies of the calls
+     * that complete within the measured time. Clients that complete no call in that time are reported as starved, as
+     * their latencies are missing from the percentiles.
+     */
+    private static Result measure(String path, int clients, Duration warmup, Duration measured,
+                                  Callable<Boolean> request) throws InterruptedException {
+        var state = new State();
+        var recorders = new ArrayList<Recorder>(clients);
+        var threads = new ArrayList<Thread>(clients);
+
+        for (int i = 0; i < clients; i++) {
+            var recorder = new Recorder();
+            recorders.add(recorder);
+            threads.add(Thread.ofVirtual().start(() -> {
+                while (state.running) {
+                    var begin = System.nanoTime();
+                    boolean ok;
+
+                    try {
+                        ok = request.call();
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+
+                    if (state.measuring) {
+                        recorder.record(System.nanoTime() - begin, ok);
+                    }
+                }
+            }));
+        }
+
+        Thread.sleep(warmup);
+        state.measuring = true;
+        var start = System.nanoTime();
+        Thread.sleep(measured);
+        state.measuring = false;
+        var elapsed = System.nanoTime() - start;
+        state.running = false;
+
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        var latencies = recorders.stream()
+                .flatMapToLong(recorder -> Arrays.stream(recorder.latencies, 0, recorder.count))
+                .sorted()
+                .toArray();
+        var errors = recorders.stream().mapToInt(recorder -> recorder.errors).sum();
+        var starved = (int) recorders.stream().filter(recorder -> recorder.count == 0).count();
+        var completed = latencies.length;
+
+        return new Result(path, clients, (completed - errors) / (elapsed / 1e9),
+                completed == 0 ? 0 : latencies[completed / 2] / 1e6,
+                completed == 0 ? 0 : latencies[(int) (completed * 0.99)] / 1e6, errors, starved);
+    }
+
+    private static final class State {
+
+        private volatile boolean running = true;
+
+        private volatile boolean measuring;
+    }
+
+    private static final class Recorder {
+
+        private long[] latencies = new long[64];
+
+        private int count;
+
+        private int errors;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+
+            latencies[count++] = nanos;
+
+            if (!ok) {
+                errors++;
+            }
+        }
+    }
+
+    private record Result(String path, int clients, double opsPerSecond, double p50Millis, double p99Millis,
+                          int errors, int starved) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.tndavidson.geodespringbootpoc.benchmark;
+
+import com.github.tndavidson.geodespringbootpoc.config.CustomerSearchProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPage;
+import com.github.tndavidson.geodespringbootpoc.processor.impl.CustomerProcessorImpl;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import org.apache.geode.cache.Region;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.gemfire.mapping.GemfireMappingContext;
+import org.springframework.data.gemfire.repository.support.GemfireRepositoryFactory;
+import org.springframework.data.repository.Repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a customer search by last name prefix: the derived {@code LIKE} query sorted by last name that
+ * {@code GET /customer} ran before it was paged, which returns every match, against the first and the eleventh page of 100
+ * customers read by {@link CustomerProcessorImpl} with the range queries of {@link CustomerRepository}. Both go
+ * through Spring Data repositories, as in the application.
+ *
+ * 100,000 customers are seeded with last names built from four random syllables, about ten customers per last
+ * name, over the {@code lastName} index created by {@link EmbeddedGeode} as by the gfsh scripts. A one-letter prefix matches about a fifth of the
+ * customers, a three-letter prefix about a hundredth. The embedded member returns the results without serializing
+ * them, so the time a client and the network spend on every match of the {@code LIKE} query is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerSearchBenchmark {
+
+    private static final int CUSTOMERS = 100_000;
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final String[] SYLLABLES = {"Ma", "Da", "Jo", "Sm", "Wi", "Br", "Ta", "Mi", "Ro", "Ha"};
+
+    @Param({"1", "3"})
+    public int prefixLength;
+
+    private EmbeddedGeode geode;
+
+    private CustomerProcessorImpl customerProcessor;
+
+    private LikeRepository likeRepository;
+
+    private String prefix;
+
+    private String eleventhPageCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        geode = EmbeddedGeode.start();
+        Region<String, Customer> customers = geode.region("customer");
+        var random = ThreadLocalRandom.current();
+        Map<String, Customer> batch = new HashMap<>();
+
+        for (int c = 0; c < CUSTOMERS; c++) {
+            var customer = new Customer();
+            customer.setId(UUID.randomUUID().toString());
+            customer.setFirstName("Bench");
+            customer.setLastName(lastName(random));
+            batch.put(customer.getId(), customer);
+
+            if (batch.size() == 1_000) {
+                customers.putAll(batch);
+                batch.clear();
+            }
+        }
+
+        customers.putAll(batch);
+
+        var factory = new GemfireRepositoryFactory(List.of(customers), new GemfireMappingContext());
+        customerProcessor = new CustomerProcessorImpl(factory.getRepository(CustomerRepository.class),
+                new CustomerSearchProperties());
+        likeRepository = factory.getRepository(LikeRepository.class);
+        prefix = "Mada".substring(0, prefixLength);
+
+        for (int p = 0; p < 10; p++) {
+            eleventhPageCursor = customerProcessor.findCustomers(prefix, PAGE_SIZE, eleventhPageCursor).getNextCursor();
+        }
+    }
+
+    private static String lastName(ThreadLocalRandom random) {
+        var lastName = new StringBuilder(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+
+        for (int s = 1; s < 4; s++) {
+            lastName.append(SYLLABLES[random.nextInt(SYLLABLES.length)].toLowerCase());
+        }
+
+        return lastName.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        geode.stop();
+    }
+
+    @Benchmark
+    public List<Customer> likeSortedByLastName() {
+        return likeRepository.findByLastNameLikeOrderByLastName(prefix + "%");
+    }
+
+    @Benchmark
+    public CustomerPage rangeFirstPage() {
+        return customerProcessor.findCustomers(prefix, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public CustomerPage rangeEleventhPage() {
+        return customerProcessor.findCustomers(prefix, PAGE_SIZE, eleventhPageCursor);
+    }
+
+    /**
+     * The customer search {@code GET /customer} ran before it was paged.
+     */
+    public interface LikeRepository extends Repository<Customer, String> {
+
+        List<Customer> findByLastNameLikeOrderByLastName(String lastName);
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.tndavidson.geodespringbootpoc.benchmark;
+
+import com.github.tndavidson.geodespringbootpoc.function.DepositHistoryPageServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.function.DepositHistoryServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPageRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DepositHistoryServerSideFunction} and the first page of
+ * {@link DepositHistoryPageServerSideFunction} for a customer with a growing number of accounts.
+ *
+ * Other customers' accounts and transactions are seeded alongside, so both functions select the customer's data
+ * through the indexes rather than reading whole regions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DepositHistoryBenchmark {
+
+    private static final int TRANSACTIONS_PER_ACCOUNT = 100;
+
+    private static final int OTHER_CUSTOMERS = 50;
+
+    @Param({"1", "10", "100"})
+    public int accounts;
+
+    private EmbeddedGeode geode;
+
+    private Customer customer;
+
+    private DepositHistoryPageRequest pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        geode = EmbeddedGeode.start();
+
+        for (int c = 0; c < OTHER_CUSTOMERS; c++) {
+            geode.seedCustomer(4, TRANSACTIONS_PER_ACCOUNT);
+        }
+
+        customer = geode.seedCustomer(accounts, TRANSACTIONS_PER_ACCOUNT);
+
+        pageRequest = new DepositHistoryPageRequest();
+        pageRequest.setCustomerId(customer.getId());
+        pageRequest.setPageSize(50);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        geode.stop();
+    }
+
+    @Benchmark
+    public Object depositHistory() {
+        return geode.execute(DepositHistoryServerSideFunction.ID, customer);
+    }
+
+    @Benchmark
+    public DepositHistoryPage depositHistoryFirstPage() {
+        return geode.execute(DepositHistoryPageServerSideFunction.ID, pageRequest);
+    }
+}
@@ -0,0 +1,248 @@
+package com.github.tndavidson.geodespringbootpoc.benchmark;
+
+import com.github.tndavidson.geodespringbootpoc.function.AccountBalanceServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.function.DepositHistoryPageServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.function.DepositHistoryServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.execute.FunctionService;
+import org.apache.geode.pdx.PdxSerializer;
+import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An embedded, single-member Geode server for benchmarks, configured like the servers in {@code scripts/gfsh}:
+ * REPLICATE customer, account and transaction regions with the same indexes, PDX auto-serialization of the model
+ * classes, and the server-side functions from the models jar registered.
+ *
+ * Functions are executed on the embedded member itself, so benchmarks measure the function and query work
+ * without network round trips.
+ */
+public final class EmbeddedGeode {
+
+    static final String MODEL_PACKAGE_PATTERN = "com\\.github\\.tndavidson\\.geodespringbootpoc\\.model\\..*";
+
+    private final Cache cache;
+
+    private EmbeddedGeode(Cache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Starts the embedded member with PDX auto-serialization and creates the regions, indexes and functions.
+     */
+    public static EmbeddedGeode start() throws Exception {
+        return start(new ReflectionBasedAutoSerializer(MODEL_PACKAGE_PATTERN));
+    }
+
+    /**
+     * Starts the embedded member with the given PDX serializer and creates the regions, indexes and functions.
+     */
+    public static EmbeddedGeode start(PdxSerializer pdxSerializer) throws Exception {
+        return start(pdxSerializer, null);
+    }
+
+    /**
+     * Starts the embedded member like the servers in {@code scripts/gfsh/start-cluster-off-heap.gfsh}: with PDX
+     * auto-serialization and read-serialized enabled, the given amount of off-heap memory (for example
+     * {@code "512m"}), and the account and transaction regions stored off-heap.
+     */
+    public static EmbeddedGeode startOffHeap(String offHeapMemorySize) throws Exception {
+        return start(new ReflectionBasedAutoSerializer(MODEL_PACKAGE_PATTERN), offHeapMemorySize);
+    }
+
+    /**
+     * Starts the embedded member like the servers in {@code scripts/gfsh/start-cluster-persistent.gfsh}: with PDX
+     * auto-serialization, the PDX type registry persisted, and the customer, account and transaction regions
+     * persisted with asynchronous disk writes, recovering any data already in the directory. With
+     * {@code diskStorePerRegion}, each region has its own disk store in its own subdirectory, and the disk stores
+     * are recovered in parallel; otherwise the regions share one disk store.
+     */
+    public static EmbeddedGeode startPersistent(File directory, boolean diskStorePerRegion) throws Exception {
+        var cache = new CacheFactory()
+                .set("mcast-port", "0")
+                .set("locators", "")
+                .set("log-level", "warn")
+                .setPdxSerializer(new ReflectionBasedAutoSerializer(MODEL_PACKAGE_PATTERN))
+                .setPdxPersistent(true)
+                .setPdxDiskStore("pdxStore")
+                .create();
+        diskStore(cache, directory, "pdxStore");
+
+        for (String name : List.of("customer", "account", "transaction")) {
+            var diskStoreName = diskStorePerRegion ? name + "Store" : "regionStore";
+
+            if (cache.findDiskStore(diskStoreName) == null) {
+                diskStore(cache, directory, diskStoreName);
+            }
+
+            cache.createRegionFactory(RegionShortcut.REPLICATE_PERSISTENT)
+                    .setDiskStoreName(diskStoreName)
+                    .setDiskSynchronous(false)
+                    .create(name);
+        }
+
+        return createIndexesAndFunctions(cache);
+    }
+
+    private static EmbeddedGeode start(PdxSerializer pdxSerializer, String offHeapMemorySize) throws Exception {
+        var offHeap = offHeapMemorySize != null;
+        var cacheFactory = new CacheFactory()
+                .set("mcast-port", "0")
+                .set("locators", "")
+                .set("log-level", "warn")
+                .setPdxSerializer(pdxSerializer)
+                .setPdxReadSerialized(offHeap);
+
+        if (offHeap) {
+            cacheFactory.set("off-heap-memory-size", offHeapMemorySize);
+        }
+
+        var cache = cacheFactory.create();
+
+        for (String name : List.of("customer", "account", "transaction")) {
+            cache.createRegionFactory(RegionShortcut.REPLICATE)
+                    .setOffHeap(offHeap && !name.equals("customer"))
+                    .create(name);
+        }
+
+        return createIndexesAndFunctions(cache);
+    }
+
+    private static EmbeddedGeode createIndexesAndFunctions(Cache cache) throws Exception {
+        var queryService = cache.getQueryService();
+        queryService.createIndex("customerLastNameIdx", "lastName", "/customer");
+        queryService.createIndex("accountCustomerIdIdx", "customerId", "/account");
+        queryService.createIndex("transactionAccountIdIdx", "accountId", "/transaction");
+
+        FunctionService.registerFunction(new AccountBalanceServerSideFunction());
+        FunctionService.registerFunction(new DepositHistoryServerSideFunction());
+        FunctionService.registerFunction(new DepositHistoryPageServerSideFunction());
+
+        return new EmbeddedGeode(cache);
+    }
+
+    /**
+     * Creates a disk store in its own subdirectory of the directory, with the options of the disk stores in
+     * {@code scripts/gfsh/start-cluster-persistent.gfsh}.
+     */
+    private static void diskStore(Cache cache, File directory, String name) {
+        var diskDirectory = new File(directory, name);
+        diskDirectory.mkdirs();
+
+        cache.createDiskStoreFactory()
+                .setDiskDirs(new File[] {diskDirectory})
+                .setAutoCompact(true)
+                .setCompactionThreshold(50)
+                .setAllowForceCompaction(true)
+                .setMaxOplogSize(512)
+                .setQueueSize(50_000)
+                .setTimeInterval(1_000)
+                .setWriteBufferSize(4 * 1024 * 1024)
+                .create(name);
+    }
+
+    public void stop() {
+        cache.close();
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public <K, V> Region<K, V> region(String name) {
+        return cache.getRegion(name);
+    }
+
+    /**
+     * Executes a function on the embedded member and returns its first result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String functionId, Object arguments) {
+        var results = (List<T>) FunctionService.onMember(cache.getDistributedSystem().getDistributedMember())
+                .setArguments(arguments)
+                .execute(functionId)
+                .getResult();
+
+        return results.get(0);
+    }
+
+    /**
+     * Seeds a customer with the given number of accounts, each with the given number of cleared transactions,
+     * a third of them deposits.
+     *
+     * @return the seeded customer
+     */
+    public Customer seedCustomer(int accounts, int transactionsPerAccount) {
+        Region<String, Customer> customers = region("customer");
+        Region<String, Account> accountRegion = region("account");
+        Region<String, Transaction> transactions = region("transaction");
+        var random = ThreadLocalRandom.current();
+
+        var customer = new Customer();
+        customer.setId(UUID.randomUUID().toString());
+        customer.setFirstName("Bench");
+        customer.setLastName("Mark");
+        customers.put(customer.getId(), customer);
+
+        for (int a = 0; a < accounts; a++) {
+            var account = new Account();
+            account.setAccountId(UUID.randomUUID().toString());
+            account.setCustomerId(customer.getId());
+            account.setBalance(BigDecimal.ZERO);
+            accountRegion.put(account.getAccountId(), account);
+
+            Map<String, Transaction> batch = new HashMap<>();
+
+            for (int t = 0; t < transactionsPerAccount; t++) {
+                var transaction = transaction(account.getAccountId(), random.nextInt(3) == 0);
+                batch.put(transaction.getTransactionId(), transaction);
+
+                if (batch.size() == 1_000) {
+                    transactions.putAll(batch);
+                    batch.clear();
+                }
+            }
+
+            transactions.putAll(batch);
+        }
+
+        return customer;
+    }
+
+    static Account account(String customerId) {
+        var account = new Account();
+        account.setAccountId(UUID.randomUUID().toString());
+        account.setCustomerId(customerId);
+        account.setBalance(new BigDecimal("1234.56"));
+        account.setBalanceCalculatedDate(Instant.now());
+        return account;
+    }
+
+    static Transaction transaction(String accountId, boolean deposit) {
+        var random = ThreadLocalRandom.current();
+        var amount = BigDecimal.valueOf(random.nextLong(1, 100_000), 2);
+
+        var transaction = new Transaction();
+        transaction.setTransactionId(UUID.randomUUID().toString());
+        transaction.setAccountId(accountId);
+        transaction.setTimestamp(Instant.now().minusSeconds(random.nextLong(90 * 24 * 3600)));
+        transaction.setDescription(deposit ? "Deposit" : "Card purchase");
+        transaction.setAmount(deposit ? amount : amount.negate());
+        transaction.setCleared(true);
+        return transaction;
+    }
+}
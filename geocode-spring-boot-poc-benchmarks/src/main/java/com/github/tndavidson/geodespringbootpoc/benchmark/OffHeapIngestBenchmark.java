@@ -0,0 +1,151 @@
+package com.github.tndavidson.geodespringbootpoc.benchmark;
+
+import com.github.tndavidson.geodespringbootpoc.function.DepositHistoryPageServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPageRequest;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.apache.geode.Statistics;
+import org.apache.geode.cache.Region;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures sustained ingest into the transaction region stored on the heap and off-heap, and the latency of the
+ * deposit-history page function while the ingest runs:
+ * - {@code heap}: the default server configuration, with the regions on the heap and PDX read-serialized disabled.
+ * - {@code off-heap}: the configuration of {@code scripts/gfsh/start-cluster-off-heap.gfsh}, with the account and
+ *   transaction regions off-heap and PDX read-serialized enabled, so the function ranks {@code PdxInstance}s.
+ *
+ * The region is seeded with {@code transactions} transactions spread over 1,000 customers with two accounts each.
+ * Three threads then keep overwriting these transactions with new ones, so the region stays at the same size, while
+ * a fourth thread reads the first deposit-history page of a random customer. Sample time mode reports the p99 and
+ * other percentiles of both operations. Puts on the embedded member keep the deserialized transaction in a heap
+ * region, as a server's region does once queries have deserialized its entries.
+ *
+ * After each iteration, the heap used after a full GC and the off-heap memory used are printed, so the heap
+ * occupancy of the two configurations can be compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class OffHeapIngestBenchmark {
+
+    private static final int CUSTOMERS = 1_000;
+
+    private static final int ACCOUNTS_PER_CUSTOMER = 2;
+
+    @Param({"heap", "off-heap"})
+    public String storage;
+
+    @Param({"200000"})
+    public int transactions;
+
+    private EmbeddedGeode geode;
+
+    private Region<String, Transaction> transactionRegion;
+
+    private String[] customerIds;
+
+    private String[] transactionIds;
+
+    private String[] transactionAccountIds;
+
+    private final AtomicLong next = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        geode = storage.equals("off-heap") ? EmbeddedGeode.startOffHeap("512m") : EmbeddedGeode.start();
+        transactionRegion = geode.region("transaction");
+
+        Region<String, Customer> customers = geode.region("customer");
+        Region<String, Account> accounts = geode.region("account");
+        customerIds = new String[CUSTOMERS];
+        var accountIds = new String[CUSTOMERS * ACCOUNTS_PER_CUSTOMER];
+
+        for (int c = 0; c < CUSTOMERS; c++) {
+            var customer = new Customer();
+            customer.setId(UUID.randomUUID().toString());
+            customers.put(customer.getId(), customer);
+            customerIds[c] = customer.getId();
+
+            for (int a = 0; a < ACCOUNTS_PER_CUSTOMER; a++) {
+                var account = EmbeddedGeode.account(customer.getId());
+                accounts.put(account.getAccountId(), account);
+                accountIds[c * ACCOUNTS_PER_CUSTOMER + a] = account.getAccountId();
+            }
+        }
+
+        transactionIds = new String[transactions];
+        transactionAccountIds = new String[transactions];
+        Map<String, Transaction> batch = new HashMap<>();
+
+        for (int t = 0; t < transactions; t++) {
+            transactionAccountIds[t] = accountIds[t % accountIds.length];
+            var transaction = transaction(t);
+            transactionIds[t] = transaction.getTransactionId();
+            batch.put(transaction.getTransactionId(), transaction);
+
+            if (batch.size() == 1_000) {
+                transactionRegion.putAll(batch);
+                batch.clear();
+            }
+        }
+
+        transactionRegion.putAll(batch);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printOccupancy() {
+        System.gc();
+        var heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        var statistics = geode.getCache().getDistributedSystem();
+        var offHeapType = statistics.findType("OffHeapMemoryStats");
+        var offHeapStatistics = offHeapType == null ? new Statistics[0] : statistics.findStatisticsByType(offHeapType);
+        var offHeapUsed = offHeapStatistics.length == 0 ? 0 : offHeapStatistics[0].get("usedMemory").longValue();
+
+        System.out.printf("%n%s: %d transactions, heap used after GC %d MB, off-heap used %d MB%n", storage,
+                transactionRegion.size(), heapUsed >> 20, offHeapUsed >> 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        geode.stop();
+    }
+
+    @Benchmark
+    @Group("ingest")
+    @GroupThreads(3)
+    public void put() {
+        var index = (int) (next.getAndIncrement() % transactions);
+        var transaction = transaction(index);
+        transaction.setTransactionId(transactionIds[index]);
+        transactionRegion.put(transaction.getTransactionId(), transaction);
+    }
+
+    @Benchmark
+    @Group("ingest")
+    @GroupThreads(1)
+    public DepositHistoryPage depositHistoryPage() {
+        var request = new DepositHistoryPageRequest();
+        request.setCustomerId(customerIds[ThreadLocalRandom.current().nextInt(CUSTOMERS)]);
+        request.setPageSize(20);
+
+        return geode.execute(DepositHistoryPageServerSideFunction.ID, request);
+    }
+
+    private Transaction transaction(int index) {
+        return EmbeddedGeode.transaction(transactionAccountIds[index], index % 3 == 0);
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.tndavidson.geodespringbootpoc.benchmark;
+
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.apache.geode.cache.Region;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long a server takes to recover persisted regions on startup, from the start of the cache to the
+ * customer, account and transaction regions and their indexes being ready, with the disk stores of
+ * {@code scripts/gfsh/start-cluster-persistent.gfsh}:
+ * - {@code diskStores}: {@code shared}, with the three regions in one disk store, or {@code per-region}, with each
+ *   region in its own disk store and directory, so the disk stores are recovered in parallel.
+ * - {@code recovery}: {@code keys}, recovering only the keys and reading the values from disk when they are first
+ *   used ({@code gemfire.disk.recoverValues=false}), or {@code values}, recovering the values as well before the
+ *   regions are created ({@code gemfire.disk.recoverValuesSync=true}).
+ *
+ * The disk stores are seeded once per trial with {@code transactions} transactions, spread over one account per
+ * 100 transactions and one customer per two accounts, and every iteration then starts a new member from them.
+ * Recovery reads the disk store files from the page cache after the first iteration, so the results leave out the
+ * time to read them from a cold disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class PersistentRecoveryBenchmark {
+
+    private static final int TRANSACTIONS_PER_ACCOUNT = 100;
+
+    @Param({"shared", "per-region"})
+    public String diskStores;
+
+    @Param({"keys", "values"})
+    public String recovery;
+
+    @Param({"1000000"})
+    public int transactions;
+
+    private Path directory;
+
+    private EmbeddedGeode geode;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        directory = Files.createTempDirectory("persistent-recovery");
+        geode = start();
+
+        Region<String, Customer> customers = geode.region("customer");
+        Region<String, Account> accounts = geode.region("account");
+        Region<String, Transaction> transactionRegion = geode.region("transaction");
+        Map<String, Transaction> batch = new HashMap<>();
+        String accountId = null;
+
+        for (int t = 0; t < transactions; t++) {
+            if (t % TRANSACTIONS_PER_ACCOUNT == 0) {
+                var account = t % (2 * TRANSACTIONS_PER_ACCOUNT) == 0 ? newCustomerAccount(customers, accounts)
+                        : EmbeddedGeode.account(accounts.get(accountId).getCustomerId());
+                accounts.put(account.getAccountId(), account);
+                accountId = account.getAccountId();
+            }
+
+            var transaction = EmbeddedGeode.transaction(accountId, t % 3 == 0);
+            batch.put(transaction.getTransactionId(), transaction);
+
+            if (batch.size() == 1_000) {
+                transactionRegion.putAll(batch);
+                batch.clear();
+            }
+        }
+
+        transactionRegion.putAll(batch);
+        geode.stop();
+        geode = null;
+    }
+
+    @Setup(Level.Iteration)
+    public void configureRecovery() {
+        var values = recovery.equals("values");
+        System.setProperty("gemfire.disk.recoverValues", Boolean.toString(values));
+        System.setProperty("gemfire.disk.recoverValuesSync", Boolean.toString(values));
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() {
+        System.out.printf("%n%s disk stores, %s recovered: %d transactions%n", diskStores, recovery,
+                geode.region("transaction").size());
+        geode.stop();
+        geode = null;
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public EmbeddedGeode recover() throws Exception {
+        geode = start();
+        return geode;
+    }
+
+    private EmbeddedGeode start() throws Exception {
+        return EmbeddedGeode.startPersistent(directory.toFile(), diskStores.equals("per-region"));
+    }
+
+    private static Account newCustomerAccount(Region<String, Customer> customers, Region<String, Account> accounts) {
+        var customer = new Customer();
+        customer.setId(UUID.randomUUID().toString());
+        customers.put(customer.getId(), customer);
+        return EmbeddedGeode.account(customer.getId());
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.tndavidson.geodespringbootpoc.benchmark;
+
+import com.github.tndavidson.geodespringbootpoc.function.AccountBalanceServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.function.DepositHistoryServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.partition.CustomerRoutingPartitionResolver;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.client.ClientCache;
+import org.apache.geode.cache.client.ClientCacheFactory;
+import org.apache.geode.cache.client.ClientRegionShortcut;
+import org.apache.geode.cache.execute.Execution;
+import org.apache.geode.cache.execute.FunctionService;
+import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Compares the deposit-history and balance function paths between the default and the colocated region layouts
+ * on a running multi-member cluster (see {@code scripts/gfsh}).
+ *
+ * Each path is executed repeatedly for randomly chosen customers or accounts and reports throughput, p50/p99
+ * latency, and the number of members that returned results. On the default layout, functions run on one
+ * server and their queries fan out to every member hosting the regions. On the colocated layout, the routed
+ * paths execute on the single member that owns the customer's bucket and query only local data.
+ *
+ * Run with: {@code ./gradlew :geocode-spring-boot-poc-benchmarks:regionLayoutBenchmark -Dbenchmark.layout=colocated}
+ *
+ * System properties:
+ * - {@code benchmark.locator}: locator host and port, default {@code localhost[10334]}
+ * - {@code benchmark.layout}: {@code replicate} or {@code colocated}, matching the gfsh script used to create the regions
+ * - {@code benchmark.customers}, {@code benchmark.accountsPerCustomer}, {@code benchmark.transactionsPerAccount}: seeded data
+ * - {@code benchmark.iterations}: measured executions per path, after the same number of warm-up executions
+ */
+public class RegionLayoutBenchmark {
+
+    private static final String MODEL_PACKAGE_PATTERN = "com\\.github\\.tndavidson\\.geodespringbootpoc\\.model\\..*";
+
+    public static void main(String[] args) {
+        var locator = System.getProperty("benchmark.locator", "localhost[10334]");
+        var colocated = "colocated".equalsIgnoreCase(System.getProperty("benchmark.layout", "replicate"));
+        var customerCount = Integer.getInteger("benchmark.customers", 1_000);
+        var accountsPerCustomer = Integer.getInteger("benchmark.accountsPerCustomer", 4);
+        var transactionsPerAccount = Integer.getInteger("benchmark.transactionsPerAccount", 50);
+        var iterations = Integer.getInteger("benchmark.iterations", 2_000);
+
+        var host = locator.substring(0, locator.indexOf('['));
+        var port = Integer.parseInt(locator.substring(locator.indexOf('[') + 1, locator.indexOf(']')));
+
+        ClientCache cache = new ClientCacheFactory()
+                .addPoolLocator(host, port)
+                .setPoolPRSingleHopEnabled(true)
+                .setPdxSerializer(new ReflectionBasedAutoSerializer(MODEL_PACKAGE_PATTERN))
+                .create();
+
+        try {
+            Region<String, Customer> customers = proxy(cache, "customer");
+            Region<String, Account> accounts = proxy(cache, "account");
+            Region<String, Transaction> transactions = proxy(cache, "transaction");
+
+            System.out.printf("Seeding %d customers x %d accounts x %d transactions (%s layout)%n",
+                    customerCount, accountsPerCustomer, transactionsPerAccount, colocated ? "colocated" : "replicate");
+
+            var seeded = seed(customers, accounts, transactions, colocated, customerCount, accountsPerCustomer,
+                    transactionsPerAccount);
+
+            var results = new ArrayList<Result>();
+
+            results.add(measure("deposit-history on-server", iterations, seeded.customers(), customer ->
+                    FunctionService.onServer(cache.getDefaultPool()).setArguments(customer)));
+            results.add(measure("balance on-server", iterations, seeded.accountIds(), accountId ->
+                    FunctionService.onServer(cache.getDefaultPool()).setArguments(accountId)));
+
+            if (colocated) {
+                results.add(measure("deposit-history on-region", iterations, seeded.customers(), customer ->
+                        FunctionService.onRegion(customers).withFilter(Set.of(customer.getId())).setArguments(customer)));
+                results.add(measure("balance on-region", iterations, seeded.accountIds(), accountId ->
+                        FunctionService.onRegion(accounts).withFilter(Set.of(accountId)).setArguments(accountId)));
+            }
+
+            System.out.printf("%n%-28s %12s %10s %10s %8s%n", "path", "ops/s", "p50 ms", "p99 ms", "members");
+            results.forEach(result -> System.out.printf("%-28s %12.1f %10.3f %10.3f %8d%n",
+                    result.path(), result.opsPerSecond(), result.p50Millis(), result.p99Millis(), result.members()));
+        } finally {
+            cache.close();
+        }
+    }
+
+    private static <K, V> Region<K, V> proxy(ClientCache cache, String name) {
+        return cache.<K, V>createClientRegionFactory(ClientRegionShortcut.PROXY).create(name);
+    }
+
+    private static Seeded seed(Region<String, Customer> customers, Region<String, Account> accounts,
+                               Region<String, Transaction> transactions, boolean colocated, int customerCount,
+                               int accountsPerCustomer, int transactionsPerAccount) {
+        var seededCustomers = new ArrayList<Customer>(customerCount);
+        var seededAccountIds = new ArrayList<String>(customerCount * accountsPerCustomer);
+        var random = ThreadLocalRandom.current();
+
+        for (int c = 0; c < customerCount; c++) {
+            var customer = new Customer();
+            customer.setId(UUID.randomUUID().toString());
+            customer.setFirstName("First" + c);
+            customer.setLastName("Last" + c);
+            customers.put(customer.getId(), customer);
+            seededCustomers.add(customer);
+
+            Map<String, Account> accountBatch = new HashMap<>();
+            Map<String, Transaction> transactionBatch = new HashMap<>();
+
+            for (int a = 0; a < accountsPerCustomer; a++) {
+                var account = new Account();
+                account.setAccountId(key(colocated, customer.getId()));
+                account.setCustomerId(customer.getId());
+                account.setBalance(BigDecimal.ZERO);
+                accountBatch.put(account.getAccountId(), account);
+                seededAccountIds.add(account.getAccountId());
+
+                for (int t = 0; t < transactionsPerAccount; t++) {
+                    var transaction = new Transaction();
+                    transaction.setTransactionId(key(colocated, customer.getId()));
+                    transaction.setAccountId(account.getAccountId());
+                    transaction.setTimestamp(Instant.now());
+                    transaction.setDescription("benchmark");
+                    transaction.setAmount(BigDecimal.valueOf(random.nextLong(-50_000, 100_000), 2));
+                    transaction.setCleared(true);
+                    transactionBatch.put(transaction.getTransactionId(), transaction);
+                }
+            }
+
+            accounts.putAll(accountBatch);
+            transactions.putAll(transactionBatch);
+        }
+
+        return new Seeded(seededCustomers, seededAccountIds);
+    }
+
+    private static String key(boolean colocated, String customerId) {
+        var id = UUID.randomUUID().toString();
+        return colocated ? CustomerRoutingPartitionResolver.routingKey(customerId, id) : id;
+    }
+
+    private static <T> Result measure(String path, int iterations, List<T> targets,
+            Function<T, Execution<Object, Object, Object>> execution) {
+        var functionId = path.startsWith("balance") ? AccountBalanceServerSideFunction.ID : DepositHistoryServerSideFunction.ID;
+        var random = ThreadLocalRandom.current();
+
+        for (int i = 0; i < iterations; i++) {
+            execution.apply(targets.get(random.nextInt(targets.size()))).execute(functionId).getResult();
+        }
+
+        var latencies = new long[iterations];
+        var members = 0;
+        var start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            var begin = System.nanoTime();
+            var result = (List<?>) execution.apply(targets.get(random.nextInt(targets.size()))).execute(functionId).getResult();
+            latencies[i] = System.nanoTime() - begin;
+            members = Math.max(members, result.size());
+        }
+
+        var elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+
+        return new Result(path, iterations / (elapsed / 1e9), latencies[iterations / 2] / 1e6,
+                latencies[(int) (iterations * 0.99)] / 1e6, members);
+    }
+
+    private record Seeded(List<Customer> customers, List<String> accountIds) {
+    }
+
+    private record Result(String path, double opsPerSecond, double p50Millis, double p99Millis, int members) {
+    }
+}
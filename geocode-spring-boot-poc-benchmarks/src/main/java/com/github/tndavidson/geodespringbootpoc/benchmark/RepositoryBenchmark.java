@@ -0,0 +1,116 @@
+package com.github.tndavidson.geodespringbootpoc.benchmark;
+
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.repository.AccountRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.TransactionRepository;
+import org.apache.geode.cache.Region;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.gemfire.mapping.GemfireMappingContext;
+import org.springframework.data.gemfire.repository.support.GemfireRepositoryFactory;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the application's Spring Data repositories against the embedded member:
+ * {@code findById} and {@code save} of accounts and transactions, and the {@code findUnclearedByAccountId}
+ * query used when recalculating a balance.
+ *
+ * The repositories are created with {@link GemfireRepositoryFactory}, as Spring Data does for the application,
+ * but over the embedded member's regions. Saves overwrite existing entries with updated copies, as the application
+ * does, so the region size stays constant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+
+    private static final int TRANSACTIONS_PER_ACCOUNT = 10;
+
+    private EmbeddedGeode geode;
+
+    private AccountRepository accountRepository;
+
+    private TransactionRepository transactionRepository;
+
+    private List<Account> accounts;
+
+    private List<Transaction> transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        geode = EmbeddedGeode.start();
+        geode.seedCustomer(ACCOUNTS, TRANSACTIONS_PER_ACCOUNT);
+
+        var factory = new GemfireRepositoryFactory(List.of(geode.region("customer"), geode.region("account"),
+                geode.region("transaction")), new GemfireMappingContext());
+        accountRepository = factory.getRepository(AccountRepository.class);
+        transactionRepository = factory.getRepository(TransactionRepository.class);
+
+        Region<String, Account> accountRegion = geode.region("account");
+        Region<String, Transaction> transactionRegion = geode.region("transaction");
+        accounts = List.copyOf(accountRegion.values());
+        transactions = List.copyOf(transactionRegion.values());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        geode.stop();
+    }
+
+    @Benchmark
+    public Optional<Account> findAccountById() {
+        return accountRepository.findById(randomAccount().getAccountId());
+    }
+
+    @Benchmark
+    public Account saveAccount() {
+        var existing = randomAccount();
+        var account = new Account();
+        account.setAccountId(existing.getAccountId());
+        account.setCustomerId(existing.getCustomerId());
+        account.setBalance(BigDecimal.valueOf(ThreadLocalRandom.current().nextLong(1_000_000), 2));
+        account.setBalanceCalculatedDate(existing.getBalanceCalculatedDate());
+        return accountRepository.save(account);
+    }
+
+    @Benchmark
+    public Optional<Transaction> findTransactionById() {
+        return transactionRepository.findById(randomTransaction().getTransactionId());
+    }
+
+    @Benchmark
+    public Transaction saveTransaction() {
+        var existing = randomTransaction();
+        var transaction = new Transaction();
+        transaction.setTransactionId(existing.getTransactionId());
+        transaction.setAccountId(existing.getAccountId());
+        transaction.setTimestamp(existing.getTimestamp());
+        transaction.setDescription(existing.getDescription());
+        transaction.setAmount(existing.getAmount());
+        transaction.setCleared(existing.isCleared());
+        return transactionRepository.save(transaction);
+    }
+
+    @Benchmark
+    public List<Transaction> findUnclearedByAccountId() {
+        return transactionRepository.findUnclearedByAccountId(randomAccount().getAccountId());
+    }
+
+    private Account randomAccount() {
+        return accounts.get(ThreadLocalRandom.current().nextInt(accounts.size()));
+    }
+
+    private Transaction randomTransaction() {
+        return transactions.get(ThreadLocalRandom.current().nextInt(transactions.size()));
+    }
+}
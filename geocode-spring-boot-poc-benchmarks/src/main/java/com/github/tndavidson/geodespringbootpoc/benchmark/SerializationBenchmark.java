@@ -0,0 +1,117 @@
+package com.github.tndavidson.geodespringbootpoc.benchmark;
+
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.serialization.ModelPdxSerializer;
+import org.apache.geode.DataSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the serializers available for the model classes, by the time taken to serialize and deserialize an
+ * {@link Account} and a {@link Transaction}:
+ * - {@code pdx-reflection}: PDX through the {@code ReflectionBasedAutoSerializer} the application and servers use
+ *   by default.
+ * - {@code pdx-codec}: PDX through the explicit codecs of {@link ModelPdxSerializer}, used when
+ *   {@code geode-poc.serialization.mode} is {@code codec}.
+ * - {@code java}: standard Java serialization, which Geode falls back to for {@code Serializable} classes when no
+ *   PDX serializer is configured.
+ *
+ * The serialized size of each object for each serializer is printed when the benchmark starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"pdx-reflection", "pdx-codec", "java"})
+    public String serializer;
+
+    private EmbeddedGeode geode;
+
+    private Account account;
+
+    private Transaction transaction;
+
+    private byte[] serializedAccount;
+
+    private byte[] serializedTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        geode = serializer.equals("pdx-codec") ? EmbeddedGeode.start(new ModelPdxSerializer()) : EmbeddedGeode.start();
+
+        account = EmbeddedGeode.account(UUID.randomUUID().toString());
+        transaction = EmbeddedGeode.transaction(account.getAccountId(), true);
+        serializedAccount = serialize(account);
+        serializedTransaction = serialize(transaction);
+
+        System.out.printf("%n%s serialized sizes: Account %d bytes, Transaction %d bytes%n",
+                serializer, serializedAccount.length, serializedTransaction.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        geode.stop();
+    }
+
+    @Benchmark
+    public byte[] serializeAccount() throws IOException {
+        return serialize(account);
+    }
+
+    @Benchmark
+    public Object deserializeAccount() throws Exception {
+        return deserialize(serializedAccount);
+    }
+
+    @Benchmark
+    public byte[] serializeTransaction() throws IOException {
+        return serialize(transaction);
+    }
+
+    @Benchmark
+    public Object deserializeTransaction() throws Exception {
+        return deserialize(serializedTransaction);
+    }
+
+    private byte[] serialize(Object object) throws IOException {
+        var bytes = new ByteArrayOutputStream(256);
+
+        if (serializer.equals("java")) {
+            try (var out = new ObjectOutputStream(bytes)) {
+                out.writeObject(object);
+            }
+        } else {
+            try (var out = new DataOutputStream(bytes)) {
+                DataSerializer.writeObject(object, out);
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private Object deserialize(byte[] serialized) throws Exception {
+        if (serializer.equals("java")) {
+            try (var in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+                return in.readObject();
+            }
+        }
+
+        try (var in = new DataInputStream(new ByteArrayInputStream(serialized))) {
+            return DataSerializer.readObject(in);
+        }
+    }
+}
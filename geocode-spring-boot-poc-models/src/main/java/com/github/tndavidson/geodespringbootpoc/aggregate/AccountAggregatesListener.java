@@ -0,0 +1,400 @@
+package com.github.tndavidson.geodespringbootpoc.aggregate;
+
+import com.github.tndavidson.geodespringbootpoc.model.AccountAggregates;
+import com.github.tndavidson.geodespringbootpoc.serialization.TransactionFields;
+import org.apache.geode.StatisticDescriptor;
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsFactory;
+import org.apache.geode.StatisticsType;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Declarable;
+import org.apache.geode.cache.EntryEvent;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.partition.PartitionRegionHelper;
+import org.apache.geode.cache.util.CacheListenerAdapter;
+import org.apache.geode.pdx.PdxInstance;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The AccountAggregatesListener is a server-side {@code CacheListener} on the transaction region that keeps the
+ * {@link AccountAggregates} of each account in the "accountAggregates" region up to date as transactions are
+ * created, updated and destroyed, so an account's totals can be read with a single get instead of a query over its
+ * transactions.
+ *
+ * The listener performs the following tasks:
+ * 1. Computes, while the event is delivered, the change the event makes to the aggregates of the accounts of the
+ *    old and new transaction: the old transaction is removed and the new one added.
+ * 2. Applies each change on a background thread, by reading the account's aggregates and writing their sum with
+ *    the change with {@code putIfAbsent} or {@code replace}, retrying when another member changed them in between,
+ *    after a short randomized backoff that grows with each attempt, up to {@value #MAX_ATTEMPTS} attempts.
+ *    At most {@value #QUEUE_CAPACITY} changes wait for the background thread; when that many are waiting, the
+ *    thread delivering the event applies its changes itself, which slows the writes of transactions down instead of
+ *    letting the backlog grow.
+ *
+ * Key Details:
+ * - Each event is applied by one member only: the primary of the entry on a PARTITION region, and the member the
+ *   operation originated on otherwise.
+ * - Updates that change neither the account, the amount nor the timestamp, such as clearing a transaction, do not
+ *   write the aggregates.
+ * - An update delivered without its old value, which regions that do not keep old values, such as off-heap
+ *   regions, can deliver, cannot be turned into a change: the account the transaction was counted in and the
+ *   amount it was counted with are unknown. It is counted as an {@code updatesWithoutOldValue}, logged, and the
+ *   aggregates must be rebuilt with the {@link AccountAggregatesRebuildFunction}.
+ * - Changes are sums, and the earliest and latest activity, so they can be applied in any order.
+ * - Local operations and expiration do not change the aggregates, so they keep counting transactions that were
+ *   evicted or expired.
+ * - Transactions are read with {@link TransactionFields}, so on servers with PDX {@code read-serialized} enabled
+ *   they are not deserialized.
+ * - The "accountAggregates" region should be a PARTITION region, where {@code replace} is atomic across members.
+ *   With the colocated region layout it is colocated with the customer region, so the aggregates are written on
+ *   the member that holds the transaction.
+ *
+ * Statistics:
+ * Changes are recorded as member statistics of the type {@value #STATISTICS_TYPE_NAME}, which appear in the member's
+ * statistics archive:
+ * - {@code changesApplied}: changes written to the aggregates.
+ * - {@code updateConflicts}: writes retried because the aggregates changed since they were read.
+ * - {@code updateFailures}: changes given up on, after an error or {@value #MAX_ATTEMPTS} conflicting attempts, or
+ *   still waiting or delivered when the listener was closed.
+ * - {@code updatesWithoutOldValue}: updates not aggregated because they were delivered without their old value.
+ * - {@code changeBacklog}: changes waiting for the background thread.
+ *
+ * This listener is attached to the transaction region with the {@code --cache-listener} option of the gfsh
+ * {@code create region} command, as the {@code scripts/gfsh/create-regions-*.gfsh} scripts do.
+ *
+ * Thread-Safety:
+ * - Events may be delivered concurrently. Changes are applied on a single thread per member, or on the thread
+ *   delivering the event when the backlog is full, and changes applied concurrently, on one member or several, are
+ *   reconciled by the conditional writes.
+ *
+ * Error Handling:
+ * - A change that cannot be applied is logged to the cache's log, counted as an {@code updateFailures}, and lost;
+ *   the aggregates of the account then no longer match its transactions until they are rebuilt with the
+ *   {@link AccountAggregatesRebuildFunction}.
+ * - When the listener is closed, the waiting changes are applied for up to {@value #CLOSE_TIMEOUT_SECONDS}
+ *   seconds; the changes still waiting after that, and the changes of events delivered after it was closed, are
+ *   counted as {@code updateFailures} and logged.
+ */
+public class AccountAggregatesListener extends CacheListenerAdapter<Object, Object> implements Declarable {
+
+    public static final String REGION_NAME = "accountAggregates";
+
+    public static final String STATISTICS_TYPE_NAME = "AccountAggregatesStats";
+
+    static final int MAX_ATTEMPTS = 100;
+
+    static final int QUEUE_CAPACITY = 10_000;
+
+    static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final ExecutorService executor;
+
+    private final AtomicLong updatesWithoutOldValue = new AtomicLong();
+
+    private volatile AggregatesStatistics statistics;
+
+    public AccountAggregatesListener() {
+        this(new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    var thread = new Thread(runnable, "AccountAggregates");
+                    thread.setDaemon(true);
+                    return thread;
+                }, AccountAggregatesListener::runOnCaller));
+    }
+
+    AccountAggregatesListener(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void afterCreate(EntryEvent<Object, Object> event) {
+        onEvent(event, null, event.getNewValue());
+    }
+
+    @Override
+    public void afterUpdate(EntryEvent<Object, Object> event) {
+        if (event.getOldValue() == null) {
+            var cache = CacheFactory.getAnyInstance();
+
+            if (isApplied(cache, event)) {
+                statistics(cache).incUpdatesWithoutOldValue();
+                var message = "Not aggregating update of transaction " + event.getKey() + " without its old value;"
+                        + " rebuild the account aggregates with " + AccountAggregatesRebuildFunction.ID;
+
+                // every update of an off-heap region may come without it, so only the first is a warning
+                if (updatesWithoutOldValue.incrementAndGet() == 1) {
+                    cache.getLogger().warning(message);
+                } else {
+                    cache.getLogger().fine(message);
+                }
+            }
+            return;
+        }
+
+        onEvent(event, event.getOldValue(), event.getNewValue());
+    }
+
+    @Override
+    public void afterDestroy(EntryEvent<Object, Object> event) {
+        onEvent(event, event.getOldValue(), null);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+
+        List<Runnable> waiting = List.of();
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                waiting = executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            waiting = executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        var current = statistics;
+
+        if (!waiting.isEmpty() && current != null) {
+            current.incFailures(waiting.size());
+            current.incBacklog(-waiting.size());
+            current.cache().getLogger().error(waiting.size() + " changes to the account aggregates were not applied"
+                    + " before the listener was closed; rebuild them with " + AccountAggregatesRebuildFunction.ID);
+        }
+    }
+
+    private void onEvent(EntryEvent<Object, Object> event, Object oldTransaction, Object newTransaction) {
+        var cache = CacheFactory.getAnyInstance();
+
+        if (!isApplied(cache, event)) {
+            return;
+        }
+
+        var changes = changes(oldTransaction, newTransaction);
+
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        Region<String, Object> aggregatesRegion = cache.getRegion(REGION_NAME);
+        var logger = cache.getLogger();
+        var transactionId = event.getKey();
+        var statistics = statistics(cache);
+
+        if (aggregatesRegion == null) {
+            logger.warning("Region " + REGION_NAME + " does not exist, transaction " + transactionId + " is not aggregated");
+            return;
+        }
+
+        changes.forEach((accountId, change) -> {
+            statistics.incBacklog(1);
+            try {
+                executor.execute(() -> {
+                    statistics.incBacklog(-1);
+                    try {
+                        apply(aggregatesRegion, accountId, change, statistics);
+                    } catch (RuntimeException e) {
+                        statistics.incFailures(1);
+                        logger.error("Could not aggregate transaction " + transactionId + " of account " + accountId,
+                                e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                statistics.incBacklog(-1);
+                statistics.incFailures(1);
+                logger.error("Could not aggregate transaction " + transactionId + " of account " + accountId
+                        + " after the listener was closed; rebuild the account aggregates with "
+                        + AccountAggregatesRebuildFunction.ID);
+            }
+        });
+    }
+
+    /**
+     * Applies a change on the thread delivering the event when the backlog is full, and rejects it once the listener
+     * is closed, where {@code CallerRunsPolicy} would discard it without counting it.
+     */
+    private static void runOnCaller(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("The account aggregates listener is closed");
+        }
+
+        task.run();
+    }
+
+    private static boolean isApplied(Cache cache, EntryEvent<Object, Object> event) {
+        var operation = event.getOperation();
+
+        if (operation.isLocal() || operation.isExpiration()) {
+            return false;
+        }
+
+        var region = event.getRegion();
+
+        if (PartitionRegionHelper.isPartitionedRegion(region)) {
+            var primary = PartitionRegionHelper.getPrimaryMemberForKey(region, event.getKey());
+            return cache.getDistributedSystem().getDistributedMember().equals(primary);
+        }
+
+        return !event.isOriginRemote();
+    }
+
+    /**
+     * Returns the changes, by account ID, made to the aggregates by replacing the old transaction with the new one.
+     * Either transaction may be null.
+     */
+    static Map<String, AccountAggregates> changes(Object oldTransaction, Object newTransaction) {
+        Map<String, AccountAggregates> changes = new HashMap<>(2);
+
+        if (oldTransaction != null && newTransaction != null && isSameActivity(oldTransaction, newTransaction)) {
+            return changes;
+        }
+
+        if (oldTransaction != null) {
+            add(changes, oldTransaction, -1);
+        }
+
+        if (newTransaction != null) {
+            add(changes, newTransaction, 1);
+        }
+
+        return changes;
+    }
+
+    private static boolean isSameActivity(Object transaction, Object other) {
+        var amount = TransactionFields.amount(transaction);
+        var otherAmount = TransactionFields.amount(other);
+
+        return Objects.equals(TransactionFields.accountId(transaction), TransactionFields.accountId(other))
+                && (amount == null ? otherAmount == null : otherAmount != null && amount.compareTo(otherAmount) == 0)
+                && Objects.equals(TransactionFields.timestamp(transaction), TransactionFields.timestamp(other));
+    }
+
+    private static void add(Map<String, AccountAggregates> changes, Object transaction, int sign) {
+        var accountId = TransactionFields.accountId(transaction);
+
+        if (accountId == null) {
+            return;
+        }
+
+        var change = AccountAggregation.change(TransactionFields.amount(transaction),
+                TransactionFields.timestamp(transaction), sign);
+        changes.merge(accountId, change, AccountAggregation::plus);
+    }
+
+    /**
+     * Adds the change to the account's aggregates in the region, creating them if the account has none.
+     *
+     * @throws IllegalStateException if the aggregates changed between the read and the write of every attempt
+     */
+    static void apply(Region<String, Object> region, String accountId, AccountAggregates change,
+                      AggregatesStatistics statistics) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            var current = region.get(accountId);
+
+            if (current == null) {
+                if (region.putIfAbsent(accountId, AccountAggregation.plus(AccountAggregation.empty(accountId), change)) == null) {
+                    statistics.incApplied();
+                    return;
+                }
+            } else {
+                var aggregates = (AccountAggregates) (current instanceof PdxInstance pdx ? pdx.getObject() : current);
+
+                if (region.replace(accountId, current, AccountAggregation.plus(aggregates, change))) {
+                    statistics.incApplied();
+                    return;
+                }
+            }
+
+            statistics.incConflicts();
+            backoff(attempt);
+        }
+
+        throw new IllegalStateException("The aggregates of account " + accountId + " kept changing, gave up after "
+                + MAX_ATTEMPTS + " attempts");
+    }
+
+    private static void backoff(int attempt) {
+        var bound = Math.min(MAX_BACKOFF_NANOS, TimeUnit.MICROSECONDS.toNanos(50) << Math.min(attempt, 16));
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(bound));
+    }
+
+    private AggregatesStatistics statistics(Cache cache) {
+        var current = statistics;
+
+        if (current != null && current.cache() == cache) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (statistics == null || statistics.cache() != cache) {
+                statistics = AggregatesStatistics.create(cache);
+            }
+
+            return statistics;
+        }
+    }
+
+    record AggregatesStatistics(Cache cache, Statistics statistics, int appliedId, int conflictsId, int failuresId,
+                                int withoutOldValueId, int backlogId) {
+
+        static AggregatesStatistics create(Cache cache) {
+            StatisticsFactory factory = cache.getDistributedSystem();
+            StatisticsType type;
+
+            // findType and createType are not atomic, and every transaction region of the member has a listener
+            synchronized (AggregatesStatistics.class) {
+                type = factory.findType(STATISTICS_TYPE_NAME);
+
+                if (type == null) {
+                    type = factory.createType(STATISTICS_TYPE_NAME, "Changes to the account aggregates made by transaction events",
+                            new StatisticDescriptor[]{
+                                    factory.createLongCounter("changesApplied", "Changes written to the account aggregates", "operations"),
+                                    factory.createLongCounter("updateConflicts", "Aggregate writes retried because the aggregates changed since they were read", "operations"),
+                                    factory.createLongCounter("updateFailures", "Changes not applied, after an error or too many conflicting attempts, or when the listener was closed", "operations"),
+                                    factory.createLongCounter("updatesWithoutOldValue", "Updates not aggregated because they were delivered without their old value", "operations"),
+                                    factory.createLongGauge("changeBacklog", "Changes waiting to be applied by the background thread", "operations")
+                            });
+                }
+            }
+
+            return new AggregatesStatistics(cache, factory.createAtomicStatistics(type, REGION_NAME),
+                    type.nameToId("changesApplied"), type.nameToId("updateConflicts"), type.nameToId("updateFailures"),
+                    type.nameToId("updatesWithoutOldValue"), type.nameToId("changeBacklog"));
+        }
+
+        void incApplied() {
+            statistics.incLong(appliedId, 1);
+        }
+
+        void incConflicts() {
+            statistics.incLong(conflictsId, 1);
+        }
+
+        void incFailures(int changes) {
+            statistics.incLong(failuresId, changes);
+        }
+
+        void incUpdatesWithoutOldValue() {
+            statistics.incLong(withoutOldValueId, 1);
+        }
+
+        void incBacklog(int changes) {
+            statistics.incLong(backlogId, changes);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.github.tndavidson.geodespringbootpoc.aggregate;
+
+import com.github.tndavidson.geodespringbootpoc.model.AccountAggregates;
+import com.github.tndavidson.geodespringbootpoc.serialization.TransactionFields;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Declarable;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.execute.Function;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.FunctionService;
+import org.apache.geode.cache.execute.RegionFunctionContext;
+import org.apache.geode.cache.execute.ResultSender;
+import org.apache.geode.cache.partition.PartitionRegionHelper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The AccountAggregatesRebuildFunction is a server-side implementation of the Function interface that recomputes
+ * the {@link AccountAggregates} of every account from the transaction region and writes them to the
+ * "accountAggregates" region, replacing the totals that the {@link AccountAggregatesListener} maintains.
+ *
+ * The function runs in two roles:
+ * 1. Executed on a member, it executes itself on the transaction region, merges the partial aggregates returned by
+ *    the members, writes them to the aggregates region with {@code putAll} in batches of the requested size,
+ *    destroys the aggregates of accounts that no longer have transactions, and returns the number of accounts
+ *    written.
+ * 2. Executed on the transaction region, it sums the transactions held by the member, on a PARTITION region only
+ *    those of the buckets the execution assigned to it, and returns the aggregates of each of their accounts in
+ *    chunks of the requested size.
+ *
+ * Key Details:
+ * - Run it when the listener is attached to a transaction region that already holds transactions, after the
+ *   transactions are recovered from disk or loaded without the listener, or whenever the aggregates are suspected
+ *   to be wrong.
+ * - The aggregates are computed from a scan of the transactions, without the listener's conditional writes, so a
+ *   transaction written while the function runs may be counted twice or not at all. Run it while no transactions
+ *   are written, or run it again afterwards.
+ * - Transactions are read with {@link TransactionFields}, so on servers with PDX {@code read-serialized} enabled
+ *   they are not deserialized.
+ *
+ * This function is registered with an ID defined by the constant {@code ID}. It accepts the batch size as an
+ * optional {@code Integer} argument.
+ *
+ * Error Handling:
+ * - Exceptions while reading the transactions or writing the aggregates are sent through the ResultSender. The
+ *   aggregates written before the failure are kept, so the function should be run again.
+ */
+public class AccountAggregatesRebuildFunction implements Function<Object>, Declarable {
+
+    public static final String ID = "ACCOUNT_AGGREGATES_REBUILD_FUNCTION";
+
+    static final String TRANSACTION_REGION_NAME = "transaction";
+
+    static final int DEFAULT_BATCH_SIZE = 1_000;
+
+    @Override
+    public void execute(FunctionContext<Object> context) {
+        try {
+            var batchSize = context.getArguments() instanceof Integer size && size > 0 ? size : DEFAULT_BATCH_SIZE;
+
+            if (context instanceof RegionFunctionContext regionFunctionContext) {
+                sumLocalTransactions(regionFunctionContext, batchSize);
+            } else {
+                rebuild(context, batchSize);
+            }
+        } catch (Exception e) {
+            context.getResultSender().sendException(e);
+        }
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public boolean isHA() {
+        return false;
+    }
+
+    private void rebuild(FunctionContext<Object> context, int batchSize) {
+        final ResultSender<Integer> resultSender = context.getResultSender();
+        var cache = CacheFactory.getAnyInstance();
+        Region<Object, Object> transactionRegion = cache.getRegion(TRANSACTION_REGION_NAME);
+        Region<String, Object> aggregatesRegion = cache.getRegion(AccountAggregatesListener.REGION_NAME);
+
+        if (transactionRegion == null || aggregatesRegion == null) {
+            throw new IllegalStateException("Regions " + TRANSACTION_REGION_NAME + " and "
+                    + AccountAggregatesListener.REGION_NAME + " must exist to rebuild the account aggregates");
+        }
+
+        @SuppressWarnings("unchecked")
+        var partials = (List<Map<String, AccountAggregates>>) FunctionService.onRegion(transactionRegion)
+                .setArguments(batchSize)
+                .execute(this)
+                .getResult();
+
+        Map<String, AccountAggregates> aggregates = new HashMap<>();
+        partials.forEach(partial -> partial.forEach((accountId, sum) -> aggregates.merge(accountId, sum, AccountAggregation::plus)));
+
+        write(aggregatesRegion, aggregates, batchSize);
+
+        for (var accountId : List.copyOf(aggregatesRegion.keySet())) {
+            if (!aggregates.containsKey(accountId)) {
+                aggregatesRegion.remove(accountId);
+            }
+        }
+
+        cache.getLogger().info("Rebuilt the aggregates of " + aggregates.size() + " accounts");
+        resultSender.lastResult(aggregates.size());
+    }
+
+    private static void sumLocalTransactions(RegionFunctionContext context, int batchSize) {
+        final ResultSender<Map<String, AccountAggregates>> resultSender = context.getResultSender();
+        Region<Object, Object> region = context.<Object, Object>getDataSet();
+        Map<Object, Object> transactions = PartitionRegionHelper.isPartitionedRegion(region)
+                ? PartitionRegionHelper.getLocalDataForContext(context)
+                : region;
+
+        var sums = sum(transactions.values());
+        Map<String, AccountAggregates> chunk = new HashMap<>();
+
+        for (var entry : sums.entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+
+            if (chunk.size() == batchSize) {
+                resultSender.sendResult(chunk);
+                chunk = new HashMap<>();
+            }
+        }
+
+        resultSender.lastResult(chunk);
+    }
+
+    /**
+     * Returns the aggregates, by account ID, of the transactions. Transactions without an account are ignored.
+     */
+    static Map<String, AccountAggregates> sum(Iterable<?> transactions) {
+        Map<String, AccountAggregates> sums = new HashMap<>();
+
+        for (var transaction : transactions) {
+            var accountId = TransactionFields.accountId(transaction);
+
+            if (accountId == null) {
+                continue;
+            }
+
+            var change = AccountAggregation.change(TransactionFields.amount(transaction),
+                    TransactionFields.timestamp(transaction), 1);
+            sums.merge(accountId, change, AccountAggregation::plus);
+        }
+
+        sums.replaceAll((accountId, sum) -> AccountAggregation.plus(AccountAggregation.empty(accountId), sum));
+        return sums;
+    }
+
+    private static void write(Region<String, Object> region, Map<String, AccountAggregates> aggregates, int batchSize) {
+        Map<String, Object> batch = new HashMap<>();
+
+        for (var entry : aggregates.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+
+            if (batch.size() == batchSize) {
+                region.putAll(batch);
+                batch = new HashMap<>();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            region.putAll(batch);
+        }
+    }
+}
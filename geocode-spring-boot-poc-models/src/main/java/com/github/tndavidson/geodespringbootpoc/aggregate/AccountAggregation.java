@@ -0,0 +1,98 @@
+package com.github.tndavidson.geodespringbootpoc.aggregate;
+
+import com.github.tndavidson.geodespringbootpoc.model.AccountAggregates;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Arithmetic on {@link AccountAggregates}. A change to an account's aggregates is itself represented as an
+ * {@link AccountAggregates}, whose counts and totals may be negative, so changes can be combined with each other
+ * and added to the stored aggregates with {@link #plus(AccountAggregates, AccountAggregates)}.
+ *
+ * Thread-Safety:
+ * - This class is stateless and thread-safe. The aggregates passed to it are not modified.
+ */
+public final class AccountAggregation {
+
+    private AccountAggregation() {
+    }
+
+    /**
+     * Returns the aggregates of an account without transactions.
+     */
+    public static AccountAggregates empty(String accountId) {
+        var aggregates = new AccountAggregates();
+        aggregates.setAccountId(accountId);
+        return aggregates;
+    }
+
+    /**
+     * Returns the change made to an account's aggregates by adding ({@code sign} 1) or removing ({@code sign} -1)
+     * a transaction. A removed transaction does not change the first and last activity.
+     */
+    public static AccountAggregates change(BigDecimal amount, Instant timestamp, int sign) {
+        var change = new AccountAggregates();
+        change.setTransactionCount(sign);
+
+        if (amount != null) {
+            var signed = sign < 0 ? amount.negate() : amount;
+            change.setNetTotal(signed);
+
+            if (amount.signum() > 0) {
+                change.setDepositCount(sign);
+                change.setDepositTotal(signed);
+            } else if (amount.signum() < 0) {
+                change.setWithdrawalTotal(signed.negate());
+            }
+        }
+
+        if (sign > 0) {
+            change.setFirstActivity(timestamp);
+            change.setLastActivity(timestamp);
+        }
+
+        return change;
+    }
+
+    /**
+     * Returns the sum of two aggregates, with the account ID of the first. The first activity is the earlier of
+     * the two and the last activity the later.
+     */
+    public static AccountAggregates plus(AccountAggregates aggregates, AccountAggregates other) {
+        var sum = new AccountAggregates();
+        sum.setAccountId(aggregates.getAccountId());
+        sum.setTransactionCount(aggregates.getTransactionCount() + other.getTransactionCount());
+        sum.setDepositCount(aggregates.getDepositCount() + other.getDepositCount());
+        sum.setNetTotal(add(aggregates.getNetTotal(), other.getNetTotal()));
+        sum.setDepositTotal(add(aggregates.getDepositTotal(), other.getDepositTotal()));
+        sum.setWithdrawalTotal(add(aggregates.getWithdrawalTotal(), other.getWithdrawalTotal()));
+        sum.setFirstActivity(earliest(aggregates.getFirstActivity(), other.getFirstActivity()));
+        sum.setLastActivity(latest(aggregates.getLastActivity(), other.getLastActivity()));
+        return sum;
+    }
+
+    private static BigDecimal add(BigDecimal amount, BigDecimal other) {
+        if (amount == null) {
+            return other;
+        }
+
+        return other == null ? amount : amount.add(other);
+    }
+
+    private static Instant earliest(Instant instant, Instant other) {
+        if (instant == null) {
+            return other;
+        }
+
+        return other == null || instant.isBefore(other) ? instant : other;
+    }
+
+    private static Instant latest(Instant instant, Instant other) {
+        if (instant == null) {
+            return other;
+        }
+
+        return other == null || instant.isAfter(other) ? instant : other;
+    }
+}
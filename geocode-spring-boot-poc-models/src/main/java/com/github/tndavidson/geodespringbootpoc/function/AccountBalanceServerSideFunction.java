@@ -0,0 +1,110 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import com.github.tndavidson.geodespringbootpoc.model.MinorUnits;
+import com.github.tndavidson.geodespringbootpoc.serialization.TransactionPredicates;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Declarable;
+import org.apache.geode.cache.execute.Function;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.RegionFunctionContext;
+import org.apache.geode.cache.execute.ResultSender;
+import org.apache.geode.cache.query.SelectResults;
+
+import java.math.BigDecimal;
+
+/**
+ * The AccountBalanceServerSideFunction is a server-side implementation of the Function interface
+ * that calculates the balance of a single account by summing the amounts of all of its cleared transactions
+ * on the member where the data lives. Only the resulting total is sent back to the client, rather
+ * than every transaction for the account.
+ *
+ * The function performs the following tasks:
+ * 1. Resolves the account ID from the function arguments.
+ * 2. Queries the transaction region for the amounts of the cleared transactions belonging to the account.
+ * 3. Sums the amounts and returns the total, scaled to two decimal places.
+ *
+ * Key Details:
+ * - When executed on a region with the account ID as the filter (a {@link RegionFunctionContext}),
+ *   the query is limited to the local buckets for that routing key, so on a PARTITION region the
+ *   sum runs entirely on the single member that owns the account's data.
+ * - When executed on a server without a region context, the query is executed against the whole
+ *   transaction region from that server.
+ * - Only the {@code amount} field is projected, so full Transaction objects are never materialized
+ *   in the result set.
+ * - Uncleared transactions have not been applied yet, so they are left out of the sum; the caller claims them
+ *   first, and applies the ones written afterwards as their events arrive.
+ * - When the servers store amounts as minor units ({@code ModelPdxSerializer} with the {@code MINOR_UNITS}
+ *   amount encoding) and have PDX {@code read-serialized} enabled, both the {@code cleared} condition and the
+ *   projection read PDX fields, so no transaction is deserialized: the projected amounts are {@code long}s and are
+ *   summed without {@link BigDecimal} arithmetic; see {@link MinorUnits#sum(Iterable)}. On other servers the
+ *   amounts are {@link BigDecimal}s.
+ * - The {@code cleared} condition is built by {@link TransactionPredicates}: on servers with PDX
+ *   {@code read-serialized} enabled it tests the {@code cleared} PDX field, so transactions are not deserialized to
+ *   filter them; elsewhere it calls {@code isCleared()}, as {@code TransactionRepository} does, because OQL does not
+ *   resolve {@code t.cleared} on transactions the member holds deserialized.
+ * - The query takes the account ID as a bind parameter, so it is compiled once per member and then reused from a
+ *   {@link CompiledQueryCache}.
+ * - Each execution is timed on the server and recorded by {@link ServerFunctionStatistics}.
+ *
+ * This function is registered with an ID defined by the constant {@code ID}. It implements {@link Declarable} so
+ * that servers can also register it in cache.xml, as {@code scripts/gfsh/pdx-codec.xml} does.
+ *
+ * Thread-Safety:
+ * - This class is thread-safe and designed to be used in concurrent execution contexts.
+ *
+ * Error Handling:
+ * - Exceptions during OQL execution or other runtime issues are captured and sent as part
+ *   of the ResultSender to ensure proper client-side error handling.
+ */
+public class AccountBalanceServerSideFunction implements Function<Object>, Declarable {
+
+    public static final String ID = "ACCOUNT_BALANCE_SERVER_SIDE_FUNCTION";
+
+    private static final String BALANCE_QUERY_OQL_PREFIX = "select t.amount from /transaction t where t.accountId = $1 and ";
+
+    private final CompiledQueryCache queries = new CompiledQueryCache(ID);
+
+    @Override
+    public void execute(FunctionContext<Object> context) {
+        final ResultSender<BigDecimal> resultSender = context.getResultSender();
+        final long start = System.nanoTime();
+
+        try {
+            Object args = context.getArguments();
+            String accountId;
+
+            if (args instanceof String) {
+                accountId = (String) args;
+            } else if (args instanceof Object[] && ((Object[]) args).length > 0 && ((Object[]) args)[0] instanceof String) {
+                accountId = (String) ((Object[]) args)[0];
+            } else {
+                throw new IllegalArgumentException("Expected accountId String as argument, but received: "
+                        + (args == null ? "null" : args.getClass().getName()));
+            }
+
+            var cache = CacheFactory.getAnyInstance();
+            var amounts = (SelectResults<?>) queries.execute(cache, context, balanceQueryOql(cache), accountId);
+
+            resultSender.lastResult(MinorUnits.sum(amounts));
+
+        } catch (Exception e) {
+            resultSender.sendException(e);
+        } finally {
+            ServerFunctionStatistics.endExecution(ID, start);
+        }
+    }
+
+    /**
+     * Returns the OQL selecting the amounts of the cleared transactions of an account, with the conditions for this
+     * member. The bind parameter is the account ID.
+     */
+    static String balanceQueryOql(Cache cache) {
+        return BALANCE_QUERY_OQL_PREFIX + TransactionPredicates.isCleared(cache, "t");
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+}
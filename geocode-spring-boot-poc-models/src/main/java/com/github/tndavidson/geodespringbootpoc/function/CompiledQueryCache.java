@@ -0,0 +1,150 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import org.apache.geode.StatisticDescriptor;
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsFactory;
+import org.apache.geode.StatisticsType;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.RegionFunctionContext;
+import org.apache.geode.cache.query.Query;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A per-member cache of compiled OQL {@link Query} objects, keyed by their OQL text.
+ *
+ * {@code QueryService.newQuery} parses and compiles the OQL on every call. Server-side functions that always use
+ * the same OQL with bind parameters can instead compile each query once per member and reuse it for every
+ * execution, since a compiled query holds no per-execution state.
+ *
+ * The time spent compiling and executing queries is recorded as member statistics of the type
+ * {@value #STATISTICS_TYPE_NAME}, which appear in the member's statistics archive:
+ * - {@code queryCompilations} and {@code queryCompileTime}: queries compiled, and the nanoseconds spent compiling them.
+ * - {@code queryCacheHits}: query lookups answered from the cache.
+ * - {@code queryExecutions} and {@code queryExecutionTime}: queries executed, and the nanoseconds spent executing them.
+ *
+ * A function instance is registered once per member, so each function holds its own instance of this class.
+ * If the cache is closed and recreated, for example after a reconnect, the compiled queries are discarded.
+ *
+ * Thread-Safety:
+ * - This class is thread-safe.
+ */
+public class CompiledQueryCache {
+
+    public static final String STATISTICS_TYPE_NAME = "FunctionQueryStats";
+
+    private final String textId;
+
+    private final Map<String, Query> queries = new ConcurrentHashMap<>();
+
+    private volatile MemberStatistics memberStatistics;
+
+    /**
+     * @param textId identifies the statistics instance, typically the ID of the owning function
+     */
+    public CompiledQueryCache(String textId) {
+        this.textId = textId;
+    }
+
+    /**
+     * Returns the compiled query for the OQL, compiling and caching it on first use.
+     */
+    public Query getQuery(Cache cache, String oql) {
+        var statistics = statistics(cache);
+        var query = queries.get(oql);
+
+        if (query != null) {
+            statistics.incCacheHits();
+            return query;
+        }
+
+        return queries.computeIfAbsent(oql, key -> {
+            var start = System.nanoTime();
+            var compiled = cache.getQueryService().newQuery(key);
+            statistics.endCompilation(start);
+            return compiled;
+        });
+    }
+
+    /**
+     * Executes the cached query for the OQL with the given bind parameters. When the context is a
+     * {@link RegionFunctionContext}, the query is limited to the data local to the executing member.
+     */
+    public Object execute(Cache cache, FunctionContext<?> context, String oql, Object... params) throws Exception {
+        var query = getQuery(cache, oql);
+        var statistics = statistics(cache);
+        var start = System.nanoTime();
+
+        try {
+            if (context instanceof RegionFunctionContext regionFunctionContext) {
+                return params.length == 0 ? query.execute(regionFunctionContext) : query.execute(regionFunctionContext, params);
+            }
+
+            return params.length == 0 ? query.execute() : query.execute(params);
+        } finally {
+            statistics.endExecution(start);
+        }
+    }
+
+    private MemberStatistics statistics(Cache cache) {
+        var current = memberStatistics;
+
+        if (current != null && current.cache() == cache) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (memberStatistics == null || memberStatistics.cache() != cache) {
+                queries.clear();
+                memberStatistics = createStatistics(cache);
+            }
+
+            return memberStatistics;
+        }
+    }
+
+    private MemberStatistics createStatistics(Cache cache) {
+        StatisticsFactory factory = cache.getDistributedSystem();
+        StatisticsType type;
+
+        // each function has its own cache, and the first two to run may both find no type; only one can create it
+        synchronized (CompiledQueryCache.class) {
+            type = factory.findType(STATISTICS_TYPE_NAME);
+
+            if (type == null) {
+                type = factory.createType(STATISTICS_TYPE_NAME, "Compilation and execution of OQL queries run by functions",
+                        new StatisticDescriptor[]{
+                                factory.createLongCounter("queryCompilations", "Queries compiled", "operations"),
+                                factory.createLongCounter("queryCompileTime", "Time spent compiling queries", "nanoseconds"),
+                                factory.createLongCounter("queryCacheHits", "Query lookups answered from the compiled query cache", "operations"),
+                                factory.createLongCounter("queryExecutions", "Queries executed", "operations"),
+                                factory.createLongCounter("queryExecutionTime", "Time spent executing queries", "nanoseconds")
+                        });
+            }
+        }
+
+        return new MemberStatistics(cache, factory.createAtomicStatistics(type, textId),
+                type.nameToId("queryCompilations"), type.nameToId("queryCompileTime"), type.nameToId("queryCacheHits"),
+                type.nameToId("queryExecutions"), type.nameToId("queryExecutionTime"));
+    }
+
+    private record MemberStatistics(Cache cache, Statistics statistics, int compilationsId, int compileTimeId,
+                                    int cacheHitsId, int executionsId, int executionTimeId) {
+
+        void incCacheHits() {
+            statistics.incLong(cacheHitsId, 1);
+        }
+
+        void endCompilation(long start) {
+            statistics.incLong(compileTimeId, System.nanoTime() - start);
+            statistics.incLong(compilationsId, 1);
+        }
+
+        void endExecution(long start) {
+            statistics.incLong(executionTimeId, System.nanoTime() - start);
+            statistics.incLong(executionsId, 1);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.AccountPortfolio;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPortfolio;
+import com.github.tndavidson.geodespringbootpoc.serialization.TransactionFields;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Declarable;
+import org.apache.geode.cache.execute.Function;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.RegionFunctionContext;
+import org.apache.geode.cache.execute.ResultSender;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.pdx.PdxInstance;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * The CustomerPortfolioServerSideFunction is a server-side implementation of the Function interface
+ * that gathers a customer, all of their accounts with their balances, and the most recent transactions of each
+ * account into a single {@link CustomerPortfolio}.
+ *
+ * The function performs the following tasks:
+ * 1. Reads the customer from the "customer" region. If it does not exist, an empty portfolio is returned.
+ * 2. Runs an OQL query for the customer's accounts, through the {@code customerId} index.
+ * 3. Runs an OQL query for the transactions of those accounts, through the {@code accountId} index.
+ * 4. Keeps the newest {@code transactionsPerAccount} transactions of each account, ordered by {@code timestamp}
+ *    and then {@code transactionId}, descending.
+ *
+ * Key Details:
+ * - The arguments are the customer ID and the number of transactions per account, as an {@code Object[]}.
+ * - One execution replaces a customer read, one account read per account and a transaction query per account,
+ *   and only the portfolio is sent to the client.
+ * - The newest transactions are picked with a bounded heap per account, {@link Newest}, fed while the query result
+ *   is iterated. The query result holds every transaction of the customer's accounts; the heaps add at most
+ *   {@code transactionsPerAccount} per account.
+ *   Transactions without a timestamp are not returned.
+ * - All values are bind parameters and the compiled queries are reused from a {@link CompiledQueryCache}.
+ * - When executed on the customer region with the customer ID as the filter (a {@link RegionFunctionContext}),
+ *   the queries are limited to the local, colocated data for that customer, and the customer read is local to the
+ *   member that owns it, so the whole function runs on that member.
+ * - On servers with PDX {@code read-serialized} enabled, the customer, accounts and transactions are read as
+ *   {@link PdxInstance}s. Transactions are ranked by their fields, and only the returned ones are deserialized.
+ * - Each execution is timed on the server and recorded by {@link ServerFunctionStatistics}.
+ *
+ * This function is registered with an ID defined by the constant {@code ID}. It implements {@link Declarable} so
+ * that servers can also register it in cache.xml, as {@code scripts/gfsh/pdx-codec.xml} does.
+ *
+ * Thread-Safety:
+ * - This class is thread-safe and designed to be used in concurrent execution contexts.
+ *
+ * Error Handling:
+ * - Invalid arguments, exceptions during OQL execution or other runtime issues are captured and sent as part
+ *   of the ResultSender to ensure proper client-side error handling.
+ */
+public class CustomerPortfolioServerSideFunction implements Function<Object>, Declarable {
+
+    public static final String ID = "CUSTOMER_PORTFOLIO_SERVER_SIDE_FUNCTION";
+
+    static final String CUSTOMER_REGION = "customer";
+
+    static final String ACCOUNT_QUERY_OQL = "select * from /account a where a.customerId = $1";
+
+    static final String TRANSACTION_QUERY_OQL = "select * from /transaction t where t.accountId in $1";
+
+    static final Comparator<Ranked> NEWEST_FIRST = Comparator.comparing(Ranked::timestamp)
+            .thenComparing(Ranked::transactionId)
+            .reversed();
+
+    private final CompiledQueryCache queries = new CompiledQueryCache(ID);
+
+    @Override
+    public void execute(FunctionContext<Object> context) {
+        final ResultSender<CustomerPortfolio> resultSender = context.getResultSender();
+        final long start = System.nanoTime();
+
+        try {
+            Object args = FunctionArguments.deserialize(context.getArguments());
+
+            if (!(args instanceof Object[] array) || array.length < 2 || !(array[0] instanceof String customerId)
+                    || !(array[1] instanceof Integer transactionsPerAccount)) {
+                throw new IllegalArgumentException("Expected customer ID and transactions per account as arguments, but received: "
+                        + (args == null ? "null" : args.getClass().getName()));
+            }
+
+            if (transactionsPerAccount < 0) {
+                throw new IllegalArgumentException("Transactions per account must not be negative, but was: "
+                        + transactionsPerAccount);
+            }
+
+            var cache = CacheFactory.getAnyInstance();
+            var portfolio = new CustomerPortfolio();
+
+            var customer = cache.<String, Object>getRegion(CUSTOMER_REGION).get(customerId);
+
+            if (customer == null) {
+                resultSender.lastResult(portfolio);
+                return;
+            }
+
+            portfolio.setCustomer((Customer) deserialize(customer));
+
+            var accounts = ((SelectResults<?>) queries.execute(cache, context, ACCOUNT_QUERY_OQL, customerId)).stream()
+                    .map(account -> (Account) deserialize(account))
+                    .sorted(Comparator.comparing(Account::getAccountId))
+                    .toList();
+
+            var recent = recentTransactions(cache, context, accounts, transactionsPerAccount);
+
+            for (var account : accounts) {
+                var accountPortfolio = new AccountPortfolio();
+                accountPortfolio.setAccountId(account.getAccountId());
+                accountPortfolio.setBalance(account.getBalance());
+                accountPortfolio.setBalanceCalculatedDate(account.getBalanceCalculatedDate());
+                accountPortfolio.setRecentTransactions(recent.getOrDefault(account.getAccountId(), List.of()).stream()
+                        .map(ranked -> TransactionFields.toTransaction(ranked.transaction()))
+                        .collect(Collectors.toCollection(ArrayList::new)));
+                portfolio.getAccounts().add(accountPortfolio);
+            }
+
+            resultSender.lastResult(portfolio);
+
+        } catch (Exception e) {
+            resultSender.sendException(e);
+        } finally {
+            ServerFunctionStatistics.endExecution(ID, start);
+        }
+    }
+
+    /**
+     * Returns the newest {@code limit} transactions of each account, newest first, keyed by account ID.
+     */
+    private Map<String, List<Ranked>> recentTransactions(
+            Cache cache, FunctionContext<Object> context, List<Account> accounts, int limit) throws Exception {
+
+        if (accounts.isEmpty() || limit == 0) {
+            return Map.of();
+        }
+
+        var accountIds = accounts.stream().map(Account::getAccountId).collect(Collectors.toSet());
+        var transactions = (SelectResults<?>) queries.execute(cache, context, TRANSACTION_QUERY_OQL, accountIds);
+
+        Map<String, Newest> byAccount = new HashMap<>();
+        for (Object transaction : transactions) {
+            byAccount.computeIfAbsent(TransactionFields.accountId(transaction), key -> new Newest(limit)).offer(transaction);
+        }
+
+        Map<String, List<Ranked>> recent = new HashMap<>();
+        byAccount.forEach((accountId, newest) -> recent.put(accountId, newest.toList()));
+        return recent;
+    }
+
+    /**
+     * A bounded heap that keeps the newest {@code limit} of the transactions offered to it, so transactions can be
+     * ranked while a query result is iterated. Transactions without a timestamp are not kept.
+     */
+    static final class Newest {
+
+        private final int limit;
+
+        private final PriorityQueue<Ranked> oldestFirst;
+
+        Newest(int limit) {
+            this.limit = limit;
+            this.oldestFirst = new PriorityQueue<>(limit + 1, NEWEST_FIRST.reversed());
+        }
+
+        void offer(Object transaction) {
+            var timestamp = TransactionFields.timestamp(transaction);
+
+            if (timestamp == null) {
+                return;
+            }
+
+            oldestFirst.offer(new Ranked(timestamp, TransactionFields.transactionId(transaction), transaction));
+
+            if (oldestFirst.size() > limit) {
+                oldestFirst.poll();
+            }
+        }
+
+        /**
+         * Returns the transactions kept, newest first.
+         */
+        List<Ranked> toList() {
+            var newest = new ArrayList<>(oldestFirst);
+            newest.sort(NEWEST_FIRST);
+            return newest;
+        }
+    }
+
+    /**
+     * A query result with the fields it is ranked by.
+     */
+    record Ranked(Instant timestamp, String transactionId, Object transaction) {
+    }
+
+    private static Object deserialize(Object value) {
+        return value instanceof PdxInstance pdx ? pdx.getObject() : value;
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+}
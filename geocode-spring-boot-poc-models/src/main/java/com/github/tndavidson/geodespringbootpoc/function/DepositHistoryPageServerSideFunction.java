@@ -0,0 +1,168 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPageRequest;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.model.TransactionCursor;
+import com.github.tndavidson.geodespringbootpoc.serialization.TransactionFields;
+import com.github.tndavidson.geodespringbootpoc.serialization.TransactionPredicates;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Declarable;
+import org.apache.geode.cache.execute.Function;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.RegionFunctionContext;
+import org.apache.geode.cache.execute.ResultSender;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.pdx.PdxInstance;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * The DepositHistoryPageServerSideFunction is a server-side implementation of the Function interface
+ * that retrieves one page of the deposit transaction history for a customer, newest first.
+ *
+ * The function performs the following tasks:
+ * 1. Retrieves the IDs of the customer's accounts.
+ * 2. Runs an ordered OQL query for the deposits of those accounts within the requested time range and after the
+ *    keyset position of the previous page, ordered by {@code timestamp} and then {@code transactionId}, descending,
+ *    and limited to one more than the page size.
+ * 3. Returns a {@link DepositHistoryPage} with at most {@code pageSize} transactions, and a cursor positioned at
+ *    the last of them if the extra transaction showed that more remain.
+ *
+ * Key Details:
+ * - Paging uses the {@code (timestamp, transactionId)} keyset instead of an offset, so every page costs the same
+ *   no matter how deep into the history it is, and transactions added between requests do not shift pages.
+ * - The keyset position and the time range are conditions of the query, which starts from the cursor and returns
+ *   at most {@code pageSize + 1} transactions, so the result, and the data sent back, grow with the page size and
+ *   not with the customer's history.
+ * - The timestamp and deposit conditions are built by {@link TransactionPredicates}: on servers with PDX
+ *   {@code read-serialized} enabled and the {@code ModelPdxSerializer}, as in
+ *   {@code scripts/gfsh/start-cluster-off-heap.gfsh}, they compare and order the encoded {@code timestampNanos} and
+ *   amount fields, so transactions are selected without being deserialized, and only the transactions of the page
+ *   are. The request, which also arrives as a {@link PdxInstance} there, is deserialized by {@link FunctionArguments}.
+ * - All values, including the limit, are bind parameters and the compiled queries are reused from a
+ *   {@link CompiledQueryCache}.
+ * - Transactions without a timestamp are not part of any page.
+ * - When executed on the customer region with the customer ID as the filter (a {@link RegionFunctionContext}),
+ *   the queries are limited to the local, colocated data for that customer.
+ * - A customer without accounts has an empty history, so an empty page is returned.
+ * - Each execution is timed on the server and recorded by {@link ServerFunctionStatistics}.
+ *
+ * This function is registered with an ID defined by the constant {@code ID}. It implements {@link Declarable} so
+ * that servers can also register it in cache.xml, as {@code scripts/gfsh/pdx-codec.xml} does.
+ *
+ * Thread-Safety:
+ * - This class is thread-safe and designed to be used in concurrent execution contexts.
+ *
+ * Error Handling:
+ * - Exceptions during OQL execution or other runtime issues are captured and sent as part
+ *   of the ResultSender to ensure proper client-side error handling.
+ */
+public class DepositHistoryPageServerSideFunction implements Function<Object>, Declarable {
+
+    public static final String ID = "DEPOSIT_HISTORY_PAGE_SERVER_SIDE_FUNCTION";
+
+    private final CompiledQueryCache queries = new CompiledQueryCache(ID);
+
+    @Override
+    public void execute(FunctionContext<Object> context) {
+        final ResultSender<DepositHistoryPage> resultSender = context.getResultSender();
+        final long start = System.nanoTime();
+
+        try {
+            Object args = FunctionArguments.deserialize(context.getArguments());
+            DepositHistoryPageRequest request;
+
+            if (args instanceof DepositHistoryPageRequest) {
+                request = (DepositHistoryPageRequest) args;
+            } else if (args instanceof Object[] && ((Object[]) args).length > 0
+                    && ((Object[]) args)[0] instanceof DepositHistoryPageRequest) {
+                request = (DepositHistoryPageRequest) ((Object[]) args)[0];
+            } else {
+                throw new IllegalArgumentException("Expected DepositHistoryPageRequest object as argument, but received: "
+                        + (args == null ? "null" : args.getClass().getName()));
+            }
+
+            if (request.getPageSize() <= 0) {
+                throw new IllegalArgumentException("Page size must be positive, but was: " + request.getPageSize());
+            }
+
+            var cache = CacheFactory.getAnyInstance();
+            var page = new DepositHistoryPage();
+
+            var accountSelectResults = (SelectResults<String>) queries.execute(cache, context,
+                    DepositHistoryServerSideFunction.ACCOUNT_QUERY_OQL, request.getCustomerId());
+
+            if (accountSelectResults == null || accountSelectResults.isEmpty()) {
+                resultSender.lastResult(page);
+                return;
+            }
+
+            var accountIds = accountSelectResults.stream().collect(Collectors.toSet());
+
+            var from = request.getFrom() != null ? request.getFrom() : Instant.MIN;
+            var afterTimestamp = request.getAfterTimestamp();
+            var afterTransactionId = request.getAfterTransactionId();
+
+            if (afterTimestamp == null) {
+                // No previous page: start at the exclusive upper bound. No transaction ID sorts before "", so
+                // transactions at exactly that timestamp are excluded.
+                afterTimestamp = request.getTo() != null ? request.getTo() : Instant.MAX;
+                afterTransactionId = "";
+            } else if (afterTransactionId == null) {
+                afterTransactionId = "";
+            }
+
+            var transactionSelectResults = (SelectResults<?>) queries.execute(cache, context, pageQueryOql(cache),
+                    accountIds, TransactionPredicates.timestampValue(cache, from),
+                    TransactionPredicates.timestampValue(cache, afterTimestamp), afterTransactionId,
+                    request.getPageSize() + 1);
+
+            var transactions = new ArrayList<Transaction>(request.getPageSize());
+            var more = false;
+            for (Object transaction : transactionSelectResults) {
+                if (transactions.size() == request.getPageSize()) {
+                    more = true;
+                    break;
+                }
+
+                transactions.add(TransactionFields.toTransaction(transaction));
+            }
+
+            if (more) {
+                page.setNextCursor(TransactionCursor.of(transactions.get(transactions.size() - 1)).encode());
+            }
+
+            page.setTransactions(transactions);
+
+            resultSender.lastResult(page);
+
+        } catch (Exception e) {
+            resultSender.sendException(e);
+        } finally {
+            ServerFunctionStatistics.endExecution(ID, start);
+        }
+    }
+
+    /**
+     * Returns the OQL selecting one page of the deposits of a set of accounts, newest first, with the conditions for
+     * this member. The bind parameters are the account IDs, the inclusive lower bound of the timestamps, the keyset
+     * position as a timestamp and a transaction ID, and the limit.
+     */
+    static String pageQueryOql(Cache cache) {
+        var timestamp = TransactionPredicates.timestamp(cache, "t");
+
+        return "select * from /transaction t where t.accountId in $1 and " + TransactionPredicates.isDeposit(cache, "t")
+                + " and " + timestamp + " >= $2"
+                + " and (" + timestamp + " < $3 or (" + timestamp + " = $3 and t.transactionId < $4))"
+                + " order by " + timestamp + " desc, t.transactionId desc limit $5";
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+}
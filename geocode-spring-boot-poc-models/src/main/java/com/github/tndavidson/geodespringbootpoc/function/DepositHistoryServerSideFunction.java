@@ -2,13 +2,20 @@ package com.github.tndavidson.geodespringbootpoc.function;
 
 import com.github.tndavidson.geodespringbootpoc.model.Customer;
 import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.serialization.TransactionPredicates;
+import org.apache.geode.cache.Cache;
 import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Declarable;
 import org.apache.geode.cache.execute.Function;
 import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.RegionFunctionContext;
 import org.apache.geode.cache.execute.ResultSender;
 import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.pdx.PdxInstance;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * The DepositHistoryServerSideFunction is a server-side implementation of the Function interface
@@ -21,16 +28,35 @@ import java.util.List;
  * The function performs the following tasks:
  * 1. Retrieves the customer's accounts based on the provided customer ID.
  * 2. Queries for transactions associated with the retrieved accounts where the transaction
- *    amount is greater than zero (denoting deposits).
- * 3. Returns the list of transactions as the function result.
+ *    amount is greater than zero (denoting deposits). A customer without accounts has no deposits, and the
+ *    transaction query is skipped.
+ * 3. Returns the list of transactions as the function result. When a chunk size is passed as the second
+ *    argument, the transactions are instead sent as a series of lists of at most that many transactions
+ *    through {@link ResultSender#sendResult(Object)}, ending with {@link ResultSender#lastResult(Object)}.
  *
  * Key Details:
  * - The function uses GemFire OQL (Object Query Language) to query the cache for both accounts
- *   and transactions.
- * - In the event of no accounts being found for the provided customer, an exception is thrown.
+ *   and transactions. Both queries take their values as bind parameters, the account IDs as a single set,
+ *   so the OQL text is the same for every customer and each query is compiled once per member and then
+ *   reused from a {@link CompiledQueryCache}.
+ * - The deposit condition is built by {@link TransactionPredicates#isDeposit}, so on servers with PDX
+ *   {@code read-serialized} enabled and the {@code DECIMAL} amount encoding it compares the encoded
+ *   {@code amountUnscaled} field, and transactions are filtered without being deserialized.
+ * - When executed on the customer region with the customer ID as the filter (a {@link RegionFunctionContext}),
+ *   both queries are limited to the local buckets for that customer. With the account and transaction regions
+ *   colocated with the customer region, the whole function then runs on the single member that owns the customer.
+ * - Sending bounded chunks lets the client consume the history as it arrives, instead of the whole history being
+ *   serialized into, and deserialized from, a single message. Callers that pass only the customer receive a single list as before.
+ * - On servers with PDX {@code read-serialized} enabled, as in {@code scripts/gfsh/start-cluster-off-heap.gfsh}, the
+ *   query returns {@link PdxInstance}s, which are sent as they are: their serialized bytes are written to the
+ *   client, which deserializes them as {@link Transaction}s, so the function never deserializes a transaction.
+ *   The {@link Customer} argument also arrives as a {@link PdxInstance} there, and is deserialized by
+ *   {@link FunctionArguments}.
  * - Exceptions encountered during execution are sent back to the client using the ResultSender.
+ * - Each execution is timed on the server and recorded by {@link ServerFunctionStatistics}.
  *
- * This function is registered with an ID defined by the constant {@code ID}.
+ * This function is registered with an ID defined by the constant {@code ID}. It implements {@link Declarable} so
+ * that servers can also register it in cache.xml, as {@code scripts/gfsh/pdx-codec.xml} does.
  * It is typically invoked using function execution frameworks provided by Geode.
  *
  * Thread-Safety:
@@ -40,60 +66,97 @@ import java.util.List;
  * - Exceptions during OQL execution or other runtime issues are captured and sent as part
  *   of the ResultSender to ensure proper client-side error handling.
  */
-public class DepositHistoryServerSideFunction implements Function<Customer> {
+public class DepositHistoryServerSideFunction implements Function<Customer>, Declarable {
 
     public static final String ID = "DEPOSIT_HISTORY_SERVER_SIDE_FUNCTION";
 
+    static final String ACCOUNT_QUERY_OQL = "select a.accountId from /account a where a.getCustomerId() = $1";
+
+    private static final String TRANSACTION_QUERY_OQL_PREFIX = "select * from /transaction t where t.accountId in $1 and ";
+
+    private final CompiledQueryCache queries = new CompiledQueryCache(ID);
+
     @Override
     public void execute(FunctionContext<Customer> context) {
-        final ResultSender<List<Transaction>> resultSender = context.getResultSender();
+        final ResultSender<List<Object>> resultSender = context.getResultSender();
+        final long start = System.nanoTime();
 
         try {
-            Object args = context.getArguments();
+            Object args = FunctionArguments.deserialize(context.getArguments());
             Customer customer;
+            int chunkSize = 0;
 
             if (args instanceof Customer) {
                 customer = (Customer) args;
             } else if (args instanceof Object[] && ((Object[]) args).length > 0 && ((Object[]) args)[0] instanceof Customer) {
                 customer = (Customer) ((Object[]) args)[0];
+
+                if (((Object[]) args).length > 1 && ((Object[]) args)[1] instanceof Number number) {
+                    chunkSize = number.intValue();
+                }
             } else {
                 throw new IllegalArgumentException("Expected Customer object as argument, but received: "
                         + (args == null ? "null" : args.getClass().getName()));
             }
 
             var cache = CacheFactory.getAnyInstance();
-            var queryService = cache.getQueryService();
 
-            var accountQueryOql = "select a.accountId from /account a where a.getCustomerId() = $1";
-            var accountQuery = queryService.newQuery(accountQueryOql);
-            var accountSelectResults = (SelectResults<String>) accountQuery.execute(customer.getId());
+            var accountSelectResults = (SelectResults<String>) queries.execute(cache, context, ACCOUNT_QUERY_OQL,
+                    customer.getId());
 
             if (accountSelectResults == null || accountSelectResults.isEmpty()) {
-                throw new RuntimeException("No accounts found for customer with id: " + customer.getId());
+                resultSender.lastResult(new ArrayList<>());
+                return;
             }
 
-            var accounts = accountSelectResults.stream()
-                    .map(accountId -> "'" + accountId + "'")
-                    .toList();
+            var accountIds = accountSelectResults.stream().collect(Collectors.toSet());
 
-            var transactionQueryOql = new StringBuilder().append("select * ")
-                    .append("from /transaction t ")
-                    .append("where t.accountId in set(")
-                    .append(String.join(", ", accounts))
-                    .append(") ")
-                    .append("and t.amount > 0");
+            var transactionSelectResults = (SelectResults<Object>) queries.execute(cache, context,
+                    transactionQueryOql(cache), accountIds);
 
-            var transactionQuery = queryService.newQuery(transactionQueryOql.toString());
-            var transactionSelectResults = (SelectResults<Transaction>) transactionQuery.execute();
+            if (chunkSize > 0) {
+                sendInChunks(resultSender, transactionSelectResults, chunkSize);
+                return;
+            }
 
-            // Convert the non-serializable SelectResults wrapper to a standard ArrayList
-            var resultsAsList = transactionSelectResults.stream().toList();
+            // Convert the non-serializable SelectResults wrapper to a standard ArrayList, which Geode serializes
+            // element by element, so PdxInstance results are written as PDX rather than with Java serialization
+            var resultsAsList = transactionSelectResults.stream().collect(Collectors.toCollection(ArrayList::new));
 
-            context.getResultSender().lastResult(resultsAsList);
+            resultSender.lastResult(resultsAsList);
 
         } catch (Exception e) {
             resultSender.sendException(e);
+        } finally {
+            ServerFunctionStatistics.endExecution(ID, start);
+        }
+    }
+
+    /**
+     * Returns the OQL selecting the deposits of a set of accounts, with the deposit condition for this member.
+     */
+    static String transactionQueryOql(Cache cache) {
+        return TRANSACTION_QUERY_OQL_PREFIX + TransactionPredicates.isDeposit(cache, "t");
+    }
+
+    /**
+     * Sends the transactions as lists of at most {@code chunkSize} elements. Each chunk is serialized and written to
+     * the caller as soon as it is sent, and the final, possibly empty, chunk is sent as the last result.
+     */
+    private static void sendInChunks(ResultSender<List<Object>> resultSender,
+                                     SelectResults<Object> transactions, int chunkSize) {
+        var chunk = new ArrayList<Object>(chunkSize);
+
+        for (Object transaction : transactions) {
+            chunk.add(transaction);
+
+            if (chunk.size() == chunkSize) {
+                resultSender.sendResult(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
         }
+
+        resultSender.lastResult(chunk);
     }
 
     @Override
@@ -0,0 +1,46 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import org.apache.geode.pdx.PdxInstance;
+
+/**
+ * Prepares the arguments of a server-side function for type checks.
+ *
+ * On servers with PDX {@code read-serialized} enabled, function arguments of PDX-serialized classes, such as
+ * {@code Customer} or {@code DepositHistoryPageRequest}, arrive as {@link PdxInstance}s instead of instances of
+ * their class. They are deserialized here, so functions can check their arguments the same way on every server.
+ *
+ * Thread-Safety:
+ * - This class is stateless and thread-safe.
+ */
+final class FunctionArguments {
+
+    private FunctionArguments() {
+    }
+
+    /**
+     * Returns the arguments with any {@link PdxInstance}, or {@link PdxInstance} element of an argument array,
+     * deserialized. Other arguments are returned as they are.
+     */
+    static Object deserialize(Object args) {
+        if (args instanceof PdxInstance pdx) {
+            return pdx.getObject();
+        }
+
+        if (args instanceof Object[] array) {
+            Object[] deserialized = null;
+
+            for (int i = 0; i < array.length; i++) {
+                if (array[i] instanceof PdxInstance pdx) {
+                    if (deserialized == null) {
+                        deserialized = array.clone();
+                    }
+                    deserialized[i] = pdx.getObject();
+                }
+            }
+
+            return deserialized != null ? deserialized : array;
+        }
+
+        return args;
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import org.apache.geode.cache.Declarable;
+import org.apache.geode.cache.execute.Function;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.ResultSender;
+
+import java.util.Map;
+
+/**
+ * The FunctionStatisticsFunction is a server-side implementation of the Function interface that returns the
+ * execution statistics recorded by {@link ServerFunctionStatistics} on the member, so the client can publish the
+ * time the servers spend executing each function next to the time it observes itself.
+ *
+ * The function returns a map from function ID to the number of executions and their total time in nanoseconds,
+ * in that order. The values are cumulative since the member started, so the client sums the maps of all members.
+ *
+ * This function is registered with an ID defined by the constant {@code ID}. It implements {@link Declarable} so
+ * that servers can also register it in cache.xml, as {@code scripts/gfsh/pdx-codec.xml} does.
+ *
+ * Thread-Safety:
+ * - This class is stateless and thread-safe.
+ *
+ * Error Handling:
+ * - Exceptions are sent through the ResultSender.
+ */
+public class FunctionStatisticsFunction implements Function<Object>, Declarable {
+
+    public static final String ID = "FUNCTION_STATISTICS_FUNCTION";
+
+    @Override
+    public void execute(FunctionContext<Object> context) {
+        final ResultSender<Map<String, long[]>> resultSender = context.getResultSender();
+
+        try {
+            resultSender.lastResult(ServerFunctionStatistics.snapshot());
+        } catch (Exception e) {
+            resultSender.sendException(e);
+        }
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public boolean isHA() {
+        return false;
+    }
+}
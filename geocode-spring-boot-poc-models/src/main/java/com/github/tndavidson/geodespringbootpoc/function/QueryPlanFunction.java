@@ -0,0 +1,112 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import com.github.tndavidson.geodespringbootpoc.model.QueryPlan;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Declarable;
+import org.apache.geode.cache.execute.Function;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.ResultSender;
+import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The QueryPlanFunction is a server-side implementation of the Function interface that executes an OQL query
+ * with its bind parameters and reports how the server executed it, as a {@link QueryPlan}, so the client can tell
+ * which of its queries scan regions instead of using an index.
+ *
+ * The function performs the following tasks:
+ * 1. Reads the total uses of every index on the member.
+ * 2. Executes the query with the {@code <trace>} hint, so the server also logs the execution time, the number of
+ *    results and the indexes used.
+ * 3. Returns the indexes whose total uses increased, the number of results and the execution time.
+ *
+ * Key Details:
+ * - The arguments are the OQL text and an array of bind parameters, which may be empty.
+ * - Index uses by other queries executing at the same time are attributed to this query too, so a query reported
+ *   as using no index scanned its regions, but one reported as using an index may not have used it. The
+ *   {@code <trace>} line in the server log is exact.
+ * - On partitioned regions, only the index uses of the member executing the function are counted.
+ *
+ * This function is registered with an ID defined by the constant {@code ID}. It implements {@link Declarable} so
+ * that servers can also register it in cache.xml, as {@code scripts/gfsh/pdx-codec.xml} does.
+ *
+ * Thread-Safety:
+ * - This class is stateless and thread-safe.
+ *
+ * Error Handling:
+ * - Invalid arguments and exceptions while executing the query are sent through the ResultSender.
+ */
+public class QueryPlanFunction implements Function<Object>, Declarable {
+
+    public static final String ID = "QUERY_PLAN_FUNCTION";
+
+    static final String TRACE_HINT = "<trace> ";
+
+    @Override
+    public void execute(FunctionContext<Object> context) {
+        final ResultSender<QueryPlan> resultSender = context.getResultSender();
+
+        try {
+            if (!(FunctionArguments.deserialize(context.getArguments()) instanceof Object[] args)
+                    || args.length == 0 || !(args[0] instanceof String oql)) {
+                throw new IllegalArgumentException("Expected the OQL text and its bind parameters as arguments");
+            }
+
+            var parameters = args.length > 1 && args[1] instanceof Object[] values ? values : new Object[0];
+            var queryService = CacheFactory.getAnyInstance().getQueryService();
+            var query = queryService.newQuery(oql.startsWith("<trace>") ? oql : TRACE_HINT + oql);
+
+            var usesBefore = indexUses(queryService);
+            var start = System.nanoTime();
+            var result = parameters.length == 0 ? query.execute() : query.execute(parameters);
+            var executionTime = System.nanoTime() - start;
+            var usesAfter = indexUses(queryService);
+
+            var plan = new QueryPlan();
+            plan.setQuery(oql);
+            plan.setExecutionTimeNanos(executionTime);
+            plan.setResultSize(result instanceof SelectResults<?> results ? results.size()
+                    : result instanceof Collection<?> collection ? collection.size() : 1);
+
+            var indexesUsed = new ArrayList<String>();
+            usesAfter.forEach((name, uses) -> {
+                if (uses > usesBefore.getOrDefault(name, 0L)) {
+                    indexesUsed.add(name);
+                }
+            });
+            indexesUsed.sort(null);
+            plan.setIndexesUsed(indexesUsed);
+
+            resultSender.lastResult(plan);
+
+        } catch (Exception e) {
+            resultSender.sendException(e);
+        }
+    }
+
+    private static Map<String, Long> indexUses(QueryService queryService) {
+        Map<String, Long> uses = new HashMap<>();
+
+        for (Index index : queryService.getIndexes()) {
+            uses.put(index.getName(), index.getStatistics().getTotalUses());
+        }
+
+        return uses;
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public boolean isHA() {
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import org.apache.geode.StatisticDescriptor;
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsFactory;
+import org.apache.geode.StatisticsType;
+import org.apache.geode.cache.CacheFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how many times each server-side function has executed on this member and how long the executions took,
+ * as measured on the server, under the {@code ServerFunctionStats} statistics type, with one instance per function
+ * ID.
+ *
+ * Geode's own function statistics only time executions when clock statistics are enabled on the servers. These are
+ * always recorded, at the cost of two {@link System#nanoTime()} calls and two atomic increments per execution, so
+ * the client can compare the time it observes for a function with the time the servers report, through
+ * {@link FunctionStatisticsFunction}.
+ *
+ * Key Details:
+ * - The statistics of a function are created on its first execution, on the distributed system of the current
+ *   cache, and created again if that cache has been closed and another one created.
+ * - If the cache has no distributed system, as in unit tests, executions are not recorded.
+ *
+ * Thread-Safety:
+ * - This class is thread-safe. The statistics are atomic, so concurrent executions are all counted.
+ */
+public final class ServerFunctionStatistics {
+
+    static final String STATISTICS_TYPE_NAME = "ServerFunctionStats";
+
+    private static final Map<String, FunctionStatistics> STATISTICS = new ConcurrentHashMap<>();
+
+    private ServerFunctionStatistics() {
+    }
+
+    /**
+     * Records an execution of the function that started at {@code start}, a {@link System#nanoTime()} value.
+     */
+    public static void endExecution(String functionId, long start) {
+        var statistics = statistics(functionId);
+
+        if (statistics != null) {
+            statistics.endExecution(start);
+        }
+    }
+
+    /**
+     * Returns the executions and the total execution time in nanoseconds of each function executed on this
+     * member, in that order, by function ID.
+     */
+    public static Map<String, long[]> snapshot() {
+        var snapshot = new HashMap<String, long[]>();
+
+        STATISTICS.forEach((functionId, statistics) -> {
+            if (!statistics.statistics().isClosed()) {
+                snapshot.put(functionId, statistics.snapshot());
+            }
+        });
+
+        return snapshot;
+    }
+
+    private static FunctionStatistics statistics(String functionId) {
+        var statistics = STATISTICS.get(functionId);
+
+        if (statistics != null && !statistics.statistics().isClosed()) {
+            return statistics;
+        }
+
+        StatisticsFactory factory = CacheFactory.getAnyInstance().getDistributedSystem();
+
+        if (factory == null) {
+            return null;
+        }
+
+        return STATISTICS.compute(functionId, (id, current) -> current != null && !current.statistics().isClosed()
+                ? current : FunctionStatistics.create(factory, id));
+    }
+
+    private record FunctionStatistics(Statistics statistics, int executionsId, int executionTimeId) {
+
+        static FunctionStatistics create(StatisticsFactory factory, String textId) {
+            StatisticsType type;
+
+            // the statistics of two functions may be created at the same time, and only one can define the type
+            synchronized (FunctionStatistics.class) {
+                type = factory.findType(STATISTICS_TYPE_NAME);
+
+                if (type == null) {
+                    type = factory.createType(STATISTICS_TYPE_NAME, "Server-side function executions timed on the server",
+                            new StatisticDescriptor[]{
+                                    factory.createLongCounter("executions", "Executions completed", "operations"),
+                                    factory.createLongCounter("executionTime", "Time spent executing", "nanoseconds")
+                            });
+                }
+            }
+
+            return new FunctionStatistics(factory.createAtomicStatistics(type, textId),
+                    type.nameToId("executions"), type.nameToId("executionTime"));
+        }
+
+        void endExecution(long start) {
+            statistics.incLong(executionTimeId, System.nanoTime() - start);
+            statistics.incLong(executionsId, 1);
+        }
+
+        long[] snapshot() {
+            return new long[]{statistics.getLong(executionsId), statistics.getLong(executionTimeId)};
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.tndavidson.geodespringbootpoc.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.gemfire.mapping.annotation.Region;
@@ -8,6 +9,7 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Set;
 
 @Region("account")
 @Data
@@ -23,4 +25,12 @@ public class Account implements Serializable {
     private BigDecimal balance;
 
     private Instant balanceCalculatedDate;
+
+    /**
+     * The transactions whose amounts are included in the balance but which are not yet marked cleared, or null if
+     * there are none. They are written together with the balance, so a transaction is never applied twice. This is
+     * bookkeeping of the balance updates, and is not part of the account's JSON.
+     */
+    @JsonIgnore
+    private Set<String> pendingTransactionIds;
 }
@@ -0,0 +1,42 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.gemfire.mapping.annotation.Region;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Running totals of an account's transactions, maintained on the servers as transactions are written.
+ *
+ * {@code netTotal} is the sum of all amounts, {@code depositTotal} the sum of the positive amounts and
+ * {@code withdrawalTotal} the sum of the magnitudes of the negative amounts. {@code firstActivity} and
+ * {@code lastActivity} are the earliest and latest transaction timestamps seen; they are not moved back when a
+ * transaction is removed.
+ */
+@Region("accountAggregates")
+@Data
+public class AccountAggregates implements Serializable {
+    @Serial
+    private static final long serialVersionUID = -2381290365046120783L;
+
+    @Id
+    private String accountId;
+
+    private long transactionCount;
+
+    private long depositCount;
+
+    private BigDecimal netTotal = BigDecimal.ZERO;
+
+    private BigDecimal depositTotal = BigDecimal.ZERO;
+
+    private BigDecimal withdrawalTotal = BigDecimal.ZERO;
+
+    private Instant firstActivity;
+
+    private Instant lastActivity;
+}
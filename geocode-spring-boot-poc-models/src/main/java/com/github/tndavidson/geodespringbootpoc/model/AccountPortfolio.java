@@ -0,0 +1,27 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One account of a {@link CustomerPortfolio}: its balance and its most recent transactions, newest first.
+ */
+@Data
+public class AccountPortfolio implements Serializable {
+    @Serial
+    private static final long serialVersionUID = -3395190164470863020L;
+
+    private String accountId;
+
+    private BigDecimal balance;
+
+    private Instant balanceCalculatedDate;
+
+    private List<Transaction> recentTransactions = new ArrayList<>();
+}
@@ -0,0 +1,24 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The running totals of each of a customer's accounts, and their combined {@code total}, whose
+ * {@code accountId} is null.
+ */
+@Data
+public class CustomerAggregates implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 8161470527394455315L;
+
+    private String customerId;
+
+    private AccountAggregates total;
+
+    private List<AccountAggregates> accounts = new ArrayList<>();
+}
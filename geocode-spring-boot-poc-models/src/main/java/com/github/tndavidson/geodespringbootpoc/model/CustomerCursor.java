@@ -0,0 +1,63 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * A keyset position in a list of customers ordered by {@code (lastName, id)}.
+ *
+ * Cursors are exchanged with clients as opaque, URL-safe strings, so the encoding can change without
+ * affecting them.
+ *
+ * @param lastName the last name of the customer at the position
+ * @param id       the ID of the customer at the position, or null for the position after the last customer with
+ *                 the last name
+ */
+public record CustomerCursor(String lastName, String id) {
+
+    private static final char SEPARATOR = '.';
+
+    public static CustomerCursor of(Customer customer) {
+        return new CustomerCursor(customer.getLastName(), customer.getId());
+    }
+
+    /**
+     * Returns the position after the last customer with the given last name.
+     */
+    public static CustomerCursor after(String lastName) {
+        return new CustomerCursor(lastName, null);
+    }
+
+    /**
+     * Decodes a cursor previously returned by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public static CustomerCursor decode(String cursor) {
+        var separator = cursor.indexOf(SEPARATOR);
+
+        if (separator < 0) {
+            return after(decodePart(cursor));
+        }
+
+        var id = decodePart(cursor.substring(separator + 1));
+
+        if (id.isEmpty()) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+
+        return new CustomerCursor(decodePart(cursor.substring(0, separator)), id);
+    }
+
+    public String encode() {
+        return id == null ? encodePart(lastName) : encodePart(lastName) + SEPARATOR + encodePart(id);
+    }
+
+    private static String encodePart(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePart(String value) {
+        return new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+}
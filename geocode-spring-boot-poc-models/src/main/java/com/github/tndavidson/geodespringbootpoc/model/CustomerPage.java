@@ -0,0 +1,24 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of the customers whose last name starts with a prefix, ordered by last name and ID.
+ *
+ * {@code nextCursor} is an opaque {@link CustomerCursor} positioned at the last customer of the page,
+ * or null when there are no more matching customers.
+ */
+@Data
+public class CustomerPage implements Serializable {
+    @Serial
+    private static final long serialVersionUID = -2203318466472715097L;
+
+    private List<Customer> customers = new ArrayList<>();
+
+    private String nextCursor;
+}
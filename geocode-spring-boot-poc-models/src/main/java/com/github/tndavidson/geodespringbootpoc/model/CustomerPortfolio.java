@@ -0,0 +1,24 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A customer with all of their accounts and the most recent transactions of each, gathered on the server by
+ * {@code CUSTOMER_PORTFOLIO_SERVER_SIDE_FUNCTION}.
+ *
+ * {@code customer} is null when the customer does not exist. {@code accounts} are ordered by account ID.
+ */
+@Data
+public class CustomerPortfolio implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1873016632940258917L;
+
+    private Customer customer;
+
+    private List<AccountPortfolio> accounts = new ArrayList<>();
+}
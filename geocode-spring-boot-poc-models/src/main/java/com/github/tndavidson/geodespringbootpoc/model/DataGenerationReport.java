@@ -0,0 +1,28 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * The outcome of a fake dataset generation run: the number of entries written to each region, the number of
+ * threads generating them, and the overall write rate.
+ */
+@Data
+public class DataGenerationReport implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 5313143856773065723L;
+
+    private long customers;
+
+    private long accounts;
+
+    private long transactions;
+
+    private int threads;
+
+    private long elapsedMillis;
+
+    private double recordsPerSecond;
+}
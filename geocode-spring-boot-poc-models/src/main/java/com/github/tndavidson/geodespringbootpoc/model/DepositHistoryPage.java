@@ -0,0 +1,24 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a customer's deposit history, newest first.
+ *
+ * {@code nextCursor} is an opaque {@link TransactionCursor} positioned at the last transaction of the page,
+ * or null when there are no more transactions in the requested range.
+ */
+@Data
+public class DepositHistoryPage implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 3710944185361128507L;
+
+    private List<Transaction> transactions = new ArrayList<>();
+
+    private String nextCursor;
+}
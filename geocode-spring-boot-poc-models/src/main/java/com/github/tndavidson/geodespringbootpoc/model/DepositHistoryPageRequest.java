@@ -0,0 +1,38 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Arguments for reading one page of a customer's deposit history, newest first.
+ *
+ * Pages are positioned by keyset rather than offset: {@code afterTimestamp} and {@code afterTransactionId}
+ * identify the last transaction of the previous page, and the page contains the transactions that sort after it
+ * in descending {@code (timestamp, transactionId)} order. Both are null for the first page.
+ */
+@Data
+public class DepositHistoryPageRequest implements Serializable {
+    @Serial
+    private static final long serialVersionUID = -1487355042311962473L;
+
+    private String customerId;
+
+    /**
+     * Inclusive lower bound of the transaction timestamps, or null for no lower bound.
+     */
+    private Instant from;
+
+    /**
+     * Exclusive upper bound of the transaction timestamps, or null for no upper bound.
+     */
+    private Instant to;
+
+    private int pageSize;
+
+    private Instant afterTimestamp;
+
+    private String afterTransactionId;
+}
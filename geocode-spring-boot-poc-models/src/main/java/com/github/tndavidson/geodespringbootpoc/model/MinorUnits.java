@@ -0,0 +1,110 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions and sums for money amounts held as a {@code long} number of minor units (cents), the fixed-point
+ * representation stored by {@code ModelPdxSerializer} with the {@code MINOR_UNITS} amount encoding.
+ *
+ * The model classes keep their {@link BigDecimal} properties, so the REST API still reads and writes decimal
+ * values; amounts are converted to minor units when they are serialized, and back when they are deserialized.
+ * Only amounts with at most {@value #SCALE} decimal places whose minor units fit in a {@code long} can be
+ * converted, and they always come back with exactly {@value #SCALE} decimal places: an amount written as
+ * {@code 1.5} is read, and returned by the REST API, as {@code 1.50}. The value is the same, but
+ * {@link BigDecimal#equals(Object)} and the JSON text are not. {@link #NULL} is reserved to represent a null amount, and is skipped by the sums.
+ *
+ * Thread-Safety:
+ * - This class is stateless and thread-safe.
+ */
+public final class MinorUnits {
+
+    /**
+     * The number of decimal places of an amount in minor units.
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * The minor units representing a null amount.
+     */
+    public static final long NULL = Long.MIN_VALUE;
+
+    private MinorUnits() {
+    }
+
+    /**
+     * Converts an amount to minor units, or to {@link #NULL} if it is null.
+     *
+     * @throws IllegalArgumentException if the amount has more than {@value #SCALE} decimal places, or its minor
+     *                                  units do not fit in a {@code long}
+     */
+    public static long of(BigDecimal amount) {
+        if (amount == null) {
+            return NULL;
+        }
+
+        long minorUnits;
+        try {
+            minorUnits = amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount cannot be held in minor units: " + amount, e);
+        }
+
+        if (minorUnits == NULL) {
+            throw new IllegalArgumentException("Amount cannot be held in minor units: " + amount);
+        }
+
+        return minorUnits;
+    }
+
+    /**
+     * Converts minor units to an amount with {@value #SCALE} decimal places, or to null if they are {@link #NULL}.
+     */
+    public static BigDecimal toDecimal(long minorUnits) {
+        return minorUnits == NULL ? null : BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Adds two amounts in minor units, without allocating.
+     *
+     * @throws ArithmeticException if the sum overflows
+     */
+    public static long add(long minorUnits, long otherMinorUnits) {
+        var sum = Math.addExact(minorUnits, otherMinorUnits);
+
+        if (sum == NULL) {
+            throw new ArithmeticException("long overflow");
+        }
+
+        return sum;
+    }
+
+    /**
+     * Sums amounts that are held either as minor units ({@link Long}) or as {@link BigDecimal}, skipping nulls, and
+     * returns the total with {@value #SCALE} decimal places. Minor units are added as {@code long}s, so only the
+     * {@link BigDecimal} amounts allocate.
+     *
+     * @throws ArithmeticException      if the sum of the minor units overflows
+     * @throws IllegalArgumentException if an amount is of any other type
+     */
+    public static BigDecimal sum(Iterable<?> amounts) {
+        var minorUnits = 0L;
+        BigDecimal decimal = null;
+
+        for (Object amount : amounts) {
+            if (amount instanceof Long value) {
+                if (value != NULL) {
+                    minorUnits = add(minorUnits, value);
+                }
+            } else if (amount instanceof BigDecimal value) {
+                decimal = decimal == null ? value : decimal.add(value);
+            } else if (amount != null) {
+                throw new IllegalArgumentException("Expected an amount, but received: " + amount.getClass().getName());
+            }
+        }
+
+        var total = BigDecimal.valueOf(minorUnits, SCALE);
+
+        return decimal == null ? total : total.add(decimal).setScale(SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The IDs of the customers, accounts or transactions to read with one multi-get request.
+ */
+@Data
+public class MultiGetRequest implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 4213766590921874183L;
+
+    private List<String> ids = new ArrayList<>();
+}
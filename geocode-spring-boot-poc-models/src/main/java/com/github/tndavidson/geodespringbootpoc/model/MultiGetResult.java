@@ -0,0 +1,24 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a multi-get request.
+ *
+ * {@code found} holds the entities that exist, in the order of their first ID in the request. {@code missing} holds
+ * the requested IDs that have no entity, in request order. Each ID appears at most once in either list.
+ */
+@Data
+public class MultiGetResult<T> implements Serializable {
+    @Serial
+    private static final long serialVersionUID = -6519405742190375568L;
+
+    private List<T> found = new ArrayList<>();
+
+    private List<String> missing = new ArrayList<>();
+}
@@ -0,0 +1,28 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How a server executed an OQL query: the indexes it used, the number of results, and the time the execution
+ * took on the server.
+ *
+ * An empty {@code indexesUsed} means the query scanned the entries of its regions.
+ */
+@Data
+public class QueryPlan implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 6270438112653874191L;
+
+    private String query;
+
+    private List<String> indexesUsed = new ArrayList<>();
+
+    private int resultSize;
+
+    private long executionTimeNanos;
+}
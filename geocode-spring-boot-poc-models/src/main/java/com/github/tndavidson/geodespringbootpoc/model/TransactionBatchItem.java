@@ -0,0 +1,30 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * The outcome of one transaction in a bulk ingestion request.
+ *
+ * {@code index} is the zero-based position of the transaction in the request. A created transaction carries its
+ * generated {@code transactionId}; a rejected transaction carries the reason in {@code error}.
+ */
+@Data
+public class TransactionBatchItem implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 296473693385179726L;
+
+    public enum Status {
+        CREATED, REJECTED
+    }
+
+    private int index;
+
+    private String transactionId;
+
+    private Status status;
+
+    private String error;
+}
@@ -0,0 +1,33 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a bulk transaction ingestion request.
+ *
+ * {@code items} holds one {@link TransactionBatchItem} per submitted transaction, in submission order.
+ * {@code balancesRecalculated} is the number of accounts whose balance was recalculated once at the end of the
+ * batch, which is zero unless balance updates were deferred. {@code failedAccountIds} lists the accounts whose
+ * deferred recalculation failed: their transactions were created, but their balance does not include them until it
+ * is recalculated with {@code POST /account/{accountId}/reconcile-balance}.
+ */
+@Data
+public class TransactionBatchResult implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 6577013576642423044L;
+
+    private int created;
+
+    private int rejected;
+
+    private int balancesRecalculated;
+
+    private List<String> failedAccountIds = new ArrayList<>();
+
+    private List<TransactionBatchItem> items = new ArrayList<>();
+}
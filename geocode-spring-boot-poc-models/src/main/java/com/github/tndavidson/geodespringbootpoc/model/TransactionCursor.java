@@ -0,0 +1,49 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * A keyset position in a list of transactions ordered by {@code (timestamp, transactionId)}.
+ *
+ * Cursors are exchanged with clients as opaque, URL-safe strings, so the encoding can change without
+ * affecting them.
+ *
+ * @param timestamp     the timestamp of the transaction at the position
+ * @param transactionId the ID of the transaction at the position
+ */
+public record TransactionCursor(Instant timestamp, String transactionId) {
+
+    private static final char SEPARATOR = '|';
+
+    public static TransactionCursor of(Transaction transaction) {
+        return new TransactionCursor(transaction.getTimestamp(), transaction.getTransactionId());
+    }
+
+    /**
+     * Decodes a cursor previously returned by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public static TransactionCursor decode(String cursor) {
+        try {
+            var value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separator = value.indexOf(SEPARATOR);
+
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+
+            return new TransactionCursor(Instant.parse(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        var value = timestamp.toString() + SEPARATOR + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
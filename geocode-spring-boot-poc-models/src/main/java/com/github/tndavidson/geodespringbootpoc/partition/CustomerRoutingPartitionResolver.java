@@ -0,0 +1,63 @@
+package com.github.tndavidson.geodespringbootpoc.partition;
+
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.apache.geode.cache.EntryOperation;
+import org.apache.geode.cache.PartitionResolver;
+
+/**
+ * The CustomerRoutingPartitionResolver is a {@link PartitionResolver} that partitions the customer, account
+ * and transaction regions by customer, so that a {@link Customer}, all of its {@link Account} entries and all of
+ * their {@link Transaction} entries are stored in the same bucket, on the same member.
+ *
+ * The routing object is derived from the entry key alone, so that gets are routed the same way as puts:
+ * - Customer keys are the customer ID itself, which is used as the routing object.
+ * - Account and Transaction keys are routing keys of the form {@code <customerId>:<id>}, created with
+ *   {@link #routingKey(String, String)}; the customer ID prefix is used as the routing object.
+ * - Keys without the delimiter are routed by the whole key.
+ *
+ * To colocate the regions, this resolver must be configured on the customer region and on the account and
+ * transaction regions, which must also be created with {@code colocated-with} set to the customer region.
+ *
+ * Thread-Safety:
+ * - This class is stateless and thread-safe.
+ */
+public class CustomerRoutingPartitionResolver implements PartitionResolver<String, Object> {
+
+    public static final String NAME = "CUSTOMER_ROUTING_PARTITION_RESOLVER";
+
+    public static final char DELIMITER = ':';
+
+    /**
+     * Creates a key for an entry that is routed with the given customer.
+     *
+     * @param customerId the ID of the customer that owns the entry
+     * @param id         the entry's own unique identifier
+     * @return the routing key, in the form {@code <customerId>:<id>}
+     */
+    public static String routingKey(String customerId, String id) {
+        return customerId + DELIMITER + id;
+    }
+
+    /**
+     * Resolves the customer ID that the given key is routed by.
+     *
+     * @param key a customer ID, or a routing key created with {@link #routingKey(String, String)}
+     * @return the customer ID prefix of a routing key, or the key itself if it has no prefix
+     */
+    public static String customerIdOf(String key) {
+        var index = key.indexOf(DELIMITER);
+        return index < 0 ? key : key.substring(0, index);
+    }
+
+    @Override
+    public Object getRoutingObject(EntryOperation<String, Object> operation) {
+        return customerIdOf(operation.getKey());
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,249 @@
+package com.github.tndavidson.geodespringbootpoc.serialization;
+
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.MinorUnits;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Declarable;
+import org.apache.geode.pdx.PdxReader;
+import org.apache.geode.pdx.PdxSerializer;
+import org.apache.geode.pdx.PdxWriter;
+import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * A {@link PdxSerializer} with explicit codecs for {@link Customer}, {@link Account} and {@link Transaction}.
+ *
+ * {@link ReflectionBasedAutoSerializer} reads and writes every field reflectively, and writes {@link BigDecimal}
+ * and {@link Instant} fields as nested serialized objects. This serializer writes the fields of the three model
+ * classes directly, with:
+ * - Amounts, with the {@link AmountEncoding#DECIMAL} encoding (the default), as two primitive fields: the unscaled
+ *   value as a {@code long} ({@code <name>Unscaled}) and the scale as an {@code int} ({@code <name>Scale}). A null
+ *   amount is written with the scale {@link #NULL_SCALE}.
+ * - Amounts, with the {@link AmountEncoding#MINOR_UNITS} encoding, as a single {@code long} field with the
+ *   property's name holding the amount in {@link MinorUnits}. Their scale is not kept: they are read back with
+ *   {@value MinorUnits#SCALE} decimal places.
+ * - Timestamps as nanoseconds since the epoch in a {@code long} field ({@code <name>Nanos}). A null timestamp is
+ *   written as {@link #NULL_INSTANT}.
+ * - Sets of identifiers as sorted {@code String[]} fields, so equal sets are always written the same way.
+ *
+ * Other classes in the model package are delegated to a {@link ReflectionBasedAutoSerializer}; classes outside it
+ * are not handled.
+ *
+ * The serializer must be used by the application and by every server, because functions and queries on the
+ * servers deserialize these entries. Fields that keep their names ({@code accountId}, {@code customerId}, and
+ * {@code amount} and {@code balance} in minor units) can still be indexed and queried without deserializing, so
+ * with {@link AmountEncoding#MINOR_UNITS} a predicate such as {@code t.amount > 0} compares {@code long}s. With the
+ * {@link AmountEncoding#DECIMAL} encoding the sign of an amount can be tested on {@code amountUnscaled} instead, and
+ * timestamps can be compared on {@code timestampNanos}, as {@link TransactionPredicates} does. These fields only
+ * resolve on servers with PDX {@code read-serialized} enabled; elsewhere, and for other queries on {@code timestamp}
+ * or on amounts, the entry is deserialized. The PDX
+ * types differ between the reflection serializer and each amount encoding, so regions and the PDX registry must be
+ * empty when switching between them.
+ *
+ * Amounts must have an unscaled value that fits in a {@code long}, and at most {@value MinorUnits#SCALE} decimal
+ * places with {@link AmountEncoding#MINOR_UNITS}; timestamps must fall between the years 1677 and 2262. Other values
+ * are rejected when serializing.
+ *
+ * When declared in cache.xml, the encoding is read from the {@value #AMOUNT_ENCODING_PARAMETER} parameter.
+ *
+ * Thread-Safety:
+ * - This class is thread-safe.
+ */
+public class ModelPdxSerializer implements PdxSerializer, Declarable {
+
+    public static final String MODEL_PACKAGE_PATTERN = "com\\.github\\.tndavidson\\.geodespringbootpoc\\.model\\..*";
+
+    public static final String AMOUNT_ENCODING_PARAMETER = "amount-encoding";
+
+    static final int NULL_SCALE = Integer.MIN_VALUE;
+
+    static final long NULL_INSTANT = Long.MIN_VALUE;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final ReflectionBasedAutoSerializer delegate = new ReflectionBasedAutoSerializer(MODEL_PACKAGE_PATTERN);
+
+    private AmountEncoding amountEncoding;
+
+    /**
+     * Creates a serializer with the {@link AmountEncoding#DECIMAL} amount encoding, or the encoding given by the
+     * cache.xml parameters.
+     */
+    public ModelPdxSerializer() {
+        this(AmountEncoding.DECIMAL);
+    }
+
+    public ModelPdxSerializer(AmountEncoding amountEncoding) {
+        this.amountEncoding = amountEncoding;
+    }
+
+    /**
+     * Reads the amount encoding from the cache.xml parameters, before the cache uses the serializer.
+     */
+    @Override
+    public void initialize(Cache cache, Properties properties) {
+        var encoding = properties.getProperty(AMOUNT_ENCODING_PARAMETER);
+
+        if (encoding != null) {
+            amountEncoding = AmountEncoding.valueOf(encoding.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public AmountEncoding getAmountEncoding() {
+        return amountEncoding;
+    }
+
+    @Override
+    public boolean toData(Object object, PdxWriter writer) {
+        if (object instanceof Transaction transaction) {
+            writer.writeString("transactionId", transaction.getTransactionId());
+            writer.writeString("accountId", transaction.getAccountId());
+            writeInstant(writer, "timestamp", transaction.getTimestamp());
+            writer.writeString("description", transaction.getDescription());
+            writeAmount(writer, "amount", transaction.getAmount());
+            writer.writeBoolean("cleared", transaction.isCleared());
+            return true;
+        }
+
+        if (object instanceof Account account) {
+            writer.writeString("accountId", account.getAccountId());
+            writer.writeString("customerId", account.getCustomerId());
+            writeAmount(writer, "balance", account.getBalance());
+            writeInstant(writer, "balanceCalculatedDate", account.getBalanceCalculatedDate());
+            writer.writeStringArray("pendingTransactionIds", account.getPendingTransactionIds() == null ? null
+                    : account.getPendingTransactionIds().stream().sorted().toArray(String[]::new));
+            return true;
+        }
+
+        if (object instanceof Customer customer) {
+            writer.writeString("id", customer.getId());
+            writer.writeString("firstName", customer.getFirstName());
+            writer.writeString("lastName", customer.getLastName());
+            return true;
+        }
+
+        return delegate.toData(object, writer);
+    }
+
+    @Override
+    public Object fromData(Class<?> type, PdxReader reader) {
+        if (type == Transaction.class) {
+            var transaction = new Transaction();
+            transaction.setTransactionId(reader.readString("transactionId"));
+            transaction.setAccountId(reader.readString("accountId"));
+            transaction.setTimestamp(readInstant(reader, "timestamp"));
+            transaction.setDescription(reader.readString("description"));
+            transaction.setAmount(readAmount(reader, "amount"));
+            transaction.setCleared(reader.readBoolean("cleared"));
+            return transaction;
+        }
+
+        if (type == Account.class) {
+            var account = new Account();
+            account.setAccountId(reader.readString("accountId"));
+            account.setCustomerId(reader.readString("customerId"));
+            account.setBalance(readAmount(reader, "balance"));
+            account.setBalanceCalculatedDate(readInstant(reader, "balanceCalculatedDate"));
+            var pendingTransactionIds = reader.readStringArray("pendingTransactionIds");
+            account.setPendingTransactionIds(pendingTransactionIds == null ? null
+                    : new LinkedHashSet<>(Arrays.asList(pendingTransactionIds)));
+            return account;
+        }
+
+        if (type == Customer.class) {
+            var customer = new Customer();
+            customer.setId(reader.readString("id"));
+            customer.setFirstName(reader.readString("firstName"));
+            customer.setLastName(reader.readString("lastName"));
+            return customer;
+        }
+
+        return delegate.fromData(type, reader);
+    }
+
+    private void writeAmount(PdxWriter writer, String name, BigDecimal amount) {
+        if (amountEncoding == AmountEncoding.MINOR_UNITS) {
+            writer.writeLong(name, MinorUnits.of(amount));
+            return;
+        }
+
+        if (amount == null) {
+            writer.writeLong(name + "Unscaled", 0);
+            writer.writeInt(name + "Scale", NULL_SCALE);
+            return;
+        }
+
+        if (amount.scale() == NULL_SCALE) {
+            throw new IllegalArgumentException("Scale of " + name + " is out of range: " + amount);
+        }
+
+        try {
+            writer.writeLong(name + "Unscaled", amount.unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Unscaled value of " + name + " does not fit in a long: " + amount, e);
+        }
+        writer.writeInt(name + "Scale", amount.scale());
+    }
+
+    private BigDecimal readAmount(PdxReader reader, String name) {
+        if (amountEncoding == AmountEncoding.MINOR_UNITS) {
+            return MinorUnits.toDecimal(reader.readLong(name));
+        }
+
+        var unscaled = reader.readLong(name + "Unscaled");
+        var scale = reader.readInt(name + "Scale");
+
+        return scale == NULL_SCALE ? null : new BigDecimal(BigInteger.valueOf(unscaled), scale);
+    }
+
+    static void writeInstant(PdxWriter writer, String name, Instant instant) {
+        if (instant == null) {
+            writer.writeLong(name + "Nanos", NULL_INSTANT);
+            return;
+        }
+
+        try {
+            writer.writeLong(name + "Nanos",
+                    Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND), instant.getNano()));
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(name + " is out of the range of epoch nanoseconds: " + instant, e);
+        }
+    }
+
+    static Instant readInstant(PdxReader reader, String name) {
+        return toInstant(reader.readLong(name + "Nanos"));
+    }
+
+    /**
+     * Converts the epoch nanoseconds of a timestamp field to an {@link Instant}, or to null if they are
+     * {@link #NULL_INSTANT}.
+     */
+    static Instant toInstant(long nanos) {
+        return nanos == NULL_INSTANT ? null
+                : Instant.ofEpochSecond(Math.floorDiv(nanos, NANOS_PER_SECOND), Math.floorMod(nanos, NANOS_PER_SECOND));
+    }
+
+    /**
+     * How amounts ({@code Transaction.amount} and {@code Account.balance}) are written.
+     */
+    public enum AmountEncoding {
+        /**
+         * The unscaled value and the scale of the {@link BigDecimal}, which keeps every amount exactly as given.
+         */
+        DECIMAL,
+
+        /**
+         * A {@code long} number of {@link MinorUnits}, which can be summed and compared without deserializing.
+         */
+        MINOR_UNITS
+    }
+}
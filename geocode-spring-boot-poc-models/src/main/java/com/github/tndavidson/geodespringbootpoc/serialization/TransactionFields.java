@@ -0,0 +1,92 @@
+package com.github.tndavidson.geodespringbootpoc.serialization;
+
+import com.github.tndavidson.geodespringbootpoc.model.MinorUnits;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.apache.geode.pdx.PdxInstance;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Reads the fields of a transaction read on a server, from a query result or a cache event, which is either a
+ * {@link Transaction} or, on servers with PDX {@code read-serialized} enabled, a {@link PdxInstance} of one.
+ *
+ * A {@link PdxInstance} is read field by field, so a function can order or filter transactions without
+ * deserializing them, and deserialize only those it returns. Both PDX layouts are supported: the
+ * {@code ReflectionBasedAutoSerializer} layout, which writes the timestamp as a nested {@link Instant}, and the
+ * {@link ModelPdxSerializer} layout, which writes it as epoch nanoseconds in {@code timestampNanos}, with either
+ * amount encoding.
+ *
+ * Thread-Safety:
+ * - This class is stateless and thread-safe.
+ */
+public final class TransactionFields {
+
+    private TransactionFields() {
+    }
+
+    public static String transactionId(Object transaction) {
+        if (transaction instanceof PdxInstance pdx) {
+            return (String) pdx.getField("transactionId");
+        }
+
+        return asTransaction(transaction).getTransactionId();
+    }
+
+    public static String accountId(Object transaction) {
+        if (transaction instanceof PdxInstance pdx) {
+            return (String) pdx.getField("accountId");
+        }
+
+        return asTransaction(transaction).getAccountId();
+    }
+
+    /**
+     * Returns the amount, read from whichever amount field the transaction's PDX layout has: a {@link BigDecimal}
+     * from the reflection layout, a {@code long} of {@link MinorUnits}, or an unscaled value and scale.
+     */
+    public static BigDecimal amount(Object transaction) {
+        if (transaction instanceof PdxInstance pdx) {
+            if (pdx.hasField("amountScale")) {
+                var scale = (Integer) pdx.getField("amountScale");
+                return scale == ModelPdxSerializer.NULL_SCALE ? null
+                        : BigDecimal.valueOf((Long) pdx.getField("amountUnscaled"), scale);
+            }
+
+            var amount = pdx.getField("amount");
+            return amount instanceof Long minorUnits ? MinorUnits.toDecimal(minorUnits) : (BigDecimal) amount;
+        }
+
+        return asTransaction(transaction).getAmount();
+    }
+
+    public static Instant timestamp(Object transaction) {
+        if (transaction instanceof PdxInstance pdx) {
+            return pdx.hasField("timestampNanos")
+                    ? ModelPdxSerializer.toInstant((Long) pdx.getField("timestampNanos"))
+                    : (Instant) pdx.getField("timestamp");
+        }
+
+        return asTransaction(transaction).getTimestamp();
+    }
+
+    /**
+     * Returns the transaction, deserializing it if it is a {@link PdxInstance}.
+     */
+    public static Transaction toTransaction(Object transaction) {
+        if (transaction instanceof PdxInstance pdx) {
+            return asTransaction(pdx.getObject());
+        }
+
+        return asTransaction(transaction);
+    }
+
+    private static Transaction asTransaction(Object transaction) {
+        if (transaction instanceof Transaction value) {
+            return value;
+        }
+
+        throw new IllegalArgumentException("Expected a Transaction, but received: "
+                + (transaction == null ? "null" : transaction.getClass().getName()));
+    }
+}
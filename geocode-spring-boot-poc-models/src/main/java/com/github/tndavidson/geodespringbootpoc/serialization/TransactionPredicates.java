@@ -0,0 +1,79 @@
+package com.github.tndavidson.geodespringbootpoc.serialization;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.pdx.PdxInstance;
+
+import java.time.Instant;
+
+/**
+ * Builds OQL conditions on the fields of a transaction that match the way the member holds transactions.
+ *
+ * On servers with PDX {@code read-serialized} enabled, queries evaluate each transaction as a {@link PdxInstance},
+ * and a condition on a field the PDX type does not have deserializes the transaction to evaluate it. The conditions
+ * built for those servers name the fields as the member's serializer writes them. With the {@link ModelPdxSerializer},
+ * timestamps are compared and ordered on the {@code timestampNanos} field, with bind parameters in epoch nanoseconds,
+ * and with its {@link ModelPdxSerializer.AmountEncoding#DECIMAL} encoding the sign of an amount is the sign of its
+ * {@code amountUnscaled} field. Both the {@link ModelPdxSerializer} and the reflection serializer write the
+ * {@code cleared} flag as a field of that name. Other members can hold transactions deserialized, on which only the properties of
+ * {@code Transaction} resolve, so the conditions built for them name the properties.
+ *
+ * Thread-Safety:
+ * - This class is stateless and thread-safe.
+ */
+public final class TransactionPredicates {
+
+    private TransactionPredicates() {
+    }
+
+    /**
+     * Returns the condition that the transaction named {@code alias} is a deposit, with an amount greater than zero.
+     * A null amount is never a deposit.
+     */
+    public static String isDeposit(Cache cache, String alias) {
+        return isDecimalCodec(cache) ? alias + ".amountUnscaled > 0" : alias + ".amount > 0";
+    }
+
+    /**
+     * Returns the condition that the transaction named {@code alias} has been cleared. On members that can hold
+     * transactions deserialized, the flag is read through {@code isCleared()}, since OQL does not resolve
+     * {@code cleared} on the object.
+     */
+    public static String isCleared(Cache cache, String alias) {
+        return cache.getPdxReadSerialized() ? alias + ".cleared = true" : alias + ".isCleared() = true";
+    }
+
+    /**
+     * Returns the expression of the timestamp of the transaction named {@code alias}, to compare with the values of
+     * {@link #timestampValue(Cache, Instant)} or to order by.
+     */
+    public static String timestamp(Cache cache, String alias) {
+        return isCodec(cache) ? alias + ".timestampNanos" : alias + ".timestamp";
+    }
+
+    /**
+     * Returns the bind parameter to compare with {@link #timestamp(Cache, String)}. In epoch nanoseconds, instants
+     * beyond their range are clamped to it, with the smallest value left to the null timestamp, so
+     * {@link Instant#MIN} and {@link Instant#MAX} can still be used as bounds.
+     */
+    public static Object timestampValue(Cache cache, Instant instant) {
+        if (!isCodec(cache)) {
+            return instant;
+        }
+
+        try {
+            return Math.max(ModelPdxSerializer.NULL_INSTANT + 1,
+                    Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano()));
+        } catch (ArithmeticException e) {
+            return instant.getEpochSecond() < 0 ? ModelPdxSerializer.NULL_INSTANT + 1 : Long.MAX_VALUE;
+        }
+    }
+
+    private static boolean isCodec(Cache cache) {
+        return cache.getPdxReadSerialized() && cache.getPdxSerializer() instanceof ModelPdxSerializer;
+    }
+
+    private static boolean isDecimalCodec(Cache cache) {
+        return isCodec(cache) && ((ModelPdxSerializer) cache.getPdxSerializer()).getAmountEncoding()
+                == ModelPdxSerializer.AmountEncoding.DECIMAL;
+    }
+}
@@ -0,0 +1,338 @@
+package com.github.tndavidson.geodespringbootpoc.writebehind;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A {@link WriteBehindStore} that appends the changes to a log file per member, {@code <member name>.log}, in a
+ * directory that needs nothing but the local file system.
+ *
+ * Each batch is written as one frame: its length, a CRC-32 checksum, the time it was written and the Java-serialized
+ * changes, so the class descriptors of the values are written once per batch. A frame left incomplete by a crash is
+ * ignored when the log is read, and cut off before the next batch is appended.
+ *
+ * The members of a cluster may share the directory, so that one member can reload the changes written by all of
+ * them. Their logs are then merged by the time each frame was written, so clocks should be synchronized; changes to
+ * the same entry are written by one member at a time, as long as the queue's primary does not move. Each member
+ * only ever writes and compacts its own log, so the directory may also be local to each member, which is enough
+ * for the logs to survive a restart but not for one member to reload the changes of all of them.
+ *
+ * Parameters:
+ * - {@value #DIRECTORY}: the directory of the logs, relative to the member's working directory; defaults to
+ *   {@code write-behind}.
+ * - {@value #SYNC}: whether each batch is forced to the storage device before it is acknowledged; defaults to true.
+ *   Without it, a batch written just before the host fails may be lost.
+ *
+ * Thread-Safety:
+ * - This class is thread-safe; writes and compaction are serialized.
+ */
+public class AppendOnlyLogStore implements WriteBehindStore {
+
+    public static final String DIRECTORY = "directory";
+
+    public static final String SYNC = "sync";
+
+    static final String EXTENSION = ".log";
+
+    private static final int HEADER_LENGTH = 16;
+
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "com.github.tndavidson.geodespringbootpoc.model.*;java.base/*;!*");
+
+    private Path directory;
+
+    private Path file;
+
+    private boolean sync;
+
+    private boolean recovered;
+
+    @Override
+    public synchronized void open(Properties properties) throws IOException {
+        directory = Path.of(properties.getProperty(DIRECTORY, "write-behind"));
+        file = directory.resolve(properties.getProperty(WriteBehindListener.MEMBER_NAME) + EXTENSION);
+        sync = Boolean.parseBoolean(properties.getProperty(SYNC, "true"));
+        Files.createDirectories(directory);
+    }
+
+    @Override
+    public synchronized void write(List<RegionChange> changes) throws IOException {
+        if (!recovered) {
+            truncateIncompleteFrame();
+            recovered = true;
+        }
+
+        try (var channel = FileChannel.open(file, CREATE, WRITE, APPEND)) {
+            writeFrame(channel, System.currentTimeMillis(), changes);
+
+            if (sync) {
+                channel.force(false);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void read(Consumer<RegionChange> consumer) throws IOException {
+        List<Path> logs;
+
+        try (var files = Files.list(directory)) {
+            logs = files.filter(path -> path.getFileName().toString().endsWith(EXTENSION)).sorted().toList();
+        }
+
+        var readers = new ArrayList<FrameReader>(logs.size());
+        var oldestFirst = new PriorityQueue<>(Comparator.comparingLong(FrameReader::timestamp)
+                .thenComparingInt(FrameReader::index));
+
+        try {
+            for (var log : logs) {
+                var reader = new FrameReader(readers.size(), log);
+                readers.add(reader);
+
+                if (reader.next()) {
+                    oldestFirst.add(reader);
+                }
+            }
+
+            while (!oldestFirst.isEmpty()) {
+                var reader = oldestFirst.poll();
+                decode(reader.payload()).forEach(consumer);
+
+                if (reader.next()) {
+                    oldestFirst.add(reader);
+                }
+            }
+        } finally {
+            for (var reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Rewrites this member's log without the changes followed by a later change to the same entry in the log. Each
+     * remaining change keeps the frame, and so the time, it was written with, so the logs of the members are merged
+     * as before. Destroys are kept, as another member's log may hold an earlier value of the entry.
+     *
+     * The log is read twice, first to find the last change of each entry, by its position in the log, then to copy
+     * those changes, so only the region names and keys of the entries are held in memory. Writes wait while the log
+     * is rewritten; the rewritten log replaces the old one atomically.
+     */
+    @Override
+    public synchronized void compact() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        if (!recovered) {
+            truncateIncompleteFrame();
+            recovered = true;
+        }
+
+        Map<List<Object>, Long> lastChanges = new HashMap<>();
+        long changes = 0;
+
+        try (var reader = new FrameReader(0, file)) {
+            while (reader.next()) {
+                for (var change : decode(reader.payload())) {
+                    lastChanges.put(List.of(change.regionName(), change.key()), changes++);
+                }
+            }
+        }
+
+        if (lastChanges.size() == changes) {
+            return;
+        }
+
+        var compacted = directory.resolve(file.getFileName() + ".tmp");
+        long position = 0;
+
+        try (var reader = new FrameReader(0, file);
+             var channel = FileChannel.open(compacted, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            while (reader.next()) {
+                var kept = new ArrayList<RegionChange>();
+
+                for (var change : decode(reader.payload())) {
+                    if (lastChanges.get(List.of(change.regionName(), change.key())) == position++) {
+                        kept.add(change);
+                    }
+                }
+
+                if (!kept.isEmpty()) {
+                    writeFrame(channel, reader.timestamp(), kept);
+                }
+            }
+
+            channel.force(false);
+        }
+
+        Files.move(compacted, file, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    private void truncateIncompleteFrame() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        long end;
+
+        try (var reader = new FrameReader(0, file)) {
+            while (reader.next()) {
+                // skip to the end of the last complete frame
+            }
+            end = reader.end();
+        }
+
+        try (var channel = FileChannel.open(file, WRITE)) {
+            if (channel.size() > end) {
+                channel.truncate(end);
+            }
+        }
+    }
+
+    private static void writeFrame(FileChannel channel, long timestamp, List<RegionChange> changes) throws IOException {
+        var payload = encode(changes);
+        var header = ByteBuffer.allocate(HEADER_LENGTH)
+                .putInt(payload.length)
+                .putInt(checksum(timestamp, payload))
+                .putLong(timestamp)
+                .flip();
+        var buffers = new ByteBuffer[]{header, ByteBuffer.wrap(payload)};
+
+        while (buffers[1].hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+
+    private static int checksum(long timestamp, byte[] payload) {
+        var crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(timestamp).flip());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(List<RegionChange> changes) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeInt(changes.size());
+
+            for (var change : changes) {
+                out.writeUTF(change.regionName());
+                out.writeObject(change.key());
+                out.writeObject(change.value());
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static List<RegionChange> decode(byte[] payload) throws IOException {
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            in.setObjectInputFilter(FILTER);
+            var count = in.readInt();
+            var changes = new ArrayList<RegionChange>(count);
+
+            for (int i = 0; i < count; i++) {
+                changes.add(new RegionChange(in.readUTF(), in.readObject(), in.readObject()));
+            }
+
+            return changes;
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Cannot read a change of a class that is not deployed", e);
+        }
+    }
+
+    /**
+     * Reads the complete frames of a log, stopping at the first incomplete or corrupt frame.
+     */
+    private static final class FrameReader implements AutoCloseable {
+
+        private final int index;
+
+        private final DataInputStream in;
+
+        private long end;
+
+        private long timestamp;
+
+        private byte[] payload;
+
+        FrameReader(int index, Path log) throws IOException {
+            this.index = index;
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(log)));
+        }
+
+        boolean next() throws IOException {
+            try {
+                var length = in.readInt();
+                var checksum = in.readInt();
+                var frameTimestamp = in.readLong();
+
+                if (length < 0) {
+                    return false;
+                }
+
+                var framePayload = in.readNBytes(length);
+
+                if (framePayload.length < length || checksum(frameTimestamp, framePayload) != checksum) {
+                    return false;
+                }
+
+                timestamp = frameTimestamp;
+                payload = framePayload;
+                end += HEADER_LENGTH + length;
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        int index() {
+            return index;
+        }
+
+        long timestamp() {
+            return timestamp;
+        }
+
+        byte[] payload() {
+            return payload;
+        }
+
+        long end() {
+            return end;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.tndavidson.geodespringbootpoc.writebehind;
+
+import java.io.Serializable;
+
+/**
+ * A change to an entry of a region, as written behind to a {@link WriteBehindStore}: the entry's new value, or a
+ * null value if the entry was destroyed.
+ *
+ * @param regionName the name of the region
+ * @param key        the key of the entry
+ * @param value      the new value of the entry, or null if it was destroyed
+ */
+public record RegionChange(String regionName, Object key, Object value) implements Serializable {
+
+    public boolean isDestroy() {
+        return value == null;
+    }
+}
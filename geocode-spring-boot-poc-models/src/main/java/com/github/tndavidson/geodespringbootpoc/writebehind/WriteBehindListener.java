@@ -0,0 +1,238 @@
+package com.github.tndavidson.geodespringbootpoc.writebehind;
+
+import org.apache.geode.StatisticDescriptor;
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsFactory;
+import org.apache.geode.StatisticsType;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.Declarable;
+import org.apache.geode.cache.asyncqueue.AsyncEvent;
+import org.apache.geode.cache.asyncqueue.AsyncEventListener;
+import org.apache.geode.pdx.PdxInstance;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The WriteBehindListener is an {@link AsyncEventListener} that writes the changes to the regions of its
+ * {@code AsyncEventQueue} to a {@link WriteBehindStore}, so the data survives a restart of the whole cluster without
+ * the regions writing to disk synchronously. Puts only wait for their event to be queued; the queue then delivers
+ * the events to this listener in batches of up to its {@code batch-size}, at least every {@code batch-time-interval}
+ * milliseconds.
+ *
+ * The listener performs the following tasks for each batch:
+ * 1. Converts each create, update and destroy to a {@link RegionChange}, keeping only the last change of each
+ *    entry in the batch, and deserializing values that arrive as {@link PdxInstance}s.
+ * 2. Writes the changes to the store. If the write fails, the batch is returned to the queue and delivered again.
+ *
+ * Key Details:
+ * - Events whose callback argument is {@link #RELOAD_CALLBACK_ARGUMENT} are not written, so the entries that the
+ *   {@link WriteBehindReloadFunction} puts back into the regions are not written again.
+ * - Invalidates are not written, and expiration destroys are only delivered if the queue forwards them.
+ * - The store is selected with the {@value #STORE} parameter, the class name of a {@link WriteBehindStore}; it
+ *   defaults to {@link AppendOnlyLogStore}. All parameters are passed to the store when it is opened.
+ * - The changes written by this member are compacted when the store is opened, before the queue delivers any
+ *   batch, so each member's part of the store holds each entry about once after a restart.
+ *
+ * Statistics:
+ * Batches are recorded as member statistics of the type {@value #STATISTICS_TYPE_NAME}, which appear in the member's
+ * statistics archive:
+ * - {@code batchesWritten}, {@code changesWritten} and {@code writeTime}: batches and changes written to the store,
+ *   and the nanoseconds spent writing them.
+ * - {@code eventsSkipped}: events not written, because a later event in the same batch changed the same entry, or
+ *   because they were not a create, update or destroy.
+ * - {@code writeFailures}: batches that could not be written and were returned to the queue.
+ * - {@code queueSize}: the events still in the queue after the last batch, which is how far the store lags behind
+ *   the regions.
+ * - {@code lastWriteTime}: the time, in milliseconds since the epoch, at which the last batch was written, as the
+ *   {@link AppendOnlyLogStore} also records it in each frame. Changes made since then, at most {@code queueSize}
+ *   events, would be lost by a restart of the whole cluster.
+ *
+ * This listener is created with the gfsh {@code create async-event-queue} command, as
+ * {@code scripts/gfsh/enable-write-behind.gfsh} does.
+ *
+ * Thread-Safety:
+ * - This class is thread-safe, as long as the store is.
+ */
+public class WriteBehindListener implements AsyncEventListener, Declarable {
+
+    public static final String RELOAD_CALLBACK_ARGUMENT = "write-behind-reload";
+
+    public static final String STORE = "store";
+
+    /**
+     * The store parameter holding the name of the member, set by the listener.
+     */
+    public static final String MEMBER_NAME = "member-name";
+
+    public static final String STATISTICS_TYPE_NAME = "WriteBehindStats";
+
+    private Cache cache;
+
+    private WriteBehindStore store;
+
+    private WriteBehindStatistics statistics;
+
+    @Override
+    public void initialize(Cache cache, Properties properties) {
+        var storeProperties = new Properties();
+        storeProperties.putAll(properties);
+        storeProperties.putIfAbsent(MEMBER_NAME, memberName(cache));
+
+        try {
+            var storeClass = getClass().getClassLoader()
+                    .loadClass(properties.getProperty(STORE, AppendOnlyLogStore.class.getName()));
+            store = (WriteBehindStore) storeClass.getConstructor().newInstance();
+            store.open(storeProperties);
+            store.compact();
+        } catch (IOException | ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot open the write-behind store", e);
+        }
+
+        this.cache = cache;
+        this.statistics = WriteBehindStatistics.create(cache, storeProperties.getProperty(MEMBER_NAME));
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean processEvents(List<AsyncEvent> events) {
+        var changes = changes(events);
+        var skipped = events.size() - changes.size();
+
+        if (changes.isEmpty()) {
+            return true;
+        }
+
+        var start = System.nanoTime();
+
+        try {
+            store.write(changes);
+        } catch (IOException | RuntimeException e) {
+            statistics.incWriteFailures();
+            cache.getLogger().warning("Could not write " + changes.size() + " changes behind, they will be retried", e);
+            return false;
+        }
+
+        statistics.endWrite(start, changes.size(), skipped, queueSize());
+        return true;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (store != null) {
+                store.close();
+            }
+        } catch (IOException e) {
+            cache.getLogger().warning("Could not close the write-behind store", e);
+        }
+    }
+
+    WriteBehindStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the last change of each entry changed by the events, in the order the entries were first changed.
+     */
+    @SuppressWarnings("rawtypes")
+    static List<RegionChange> changes(List<AsyncEvent> events) {
+        Map<List<Object>, RegionChange> changes = new LinkedHashMap<>();
+
+        for (var event : events) {
+            if (RELOAD_CALLBACK_ARGUMENT.equals(event.getCallbackArgument())) {
+                continue;
+            }
+
+            var operation = event.getOperation();
+            Object value;
+
+            if (operation.isCreate() || operation.isUpdate()) {
+                value = event.getDeserializedValue();
+
+                if (value == null) {
+                    continue;
+                }
+
+                if (value instanceof PdxInstance pdx) {
+                    value = pdx.getObject();
+                }
+            } else if (operation.isDestroy()) {
+                value = null;
+            } else {
+                continue;
+            }
+
+            var regionName = event.getRegion().getName();
+            changes.put(List.of(regionName, event.getKey()), new RegionChange(regionName, event.getKey(), value));
+        }
+
+        return new ArrayList<>(changes.values());
+    }
+
+    private long queueSize() {
+        for (var queue : cache.getAsyncEventQueues()) {
+            if (queue.getAsyncEventListener() == this) {
+                return queue.size();
+            }
+        }
+
+        return 0;
+    }
+
+    private static String memberName(Cache cache) {
+        var member = cache.getDistributedSystem().getDistributedMember();
+        var name = member.getName();
+
+        return name == null || name.isEmpty() ? member.getId().replaceAll("[^A-Za-z0-9._-]", "_") : name;
+    }
+
+    private record WriteBehindStatistics(Statistics statistics, int batchesId, int changesId, int skippedId,
+                                         int writeTimeId, int failuresId, int queueSizeId, int lastWriteTimeId) {
+
+        static WriteBehindStatistics create(Cache cache, String textId) {
+            StatisticsFactory factory = cache.getDistributedSystem();
+            StatisticsType type;
+
+            // the listeners of several queues may create the type at the same time, and only one can define it
+            synchronized (WriteBehindStatistics.class) {
+                type = factory.findType(STATISTICS_TYPE_NAME);
+
+                if (type == null) {
+                    type = factory.createType(STATISTICS_TYPE_NAME, "Region changes written behind to a durable store",
+                            new StatisticDescriptor[]{
+                                    factory.createLongCounter("batchesWritten", "Batches written to the store", "operations"),
+                                    factory.createLongCounter("changesWritten", "Changes written to the store", "operations"),
+                                    factory.createLongCounter("eventsSkipped", "Events not written, because a later event changed the same entry in the batch or they were not a create, update or destroy", "operations"),
+                                    factory.createLongCounter("writeTime", "Time spent writing batches", "nanoseconds"),
+                                    factory.createLongCounter("writeFailures", "Batches that could not be written and were retried", "operations"),
+                                    factory.createLongGauge("queueSize", "Events left in the queue after the last batch", "operations"),
+                                    factory.createLongGauge("lastWriteTime", "Time at which the last batch was written, since the epoch", "milliseconds")
+                            });
+                }
+            }
+
+            return new WriteBehindStatistics(factory.createAtomicStatistics(type, textId),
+                    type.nameToId("batchesWritten"), type.nameToId("changesWritten"), type.nameToId("eventsSkipped"),
+                    type.nameToId("writeTime"), type.nameToId("writeFailures"), type.nameToId("queueSize"),
+                    type.nameToId("lastWriteTime"));
+        }
+
+        void endWrite(long start, int changes, int skipped, long queueSize) {
+            statistics.incLong(writeTimeId, System.nanoTime() - start);
+            statistics.incLong(batchesId, 1);
+            statistics.incLong(changesId, changes);
+            statistics.incLong(skippedId, skipped);
+            statistics.setLong(queueSizeId, queueSize);
+            statistics.setLong(lastWriteTimeId, System.currentTimeMillis());
+        }
+
+        void incWriteFailures() {
+            statistics.incLong(failuresId, 1);
+        }
+    }
+}
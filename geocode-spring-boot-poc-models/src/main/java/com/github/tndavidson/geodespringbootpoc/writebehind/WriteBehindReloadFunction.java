@@ -0,0 +1,172 @@
+package com.github.tndavidson.geodespringbootpoc.writebehind;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Declarable;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.execute.Function;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.ResultSender;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The WriteBehindReloadFunction is a server-side implementation of the Function interface that reloads the
+ * regions from the {@link WriteBehindStore} of the member's {@link WriteBehindListener}, after a restart of the
+ * cluster.
+ *
+ * The function performs the following tasks:
+ * 1. Reads every change in the store, oldest first. Regions that are not empty when their first change is read, or
+ *    do not exist, are skipped.
+ * 2. Collects the changes of each region in batches of the requested size, keeping the last change of each entry
+ *    in the batch, and applies each full batch with {@code putAll} for the new values and {@code removeAll} for the
+ *    destroyed entries, so applying the batches in order leaves each entry with its last value.
+ * 3. Returns the number of entries in each reloaded region.
+ *
+ * Key Details:
+ * - The function must run on one member with a {@link WriteBehindListener}, whose store can read the changes
+ *   written by every member, such as an {@link AppendOnlyLogStore} in a directory shared by the members.
+ * - Only one batch per region is held in memory, however many changes the store holds.
+ * - The store is not changed: each member compacts the changes it wrote itself when its store is opened, so the
+ *   changes that members write while the function runs are kept.
+ * - Entries are put and removed with the callback argument {@link WriteBehindListener#RELOAD_CALLBACK_ARGUMENT}, so
+ *   they are not written to the store again. Cache listeners still see them as creates, so the account aggregates
+ *   are rebuilt.
+ * - The function is not highly available: after a partial reload, the regions it filled are no longer empty, so
+ *   running it again would skip them.
+ *
+ * This function is registered with an ID defined by the constant {@code ID}. It accepts the batch size as an
+ * optional {@code Integer} argument.
+ *
+ * Error Handling:
+ * - Exceptions while reading the store or writing the regions are sent through the ResultSender.
+ */
+public class WriteBehindReloadFunction implements Function<Object>, Declarable {
+
+    public static final String ID = "WRITE_BEHIND_RELOAD_FUNCTION";
+
+    static final int DEFAULT_BATCH_SIZE = 1_000;
+
+    @Override
+    public void execute(FunctionContext<Object> context) {
+        final ResultSender<Map<String, Integer>> resultSender = context.getResultSender();
+
+        try {
+            var batchSize = context.getArguments() instanceof Integer size && size > 0 ? size : DEFAULT_BATCH_SIZE;
+            var cache = CacheFactory.getAnyInstance();
+            var store = listener(cache).getStore();
+
+            // the batch of each region being reloaded, or null for a skipped region
+            Map<String, Batch> batches = new LinkedHashMap<>();
+
+            store.read(change -> {
+                if (!batches.containsKey(change.regionName())) {
+                    batches.put(change.regionName(), batch(cache, change.regionName()));
+                }
+
+                var batch = batches.get(change.regionName());
+
+                if (batch != null && batch.add(change) == batchSize) {
+                    batch.flush();
+                }
+            });
+
+            Map<String, Integer> reloaded = new LinkedHashMap<>();
+
+            batches.forEach((regionName, batch) -> {
+                if (batch != null) {
+                    batch.flush();
+                    reloaded.put(regionName, batch.region.size());
+                }
+            });
+
+            resultSender.lastResult(reloaded);
+
+        } catch (Exception e) {
+            resultSender.sendException(e);
+        }
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public boolean isHA() {
+        return false;
+    }
+
+    private static WriteBehindListener listener(Cache cache) {
+        for (var queue : cache.getAsyncEventQueues()) {
+            if (queue.getAsyncEventListener() instanceof WriteBehindListener listener) {
+                return listener;
+            }
+        }
+
+        throw new IllegalStateException("No async event queue with a WriteBehindListener on this member");
+    }
+
+    private static Batch batch(Cache cache, String regionName) {
+        Region<Object, Object> region = cache.getRegion(regionName);
+
+        if (region == null || !region.isEmpty()) {
+            cache.getLogger().warning("Not reloading region " + regionName + ", which "
+                    + (region == null ? "does not exist" : "is not empty"));
+            return null;
+        }
+
+        return new Batch(region);
+    }
+
+    /**
+     * The last change of each entry of a region read since the batch was last applied, with a null value for a
+     * destroyed entry.
+     */
+    private static final class Batch {
+
+        private final Region<Object, Object> region;
+
+        private final Map<Object, Object> changes = new HashMap<>();
+
+        Batch(Region<Object, Object> region) {
+            this.region = region;
+        }
+
+        int add(RegionChange change) {
+            changes.put(change.key(), change.value());
+            return changes.size();
+        }
+
+        void flush() {
+            if (changes.isEmpty()) {
+                return;
+            }
+
+            Map<Object, Object> puts = new HashMap<>();
+            List<Object> removes = new ArrayList<>();
+
+            changes.forEach((key, value) -> {
+                if (value == null) {
+                    removes.add(key);
+                } else {
+                    puts.put(key, value);
+                }
+            });
+
+            if (!puts.isEmpty()) {
+                region.putAll(puts, WriteBehindListener.RELOAD_CALLBACK_ARGUMENT);
+            }
+
+            if (!removes.isEmpty()) {
+                region.removeAll(removes, WriteBehindListener.RELOAD_CALLBACK_ARGUMENT);
+            }
+
+            changes.clear();
+        }
+    }
+}
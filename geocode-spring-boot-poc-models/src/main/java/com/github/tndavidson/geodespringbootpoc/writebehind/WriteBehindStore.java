@@ -0,0 +1,50 @@
+package com.github.tndavidson.geodespringbootpoc.writebehind;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+/**
+ * A durable store that the {@link WriteBehindListener} writes region changes to, and that the
+ * {@link WriteBehindReloadFunction} reloads the regions from.
+ *
+ * An implementation is selected with the {@code store} parameter of the listener, and must have a public no-argument
+ * constructor. It is opened with the listener's parameters, so it can take its own settings from them.
+ *
+ * Thread-Safety:
+ * - Implementations must be thread-safe. A queue with several dispatcher threads writes from each of them.
+ */
+public interface WriteBehindStore {
+
+    /**
+     * Opens the store.
+     *
+     * @param properties the parameters of the listener, and {@link WriteBehindListener#MEMBER_NAME} set to the name
+     *                   of the member
+     */
+    void open(Properties properties) throws IOException;
+
+    /**
+     * Durably writes a batch of changes, in order. When this method returns, the changes must survive a restart
+     * of the member.
+     */
+    void write(List<RegionChange> changes) throws IOException;
+
+    /**
+     * Reads every change written to the store, oldest first, so that applying them in order leaves each entry with
+     * its last written value.
+     */
+    void read(Consumer<RegionChange> consumer) throws IOException;
+
+    /**
+     * Rewrites the changes written by this member so that only the last change of each entry is kept, so that the
+     * store does not grow without bounds. The changes written by other members are left as they are, and reading
+     * the store must return the same last change of each entry afterwards. It may be called while changes are
+     * written.
+     */
+    void compact() throws IOException;
+
+    default void close() throws IOException {
+    }
+}
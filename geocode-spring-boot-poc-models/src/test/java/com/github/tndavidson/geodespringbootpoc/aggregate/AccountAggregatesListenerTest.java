@@ -0,0 +1,317 @@
+package com.github.tndavidson.geodespringbootpoc.aggregate;
+
+import com.github.tndavidson.geodespringbootpoc.model.AccountAggregates;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.apache.geode.LogWriter;
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsType;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.EntryEvent;
+import org.apache.geode.cache.Operation;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionAttributes;
+import org.apache.geode.distributed.DistributedSystem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AccountAggregatesListenerTest {
+
+    private static final Instant FIRST = Instant.parse("2024-03-01T12:00:00Z");
+
+    private static final Instant SECOND = Instant.parse("2024-03-02T12:00:00Z");
+
+    private AccountAggregatesListener listener;
+
+    @Mock
+    private ExecutorService executor;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private LogWriter logger;
+
+    @Mock
+    private Region<String, Object> aggregatesRegion;
+
+    @Mock
+    private Region<Object, Object> transactionRegion;
+
+    @Mock
+    private RegionAttributes<Object, Object> transactionRegionAttributes;
+
+    @Mock
+    private EntryEvent<Object, Object> event;
+
+    @Mock
+    private DistributedSystem distributedSystem;
+
+    @Mock
+    private StatisticsType statisticsType;
+
+    @Mock
+    private Statistics statistics;
+
+    private MockedStatic<CacheFactory> mockedCacheFactory;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        listener = new AccountAggregatesListener(executor);
+
+        mockedCacheFactory = mockStatic(CacheFactory.class);
+        mockedCacheFactory.when(CacheFactory::getAnyInstance).thenReturn(cache);
+
+        when(cache.getLogger()).thenReturn(logger);
+        when(cache.getDistributedSystem()).thenReturn(distributedSystem);
+        when(distributedSystem.findType(AccountAggregatesListener.STATISTICS_TYPE_NAME)).thenReturn(statisticsType);
+        when(distributedSystem.createAtomicStatistics(statisticsType, AccountAggregatesListener.REGION_NAME))
+                .thenReturn(statistics);
+        when(statisticsType.nameToId("changesApplied")).thenReturn(0);
+        when(statisticsType.nameToId("updateConflicts")).thenReturn(1);
+        when(statisticsType.nameToId("updateFailures")).thenReturn(2);
+        when(statisticsType.nameToId("updatesWithoutOldValue")).thenReturn(3);
+        when(statisticsType.nameToId("changeBacklog")).thenReturn(4);
+        doReturn(aggregatesRegion).when(cache).getRegion(AccountAggregatesListener.REGION_NAME);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(any());
+        when(transactionRegion.getAttributes()).thenReturn(transactionRegionAttributes);
+        when(event.getRegion()).thenReturn(transactionRegion);
+        when(event.getKey()).thenReturn("tx-1");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        mockedCacheFactory.close();
+        closeable.close();
+    }
+
+    @Test
+    public void testCreateAddsTheFirstAggregatesOfAnAccount() {
+        when(event.getOperation()).thenReturn(Operation.CREATE);
+        when(event.getNewValue()).thenReturn(transaction("acc1", "10.00", FIRST));
+        when(aggregatesRegion.putIfAbsent(eq("acc1"), any())).thenReturn(null);
+
+        listener.afterCreate(event);
+
+        var expected = AccountAggregation.empty("acc1");
+        expected.setTransactionCount(1);
+        expected.setDepositCount(1);
+        expected.setNetTotal(new BigDecimal("10.00"));
+        expected.setDepositTotal(new BigDecimal("10.00"));
+        expected.setFirstActivity(FIRST);
+        expected.setLastActivity(FIRST);
+        verify(aggregatesRegion).putIfAbsent("acc1", expected);
+    }
+
+    @Test
+    public void testEventsFromOtherMembersAreNotApplied() {
+        when(event.getOperation()).thenReturn(Operation.CREATE);
+        when(event.isOriginRemote()).thenReturn(true);
+        when(event.getNewValue()).thenReturn(transaction("acc1", "10.00", FIRST));
+
+        listener.afterCreate(event);
+
+        verifyNoInteractions(executor, aggregatesRegion);
+    }
+
+    @Test
+    public void testExpirationIsNotApplied() {
+        when(event.getOperation()).thenReturn(Operation.EXPIRE_DESTROY);
+        when(event.getOldValue()).thenReturn(transaction("acc1", "10.00", FIRST));
+
+        listener.afterDestroy(event);
+
+        verifyNoInteractions(executor, aggregatesRegion);
+    }
+
+    @Test
+    public void testClearingATransactionDoesNotChangeTheAggregates() {
+        var cleared = transaction("acc1", "10.0", FIRST);
+        cleared.setCleared(true);
+        when(event.getOperation()).thenReturn(Operation.UPDATE);
+        when(event.getOldValue()).thenReturn(transaction("acc1", "10.00", FIRST));
+        when(event.getNewValue()).thenReturn(cleared);
+
+        listener.afterUpdate(event);
+
+        verifyNoInteractions(executor, aggregatesRegion);
+    }
+
+    @Test
+    public void testDestroyRetriesWhenTheAggregatesChangedConcurrently() {
+        var aggregates = AccountAggregation.plus(AccountAggregation.empty("acc1"),
+                AccountAggregation.change(new BigDecimal("-4.00"), FIRST, 1));
+        var concurrent = AccountAggregation.plus(aggregates,
+                AccountAggregation.change(new BigDecimal("6.00"), SECOND, 1));
+        when(event.getOperation()).thenReturn(Operation.DESTROY);
+        when(event.getOldValue()).thenReturn(transaction("acc1", "-4.00", FIRST));
+        when(aggregatesRegion.get("acc1")).thenReturn(aggregates, concurrent);
+        when(aggregatesRegion.replace(eq("acc1"), eq(aggregates), any())).thenReturn(false);
+        when(aggregatesRegion.replace(eq("acc1"), eq(concurrent), any())).thenReturn(true);
+
+        listener.afterDestroy(event);
+
+        var expected = AccountAggregation.empty("acc1");
+        expected.setTransactionCount(1);
+        expected.setDepositCount(1);
+        expected.setNetTotal(new BigDecimal("6.00"));
+        expected.setDepositTotal(new BigDecimal("6.00"));
+        expected.setWithdrawalTotal(new BigDecimal("0.00"));
+        expected.setFirstActivity(FIRST);
+        expected.setLastActivity(SECOND);
+        verify(aggregatesRegion).replace("acc1", concurrent, expected);
+        verify(statistics).incLong(1, 1);
+        verify(statistics).incLong(0, 1);
+    }
+
+    @Test
+    public void testChangeIsGivenUpAfterTheMaximumAttempts() {
+        var aggregates = AccountAggregation.plus(AccountAggregation.empty("acc1"),
+                AccountAggregation.change(new BigDecimal("-4.00"), FIRST, 1));
+        when(event.getOperation()).thenReturn(Operation.CREATE);
+        when(event.getNewValue()).thenReturn(transaction("acc1", "10.00", FIRST));
+        when(aggregatesRegion.get("acc1")).thenReturn(aggregates);
+        when(aggregatesRegion.replace(eq("acc1"), eq(aggregates), any())).thenReturn(false);
+
+        listener.afterCreate(event);
+
+        verify(aggregatesRegion, times(AccountAggregatesListener.MAX_ATTEMPTS)).replace(eq("acc1"), eq(aggregates), any());
+        verify(statistics, times(AccountAggregatesListener.MAX_ATTEMPTS)).incLong(1, 1);
+        verify(statistics).incLong(2, 1);
+        verify(logger).error(anyString(), any(IllegalStateException.class));
+    }
+
+    @Test
+    public void testMovingATransactionChangesBothAccounts() {
+        var changes = AccountAggregatesListener.changes(transaction("acc1", "5.00", FIRST),
+                transaction("acc2", "-5.00", SECOND));
+
+        assertEquals(-1, changes.get("acc1").getTransactionCount());
+        assertEquals(-1, changes.get("acc1").getDepositCount());
+        assertEquals(new BigDecimal("-5.00"), changes.get("acc1").getDepositTotal());
+        assertNull(changes.get("acc1").getLastActivity());
+        assertEquals(1, changes.get("acc2").getTransactionCount());
+        assertEquals(new BigDecimal("5.00"), changes.get("acc2").getWithdrawalTotal());
+        assertEquals(SECOND, changes.get("acc2").getLastActivity());
+    }
+
+    @Test
+    public void testChangingAnAmountOnlyChangesTheTotals() {
+        var changes = AccountAggregatesListener.changes(transaction("acc1", "5.00", FIRST),
+                transaction("acc1", "7.50", FIRST));
+        var change = changes.get("acc1");
+
+        assertEquals(0, change.getTransactionCount());
+        assertEquals(0, change.getDepositCount());
+        assertEquals(new BigDecimal("2.50"), change.getNetTotal());
+        assertEquals(new BigDecimal("2.50"), change.getDepositTotal());
+        assertEquals(FIRST, change.getFirstActivity());
+    }
+
+    @Test
+    public void testTransactionsWithoutAnAccountAreIgnored() {
+        assertTrue(AccountAggregatesListener.changes(null, transaction(null, "5.00", FIRST)).isEmpty());
+    }
+
+    @Test
+    public void testUpdateWithoutTheOldValueIsCountedAndLogged() {
+        when(event.getOperation()).thenReturn(Operation.UPDATE);
+        when(event.getNewValue()).thenReturn(transaction("acc1", "10.00", FIRST));
+
+        listener.afterUpdate(event);
+        listener.afterUpdate(event);
+
+        verify(statistics, times(2)).incLong(3, 1);
+        verify(logger).warning(anyString());
+        verify(logger).fine(anyString());
+        verifyNoInteractions(executor, aggregatesRegion);
+    }
+
+    @Test
+    public void testBacklogIsCountedWhileTheChangeWaits() {
+        when(event.getOperation()).thenReturn(Operation.CREATE);
+        when(event.getNewValue()).thenReturn(transaction("acc1", "10.00", FIRST));
+
+        listener.afterCreate(event);
+
+        var inOrder = inOrder(statistics, aggregatesRegion);
+        inOrder.verify(statistics).incLong(4, 1);
+        inOrder.verify(statistics).incLong(4, -1);
+        inOrder.verify(aggregatesRegion).putIfAbsent(eq("acc1"), any());
+    }
+
+    @Test
+    public void testCloseWaitsForTheBacklog() throws Exception {
+        when(executor.awaitTermination(AccountAggregatesListener.CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)).thenReturn(true);
+
+        listener.close();
+
+        verify(executor).shutdown();
+        verify(executor, never()).shutdownNow();
+    }
+
+    @Test
+    public void testChangesStillWaitingWhenClosedAreCountedAsFailures() throws Exception {
+        doNothing().when(executor).execute(any());
+        when(event.getOperation()).thenReturn(Operation.DESTROY);
+        when(event.getOldValue()).thenReturn(transaction("acc1", "10.00", FIRST));
+        listener.afterDestroy(event);
+        when(executor.awaitTermination(AccountAggregatesListener.CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)).thenReturn(false);
+        when(executor.shutdownNow()).thenReturn(List.of(mock(Runnable.class)));
+
+        listener.close();
+
+        verify(statistics).incLong(2, 1);
+        verify(statistics).incLong(4, -1);
+        verify(logger).error(anyString());
+    }
+
+    @Test
+    public void testChangesDeliveredAfterCloseAreCountedAsFailures() {
+        listener = new AccountAggregatesListener();
+        listener.close();
+        when(event.getOperation()).thenReturn(Operation.CREATE);
+        when(event.getNewValue()).thenReturn(transaction("acc1", "10.00", FIRST));
+
+        listener.afterCreate(event);
+
+        verify(statistics).incLong(4, 1);
+        verify(statistics).incLong(4, -1);
+        verify(statistics).incLong(2, 1);
+        verify(logger).error(anyString());
+        verifyNoInteractions(aggregatesRegion);
+    }
+
+    private static Transaction transaction(String accountId, String amount, Instant timestamp) {
+        var transaction = new Transaction();
+        transaction.setTransactionId("tx-1");
+        transaction.setAccountId(accountId);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.tndavidson.geodespringbootpoc.aggregate;
+
+import com.github.tndavidson.geodespringbootpoc.model.AccountAggregates;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.serialization.ModelPdxSerializer;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.execute.FunctionService;
+import org.apache.geode.pdx.PdxInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Rebuilds the aggregates on an embedded member with PARTITION regions and PDX {@code read-serialized} enabled, as
+ * the off-heap servers run, so the function reads the transactions and the aggregates as PDX instances.
+ */
+public class AccountAggregatesRebuildFunctionTest {
+
+    private static final Instant FIRST = Instant.parse("2024-03-01T12:00:00Z");
+
+    private static final Instant SECOND = Instant.parse("2024-03-02T12:00:00Z");
+
+    private Cache cache;
+
+    private Region<String, Object> transactionRegion;
+
+    private Region<String, Object> aggregatesRegion;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new CacheFactory()
+                .set("mcast-port", "0")
+                .set("locators", "")
+                .set("log-level", "warn")
+                .setPdxSerializer(new ModelPdxSerializer())
+                .setPdxReadSerialized(true)
+                .create();
+        transactionRegion = cache.<String, Object>createRegionFactory(RegionShortcut.PARTITION)
+                .create(AccountAggregatesRebuildFunction.TRANSACTION_REGION_NAME);
+        aggregatesRegion = cache.<String, Object>createRegionFactory(RegionShortcut.PARTITION)
+                .create(AccountAggregatesListener.REGION_NAME);
+        FunctionService.registerFunction(new AccountAggregatesRebuildFunction());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        FunctionService.unregisterFunction(AccountAggregatesRebuildFunction.ID);
+        cache.close();
+    }
+
+    @Test
+    public void testRebuildReplacesTheAggregatesOfEveryAccount() {
+        transactionRegion.put("tx-1", transaction("tx-1", "acc1", "10.00", FIRST));
+        transactionRegion.put("tx-2", transaction("tx-2", "acc1", "-4.00", SECOND));
+        transactionRegion.put("tx-3", transaction("tx-3", "acc2", "5.00", FIRST));
+        aggregatesRegion.put("acc1", AccountAggregation.empty("acc1"));
+        aggregatesRegion.put("acc3", AccountAggregation.plus(AccountAggregation.empty("acc3"),
+                AccountAggregation.change(new BigDecimal("1.00"), FIRST, 1)));
+
+        var result = FunctionService.onMember(cache.getDistributedSystem().getDistributedMember())
+                .setArguments(1)
+                .execute(AccountAggregatesRebuildFunction.ID)
+                .getResult();
+
+        assertEquals(List.of(2), result);
+
+        var acc1 = aggregates("acc1");
+        assertEquals(2, acc1.getTransactionCount());
+        assertEquals(1, acc1.getDepositCount());
+        assertEquals(new BigDecimal("6.00"), acc1.getNetTotal());
+        assertEquals(new BigDecimal("10.00"), acc1.getDepositTotal());
+        assertEquals(new BigDecimal("4.00"), acc1.getWithdrawalTotal());
+        assertEquals(FIRST, acc1.getFirstActivity());
+        assertEquals(SECOND, acc1.getLastActivity());
+
+        assertEquals(new BigDecimal("5.00"), aggregates("acc2").getNetTotal());
+        assertFalse(aggregatesRegion.containsKey("acc3"));
+    }
+
+    @Test
+    public void testListenerUpdatesRebuiltAggregatesReadAsPdxInstances() {
+        transactionRegion.put("tx-1", transaction("tx-1", "acc1", "10.00", FIRST));
+        FunctionService.onMember(cache.getDistributedSystem().getDistributedMember())
+                .execute(AccountAggregatesRebuildFunction.ID)
+                .getResult();
+
+        AccountAggregatesListener.apply(aggregatesRegion, "acc1",
+                AccountAggregation.change(new BigDecimal("2.50"), SECOND, 1),
+                AccountAggregatesListener.AggregatesStatistics.create(cache));
+
+        assertEquals(2, aggregates("acc1").getTransactionCount());
+        assertEquals(new BigDecimal("12.50"), aggregates("acc1").getNetTotal());
+    }
+
+    private AccountAggregates aggregates(String accountId) {
+        var value = aggregatesRegion.get(accountId);
+        return (AccountAggregates) (value instanceof PdxInstance pdx ? pdx.getObject() : value);
+    }
+
+    private static Transaction transaction(String transactionId, String accountId, String amount, Instant timestamp) {
+        var transaction = new Transaction();
+        transaction.setTransactionId(transactionId);
+        transaction.setAccountId(accountId);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+}
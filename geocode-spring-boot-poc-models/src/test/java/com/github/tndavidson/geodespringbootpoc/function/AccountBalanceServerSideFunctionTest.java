@@ -0,0 +1,191 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import com.github.tndavidson.geodespringbootpoc.model.MinorUnits;
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsType;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.RegionFunctionContext;
+import org.apache.geode.cache.execute.ResultSender;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.distributed.DistributedSystem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class AccountBalanceServerSideFunctionTest {
+
+    private AccountBalanceServerSideFunction function;
+
+    @Mock
+    private FunctionContext<Object> context;
+
+    @Mock
+    private RegionFunctionContext regionContext;
+
+    @Mock
+    private ResultSender<BigDecimal> resultSender;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private QueryService queryService;
+
+    @Mock
+    private Query balanceQuery;
+
+    @Mock
+    private SelectResults<BigDecimal> amountSelectResults;
+
+    @Mock
+    private DistributedSystem distributedSystem;
+
+    @Mock
+    private StatisticsType statisticsType;
+
+    @Mock
+    private Statistics statistics;
+
+    private MockedStatic<CacheFactory> mockedCacheFactory;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        closeable = MockitoAnnotations.openMocks(this);
+        function = new AccountBalanceServerSideFunction();
+
+        mockedCacheFactory = mockStatic(CacheFactory.class);
+        mockedCacheFactory.when(CacheFactory::getAnyInstance).thenReturn(cache);
+
+        when(cache.getQueryService()).thenReturn(queryService);
+        when(cache.getDistributedSystem()).thenReturn(distributedSystem);
+        when(distributedSystem.createType(anyString(), anyString(), any())).thenReturn(statisticsType);
+        when(distributedSystem.createAtomicStatistics(statisticsType, AccountBalanceServerSideFunction.ID)).thenReturn(statistics);
+        when(queryService.newQuery(AccountBalanceServerSideFunction.balanceQueryOql(cache))).thenReturn(balanceQuery);
+        doReturn(resultSender).when(context).getResultSender();
+        doReturn(resultSender).when(regionContext).getResultSender();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        mockedCacheFactory.close();
+        closeable.close();
+    }
+
+    @Test
+    public void testExecuteSumsAmounts() throws Exception {
+        doReturn(new Object[]{"acc1"}).when(context).getArguments();
+        when(balanceQuery.execute("acc1")).thenReturn(amountSelectResults);
+        when(amountSelectResults.iterator()).thenReturn(Arrays.asList(
+                new BigDecimal("10.00"), new BigDecimal("-2.505"), null, new BigDecimal("0.01")).iterator());
+
+        function.execute(context);
+
+        verify(resultSender).lastResult(new BigDecimal("7.51"));
+    }
+
+    @Test
+    public void testExecuteSumsMinorUnits() throws Exception {
+        doReturn("acc1").when(context).getArguments();
+        when(balanceQuery.execute("acc1")).thenReturn(amountSelectResults);
+        doReturn(Arrays.<Object>asList(1050L, -205L, MinorUnits.NULL, 1L).iterator()).when(amountSelectResults).iterator();
+
+        function.execute(context);
+
+        verify(resultSender).lastResult(new BigDecimal("8.46"));
+    }
+
+    @Test
+    public void testReadSerializedServerSumsMinorUnitsFromTheClearedField() throws Exception {
+        when(cache.getPdxReadSerialized()).thenReturn(true);
+        var oql = AccountBalanceServerSideFunction.balanceQueryOql(cache);
+        when(queryService.newQuery(oql)).thenReturn(balanceQuery);
+        doReturn("acc1").when(context).getArguments();
+        when(balanceQuery.execute("acc1")).thenReturn(amountSelectResults);
+        doReturn(Arrays.<Object>asList(150L, 25L).iterator()).when(amountSelectResults).iterator();
+
+        function.execute(context);
+
+        verify(queryService).newQuery("select t.amount from /transaction t where t.accountId = $1 and t.cleared = true");
+        verify(resultSender).lastResult(new BigDecimal("1.75"));
+    }
+
+    @Test
+    public void testExecuteNoTransactions() throws Exception {
+        doReturn("acc1").when(context).getArguments();
+        when(balanceQuery.execute("acc1")).thenReturn(amountSelectResults);
+        when(amountSelectResults.iterator()).thenReturn(Collections.emptyIterator());
+
+        function.execute(context);
+
+        verify(resultSender).lastResult(new BigDecimal("0.00"));
+    }
+
+    @Test
+    public void testExecuteWithRegionContextQueriesLocalData() throws Exception {
+        doReturn(new Object[]{"acc1"}).when(regionContext).getArguments();
+        when(balanceQuery.execute(regionContext, new Object[]{"acc1"})).thenReturn(amountSelectResults);
+        when(amountSelectResults.iterator()).thenReturn(Arrays.asList(new BigDecimal("5.00")).iterator());
+
+        function.execute(regionContext);
+
+        verify(balanceQuery, never()).execute("acc1");
+        verify(resultSender).lastResult(new BigDecimal("5.00"));
+    }
+
+    @Test
+    public void testQueryIsCompiledOncePerMember() throws Exception {
+        doReturn("acc1").when(context).getArguments();
+        when(balanceQuery.execute("acc1")).thenReturn(amountSelectResults);
+        when(amountSelectResults.iterator()).thenAnswer(invocation -> Collections.emptyIterator());
+
+        function.execute(context);
+        function.execute(context);
+
+        verify(queryService, times(1)).newQuery(AccountBalanceServerSideFunction.balanceQueryOql(cache));
+        verify(balanceQuery, times(2)).execute("acc1");
+        verify(resultSender, times(2)).lastResult(new BigDecimal("0.00"));
+    }
+
+    @Test
+    public void testReadSerializedServerFiltersOnTheClearedField() {
+        assertEquals("select t.amount from /transaction t where t.accountId = $1 and t.isCleared() = true",
+                AccountBalanceServerSideFunction.balanceQueryOql(cache));
+
+        when(cache.getPdxReadSerialized()).thenReturn(true);
+
+        assertEquals("select t.amount from /transaction t where t.accountId = $1 and t.cleared = true",
+                AccountBalanceServerSideFunction.balanceQueryOql(cache));
+    }
+
+    @Test
+    public void testExecuteInvalidArguments() {
+        doReturn(42).when(context).getArguments();
+
+        function.execute(context);
+
+        verify(resultSender).sendException(any(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void testGetId() {
+        assertEquals(AccountBalanceServerSideFunction.ID, function.getId());
+    }
+}
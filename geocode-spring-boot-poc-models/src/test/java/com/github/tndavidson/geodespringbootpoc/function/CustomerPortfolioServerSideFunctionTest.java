@@ -0,0 +1,179 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.AccountPortfolio;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPortfolio;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsType;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.ResultSender;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.distributed.DistributedSystem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class CustomerPortfolioServerSideFunctionTest {
+
+    private CustomerPortfolioServerSideFunction function;
+
+    @Mock
+    private FunctionContext<Object> context;
+
+    @Mock
+    private ResultSender<CustomerPortfolio> resultSender;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private Region<String, Object> customerRegion;
+
+    @Mock
+    private QueryService queryService;
+
+    @Mock
+    private Query accountQuery;
+
+    @Mock
+    private Query transactionQuery;
+
+    @Mock
+    private SelectResults<Account> accountSelectResults;
+
+    @Mock
+    private SelectResults<Transaction> transactionSelectResults;
+
+    @Mock
+    private DistributedSystem distributedSystem;
+
+    @Mock
+    private StatisticsType statisticsType;
+
+    @Mock
+    private Statistics statistics;
+
+    private MockedStatic<CacheFactory> mockedCacheFactory;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        closeable = MockitoAnnotations.openMocks(this);
+        function = new CustomerPortfolioServerSideFunction();
+
+        mockedCacheFactory = mockStatic(CacheFactory.class);
+        mockedCacheFactory.when(CacheFactory::getAnyInstance).thenReturn(cache);
+
+        when(cache.getQueryService()).thenReturn(queryService);
+        when(cache.<String, Object>getRegion(CustomerPortfolioServerSideFunction.CUSTOMER_REGION)).thenReturn(customerRegion);
+        when(cache.getDistributedSystem()).thenReturn(distributedSystem);
+        when(distributedSystem.createType(anyString(), anyString(), any())).thenReturn(statisticsType);
+        when(distributedSystem.createAtomicStatistics(statisticsType, CustomerPortfolioServerSideFunction.ID)).thenReturn(statistics);
+        doReturn(resultSender).when(context).getResultSender();
+
+        when(queryService.newQuery(CustomerPortfolioServerSideFunction.ACCOUNT_QUERY_OQL)).thenReturn(accountQuery);
+        when(queryService.newQuery(CustomerPortfolioServerSideFunction.TRANSACTION_QUERY_OQL)).thenReturn(transactionQuery);
+        when(accountQuery.execute("cust1")).thenReturn(accountSelectResults);
+        when(transactionQuery.execute(new Object[]{Set.of("acc1", "acc2")})).thenReturn(transactionSelectResults);
+
+        var customer = new Customer();
+        customer.setId("cust1");
+        when(customerRegion.get("cust1")).thenReturn(customer);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        mockedCacheFactory.close();
+        closeable.close();
+    }
+
+    @Test
+    public void testPortfolioHoldsEachAccountWithItsNewestTransactions() throws Exception {
+        doReturn(new Object[]{"cust1", 2}).when(context).getArguments();
+        when(accountSelectResults.stream()).thenReturn(Stream.of(account("acc2", "5.00"), account("acc1", "10.00")));
+
+        var a1 = transaction("t1", "acc1", 10);
+        var a2 = transaction("t2", "acc1", 30);
+        var a3 = transaction("t3", "acc1", 20);
+        var b1 = transaction("t4", "acc2", 40);
+        when(transactionSelectResults.iterator()).thenReturn(List.of(a1, b1, a2, a3).iterator());
+
+        function.execute(context);
+
+        var portfolio = sentPortfolio();
+        assertEquals("cust1", portfolio.getCustomer().getId());
+        assertEquals(List.of("acc1", "acc2"), portfolio.getAccounts().stream().map(AccountPortfolio::getAccountId).toList());
+        assertEquals(new BigDecimal("10.00"), portfolio.getAccounts().get(0).getBalance());
+        assertEquals(List.of(a2, a3), portfolio.getAccounts().get(0).getRecentTransactions());
+        assertEquals(List.of(b1), portfolio.getAccounts().get(1).getRecentTransactions());
+    }
+
+    @Test
+    public void testMissingCustomerReturnsEmptyPortfolio() throws Exception {
+        doReturn(new Object[]{"missing", 2}).when(context).getArguments();
+
+        function.execute(context);
+
+        var portfolio = sentPortfolio();
+        assertNull(portfolio.getCustomer());
+        assertTrue(portfolio.getAccounts().isEmpty());
+        verifyNoInteractions(accountQuery, transactionQuery);
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        doReturn(new Object[]{"cust1", -1}).when(context).getArguments();
+
+        function.execute(context);
+
+        verify(resultSender).sendException(any(IllegalArgumentException.class));
+    }
+
+    private CustomerPortfolio sentPortfolio() {
+        var captor = ArgumentCaptor.forClass(CustomerPortfolio.class);
+        verify(resultSender).lastResult(captor.capture());
+        return captor.getValue();
+    }
+
+    private static Account account(String accountId, String balance) {
+        var account = new Account();
+        account.setAccountId(accountId);
+        account.setCustomerId("cust1");
+        account.setBalance(new BigDecimal(balance));
+        return account;
+    }
+
+    private static Transaction transaction(String transactionId, String accountId, long epochSecond) {
+        var transaction = new Transaction();
+        transaction.setTransactionId(transactionId);
+        transaction.setAccountId(accountId);
+        transaction.setAmount(BigDecimal.ONE);
+        transaction.setTimestamp(Instant.ofEpochSecond(epochSecond));
+        return transaction;
+    }
+}
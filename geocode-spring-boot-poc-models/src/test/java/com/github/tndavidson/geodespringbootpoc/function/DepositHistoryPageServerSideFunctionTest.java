@@ -0,0 +1,275 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPageRequest;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.model.TransactionCursor;
+import com.github.tndavidson.geodespringbootpoc.serialization.ModelPdxSerializer;
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsType;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.ResultSender;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.distributed.DistributedSystem;
+import org.apache.geode.pdx.PdxInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class DepositHistoryPageServerSideFunctionTest {
+
+    private DepositHistoryPageServerSideFunction function;
+
+    @Mock
+    private FunctionContext<Object> context;
+
+    @Mock
+    private ResultSender<DepositHistoryPage> resultSender;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private QueryService queryService;
+
+    @Mock
+    private Query accountQuery;
+
+    @Mock
+    private Query pageQuery;
+
+    @Mock
+    private SelectResults<String> accountSelectResults;
+
+    @Mock
+    private SelectResults<Transaction> pageSelectResults;
+
+    @Mock
+    private DistributedSystem distributedSystem;
+
+    @Mock
+    private StatisticsType statisticsType;
+
+    @Mock
+    private Statistics statistics;
+
+    private MockedStatic<CacheFactory> mockedCacheFactory;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        closeable = MockitoAnnotations.openMocks(this);
+        function = new DepositHistoryPageServerSideFunction();
+
+        mockedCacheFactory = mockStatic(CacheFactory.class);
+        mockedCacheFactory.when(CacheFactory::getAnyInstance).thenReturn(cache);
+
+        when(cache.getQueryService()).thenReturn(queryService);
+        when(cache.getDistributedSystem()).thenReturn(distributedSystem);
+        when(distributedSystem.createType(anyString(), anyString(), any())).thenReturn(statisticsType);
+        when(distributedSystem.createAtomicStatistics(statisticsType, DepositHistoryPageServerSideFunction.ID)).thenReturn(statistics);
+        doReturn(resultSender).when(context).getResultSender();
+
+        when(queryService.newQuery(DepositHistoryServerSideFunction.ACCOUNT_QUERY_OQL)).thenReturn(accountQuery);
+        when(queryService.newQuery(DepositHistoryPageServerSideFunction.pageQueryOql(cache))).thenReturn(pageQuery);
+        when(accountQuery.execute("cust1")).thenReturn(accountSelectResults);
+        when(accountSelectResults.isEmpty()).thenReturn(false);
+        when(accountSelectResults.stream()).thenReturn(Stream.of("acc1"));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        mockedCacheFactory.close();
+        closeable.close();
+    }
+
+    @Test
+    public void testFirstPageWithMoreResultsReturnsCursorAtLastTransaction() throws Exception {
+        var request = request(2);
+        doReturn(request).when(context).getArguments();
+
+        var t3 = transaction("t3", 30);
+        var t4 = transaction("t4", 20);
+        when(pageQuery.execute(new Object[]{Set.of("acc1"), Instant.MIN, Instant.MAX, "", 3})).thenReturn(pageSelectResults);
+        when(pageSelectResults.iterator()).thenReturn(List.of(t3, t4, transaction("t2", 20)).iterator());
+
+        function.execute(context);
+
+        var page = sentPage();
+        assertEquals(List.of(t3, t4), page.getTransactions());
+        assertEquals(new TransactionCursor(Instant.ofEpochSecond(20), "t4"), TransactionCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    public void testPdxResultsBeyondThePageAreNotDeserialized() throws Exception {
+        var request = request(1);
+        doReturn(new Object[]{pdx(request)}).when(context).getArguments();
+
+        var newest = transaction("t2", 20);
+        var pdxNewest = pdx(newest);
+        var pdxOlder = pdx(transaction("t1", 10));
+        when(pageQuery.execute(new Object[]{Set.of("acc1"), Instant.MIN, Instant.MAX, "", 2})).thenReturn(pageSelectResults);
+        doReturn(List.of(pdxNewest, pdxOlder).iterator()).when(pageSelectResults).iterator();
+
+        function.execute(context);
+
+        var page = sentPage();
+        assertEquals(List.of(newest), page.getTransactions());
+        assertEquals(new TransactionCursor(Instant.ofEpochSecond(20), "t2"), TransactionCursor.decode(page.getNextCursor()));
+        verify(pdxOlder, never()).getObject();
+    }
+
+    @Test
+    public void testLastPageStartsAtTheCursorAndHasNoCursor() throws Exception {
+        var request = request(2);
+        request.setAfterTimestamp(Instant.ofEpochSecond(20));
+        request.setAfterTransactionId("t2");
+        doReturn(new Object[]{request}).when(context).getArguments();
+
+        var t0 = transaction("t0", 20);
+        var t1 = transaction("t1", 10);
+        when(pageQuery.execute(new Object[]{Set.of("acc1"), Instant.MIN, Instant.ofEpochSecond(20), "t2", 3}))
+                .thenReturn(pageSelectResults);
+        when(pageSelectResults.iterator()).thenReturn(List.of(t0, t1).iterator());
+
+        function.execute(context);
+
+        var page = sentPage();
+        assertEquals(List.of(t0, t1), page.getTransactions());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testTimeRangeBoundsTheQuery() throws Exception {
+        var request = request(10);
+        request.setFrom(Instant.ofEpochSecond(5));
+        request.setTo(Instant.ofEpochSecond(50));
+        doReturn(request).when(context).getArguments();
+
+        var inRange = transaction("t2", 5);
+        when(pageQuery.execute(new Object[]{Set.of("acc1"), Instant.ofEpochSecond(5), Instant.ofEpochSecond(50), "", 11}))
+                .thenReturn(pageSelectResults);
+        when(pageSelectResults.iterator()).thenReturn(List.of(inRange).iterator());
+
+        function.execute(context);
+
+        assertEquals(List.of(inRange), sentPage().getTransactions());
+    }
+
+    @Test
+    public void testQueryIsOrderedAndLimited() {
+        var oql = DepositHistoryPageServerSideFunction.pageQueryOql(cache);
+
+        assertTrue(oql.contains("t.timestamp >= $2 and (t.timestamp < $3 or (t.timestamp = $3 and t.transactionId < $4))"));
+        assertTrue(oql.endsWith(" order by t.timestamp desc, t.transactionId desc limit $5"));
+    }
+
+    @Test
+    public void testReadSerializedCodecQueriesEncodedTimestamps() throws Exception {
+        when(cache.getPdxReadSerialized()).thenReturn(true);
+        when(cache.getPdxSerializer()).thenReturn(new ModelPdxSerializer());
+        var oql = DepositHistoryPageServerSideFunction.pageQueryOql(cache);
+        when(queryService.newQuery(oql)).thenReturn(pageQuery);
+
+        var request = request(1);
+        request.setFrom(Instant.ofEpochSecond(5));
+        doReturn(request).when(context).getArguments();
+        when(pageQuery.execute(new Object[]{Set.of("acc1"), 5_000_000_000L, Long.MAX_VALUE, "", 2}))
+                .thenReturn(pageSelectResults);
+        when(pageSelectResults.iterator()).thenReturn(Collections.emptyIterator());
+
+        function.execute(context);
+
+        assertTrue(oql.contains("t.amountUnscaled > 0"));
+        assertTrue(oql.endsWith(" order by t.timestampNanos desc, t.transactionId desc limit $5"));
+        assertTrue(sentPage().getTransactions().isEmpty());
+    }
+
+    @Test
+    public void testCustomerWithoutAccountsReturnsEmptyPage() throws Exception {
+        doReturn(request(10)).when(context).getArguments();
+        when(accountSelectResults.isEmpty()).thenReturn(true);
+
+        function.execute(context);
+
+        assertTrue(sentPage().getTransactions().isEmpty());
+        verifyNoInteractions(pageQuery);
+    }
+
+    @Test
+    public void testInvalidPageSize() {
+        doReturn(request(0)).when(context).getArguments();
+
+        function.execute(context);
+
+        verify(resultSender).sendException(any(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void testInvalidArgument() {
+        doReturn("cust1").when(context).getArguments();
+
+        function.execute(context);
+
+        verify(resultSender).sendException(any(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void testGetId() {
+        assertEquals(DepositHistoryPageServerSideFunction.ID, function.getId());
+    }
+
+    private DepositHistoryPage sentPage() {
+        var captor = ArgumentCaptor.forClass(DepositHistoryPage.class);
+        verify(resultSender).lastResult(captor.capture());
+        return captor.getValue();
+    }
+
+    private static DepositHistoryPageRequest request(int pageSize) {
+        var request = new DepositHistoryPageRequest();
+        request.setCustomerId("cust1");
+        request.setPageSize(pageSize);
+        return request;
+    }
+
+    private static PdxInstance pdx(Object object) {
+        var pdx = mock(PdxInstance.class);
+        when(pdx.getObject()).thenReturn(object);
+
+        if (object instanceof Transaction transaction) {
+            when(pdx.getField("transactionId")).thenReturn(transaction.getTransactionId());
+            when(pdx.getField("timestamp")).thenReturn(transaction.getTimestamp());
+        }
+
+        return pdx;
+    }
+
+    private static Transaction transaction(String id, long epochSecond) {
+        var transaction = new Transaction();
+        transaction.setTransactionId(id);
+        transaction.setTimestamp(Instant.ofEpochSecond(epochSecond));
+        return transaction;
+    }
+}
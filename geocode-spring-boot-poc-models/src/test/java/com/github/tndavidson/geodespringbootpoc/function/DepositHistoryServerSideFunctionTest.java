@@ -2,13 +2,19 @@ package com.github.tndavidson.geodespringbootpoc.function;
 
 import com.github.tndavidson.geodespringbootpoc.model.Customer;
 import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.serialization.ModelPdxSerializer;
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsType;
 import org.apache.geode.cache.Cache;
 import org.apache.geode.cache.CacheFactory;
 import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.RegionFunctionContext;
 import org.apache.geode.cache.execute.ResultSender;
 import org.apache.geode.cache.query.Query;
 import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.distributed.DistributedSystem;
+import org.apache.geode.pdx.PdxInstance;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,11 +23,14 @@ import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 public class DepositHistoryServerSideFunctionTest {
@@ -32,7 +41,10 @@ public class DepositHistoryServerSideFunctionTest {
     private FunctionContext<Customer> context;
 
     @Mock
-    private ResultSender<List<Transaction>> resultSender;
+    private RegionFunctionContext regionContext;
+
+    @Mock
+    private ResultSender<List<?>> resultSender;
 
     @Mock
     private Cache cache;
@@ -52,6 +64,15 @@ public class DepositHistoryServerSideFunctionTest {
     @Mock
     private SelectResults<Transaction> transactionSelectResults;
 
+    @Mock
+    private DistributedSystem distributedSystem;
+
+    @Mock
+    private StatisticsType statisticsType;
+
+    @Mock
+    private Statistics statistics;
+
     private MockedStatic<CacheFactory> mockedCacheFactory;
 
     private AutoCloseable closeable;
@@ -65,7 +86,11 @@ public class DepositHistoryServerSideFunctionTest {
         mockedCacheFactory.when(CacheFactory::getAnyInstance).thenReturn(cache);
 
         when(cache.getQueryService()).thenReturn(queryService);
+        when(cache.getDistributedSystem()).thenReturn(distributedSystem);
+        when(distributedSystem.createType(anyString(), anyString(), any())).thenReturn(statisticsType);
+        when(distributedSystem.createAtomicStatistics(statisticsType, DepositHistoryServerSideFunction.ID)).thenReturn(statistics);
         doReturn(resultSender).when(context).getResultSender();
+        doReturn(resultSender).when(regionContext).getResultSender();
     }
 
     @AfterEach
@@ -87,7 +112,7 @@ public class DepositHistoryServerSideFunctionTest {
         when(accountSelectResults.stream()).thenReturn(Stream.of("acc1"));
 
         when(queryService.newQuery(contains("/transaction"))).thenReturn(transactionQuery);
-        when(transactionQuery.execute()).thenReturn(transactionSelectResults);
+        when(transactionQuery.execute(new Object[]{Set.of("acc1")})).thenReturn(transactionSelectResults);
         when(transactionSelectResults.stream()).thenReturn(Stream.empty());
 
         function.execute(context);
@@ -109,7 +134,7 @@ public class DepositHistoryServerSideFunctionTest {
         when(accountSelectResults.stream()).thenReturn(Stream.of("acc1"));
 
         when(queryService.newQuery(contains("/transaction"))).thenReturn(transactionQuery);
-        when(transactionQuery.execute()).thenReturn(transactionSelectResults);
+        when(transactionQuery.execute(new Object[]{Set.of("acc1")})).thenReturn(transactionSelectResults);
         when(transactionSelectResults.stream()).thenReturn(Stream.empty());
 
         function.execute(context);
@@ -117,6 +142,125 @@ public class DepositHistoryServerSideFunctionTest {
         verify(resultSender).lastResult(anyList());
     }
 
+    @Test
+    public void testExecuteWithPdxArgumentSendsPdxResultsAsTheyAre() throws Exception {
+        Customer customer = new Customer();
+        customer.setId("cust1");
+        var pdxCustomer = mock(PdxInstance.class);
+        when(pdxCustomer.getObject()).thenReturn(customer);
+        doReturn(new Object[]{pdxCustomer}).when(context).getArguments();
+
+        when(queryService.newQuery(contains("/account"))).thenReturn(accountQuery);
+        when(accountQuery.execute(customer.getId())).thenReturn(accountSelectResults);
+        when(accountSelectResults.isEmpty()).thenReturn(false);
+
+        when(accountSelectResults.stream()).thenReturn(Stream.of("acc1"));
+
+        var pdxTransaction = mock(PdxInstance.class);
+        when(queryService.newQuery(contains("/transaction"))).thenReturn(transactionQuery);
+        when(transactionQuery.execute(new Object[]{Set.of("acc1")})).thenReturn(transactionSelectResults);
+        doReturn(Stream.of(pdxTransaction)).when(transactionSelectResults).stream();
+
+        function.execute(context);
+
+        verify(resultSender).lastResult(List.of(pdxTransaction));
+        verify(pdxTransaction, never()).getObject();
+    }
+
+    @Test
+    public void testExecuteWithRegionContextQueriesLocalData() throws Exception {
+        Customer customer = new Customer();
+        customer.setId("cust1");
+        doReturn(new Object[]{customer}).when(regionContext).getArguments();
+
+        when(queryService.newQuery(contains("/account"))).thenReturn(accountQuery);
+        when(accountQuery.execute(regionContext, new Object[]{customer.getId()})).thenReturn(accountSelectResults);
+        when(accountSelectResults.isEmpty()).thenReturn(false);
+
+        when(accountSelectResults.stream()).thenReturn(Stream.of("acc1"));
+
+        when(queryService.newQuery(contains("/transaction"))).thenReturn(transactionQuery);
+        when(transactionQuery.execute(regionContext, new Object[]{Set.of("acc1")})).thenReturn(transactionSelectResults);
+        when(transactionSelectResults.stream()).thenReturn(Stream.empty());
+
+        function.execute(regionContext);
+
+        verify(accountQuery, never()).execute(customer.getId());
+        verify(resultSender).lastResult(anyList());
+    }
+
+    @Test
+    public void testExecuteWithChunkSizeSendsBoundedChunks() throws Exception {
+        Customer customer = new Customer();
+        customer.setId("cust1");
+        doReturn(new Object[]{customer, 2}).when(context).getArguments();
+
+        when(queryService.newQuery(contains("/account"))).thenReturn(accountQuery);
+        when(accountQuery.execute(customer.getId())).thenReturn(accountSelectResults);
+        when(accountSelectResults.isEmpty()).thenReturn(false);
+
+        when(accountSelectResults.stream()).thenReturn(Stream.of("acc1"));
+
+        var transactions = List.of(new Transaction(), new Transaction(), new Transaction());
+        when(queryService.newQuery(contains("/transaction"))).thenReturn(transactionQuery);
+        when(transactionQuery.execute(new Object[]{Set.of("acc1")})).thenReturn(transactionSelectResults);
+        when(transactionSelectResults.iterator()).thenReturn(transactions.iterator());
+
+        function.execute(context);
+
+        verify(resultSender).sendResult(transactions.subList(0, 2));
+        verify(resultSender).lastResult(transactions.subList(2, 3));
+        verify(transactionSelectResults, never()).stream();
+    }
+
+    @Test
+    public void testExecuteWithChunkSizeAndExactMultipleSendsEmptyLastChunk() throws Exception {
+        Customer customer = new Customer();
+        customer.setId("cust1");
+        doReturn(new Object[]{customer, 2}).when(context).getArguments();
+
+        when(queryService.newQuery(contains("/account"))).thenReturn(accountQuery);
+        when(accountQuery.execute(customer.getId())).thenReturn(accountSelectResults);
+        when(accountSelectResults.isEmpty()).thenReturn(false);
+
+        when(accountSelectResults.stream()).thenReturn(Stream.of("acc1"));
+
+        var transactions = List.of(new Transaction(), new Transaction());
+        when(queryService.newQuery(contains("/transaction"))).thenReturn(transactionQuery);
+        when(transactionQuery.execute(new Object[]{Set.of("acc1")})).thenReturn(transactionSelectResults);
+        when(transactionSelectResults.iterator()).thenReturn(transactions.iterator());
+
+        function.execute(context);
+
+        verify(resultSender).sendResult(transactions);
+        verify(resultSender).lastResult(List.of());
+    }
+
+    @Test
+    public void testQueriesAreCompiledOncePerMemberAndReusedWithBindParameters() throws Exception {
+        Customer customer = new Customer();
+        customer.setId("cust1");
+        doReturn(customer).when(context).getArguments();
+
+        when(queryService.newQuery(DepositHistoryServerSideFunction.ACCOUNT_QUERY_OQL)).thenReturn(accountQuery);
+        when(accountQuery.execute(customer.getId())).thenReturn(accountSelectResults);
+        when(accountSelectResults.isEmpty()).thenReturn(false);
+        when(accountSelectResults.stream()).thenAnswer(invocation -> Stream.of("acc1"));
+
+        when(queryService.newQuery(DepositHistoryServerSideFunction.transactionQueryOql(cache))).thenReturn(transactionQuery);
+        when(transactionQuery.execute(new Object[]{Set.of("acc1")})).thenReturn(transactionSelectResults);
+        when(transactionSelectResults.stream()).thenAnswer(invocation -> Stream.empty());
+
+        function.execute(context);
+        function.execute(context);
+
+        verify(queryService, times(1)).newQuery(DepositHistoryServerSideFunction.ACCOUNT_QUERY_OQL);
+        verify(queryService, times(1)).newQuery(DepositHistoryServerSideFunction.transactionQueryOql(cache));
+        verify(transactionQuery, times(2)).execute(new Object[]{Set.of("acc1")});
+        verify(resultSender, times(2)).lastResult(anyList());
+        verify(distributedSystem, times(1)).createAtomicStatistics(statisticsType, DepositHistoryServerSideFunction.ID);
+    }
+
     @Test
     public void testExecuteNoAccounts() throws Exception {
         Customer customer = new Customer();
@@ -129,7 +273,17 @@ public class DepositHistoryServerSideFunctionTest {
 
         function.execute(context);
 
-        verify(resultSender).sendException(any(RuntimeException.class));
+        verify(resultSender).lastResult(List.of());
+        verify(resultSender, never()).sendException(any());
+        verify(queryService, never()).newQuery(contains("/transaction"));
+    }
+
+    @Test
+    public void testReadSerializedDecimalCodecFiltersDepositsOnTheEncodedAmount() {
+        when(cache.getPdxReadSerialized()).thenReturn(true);
+        when(cache.getPdxSerializer()).thenReturn(new ModelPdxSerializer());
+
+        assertTrue(DepositHistoryServerSideFunction.transactionQueryOql(cache).endsWith("t.amountUnscaled > 0"));
     }
 
     @Test
@@ -0,0 +1,124 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import com.github.tndavidson.geodespringbootpoc.model.QueryPlan;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.ResultSender;
+import org.apache.geode.cache.query.Index;
+import org.apache.geode.cache.query.IndexStatistics;
+import org.apache.geode.cache.query.Query;
+import org.apache.geode.cache.query.QueryService;
+import org.apache.geode.cache.query.SelectResults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class QueryPlanFunctionTest {
+
+    private static final String OQL = "select * from /transaction t where t.accountId = $1";
+
+    private QueryPlanFunction function;
+
+    @Mock
+    private FunctionContext<Object> context;
+
+    @Mock
+    private ResultSender<QueryPlan> resultSender;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private QueryService queryService;
+
+    @Mock
+    private Query query;
+
+    @Mock
+    private SelectResults<Object> selectResults;
+
+    private MockedStatic<CacheFactory> mockedCacheFactory;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        function = new QueryPlanFunction();
+        mockedCacheFactory = mockStatic(CacheFactory.class);
+        mockedCacheFactory.when(CacheFactory::getAnyInstance).thenReturn(cache);
+        when(cache.getQueryService()).thenReturn(queryService);
+        when(queryService.newQuery(QueryPlanFunction.TRACE_HINT + OQL)).thenReturn(query);
+        when(context.getResultSender()).thenReturn((ResultSender) resultSender);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        mockedCacheFactory.close();
+        closeable.close();
+    }
+
+    @Test
+    public void testReportsTheIndexesWhoseUsesIncreased() throws Exception {
+        var used = index("transactionAccountIdIdx", 5L, 6L);
+        var unused = index("accountCustomerIdIdx", 3L, 3L);
+        when(queryService.getIndexes()).thenReturn(List.of(used, unused));
+        when(query.execute(any(Object[].class))).thenReturn(selectResults);
+        when(selectResults.size()).thenReturn(7);
+        when(context.getArguments()).thenReturn(new Object[]{OQL, new Object[]{"acc1"}});
+
+        function.execute(context);
+
+        var plan = ArgumentCaptor.forClass(QueryPlan.class);
+        verify(resultSender).lastResult(plan.capture());
+        verify(query).execute(new Object[]{"acc1"});
+        assertEquals(OQL, plan.getValue().getQuery());
+        assertEquals(List.of("transactionAccountIdIdx"), plan.getValue().getIndexesUsed());
+        assertEquals(7, plan.getValue().getResultSize());
+    }
+
+    @Test
+    public void testAScanUsesNoIndex() throws Exception {
+        var unused = index("transactionAccountIdIdx", 5L, 5L);
+        when(queryService.getIndexes()).thenReturn(List.of(unused));
+        when(query.execute()).thenReturn(selectResults);
+        when(context.getArguments()).thenReturn(new Object[]{OQL, new Object[0]});
+
+        function.execute(context);
+
+        var plan = ArgumentCaptor.forClass(QueryPlan.class);
+        verify(resultSender).lastResult(plan.capture());
+        assertTrue(plan.getValue().getIndexesUsed().isEmpty());
+    }
+
+    @Test
+    public void testInvalidArgumentsAreSentAsAnException() {
+        when(context.getArguments()).thenReturn("acc1");
+
+        function.execute(context);
+
+        verify(resultSender).sendException(any(IllegalArgumentException.class));
+        verify(resultSender, never()).lastResult(any());
+    }
+
+    private static Index index(String name, long usesBefore, long usesAfter) {
+        var statistics = mock(IndexStatistics.class);
+        when(statistics.getTotalUses()).thenReturn(usesBefore, usesAfter);
+        var index = mock(Index.class);
+        when(index.getName()).thenReturn(name);
+        when(index.getStatistics()).thenReturn(statistics);
+        return index;
+    }
+}
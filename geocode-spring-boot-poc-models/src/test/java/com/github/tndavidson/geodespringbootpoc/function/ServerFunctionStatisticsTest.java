@@ -0,0 +1,77 @@
+package com.github.tndavidson.geodespringbootpoc.function;
+
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsType;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.distributed.DistributedSystem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class ServerFunctionStatisticsTest {
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private DistributedSystem distributedSystem;
+
+    @Mock
+    private StatisticsType statisticsType;
+
+    @Mock
+    private Statistics statistics;
+
+    private MockedStatic<CacheFactory> mockedCacheFactory;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        mockedCacheFactory = mockStatic(CacheFactory.class);
+        mockedCacheFactory.when(CacheFactory::getAnyInstance).thenReturn(cache);
+        when(distributedSystem.findType(ServerFunctionStatistics.STATISTICS_TYPE_NAME)).thenReturn(statisticsType);
+        when(statisticsType.nameToId("executions")).thenReturn(0);
+        when(statisticsType.nameToId("executionTime")).thenReturn(1);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        mockedCacheFactory.close();
+        closeable.close();
+    }
+
+    @Test
+    public void testExecutionsAreRecordedPerFunction() {
+        when(cache.getDistributedSystem()).thenReturn(distributedSystem);
+        when(distributedSystem.createAtomicStatistics(statisticsType, "TIMED_FUNCTION")).thenReturn(statistics);
+        when(statistics.getLong(0)).thenReturn(2L);
+        when(statistics.getLong(1)).thenReturn(5_000L);
+
+        ServerFunctionStatistics.endExecution("TIMED_FUNCTION", System.nanoTime());
+        ServerFunctionStatistics.endExecution("TIMED_FUNCTION", System.nanoTime());
+
+        verify(distributedSystem, times(1)).createAtomicStatistics(statisticsType, "TIMED_FUNCTION");
+        verify(statistics, times(2)).incLong(0, 1);
+        verify(statistics, times(2)).incLong(eq(1), anyLong());
+        assertArrayEquals(new long[]{2L, 5_000L}, ServerFunctionStatistics.snapshot().get("TIMED_FUNCTION"));
+    }
+
+    @Test
+    public void testExecutionsAreNotRecordedWithoutADistributedSystem() {
+        ServerFunctionStatistics.endExecution("UNTIMED_FUNCTION", System.nanoTime());
+
+        verifyNoInteractions(distributedSystem);
+        assertFalse(ServerFunctionStatistics.snapshot().containsKey("UNTIMED_FUNCTION"));
+    }
+}
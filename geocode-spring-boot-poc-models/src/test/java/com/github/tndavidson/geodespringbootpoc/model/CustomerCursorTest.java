@@ -0,0 +1,40 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CustomerCursorTest {
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        var cursor = new CustomerCursor("O'Brien-Smith. Jr/ü", "cust.1|a");
+
+        assertEquals(cursor, CustomerCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    public void testPositionAfterALastNameRoundTrip() {
+        var cursor = CustomerCursor.after("Davis");
+
+        assertNull(cursor.id());
+        assertEquals(cursor, CustomerCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    public void testOfCustomer() {
+        var customer = new Customer();
+        customer.setId("cust1");
+        customer.setLastName("Davis");
+
+        assertEquals(new CustomerCursor("Davis", "cust1"), CustomerCursor.of(customer));
+    }
+
+    @Test
+    public void testDecodeInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> CustomerCursor.decode("not a.cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> CustomerCursor.decode("RGF2aXM."));
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MinorUnitsTest {
+
+    @Test
+    public void testConversionRoundTrip() {
+        assertEquals(-4215L, MinorUnits.of(new BigDecimal("-42.15")));
+        assertEquals(1250L, MinorUnits.of(new BigDecimal("12.5")));
+        assertEquals(new BigDecimal("12.50"), MinorUnits.toDecimal(1250L));
+        assertEquals(MinorUnits.NULL, MinorUnits.of(null));
+        assertNull(MinorUnits.toDecimal(MinorUnits.NULL));
+    }
+
+    @Test
+    public void testUnrepresentableAmountsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> MinorUnits.of(new BigDecimal("0.001")));
+        assertThrows(IllegalArgumentException.class, () -> MinorUnits.of(new BigDecimal("92233720368547758.08")));
+        assertThrows(IllegalArgumentException.class, () -> MinorUnits.of(new BigDecimal("-92233720368547758.08")));
+        assertThrows(ArithmeticException.class, () -> MinorUnits.add(Long.MAX_VALUE, 1));
+    }
+
+    @Test
+    public void testSumOfMinorUnitsAndDecimals() {
+        assertEquals(new BigDecimal("8.46"), MinorUnits.sum(List.of(1050L, -205L, MinorUnits.NULL, 1L)));
+        assertEquals(new BigDecimal("7.51"), MinorUnits.sum(Arrays.asList(
+                new BigDecimal("10.00"), new BigDecimal("-2.505"), null, new BigDecimal("0.01"))));
+        assertEquals(new BigDecimal("1.26"), MinorUnits.sum(List.of(100L, new BigDecimal("0.255"))));
+        assertEquals(new BigDecimal("0.00"), MinorUnits.sum(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> MinorUnits.sum(List.of("1.00")));
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.tndavidson.geodespringbootpoc.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TransactionCursorTest {
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        var cursor = new TransactionCursor(Instant.parse("2024-03-01T10:15:30.123456789Z"), "cust1:tx|1");
+
+        var encoded = cursor.encode();
+
+        assertFalse(encoded.contains("|"));
+        assertEquals(cursor, TransactionCursor.decode(encoded));
+    }
+
+    @Test
+    public void testOfTransaction() {
+        var transaction = new Transaction();
+        transaction.setTransactionId("tx1");
+        transaction.setTimestamp(Instant.parse("2024-03-01T10:15:30Z"));
+
+        assertEquals(new TransactionCursor(transaction.getTimestamp(), "tx1"), TransactionCursor.of(transaction));
+    }
+
+    @Test
+    public void testDecodeInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("bm8tc2VwYXJhdG9y"));
+        assertThrows(IllegalArgumentException.class, () -> TransactionCursor.decode("bm90LWEtZGF0ZXx0eDE"));
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.tndavidson.geodespringbootpoc.partition;
+
+import org.apache.geode.cache.EntryOperation;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CustomerRoutingPartitionResolverTest {
+
+    private final CustomerRoutingPartitionResolver resolver = new CustomerRoutingPartitionResolver();
+
+    @Test
+    public void testRoutingKey() {
+        assertEquals("cust1:acc1", CustomerRoutingPartitionResolver.routingKey("cust1", "acc1"));
+    }
+
+    @Test
+    public void testCustomerKeyRoutesByItself() {
+        assertEquals("cust1", resolver.getRoutingObject(operation("cust1")));
+    }
+
+    @Test
+    public void testAccountAndTransactionKeysRouteByCustomer() {
+        var accountKey = CustomerRoutingPartitionResolver.routingKey("cust1", "acc1");
+        var transactionKey = CustomerRoutingPartitionResolver.routingKey("cust1", "tx1");
+
+        assertEquals("cust1", resolver.getRoutingObject(operation(accountKey)));
+        assertEquals("cust1", resolver.getRoutingObject(operation(transactionKey)));
+    }
+
+    @Test
+    public void testGetName() {
+        assertEquals(CustomerRoutingPartitionResolver.NAME, resolver.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EntryOperation<String, Object> operation(String key) {
+        EntryOperation<String, Object> operation = mock(EntryOperation.class);
+        when(operation.getKey()).thenReturn(key);
+        return operation;
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.tndavidson.geodespringbootpoc.serialization;
+
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.pdx.PdxInstance;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the conditional writes the application relies on against values stored by {@link ModelPdxSerializer}. A
+ * partitioned region keeps its values serialized and the cache reads them as PDX instances, as the servers do, so
+ * {@code replace(key, oldValue, newValue)} compares the stored PDX fields with the expected value's.
+ */
+public class ModelPdxSerializerRegionTest {
+
+    private static Cache cache;
+
+    @BeforeAll
+    public static void createCache() {
+        cache = new CacheFactory()
+                .set("mcast-port", "0")
+                .set("locators", "")
+                .set("log-level", "warn")
+                .setPdxSerializer(new ModelPdxSerializer())
+                .setPdxReadSerialized(true)
+                .create();
+    }
+
+    @AfterAll
+    public static void closeCache() {
+        cache.close();
+    }
+
+    @Test
+    public void testAccountReplaceComparesEveryField() {
+        Region<String, Account> region = cache.<String, Account>createRegionFactory(RegionShortcut.PARTITION)
+                .create("account-replace");
+        var stored = account("10.00", null);
+        region.put("acc1", stored);
+
+        var staleBalance = account("5.00", null);
+        assertFalse(region.replace("acc1", staleBalance, account("7.00", null)));
+
+        var stalePending = account("10.00", Set.of("tx1"));
+        assertFalse(region.replace("acc1", stalePending, account("7.00", null)));
+
+        assertTrue(region.replace("acc1", account("10.00", null), account("12.50", Set.of("tx2"))));
+        assertEquals(account("12.50", Set.of("tx2")), ((PdxInstance) (Object) region.get("acc1")).getObject());
+    }
+
+    @Test
+    public void testTransactionReplaceComparesEveryField() {
+        Region<String, Transaction> region = cache.<String, Transaction>createRegionFactory(RegionShortcut.PARTITION)
+                .create("transaction-replace");
+        region.put("tx1", transaction(false));
+
+        assertFalse(region.replace("tx1", transaction(true), transaction(true)));
+        assertTrue(region.replace("tx1", transaction(false), transaction(true)));
+        assertFalse(region.replace("tx1", transaction(false), transaction(true)));
+    }
+
+    private static Account account(String balance, Set<String> pendingTransactionIds) {
+        var account = new Account();
+        account.setAccountId("acc1");
+        account.setCustomerId("cust-1");
+        account.setBalance(new BigDecimal(balance));
+        account.setBalanceCalculatedDate(Instant.parse("2024-01-01T00:00:00Z"));
+        account.setPendingTransactionIds(pendingTransactionIds);
+        return account;
+    }
+
+    private static Transaction transaction(boolean cleared) {
+        var transaction = new Transaction();
+        transaction.setTransactionId("tx1");
+        transaction.setAccountId("acc1");
+        transaction.setTimestamp(Instant.parse("2024-01-01T00:00:00Z"));
+        transaction.setAmount(new BigDecimal("25.50"));
+        transaction.setCleared(cleared);
+        return transaction;
+    }
+}
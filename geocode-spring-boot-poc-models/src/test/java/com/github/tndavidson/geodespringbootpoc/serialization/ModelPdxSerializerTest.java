@@ -0,0 +1,264 @@
+package com.github.tndavidson.geodespringbootpoc.serialization;
+
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.apache.geode.pdx.PdxReader;
+import org.apache.geode.pdx.PdxWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares the PDX fields written by {@link ModelPdxSerializer} with the golden files in
+ * {@code src/test/resources/golden}, one line per {@link PdxWriter} call. A change to a field's name, type or order
+ * makes entries already stored in a cluster unreadable, so the golden files must only change together with a
+ * migration of the stored data.
+ */
+public class ModelPdxSerializerTest {
+
+    private final ModelPdxSerializer serializer = new ModelPdxSerializer();
+
+    private final ModelPdxSerializer minorUnitsSerializer =
+            new ModelPdxSerializer(ModelPdxSerializer.AmountEncoding.MINOR_UNITS);
+
+    @Test
+    public void testCustomerMatchesGoldenFile() throws IOException {
+        assertGolden("customer.pdx.txt", customer(), Customer.class);
+    }
+
+    @Test
+    public void testAccountMatchesGoldenFile() throws IOException {
+        assertGolden("account.pdx.txt", account(), Account.class);
+    }
+
+    @Test
+    public void testTransactionMatchesGoldenFile() throws IOException {
+        assertGolden("transaction.pdx.txt", transaction(), Transaction.class);
+    }
+
+    @Test
+    public void testMinorUnitsAccountMatchesGoldenFile() throws IOException {
+        assertGolden(minorUnitsSerializer, "account-minor-units.pdx.txt", account(), Account.class);
+    }
+
+    @Test
+    public void testMinorUnitsTransactionMatchesGoldenFile() throws IOException {
+        assertGolden(minorUnitsSerializer, "transaction-minor-units.pdx.txt", transaction(), Transaction.class);
+    }
+
+    @Test
+    public void testMinorUnitsNullAmountRoundTrip() {
+        var transaction = transaction();
+        transaction.setAmount(null);
+
+        var read = (Transaction) minorUnitsSerializer.fromData(Transaction.class,
+                reader(write(minorUnitsSerializer, transaction)));
+
+        assertNull(read.getAmount());
+    }
+
+    @Test
+    public void testMinorUnitsReadsAmountsWithTwoDecimalPlaces() {
+        var transaction = transaction();
+        transaction.setAmount(new BigDecimal("1.5"));
+
+        var read = (Transaction) minorUnitsSerializer.fromData(Transaction.class,
+                reader(write(minorUnitsSerializer, transaction)));
+
+        assertEquals(new BigDecimal("1.50"), read.getAmount());
+        assertEquals("1.50", read.getAmount().toPlainString());
+    }
+
+    @Test
+    public void testMinorUnitsRejectsFractionsOfMinorUnits() {
+        var transaction = transaction();
+        transaction.setAmount(new BigDecimal("0.005"));
+
+        assertThrows(IllegalArgumentException.class, () -> write(minorUnitsSerializer, transaction));
+    }
+
+    @Test
+    public void testInitializeReadsAmountEncoding() {
+        var declared = new ModelPdxSerializer();
+        var parameters = new Properties();
+        parameters.setProperty(ModelPdxSerializer.AMOUNT_ENCODING_PARAMETER, "minor-units");
+
+        declared.initialize(null, parameters);
+
+        assertEquals(ModelPdxSerializer.AmountEncoding.MINOR_UNITS, declared.getAmountEncoding());
+    }
+
+    @Test
+    public void testNullAmountAndTimestampRoundTrip() {
+        var transaction = transaction();
+        transaction.setAmount(null);
+        transaction.setTimestamp(null);
+
+        var written = write(transaction);
+        var read = (Transaction) serializer.fromData(Transaction.class, reader(written));
+
+        assertNull(read.getAmount());
+        assertNull(read.getTimestamp());
+        assertEquals(transaction, read);
+    }
+
+    @Test
+    public void testAccountWithoutPendingTransactionsRoundTrip() {
+        var account = account();
+        account.setPendingTransactionIds(null);
+
+        var read = (Account) serializer.fromData(Account.class, reader(write(account)));
+
+        assertNull(read.getPendingTransactionIds());
+        assertEquals(account, read);
+    }
+
+    @Test
+    public void testAmountKeepsScale() {
+        var transaction = transaction();
+        transaction.setAmount(new BigDecimal("-0.500"));
+
+        var read = (Transaction) serializer.fromData(Transaction.class, reader(write(transaction)));
+
+        assertEquals(new BigDecimal("-0.500"), read.getAmount());
+    }
+
+    @Test
+    public void testTimestampBeforeEpochRoundTrip() {
+        var transaction = transaction();
+        transaction.setTimestamp(Instant.parse("1969-12-31T23:59:59.999999999Z"));
+
+        var read = (Transaction) serializer.fromData(Transaction.class, reader(write(transaction)));
+
+        assertEquals(transaction.getTimestamp(), read.getTimestamp());
+    }
+
+    @Test
+    public void testOutOfRangeValuesAreRejected() {
+        var transaction = transaction();
+        transaction.setAmount(new BigDecimal("92233720368547758.08"));
+
+        assertThrows(IllegalArgumentException.class, () -> write(transaction));
+
+        var account = account();
+        account.setBalanceCalculatedDate(Instant.parse("2300-01-01T00:00:00Z"));
+
+        assertThrows(IllegalArgumentException.class, () -> write(account));
+    }
+
+    private void assertGolden(String goldenFile, Object object, Class<?> type) throws IOException {
+        assertGolden(serializer, goldenFile, object, type);
+    }
+
+    private static void assertGolden(ModelPdxSerializer serializer, String goldenFile, Object object, Class<?> type)
+            throws IOException {
+        var golden = readGolden(goldenFile);
+
+        assertEquals(golden, write(serializer, object));
+        assertEquals(object, serializer.fromData(type, reader(golden)));
+    }
+
+    private List<String> write(Object object) {
+        return write(serializer, object);
+    }
+
+    /**
+     * Serializes the object with a {@link PdxWriter} that records each call as {@code method, field, value}.
+     */
+    private static List<String> write(ModelPdxSerializer serializer, Object object) {
+        var calls = new ArrayList<String>();
+        var writer = mock(PdxWriter.class, invocation -> {
+            var arguments = invocation.getArguments();
+            var call = new StringBuilder(invocation.getMethod().getName()).append('\t').append(arguments[0]);
+            if (arguments.length > 1) {
+                call.append('\t').append(arguments[1] instanceof String[] array ? String.join(",", array) : arguments[1]);
+            }
+            calls.add(call.toString());
+            return invocation.getMock();
+        });
+
+        assertTrue(serializer.toData(object, writer));
+
+        return calls;
+    }
+
+    /**
+     * Returns a {@link PdxReader} that reads the field values recorded by {@link #write(Object)}.
+     */
+    private static PdxReader reader(List<String> calls) {
+        Map<String, String> values = new HashMap<>();
+        for (String call : calls) {
+            var parts = call.split("\t", 3);
+            if (parts.length == 3) {
+                values.put(parts[1], parts[2]);
+            }
+        }
+
+        return mock(PdxReader.class, invocation -> {
+            var value = values.get((String) invocation.getArgument(0));
+
+            return switch (invocation.getMethod().getName()) {
+                case "readString" -> "null".equals(value) ? null : value;
+                case "readLong" -> Long.parseLong(value);
+                case "readInt" -> Integer.parseInt(value);
+                case "readBoolean" -> Boolean.parseBoolean(value);
+                case "readStringArray" -> "null".equals(value) ? null : value.split(",");
+                default -> throw new UnsupportedOperationException(invocation.getMethod().getName());
+            };
+        });
+    }
+
+    private static List<String> readGolden(String name) throws IOException {
+        try (InputStream in = ModelPdxSerializerTest.class.getResourceAsStream("/golden/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .filter(line -> !line.isBlank() && !line.startsWith("#"))
+                    .toList();
+        }
+    }
+
+    private static Customer customer() {
+        var customer = new Customer();
+        customer.setId("cust-1");
+        customer.setFirstName("Ada");
+        customer.setLastName("Lovelace");
+        return customer;
+    }
+
+    private static Account account() {
+        var account = new Account();
+        account.setAccountId("cust-1:acct-1");
+        account.setCustomerId("cust-1");
+        account.setBalance(new BigDecimal("1234.56"));
+        account.setBalanceCalculatedDate(Instant.parse("2024-03-02T00:00:00Z"));
+        account.setPendingTransactionIds(new LinkedHashSet<>(List.of("cust-1:tx-3", "cust-1:tx-2")));
+        return account;
+    }
+
+    private static Transaction transaction() {
+        var transaction = new Transaction();
+        transaction.setTransactionId("cust-1:tx-1");
+        transaction.setAccountId("cust-1:acct-1");
+        transaction.setTimestamp(Instant.parse("2024-03-01T12:30:45.123456789Z"));
+        transaction.setDescription("Card purchase");
+        transaction.setAmount(new BigDecimal("-42.15"));
+        transaction.setCleared(true);
+        return transaction;
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.tndavidson.geodespringbootpoc.serialization;
+
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.apache.geode.pdx.PdxInstance;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TransactionFieldsTest {
+
+    private static final Instant TIMESTAMP = Instant.parse("2024-03-01T12:30:45.123456789Z");
+
+    @Test
+    public void testReadsReflectionLayoutWithoutDeserializing() {
+        var pdx = mock(PdxInstance.class);
+        when(pdx.getField("transactionId")).thenReturn("tx-1");
+        when(pdx.hasField("timestampNanos")).thenReturn(false);
+        when(pdx.getField("timestamp")).thenReturn(TIMESTAMP);
+
+        assertEquals("tx-1", TransactionFields.transactionId(pdx));
+        assertEquals(TIMESTAMP, TransactionFields.timestamp(pdx));
+        verify(pdx, never()).getObject();
+    }
+
+    @Test
+    public void testReadsCodecLayoutWithoutDeserializing() {
+        var pdx = mock(PdxInstance.class);
+        when(pdx.hasField("timestampNanos")).thenReturn(true);
+        when(pdx.getField("timestampNanos")).thenReturn(1_709_296_245_123_456_789L);
+
+        assertEquals(TIMESTAMP, TransactionFields.timestamp(pdx));
+
+        when(pdx.getField("timestampNanos")).thenReturn(ModelPdxSerializer.NULL_INSTANT);
+
+        assertNull(TransactionFields.timestamp(pdx));
+        verify(pdx, never()).getObject();
+    }
+
+    @Test
+    public void testToTransaction() {
+        var transaction = new Transaction();
+        transaction.setTransactionId("tx-1");
+        transaction.setTimestamp(TIMESTAMP);
+        var pdx = mock(PdxInstance.class);
+        when(pdx.getObject()).thenReturn(transaction);
+
+        assertSame(transaction, TransactionFields.toTransaction(pdx));
+        assertSame(transaction, TransactionFields.toTransaction(transaction));
+        assertEquals("tx-1", TransactionFields.transactionId(transaction));
+        assertEquals(TIMESTAMP, TransactionFields.timestamp(transaction));
+        assertThrows(IllegalArgumentException.class, () -> TransactionFields.toTransaction("tx-1"));
+    }
+}
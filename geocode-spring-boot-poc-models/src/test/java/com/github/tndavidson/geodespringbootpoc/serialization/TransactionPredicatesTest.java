@@ -0,0 +1,66 @@
+package com.github.tndavidson.geodespringbootpoc.serialization;
+
+import org.apache.geode.cache.Cache;
+import org.apache.geode.pdx.PdxSerializer;
+import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TransactionPredicatesTest {
+
+    @Test
+    public void testDepositOnReadSerializedDecimalCodecComparesTheUnscaledValue() {
+        var cache = cache(true, new ModelPdxSerializer(ModelPdxSerializer.AmountEncoding.DECIMAL));
+
+        assertEquals("t.amountUnscaled > 0", TransactionPredicates.isDeposit(cache, "t"));
+    }
+
+    @Test
+    public void testDepositComparesTheAmountOtherwise() {
+        assertEquals("t.amount > 0", TransactionPredicates.isDeposit(
+                cache(true, new ModelPdxSerializer(ModelPdxSerializer.AmountEncoding.MINOR_UNITS)), "t"));
+        assertEquals("t.amount > 0", TransactionPredicates.isDeposit(
+                cache(true, new ReflectionBasedAutoSerializer()), "t"));
+        assertEquals("t.amount > 0", TransactionPredicates.isDeposit(cache(false, new ModelPdxSerializer()), "t"));
+    }
+
+    @Test
+    public void testClearedOnReadSerializedServerTestsTheField() {
+        assertEquals("t.cleared = true", TransactionPredicates.isCleared(cache(true, new ModelPdxSerializer()), "t"));
+        assertEquals("t.cleared = true", TransactionPredicates.isCleared(
+                cache(true, new ReflectionBasedAutoSerializer()), "t"));
+        assertEquals("t.isCleared() = true", TransactionPredicates.isCleared(
+                cache(false, new ModelPdxSerializer()), "t"));
+    }
+
+    @Test
+    public void testTimestampOnReadSerializedCodecComparesEpochNanos() {
+        var cache = cache(true, new ModelPdxSerializer());
+
+        assertEquals("t.timestampNanos", TransactionPredicates.timestamp(cache, "t"));
+        assertEquals(1_500_000_000L, TransactionPredicates.timestampValue(cache, Instant.ofEpochSecond(1, 500_000_000)));
+        assertEquals(Long.MAX_VALUE, TransactionPredicates.timestampValue(cache, Instant.MAX));
+        assertEquals(ModelPdxSerializer.NULL_INSTANT + 1, TransactionPredicates.timestampValue(cache, Instant.MIN));
+    }
+
+    @Test
+    public void testTimestampComparesTheInstantOtherwise() {
+        var cache = cache(false, new ModelPdxSerializer());
+        var instant = Instant.ofEpochSecond(1);
+
+        assertEquals("t.timestamp", TransactionPredicates.timestamp(cache, "t"));
+        assertEquals(instant, TransactionPredicates.timestampValue(cache, instant));
+    }
+
+    private static Cache cache(boolean readSerialized, PdxSerializer serializer) {
+        var cache = mock(Cache.class);
+        when(cache.getPdxReadSerialized()).thenReturn(readSerialized);
+        when(cache.getPdxSerializer()).thenReturn(serializer);
+        return cache;
+    }
+}
@@ -0,0 +1,163 @@
+package com.github.tndavidson.geodespringbootpoc.writebehind;
+
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AppendOnlyLogStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testChangesAreReadInTheOrderTheyWereWritten() throws IOException {
+        var store = open("server1");
+        var first = new RegionChange("transaction", "tx-1", transaction("tx-1", "10.25"));
+        var second = new RegionChange("transaction", "tx-2", transaction("tx-2", "-3.50"));
+        var third = new RegionChange("transaction", "tx-1", null);
+
+        store.write(List.of(first, second));
+        store.write(List.of(third));
+
+        assertEquals(List.of(first, second, third), read(open("server2")));
+    }
+
+    @Test
+    public void testLogsOfSeveralMembersAreMergedByTime() throws Exception {
+        var server1 = open("server1");
+        var server2 = open("server2");
+        var first = new RegionChange("customer", "cust1", "first");
+        var second = new RegionChange("customer", "cust1", "second");
+        var third = new RegionChange("customer", "cust1", "third");
+
+        server2.write(List.of(first));
+        Thread.sleep(5);
+        server1.write(List.of(second));
+        Thread.sleep(5);
+        server2.write(List.of(third));
+
+        assertEquals(List.of(first, second, third), read(server1));
+    }
+
+    @Test
+    public void testIncompleteFrameIsIgnoredAndCutOffBeforeTheNextWrite() throws IOException {
+        var store = open("server1");
+        var first = new RegionChange("transaction", "tx-1", transaction("tx-1", "1.00"));
+        store.write(List.of(first));
+        var log = directory.resolve("server1" + AppendOnlyLogStore.EXTENSION);
+        var complete = Files.size(log);
+        store.write(List.of(new RegionChange("transaction", "tx-2", transaction("tx-2", "2.00"))));
+
+        try (var channel = FileChannel.open(log, WRITE)) {
+            channel.truncate(complete + 20);
+        }
+
+        assertEquals(List.of(first), read(open("server2")));
+
+        var restarted = open("server1");
+        var second = new RegionChange("transaction", "tx-3", transaction("tx-3", "3.00"));
+        restarted.write(List.of(second));
+
+        assertEquals(List.of(first, second), read(restarted));
+    }
+
+    @Test
+    public void testCompactKeepsTheLastChangeOfEachEntryWithTheTimeItWasWritten() throws Exception {
+        var server1 = open("server1");
+        var server2 = open("server2");
+        var first = new RegionChange("customer", "cust1", "first");
+        var second = new RegionChange("customer", "cust1", "second");
+        var other = new RegionChange("customer", "cust2", "other");
+        var third = new RegionChange("customer", "cust1", "third");
+
+        server1.write(List.of(first));
+        Thread.sleep(5);
+        server1.write(List.of(second, other));
+        Thread.sleep(5);
+        server2.write(List.of(third));
+
+        server1.compact();
+
+        assertEquals(List.of(second, other, third), read(open("server3")));
+        assertEquals(List.of(second, other), read(server1Only()));
+    }
+
+    @Test
+    public void testCompactKeepsDestroysAndLaterWritesAreAppended() throws IOException {
+        var store = open("server1");
+        var destroy = new RegionChange("transaction", "tx-1", null);
+        store.write(List.of(new RegionChange("transaction", "tx-1", transaction("tx-1", "1.00"))));
+        store.write(List.of(destroy));
+
+        store.compact();
+        var next = new RegionChange("transaction", "tx-2", transaction("tx-2", "2.00"));
+        store.write(List.of(next));
+
+        assertEquals(List.of(destroy, next), read(store));
+    }
+
+    @Test
+    public void testCompactWithoutALog() throws IOException {
+        var store = open("server1");
+
+        store.compact();
+
+        assertFalse(Files.exists(directory.resolve("server1" + AppendOnlyLogStore.EXTENSION)));
+        assertTrue(read(store).isEmpty());
+    }
+
+    /**
+     * Opens a store on a copy of server1's log only.
+     */
+    private AppendOnlyLogStore server1Only() throws IOException {
+        var copy = Files.createDirectory(directory.resolve("copy"));
+        var log = "server1" + AppendOnlyLogStore.EXTENSION;
+        Files.copy(directory.resolve(log), copy.resolve(log));
+        var properties = new Properties();
+        properties.setProperty(AppendOnlyLogStore.DIRECTORY, copy.toString());
+        properties.setProperty(WriteBehindListener.MEMBER_NAME, "server1");
+        var store = new AppendOnlyLogStore();
+        store.open(properties);
+        return store;
+    }
+
+    private AppendOnlyLogStore open(String memberName) throws IOException {
+        var properties = new Properties();
+        properties.setProperty(AppendOnlyLogStore.DIRECTORY, directory.toString());
+        properties.setProperty(AppendOnlyLogStore.SYNC, "false");
+        properties.setProperty(WriteBehindListener.MEMBER_NAME, memberName);
+        var store = new AppendOnlyLogStore();
+        store.open(properties);
+        return store;
+    }
+
+    private static List<RegionChange> read(WriteBehindStore store) throws IOException {
+        var changes = new ArrayList<RegionChange>();
+        store.read(changes::add);
+        return changes;
+    }
+
+    private static Transaction transaction(String transactionId, String amount) {
+        var transaction = new Transaction();
+        transaction.setTransactionId(transactionId);
+        transaction.setAccountId("acc1");
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setTimestamp(Instant.parse("2024-03-01T12:30:45.123456789Z"));
+        return transaction;
+    }
+}
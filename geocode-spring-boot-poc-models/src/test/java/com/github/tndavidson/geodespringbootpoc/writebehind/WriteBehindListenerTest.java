@@ -0,0 +1,75 @@
+package com.github.tndavidson.geodespringbootpoc.writebehind;
+
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import org.apache.geode.cache.Operation;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.asyncqueue.AsyncEvent;
+import org.apache.geode.pdx.PdxInstance;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WriteBehindListenerTest {
+
+    @Test
+    public void testOnlyTheLastChangeOfAnEntryInABatchIsWritten() {
+        var first = customer("cust1", "First");
+        var second = customer("cust1", "Second");
+        var other = customer("cust2", "Other");
+
+        var changes = WriteBehindListener.changes(List.of(
+                event("customer", Operation.CREATE, "cust1", first),
+                event("customer", Operation.CREATE, "cust2", other),
+                event("customer", Operation.UPDATE, "cust1", second),
+                event("account", Operation.DESTROY, "cust1", null)));
+
+        assertEquals(List.of(new RegionChange("customer", "cust1", second), new RegionChange("customer", "cust2", other),
+                new RegionChange("account", "cust1", null)), changes);
+    }
+
+    @Test
+    public void testPdxValuesAreDeserialized() {
+        var customer = customer("cust1", "Pdx");
+        var pdx = mock(PdxInstance.class);
+        when(pdx.getObject()).thenReturn(customer);
+
+        var changes = WriteBehindListener.changes(List.of(event("customer", Operation.PUTALL_CREATE, "cust1", pdx)));
+
+        assertEquals(List.of(new RegionChange("customer", "cust1", customer)), changes);
+    }
+
+    @Test
+    public void testReloadsAndInvalidatesAreNotWritten() {
+        var reload = event("customer", Operation.PUTALL_CREATE, "cust1", customer("cust1", "Reloaded"));
+        when(reload.getCallbackArgument()).thenReturn(WriteBehindListener.RELOAD_CALLBACK_ARGUMENT);
+
+        var changes = WriteBehindListener.changes(List.of(reload,
+                event("customer", Operation.INVALIDATE, "cust2", null)));
+
+        assertTrue(changes.isEmpty());
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static AsyncEvent event(String regionName, Operation operation, String key, Object value) {
+        var region = mock(Region.class);
+        when(region.getName()).thenReturn(regionName);
+        var event = mock(AsyncEvent.class);
+        when(event.getRegion()).thenReturn(region);
+        when(event.getOperation()).thenReturn(operation);
+        when(event.getKey()).thenReturn(key);
+        when(event.getDeserializedValue()).thenReturn(value);
+        return event;
+    }
+
+    private static Customer customer(String id, String lastName) {
+        var customer = new Customer();
+        customer.setId(id);
+        customer.setLastName(lastName);
+        return customer;
+    }
+}
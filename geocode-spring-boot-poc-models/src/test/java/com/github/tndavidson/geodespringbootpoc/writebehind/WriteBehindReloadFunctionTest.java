@@ -0,0 +1,156 @@
+package com.github.tndavidson.geodespringbootpoc.writebehind;
+
+import org.apache.geode.LogWriter;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.asyncqueue.AsyncEventQueue;
+import org.apache.geode.cache.execute.FunctionContext;
+import org.apache.geode.cache.execute.ResultSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class WriteBehindReloadFunctionTest {
+
+    private WriteBehindReloadFunction function;
+
+    @Mock
+    private FunctionContext<Object> context;
+
+    @Mock
+    private ResultSender<Map<String, Integer>> resultSender;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private LogWriter logger;
+
+    @Mock
+    private AsyncEventQueue queue;
+
+    @Mock
+    private WriteBehindListener listener;
+
+    @Mock
+    private WriteBehindStore store;
+
+    @Mock
+    private Region<Object, Object> customerRegion;
+
+    @Mock
+    private Region<Object, Object> transactionRegion;
+
+    private MockedStatic<CacheFactory> mockedCacheFactory;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        closeable = MockitoAnnotations.openMocks(this);
+        function = new WriteBehindReloadFunction();
+
+        mockedCacheFactory = mockStatic(CacheFactory.class);
+        mockedCacheFactory.when(CacheFactory::getAnyInstance).thenReturn(cache);
+
+        when(cache.getLogger()).thenReturn(logger);
+        when(cache.getAsyncEventQueues()).thenReturn(Set.of(queue));
+        when(queue.getAsyncEventListener()).thenReturn(listener);
+        when(listener.getStore()).thenReturn(store);
+        doReturn(customerRegion).when(cache).getRegion("customer");
+        doReturn(transactionRegion).when(cache).getRegion("transaction");
+        when(customerRegion.isEmpty()).thenReturn(true);
+        when(transactionRegion.isEmpty()).thenReturn(true);
+        doReturn(resultSender).when(context).getResultSender();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        mockedCacheFactory.close();
+        closeable.close();
+    }
+
+    @Test
+    public void testReloadsTheLastValueOfEachEntryBatchByBatch() throws Exception {
+        stored(new RegionChange("customer", "cust1", "v1"),
+                new RegionChange("transaction", "tx-1", "t1"),
+                new RegionChange("customer", "cust1", "v2"),
+                new RegionChange("transaction", "tx-2", "t2"),
+                new RegionChange("transaction", "tx-1", null),
+                new RegionChange("transaction", "tx-3", "t3"));
+        when(customerRegion.size()).thenReturn(1);
+        when(transactionRegion.size()).thenReturn(2);
+        doReturn(2).when(context).getArguments();
+
+        function.execute(context);
+
+        var inOrder = inOrder(transactionRegion);
+        inOrder.verify(transactionRegion).putAll(Map.of("tx-1", "t1", "tx-2", "t2"), WriteBehindListener.RELOAD_CALLBACK_ARGUMENT);
+        inOrder.verify(transactionRegion).putAll(Map.of("tx-3", "t3"), WriteBehindListener.RELOAD_CALLBACK_ARGUMENT);
+        inOrder.verify(transactionRegion).removeAll(List.of("tx-1"), WriteBehindListener.RELOAD_CALLBACK_ARGUMENT);
+        verify(customerRegion).putAll(Map.of("cust1", "v2"), WriteBehindListener.RELOAD_CALLBACK_ARGUMENT);
+        verify(resultSender).lastResult(Map.of("customer", 1, "transaction", 2));
+        verify(store, never()).compact();
+        verify(store, never()).write(any());
+    }
+
+    @Test
+    public void testWritesInBatches() throws Exception {
+        stored(new RegionChange("transaction", "tx-1", "t1"),
+                new RegionChange("transaction", "tx-2", "t2"),
+                new RegionChange("transaction", "tx-3", "t3"));
+        doReturn(2).when(context).getArguments();
+
+        function.execute(context);
+
+        verify(transactionRegion).putAll(Map.of("tx-1", "t1", "tx-2", "t2"), WriteBehindListener.RELOAD_CALLBACK_ARGUMENT);
+        verify(transactionRegion).putAll(Map.of("tx-3", "t3"), WriteBehindListener.RELOAD_CALLBACK_ARGUMENT);
+    }
+
+    @Test
+    public void testRegionsThatAreNotEmptyAreSkipped() throws Exception {
+        stored(new RegionChange("customer", "cust1", "v1"), new RegionChange("transaction", "tx-1", "t1"),
+                new RegionChange("customer", "cust2", "v2"));
+        when(customerRegion.isEmpty()).thenReturn(false);
+        when(transactionRegion.size()).thenReturn(1);
+        doReturn(null).when(context).getArguments();
+
+        function.execute(context);
+
+        verify(customerRegion, never()).putAll(anyMap(), any());
+        verify(logger).warning(anyString());
+        verify(resultSender).lastResult(Map.of("transaction", 1));
+    }
+
+    @Test
+    public void testExecuteWithoutWriteBehindQueue() {
+        when(cache.getAsyncEventQueues()).thenReturn(Set.of());
+
+        function.execute(context);
+
+        verify(resultSender).sendException(any(IllegalStateException.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stored(RegionChange... changes) throws Exception {
+        doAnswer(invocation -> {
+            var consumer = (Consumer<RegionChange>) invocation.getArgument(0);
+            List.of(changes).forEach(consumer);
+            return null;
+        }).when(store).read(any());
+    }
+}
@@ -1,5 +1,7 @@
 package com.github.tndavidson.geodespringbootpoc;
 
+import com.github.tndavidson.geodespringbootpoc.config.SerializationProperties;
+import com.github.tndavidson.geodespringbootpoc.serialization.ModelPdxSerializer;
 import org.apache.geode.pdx.PdxSerializer;
 import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
 import org.springframework.context.annotation.Bean;
@@ -13,16 +15,21 @@ import org.springframework.context.annotation.Configuration;
  * with Apache Geode.
  *
  * Bean declarations:
- * - {@code @Bean PdxSerializer}: Provides a {@link ReflectionBasedAutoSerializer}
- *   configured to serialize objects in the specified package. This serializer is
- *   used to handle serialization and deserialization of objects stored in the
- *   Apache Geode cache.
+ * - {@code @Bean PdxSerializer}: Provides the serializer selected by {@code geode-poc.serialization.mode}:
+ *   a {@link ReflectionBasedAutoSerializer} for the classes in the model package, or a
+ *   {@link ModelPdxSerializer} with explicit codecs for customers, accounts and transactions, storing amounts
+ *   with the encoding selected by {@code geode-poc.serialization.amount-encoding}. This serializer
+ *   is used to handle serialization and deserialization of objects stored in the Apache Geode cache, and is
+ *   selected by {@code spring.data.gemfire.pdx.serializer-bean-name} in {@code application.yml}.
  */
 @Configuration
 public class CacheConfiguration {
 
     @Bean
-    public PdxSerializer pdxSerializer() {
-        return new ReflectionBasedAutoSerializer("com.github.tndavidson.geodespringbootpoc.model");
+    public PdxSerializer pdxSerializer(SerializationProperties serializationProperties) {
+        return switch (serializationProperties.getMode()) {
+            case REFLECTION -> new ReflectionBasedAutoSerializer(ModelPdxSerializer.MODEL_PACKAGE_PATTERN);
+            case CODEC -> new ModelPdxSerializer(serializationProperties.getAmountEncoding());
+        };
     }
 }
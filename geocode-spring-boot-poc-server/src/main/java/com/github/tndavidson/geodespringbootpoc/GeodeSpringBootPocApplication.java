@@ -3,6 +3,7 @@ package com.github.tndavidson.geodespringbootpoc;
 import com.github.tndavidson.geodespringbootpoc.model.Customer;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.data.gemfire.config.annotation.ClientCacheApplication;
 import org.springframework.data.gemfire.config.annotation.EnableContinuousQueries;
 import org.springframework.data.gemfire.config.annotation.EnableEntityDefinedRegions;
@@ -25,6 +26,7 @@ import org.springframework.data.gemfire.repository.config.EnableGemfireRepositor
  * - {@code @EnableStatistics}: Enables collection and reporting of statistics for the Apache Geode client cache.
  * - {@code @EnableContinuousQueries}: Enables the use of Continuous Queries for real-time data event listening.
  * - {@code @EnableGemfireFunctionExecutions}: Enables the execution of GemFire functions, scanning the specified base package for annotated function-related components.
+ * - {@code @ConfigurationPropertiesScan}: Binds the application's {@code geode-poc.*} configuration properties classes.
  *
  * The configuration integrates Apache Geode's key features, including caching, repositories, statistics,
  * continuous queries, and function execution, allowing for scalable and efficient data processing.
@@ -36,6 +38,7 @@ import org.springframework.data.gemfire.repository.config.EnableGemfireRepositor
 @EnableStatistics
 @EnableContinuousQueries
 @EnableGemfireFunctionExecutions(basePackages = "com.github.tndavidson.geodespringbootpoc.processor.function")
+@ConfigurationPropertiesScan(basePackages = "com.github.tndavidson.geodespringbootpoc.config")
 public class GeodeSpringBootPocApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,136 @@
+package com.github.tndavidson.geodespringbootpoc;
+
+import com.github.tndavidson.geodespringbootpoc.config.NearCacheProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.geode.cache.CacheListener;
+import org.apache.geode.cache.EntryEvent;
+import org.apache.geode.cache.EvictionAction;
+import org.apache.geode.cache.EvictionAttributes;
+import org.apache.geode.cache.InterestResultPolicy;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.client.ClientCache;
+import org.apache.geode.cache.client.ClientRegionShortcut;
+import org.apache.geode.cache.util.CacheListenerAdapter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.gemfire.client.ClientRegionFactoryBean;
+import org.springframework.data.gemfire.client.Interest;
+import org.springframework.data.gemfire.client.RegexInterest;
+import org.springframework.data.gemfire.config.annotation.RegionConfigurer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Configuration class for the optional client near cache of the read-mostly customer and account regions.
+ *
+ * When {@code geode-poc.near-cache.enabled} is true, each region listed under {@code geode-poc.near-cache.max-entries}
+ * is created as a {@code CACHING_PROXY} instead of a {@code PROXY}, so repeated reads of the same entry are served
+ * from the client without a round trip to the servers.
+ *
+ * - The local entries are limited to the configured maximum, evicting the least recently used entries.
+ * - The region registers interest in all keys through the subscription enabled by
+ *   {@code @ClientCacheApplication(subscriptionEnabled = true)}, without receiving values, so an update on the servers
+ *   invalidates the local entry and the next read fetches the current value.
+ * - Region statistics are enabled, and the hits, misses, hit ratio, local size and evictions of each near-cached region
+ *   are published as {@code geode.near.cache.*} Micrometer metrics tagged with the region name.
+ */
+@Configuration
+public class NearCacheConfiguration {
+
+    private final Map<String, EvictionCounter> evictionCounters = new ConcurrentHashMap<>();
+
+    @Bean
+    public RegionConfigurer nearCacheRegionConfigurer(NearCacheProperties nearCacheProperties) {
+        return new RegionConfigurer() {
+            @Override
+            @SuppressWarnings({"rawtypes", "unchecked"})
+            public void configure(String beanName, ClientRegionFactoryBean<?, ?> bean) {
+                var maxEntries = nearCacheProperties.getMaxEntries().get(beanName);
+
+                if (!nearCacheProperties.isEnabled() || maxEntries == null) {
+                    return;
+                }
+
+                ClientRegionFactoryBean regionFactoryBean = bean;
+                regionFactoryBean.setShortcut(ClientRegionShortcut.CACHING_PROXY);
+                regionFactoryBean.setEvictionAttributes(
+                        EvictionAttributes.createLRUEntryAttributes(maxEntries, EvictionAction.LOCAL_DESTROY));
+                regionFactoryBean.setStatisticsEnabled(true);
+                regionFactoryBean.setInterests(new Interest[]{new RegexInterest(".*", InterestResultPolicy.NONE, false, false)});
+                regionFactoryBean.setCacheListeners(new CacheListener[]{
+                        evictionCounters.computeIfAbsent(beanName, name -> new EvictionCounter())});
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder nearCacheMetrics(NearCacheProperties nearCacheProperties, ClientCache clientCache) {
+        return registry -> {
+            if (!nearCacheProperties.isEnabled()) {
+                return;
+            }
+
+            nearCacheProperties.getMaxEntries().keySet().forEach(regionName -> {
+                FunctionCounter.builder("geode.near.cache.hits", clientCache,
+                                statistic(regionName, region -> region.getStatistics().getHitCount()))
+                        .description("Reads served from the near cache")
+                        .tag("region", regionName)
+                        .register(registry);
+
+                FunctionCounter.builder("geode.near.cache.misses", clientCache,
+                                statistic(regionName, region -> region.getStatistics().getMissCount()))
+                        .description("Reads not found in the near cache and fetched from the servers")
+                        .tag("region", regionName)
+                        .register(registry);
+
+                Gauge.builder("geode.near.cache.hit.ratio", clientCache,
+                                statistic(regionName, region -> region.getStatistics().getHitRatio()))
+                        .description("Fraction of reads served from the near cache")
+                        .tag("region", regionName)
+                        .register(registry);
+
+                Gauge.builder("geode.near.cache.size", clientCache, statistic(regionName, Region::size))
+                        .description("Entries held in the near cache")
+                        .tag("region", regionName)
+                        .register(registry);
+
+                FunctionCounter.builder("geode.near.cache.evictions", evictionCounters,
+                                counters -> counters.containsKey(regionName) ? counters.get(regionName).count() : 0)
+                        .description("Entries evicted from the near cache to stay within its entry limit")
+                        .tag("region", regionName)
+                        .register(registry);
+            });
+        };
+    }
+
+    private static ToDoubleFunction<ClientCache> statistic(String regionName, ToDoubleFunction<Region<?, ?>> statistic) {
+        return cache -> {
+            var region = cache.getRegion(regionName);
+            return region == null || region.isDestroyed() ? Double.NaN : statistic.applyAsDouble(region);
+        };
+    }
+
+    /**
+     * Counts the entries a near-cached region evicts locally to stay within its entry limit.
+     */
+    static class EvictionCounter extends CacheListenerAdapter<Object, Object> {
+
+        private final LongAdder evictions = new LongAdder();
+
+        @Override
+        public void afterDestroy(EntryEvent<Object, Object> event) {
+            if (event.getOperation().isEviction()) {
+                evictions.increment();
+            }
+        }
+
+        long count() {
+            return evictions.sum();
+        }
+    }
+}
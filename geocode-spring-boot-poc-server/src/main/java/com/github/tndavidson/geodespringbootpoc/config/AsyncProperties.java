@@ -0,0 +1,25 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the executor of the asynchronous account and deposits processors.
+ * <p>
+ * Bound from the {@code geode-poc.async} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.async")
+public class AsyncProperties {
+
+    /**
+     * Number of threads executing the Geode calls of asynchronous requests.
+     */
+    private int threads = 32;
+
+    /**
+     * Maximum number of calls waiting for a thread. Requests submitted when the queue is full are rejected with
+     * {@code 503 Service Unavailable}.
+     */
+    private int queueCapacity = 1_000;
+}
@@ -0,0 +1,38 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties controlling how account balances are maintained when new
+ * transactions arrive through the continuous query.
+ * <p>
+ * Bound from the {@code geode-poc.balance} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.balance")
+public class BalanceProperties {
+
+    /**
+     * Strategy used when a new transaction event is received.
+     */
+    private Mode mode = Mode.INCREMENTAL;
+
+    /**
+     * Number of times a balance update is attempted when other writers keep changing the account between its read
+     * and its conditional replace, before the update fails.
+     */
+    private int maxUpdateAttempts = 100;
+
+    public enum Mode {
+        /**
+         * Applies only the new transaction's amount to the account balance.
+         */
+        INCREMENTAL,
+
+        /**
+         * Re-sums every transaction for the account on each event.
+         */
+        FULL
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for paging the customer search by last name.
+ * <p>
+ * Bound from the {@code geode-poc.customer-search} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.customer-search")
+public class CustomerSearchProperties {
+
+    /**
+     * Number of customers in a page when the request does not specify a page size.
+     */
+    private int defaultPageSize = 100;
+
+    /**
+     * Largest page size a request may ask for.
+     */
+    private int maxPageSize = 1_000;
+}
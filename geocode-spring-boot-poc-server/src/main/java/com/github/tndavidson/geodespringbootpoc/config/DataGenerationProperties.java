@@ -0,0 +1,56 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for generating fake customers, accounts and transactions for load testing.
+ * <p>
+ * Bound from the {@code geode-poc.data-generation} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.data-generation")
+public class DataGenerationProperties {
+
+    /**
+     * Number of generator threads, or 0 to use one per available processor.
+     */
+    private int threads = 0;
+
+    /**
+     * Number of entries of each type written with one {@code putAll}.
+     */
+    private int batchSize = 1_000;
+
+    /**
+     * Fraction of accounts that are "hot" and receive more transactions than the others.
+     */
+    private double hotAccountRatio = 0.05;
+
+    /**
+     * How many times the requested number of transactions a hot account receives.
+     */
+    private int hotAccountMultiplier = 20;
+
+    /**
+     * Fraction of transactions that are deposits (positive amounts); the rest are withdrawals.
+     */
+    private double depositRatio = 0.3;
+
+    /**
+     * Median absolute transaction amount. Amounts are log-normally distributed around it.
+     */
+    private double amountMedian = 40.0;
+
+    /**
+     * Standard deviation of the natural logarithm of the amounts; larger values give a longer tail of large amounts.
+     */
+    private double amountSigma = 1.0;
+
+    /**
+     * Transaction timestamps are spread uniformly over this period, ending now.
+     */
+    private Duration history = Duration.ofDays(90);
+}
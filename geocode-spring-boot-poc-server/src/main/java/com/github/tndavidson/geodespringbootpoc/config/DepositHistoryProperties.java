@@ -0,0 +1,44 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for streaming and paging the deposit history from the servers.
+ * <p>
+ * Bound from the {@code geode-poc.deposit-history} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.deposit-history")
+public class DepositHistoryProperties {
+
+    /**
+     * Maximum number of transactions the server-side function sends in a single result chunk.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Number of received chunks buffered on the client before the function execution waits for the
+     * response writer to catch up.
+     */
+    private int bufferedChunks = 4;
+
+    /**
+     * Longest time a streamed deposit history may wait for the response writer to take its next chunk. A function
+     * execution whose chunks have not been taken for this long is failed, releasing its connection; a response that
+     * is written slowly but steadily is never cut off.
+     */
+    private Duration streamTimeout = Duration.ofMinutes(2);
+
+    /**
+     * Number of transactions in a deposit history page when the request does not specify a page size.
+     */
+    private int defaultPageSize = 50;
+
+    /**
+     * Largest page size a request may ask for.
+     */
+    private int maxPageSize = 1_000;
+}
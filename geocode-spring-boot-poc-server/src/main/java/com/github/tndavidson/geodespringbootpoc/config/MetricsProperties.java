@@ -0,0 +1,33 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the Micrometer metrics of the processors, repositories and server-side functions.
+ * <p>
+ * Bound from the {@code geode-poc.metrics} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.metrics")
+public class MetricsProperties {
+
+    /**
+     * When false, the processors, repositories and function interfaces are not timed, and the servers' function
+     * statistics are not read.
+     */
+    private boolean enabled = true;
+
+    /**
+     * When true, the timers publish histogram buckets, so percentiles can be aggregated across instances in
+     * Prometheus.
+     */
+    private boolean percentileHistograms = true;
+
+    /**
+     * How often the servers' function statistics are read. Zero or negative disables reading them.
+     */
+    private Duration serverFunctionRefresh = Duration.ofSeconds(15);
+}
@@ -0,0 +1,26 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the multi-get endpoints {@code POST /customer/_mget}, {@code POST /account/_mget}
+ * and {@code POST /transaction/_mget}.
+ * <p>
+ * Bound from the {@code geode-poc.multi-get} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.multi-get")
+public class MultiGetProperties {
+
+    /**
+     * Number of IDs read with one {@code getAll}. Larger requests are read in several batches, so no single
+     * response from the servers holds more than this many entries.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Maximum number of IDs in one request.
+     */
+    private int maxIds = 10_000;
+}
@@ -0,0 +1,28 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration properties for the client near cache of read-mostly regions.
+ * <p>
+ * Bound from the {@code geode-poc.near-cache} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.near-cache")
+public class NearCacheProperties {
+
+    /**
+     * When false, every region is a PROXY and all reads go to the servers.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The regions kept in the near cache, and the maximum number of entries held locally for each before the
+     * least recently used entries are evicted.
+     */
+    private Map<String, Integer> maxEntries = new LinkedHashMap<>(Map.of("customer", 10_000, "account", 50_000));
+}
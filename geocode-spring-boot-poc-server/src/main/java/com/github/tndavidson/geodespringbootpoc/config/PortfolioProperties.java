@@ -0,0 +1,24 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the customer portfolio read through {@code GET /customer/{id}/portfolio}.
+ * <p>
+ * Bound from the {@code geode-poc.portfolio} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.portfolio")
+public class PortfolioProperties {
+
+    /**
+     * Number of recent transactions returned for each account when the request does not specify it.
+     */
+    private int defaultTransactionsPerAccount = 10;
+
+    /**
+     * Largest number of recent transactions per account a request may ask for.
+     */
+    private int maxTransactionsPerAccount = 100;
+}
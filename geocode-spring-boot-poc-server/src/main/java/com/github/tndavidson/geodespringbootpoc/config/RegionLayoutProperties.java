@@ -0,0 +1,38 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties describing how the customer, account and transaction regions are laid out
+ * on the Geode servers, which determines how entry keys are generated and how server-side functions are routed.
+ * <p>
+ * Bound from the {@code geode-poc.region} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.region")
+public class RegionLayoutProperties {
+
+    /**
+     * The layout of the regions on the servers.
+     */
+    private Layout layout = Layout.REPLICATE;
+
+    public boolean isColocated() {
+        return layout == Layout.COLOCATED;
+    }
+
+    public enum Layout {
+        /**
+         * Independent regions (for example, REPLICATE) keyed by plain UUIDs. Functions run on any server.
+         */
+        REPLICATE,
+
+        /**
+         * PARTITION regions with account and transaction colocated with customer through the
+         * {@code CustomerRoutingPartitionResolver}. Account and transaction keys carry the customer ID as a
+         * routing prefix, and functions are routed to the member that owns the customer.
+         */
+        COLOCATED
+    }
+}
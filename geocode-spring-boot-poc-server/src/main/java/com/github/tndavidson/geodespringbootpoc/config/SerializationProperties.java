@@ -0,0 +1,39 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import com.github.tndavidson.geodespringbootpoc.serialization.ModelPdxSerializer;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties selecting how the model classes are PDX serialized.
+ * <p>
+ * Bound from the {@code geode-poc.serialization} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.serialization")
+public class SerializationProperties {
+
+    /**
+     * Serializer used for the model classes. The servers must be configured with the same serializer.
+     */
+    private Mode mode = Mode.REFLECTION;
+
+    /**
+     * How amounts are stored in {@link Mode#CODEC} mode. The servers must be configured with the same encoding.
+     */
+    private ModelPdxSerializer.AmountEncoding amountEncoding = ModelPdxSerializer.AmountEncoding.DECIMAL;
+
+    public enum Mode {
+        /**
+         * Serializes the model classes reflectively with a {@code ReflectionBasedAutoSerializer}, like the servers
+         * started by {@code scripts/gfsh/start-cluster.gfsh}.
+         */
+        REFLECTION,
+
+        /**
+         * Serializes customers, accounts and transactions with the explicit codecs of {@code ModelPdxSerializer},
+         * like the servers started by {@code scripts/gfsh/start-cluster-codec.gfsh}.
+         */
+        CODEC
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for timing the OQL queries of the repositories and detecting slow and unindexed ones.
+ * <p>
+ * Bound from the {@code geode-poc.slow-query} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.slow-query")
+public class SlowQueryProperties {
+
+    /**
+     * When false, repository queries are neither timed nor checked for index use.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Queries taking longer than this are logged as warnings.
+     */
+    private Duration threshold = Duration.ofMillis(100);
+
+    /**
+     * Number of queries listed by the {@code slowqueries} actuator endpoint, slowest first.
+     */
+    private int topN = 20;
+
+    /**
+     * Largest number of distinct queries tracked. Queries first seen once this many are tracked are not recorded.
+     */
+    private int maxTracked = 1_000;
+
+    /**
+     * Fraction of the executions of a query that are also run on a server to check which indexes it uses, in
+     * addition to its first execution. Zero checks each query only once.
+     */
+    private double planSampleRate = 0.01;
+}
@@ -0,0 +1,26 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for bulk transaction ingestion through {@code POST /transaction/batch}.
+ * <p>
+ * Bound from the {@code geode-poc.transaction-batch} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.transaction-batch")
+public class TransactionBatchProperties {
+
+    /**
+     * Number of transactions validated with one {@code getAll} of their accounts and written with one {@code putAll}.
+     */
+    private int batchSize = 1_000;
+
+    /**
+     * When true, batch transactions are written as already cleared so the continuous query does not update balances
+     * one transaction at a time, and each affected account's balance is recalculated once when the batch ends.
+     * Can be overridden per request.
+     */
+    private boolean deferBalanceUpdates = true;
+}
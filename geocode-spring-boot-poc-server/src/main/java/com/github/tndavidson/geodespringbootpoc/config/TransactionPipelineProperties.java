@@ -0,0 +1,37 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the staged pipeline that processes new transaction events
+ * received from the continuous query.
+ * <p>
+ * Bound from the {@code geode-poc.transaction-pipeline} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.transaction-pipeline")
+public class TransactionPipelineProperties {
+
+    /**
+     * When false, events are processed synchronously on the continuous query listener thread.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of events waiting to be processed. The listener thread blocks when the queue is full.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * How long events are collected before they are coalesced per account and drained.
+     */
+    private Duration coalesceWindow = Duration.ofMillis(50);
+
+    /**
+     * Number of worker threads processing coalesced accounts in parallel.
+     */
+    private int workers = 4;
+}
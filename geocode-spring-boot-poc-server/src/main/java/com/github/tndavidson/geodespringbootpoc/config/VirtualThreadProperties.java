@@ -0,0 +1,29 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the Geode calls of requests served on virtual threads, when
+ * {@code spring.threads.virtual.enabled} is true.
+ * <p>
+ * Bound from the {@code geode-poc.virtual-threads} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.virtual-threads")
+public class VirtualThreadProperties {
+
+    /**
+     * When true, the repository and server-side function calls made on a virtual thread are executed on a pool of
+     * {@code geode-call-threads} platform threads, while the virtual thread waits without holding its carrier
+     * thread. When false, they are executed on the virtual thread, which the Geode client pins to its carrier for
+     * the whole round trip.
+     */
+    private boolean offloadGeodeCalls = true;
+
+    /**
+     * Number of platform threads executing the Geode calls of virtual threads, which bounds the round trips in
+     * progress and the client pool connections they use.
+     */
+    private int geodeCallThreads = 64;
+}
@@ -0,0 +1,25 @@
+package com.github.tndavidson.geodespringbootpoc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for reloading the regions from the servers' write-behind store on startup.
+ * <p>
+ * Bound from the {@code geode-poc.write-behind} prefix in {@code application.yml}.
+ */
+@Data
+@ConfigurationProperties(prefix = "geode-poc.write-behind")
+public class WriteBehindProperties {
+
+    /**
+     * When true, the application asks a server to reload the empty regions from its write-behind store when it
+     * starts. The servers must have the write-behind queue created by {@code scripts/gfsh/enable-write-behind.gfsh}.
+     */
+    private boolean reloadOnStartup = false;
+
+    /**
+     * Number of entries the server writes back with one {@code putAll} while reloading.
+     */
+    private int reloadBatchSize = 1_000;
+}
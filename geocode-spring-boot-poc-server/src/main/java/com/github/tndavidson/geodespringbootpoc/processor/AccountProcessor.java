@@ -2,6 +2,10 @@ package com.github.tndavidson.geodespringbootpoc.processor;
 
 import com.github.tndavidson.geodespringbootpoc.model.Account;
 import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.model.TransactionBatchResult;
+
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * Interface for processing and managing accounts and their associated transactions.
@@ -33,6 +37,18 @@ public interface AccountProcessor {
      */
     Transaction createTransaction(Transaction transaction);
 
+    /**
+     * Creates many transactions at once, validating their accounts and writing them in batches rather than
+     * one round trip per transaction. Transactions that fail validation are rejected individually without
+     * affecting the rest of the batch.
+     *
+     * @param transactions         the transactions to create, consumed in order
+     * @param deferBalanceUpdates  whether to recalculate each affected account's balance once at the end instead
+     *                             of once per transaction, or null to use the configured default
+     * @return the per-transaction outcome of the batch
+     */
+    TransactionBatchResult createTransactions(Iterator<Transaction> transactions, Boolean deferBalanceUpdates);
+
     /**
      * Retrieves a transaction by its unique identifier.
      *
@@ -41,12 +57,33 @@ public interface AccountProcessor {
      */
     Transaction findTransactionById(String transactionId);
 
+    /**
+     * Applies a single new transaction to its account's balance as a delta, without reloading the
+     * account's transaction history. Applying the same transaction more than once has no effect.
+     *
+     * @param transaction the transaction whose amount should be added to the account balance
+     * @return true if the transaction was applied, false if it had already been applied
+     */
+    boolean applyTransaction(Transaction transaction);
+
+    /**
+     * Applies a batch of new transactions for the same account to its balance as a single delta, and then marks
+     * them as cleared. Transactions that have already been applied are skipped.
+     *
+     * @param accountId    the unique identifier of the account the transactions belong to
+     * @param transactions the transactions whose amounts should be added to the account balance
+     * @return the number of transactions that were applied
+     */
+    int applyTransactions(String accountId, List<Transaction> transactions);
+
     /**
      * Recalculates the balance of the account specified by the given account identifier.
-     * This method should be used when there are changes affecting the account balance,
-     * such as new transactions, updates, or corrections.
+     * This is the reconciliation path: it re-sums every transaction for the account and should be
+     * used when the incrementally maintained balance needs to be corrected, such as after
+     * updates or corrections to existing transactions.
      *
      * @param accountId the unique identifier of the account whose balance needs to be recalculated
+     * @return the account with its recalculated balance
      */
-    void recalculateBalance(String accountId);
+    Account recalculateBalance(String accountId);
 }
@@ -0,0 +1,26 @@
+package com.github.tndavidson.geodespringbootpoc.processor;
+
+import com.github.tndavidson.geodespringbootpoc.model.AccountAggregates;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerAggregates;
+
+/**
+ * Interface for reading the running totals of accounts and customers, which the servers maintain as transactions
+ * are written, so they are read without summing any transactions.
+ */
+public interface AggregatesProcessor {
+    /**
+     * Retrieves the running totals of an account.
+     *
+     * @param accountId the unique identifier of the account
+     * @return the account's aggregates, which are empty if the account has no transactions
+     */
+    AccountAggregates getAccountAggregates(String accountId);
+
+    /**
+     * Retrieves the running totals of each of a customer's accounts and of all of them combined.
+     *
+     * @param customerId the unique identifier of the customer
+     * @return the aggregates of the customer's accounts and their total
+     */
+    CustomerAggregates getCustomerAggregates(String customerId);
+}
@@ -0,0 +1,53 @@
+package com.github.tndavidson.geodespringbootpoc.processor;
+
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous variant of the {@link AccountProcessor} operations served to single-item REST requests.
+ * Each method returns immediately with a future completed with the result of the corresponding
+ * {@link AccountProcessor} method, or with the exception it threw.
+ */
+public interface AsyncAccountProcessor {
+    /**
+     * Retrieves an account by its unique identifier.
+     *
+     * @param accountId the unique identifier of the account to be retrieved
+     * @return a future of the account associated with the given identifier
+     */
+    CompletableFuture<Account> findAccountById(String accountId);
+
+    /**
+     * Creates a new account with the specified details.
+     *
+     * @param account the account object containing the details of the account to be created
+     * @return a future of the newly created account object
+     */
+    CompletableFuture<Account> createAccount(Account account);
+
+    /**
+     * Creates a new transaction with the provided transaction details.
+     *
+     * @param transaction the transaction object containing the details of the transaction to be created
+     * @return a future of the newly created transaction object
+     */
+    CompletableFuture<Transaction> createTransaction(Transaction transaction);
+
+    /**
+     * Retrieves a transaction by its unique identifier.
+     *
+     * @param transactionId the unique identifier of the transaction to be retrieved
+     * @return a future of the transaction associated with the given identifier
+     */
+    CompletableFuture<Transaction> findTransactionById(String transactionId);
+
+    /**
+     * Recalculates the balance of an existing account from all of its transactions.
+     *
+     * @param accountId the unique identifier of the account whose balance needs to be recalculated
+     * @return a future of the account with its recalculated balance
+     */
+    CompletableFuture<Account> recalculateBalance(String accountId);
+}
@@ -0,0 +1,37 @@
+package com.github.tndavidson.geodespringbootpoc.processor;
+
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous variant of the {@link DepositsProcessor} operations that return a bounded result.
+ * Each method returns immediately with a future completed with the result, or with the exception the
+ * corresponding {@link DepositsProcessor} method would have thrown.
+ */
+public interface AsyncDepositsProcessor {
+    /**
+     * Retrieves the deposit history for all accounts associated with the given customer.
+     *
+     * @param customerId the ID of the customer
+     * @return a future of the deposit transactions
+     */
+    CompletableFuture<List<Transaction>> getDepositHistoryAllAccounts(String customerId);
+
+    /**
+     * Retrieves one page of the deposit history for all accounts associated with the given customer, newest first.
+     * The customer lookup and the page read run concurrently.
+     *
+     * @param customerId the ID of the customer
+     * @param from       inclusive lower bound of the transaction timestamps, or null
+     * @param to         exclusive upper bound of the transaction timestamps, or null
+     * @param pageSize   the maximum number of transactions in the page, or null for the configured default
+     * @param cursor     the {@code nextCursor} of the previous page, or null for the first page
+     * @return a future of the page, with a cursor for the next page if more transactions remain in the range
+     */
+    CompletableFuture<DepositHistoryPage> getDepositHistoryPage(String customerId, Instant from, Instant to,
+                                                                Integer pageSize, String cursor);
+}
@@ -0,0 +1,21 @@
+package com.github.tndavidson.geodespringbootpoc.processor;
+
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPage;
+
+/**
+ * Interface for searching customers by last name.
+ * Provides a method for reading the customers whose last name starts with a prefix one page at a time.
+ */
+public interface CustomerProcessor {
+
+    /**
+     * Retrieves one page of the customers whose last name starts with the given prefix, ordered by last name and ID.
+     *
+     * @param lastNamePrefix the prefix of the last names, or null for all customers with a last name. A trailing
+     *                       {@code %} is ignored, so {@code LIKE} prefix patterns are accepted
+     * @param pageSize       the maximum number of customers in the page, or null for the configured default
+     * @param cursor         the {@code nextCursor} of the previous page, or null for the first page
+     * @return the page, with a cursor for the next page if more customers match
+     */
+    CustomerPage findCustomers(String lastNamePrefix, Integer pageSize, String cursor);
+}
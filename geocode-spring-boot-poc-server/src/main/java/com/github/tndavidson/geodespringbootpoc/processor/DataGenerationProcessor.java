@@ -0,0 +1,21 @@
+package com.github.tndavidson.geodespringbootpoc.processor;
+
+import com.github.tndavidson.geodespringbootpoc.model.DataGenerationReport;
+
+/**
+ * Interface for generating fake customers, with their accounts and transactions, to build realistic
+ * datasets for load testing.
+ */
+public interface DataGenerationProcessor {
+
+    /**
+     * Generates and saves the given number of customers, each with the given number of accounts, each with
+     * transactions whose count, amounts and timestamps follow the configured distributions.
+     *
+     * @param customers              the number of customers to generate
+     * @param accountsPerCustomer    the number of accounts generated for each customer
+     * @param transactionsPerAccount the number of transactions generated for an account that is not hot
+     * @return a report of the entries written and the rate at which they were written
+     */
+    DataGenerationReport generate(int customers, int accountsPerCustomer, int transactionsPerAccount);
+}
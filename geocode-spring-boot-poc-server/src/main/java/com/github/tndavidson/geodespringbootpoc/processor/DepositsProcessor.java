@@ -1,8 +1,11 @@
 package com.github.tndavidson.geodespringbootpoc.processor;
 
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
 import com.github.tndavidson.geodespringbootpoc.model.Transaction;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface for processing deposit transactions across multiple accounts for a specific customer.
@@ -10,4 +13,26 @@ import java.util.List;
  */
 public interface DepositsProcessor {
     List<Transaction> getDepositHistoryAllAccounts(String customerId);
+
+    /**
+     * Streams the deposit history for all accounts associated with the given customer as it is received from
+     * the servers in bounded chunks, so the whole history is never held in memory at once.
+     * The customer is looked up before this method returns; the history is read as the stream is consumed.
+     *
+     * @param customerId the ID of the customer
+     * @return a stream of deposit transactions, which must be closed by the caller
+     */
+    Stream<Transaction> streamDepositHistoryAllAccounts(String customerId);
+
+    /**
+     * Retrieves one page of the deposit history for all accounts associated with the given customer, newest first.
+     *
+     * @param customerId the ID of the customer
+     * @param from       inclusive lower bound of the transaction timestamps, or null
+     * @param to         exclusive upper bound of the transaction timestamps, or null
+     * @param pageSize   the maximum number of transactions in the page, or null for the configured default
+     * @param cursor     the {@code nextCursor} of the previous page, or null for the first page
+     * @return the page, with a cursor for the next page if more transactions remain in the range
+     */
+    DepositHistoryPage getDepositHistoryPage(String customerId, Instant from, Instant to, Integer pageSize, String cursor);
 }
@@ -0,0 +1,40 @@
+package com.github.tndavidson.geodespringbootpoc.processor;
+
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.MultiGetResult;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Interface for reading many customers, accounts or transactions by ID at once.
+ * Each method reads the entities with {@code getAll} on their region rather than one round trip per ID,
+ * and reports the IDs that were not found.
+ */
+public interface MultiGetProcessor {
+
+    /**
+     * Retrieves the customers with the given IDs.
+     *
+     * @param ids the IDs of the customers; duplicates are read once
+     * @return the customers found, in request order, and the IDs that were not found
+     */
+    MultiGetResult<Customer> getCustomers(List<String> ids);
+
+    /**
+     * Retrieves the accounts with the given IDs.
+     *
+     * @param ids the IDs of the accounts; duplicates are read once
+     * @return the accounts found, in request order, and the IDs that were not found
+     */
+    MultiGetResult<Account> getAccounts(List<String> ids);
+
+    /**
+     * Retrieves the transactions with the given IDs.
+     *
+     * @param ids the IDs of the transactions; duplicates are read once
+     * @return the transactions found, in request order, and the IDs that were not found
+     */
+    MultiGetResult<Transaction> getTransactions(List<String> ids);
+}
@@ -0,0 +1,20 @@
+package com.github.tndavidson.geodespringbootpoc.processor;
+
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPortfolio;
+
+/**
+ * Interface for reading a customer's portfolio: the customer, all of their accounts with their balances, and the
+ * most recent transactions of each account, in a single round trip to the servers.
+ */
+public interface PortfolioProcessor {
+
+    /**
+     * Retrieves the portfolio of the given customer.
+     *
+     * @param customerId             the ID of the customer
+     * @param transactionsPerAccount the number of most recent transactions to return for each account, or null for
+     *                               the configured default
+     * @return the customer's portfolio, with accounts ordered by account ID and transactions newest first
+     */
+    CustomerPortfolio getCustomerPortfolio(String customerId, Integer transactionsPerAccount);
+}
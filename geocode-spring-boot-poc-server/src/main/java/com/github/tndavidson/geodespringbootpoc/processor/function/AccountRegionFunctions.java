@@ -0,0 +1,29 @@
+package com.github.tndavidson.geodespringbootpoc.processor.function;
+
+import com.github.tndavidson.geodespringbootpoc.function.AccountBalanceServerSideFunction;
+import org.springframework.data.gemfire.function.annotation.Filter;
+import org.springframework.data.gemfire.function.annotation.FunctionId;
+import org.springframework.data.gemfire.function.annotation.OnRegion;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Provides account-routed server-side operations for the colocated region layout.
+ *
+ * Functions declared here are executed on the account region with the account's routing key as the filter,
+ * so they run on the single member that owns the account and its colocated transactions.
+ */
+@OnRegion(region = "account")
+public interface AccountRegionFunctions {
+
+    /**
+     * Calculates the balance of the given account, executing member-locally on the member that owns it.
+     *
+     * @param accountIds The filter used to route the function, containing the account's ID.
+     * @param accountId  The unique identifier of the account whose balance is to be calculated.
+     * @return The sum of the amounts of the cleared transactions for the account, scaled to two decimal places.
+     */
+    @FunctionId(AccountBalanceServerSideFunction.ID)
+    BigDecimal calculateAccountBalance(@Filter Set<String> accountIds, String accountId);
+}
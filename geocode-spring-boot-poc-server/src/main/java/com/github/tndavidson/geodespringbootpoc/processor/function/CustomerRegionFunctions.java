@@ -0,0 +1,62 @@
+package com.github.tndavidson.geodespringbootpoc.processor.function;
+
+import com.github.tndavidson.geodespringbootpoc.function.CustomerPortfolioServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.function.DepositHistoryPageServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.function.DepositHistoryServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPortfolio;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPageRequest;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.springframework.data.gemfire.function.annotation.Filter;
+import org.springframework.data.gemfire.function.annotation.FunctionId;
+import org.springframework.data.gemfire.function.annotation.OnRegion;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Provides customer-routed server-side operations for the colocated region layout.
+ *
+ * Functions declared here are executed on the customer region with the customer ID as the filter, so they
+ * run on the single member that owns the customer's bucket, along with the colocated account and
+ * transaction data.
+ */
+@OnRegion(region = "customer")
+public interface CustomerRegionFunctions {
+
+    /**
+     * Retrieves the deposit transaction history for all accounts associated with the given customer,
+     * executing member-locally on the member that owns the customer.
+     *
+     * @param customerIds The filter used to route the function, containing the customer's ID.
+     * @param customer    The customer whose accounts' deposit transaction history is to be retrieved.
+     * @return One list of deposit transactions per member that executed the function.
+     */
+    @FunctionId(DepositHistoryServerSideFunction.ID)
+    List<List<Transaction>> getDepositHistoryAllAccounts(@Filter Set<String> customerIds, Customer customer);
+
+    /**
+     * Retrieves one page of the deposit transaction history for all accounts associated with a customer,
+     * executing member-locally on the member that owns the customer.
+     *
+     * @param customerIds The filter used to route the function, containing the customer's ID.
+     * @param request     The customer ID, time range, page size and keyset position of the page to retrieve.
+     * @return One page per member that executed the function.
+     */
+    @FunctionId(DepositHistoryPageServerSideFunction.ID)
+    List<DepositHistoryPage> getDepositHistoryPage(@Filter Set<String> customerIds, DepositHistoryPageRequest request);
+
+    /**
+     * Retrieves a customer with all of their accounts and balances and the most recent transactions of each
+     * account, executing member-locally on the member that owns the customer.
+     *
+     * @param customerIds            The filter used to route the function, containing the customer's ID.
+     * @param customerId             The ID of the customer.
+     * @param transactionsPerAccount The number of most recent transactions to return for each account.
+     * @return One portfolio per member that executed the function.
+     */
+    @FunctionId(CustomerPortfolioServerSideFunction.ID)
+    List<CustomerPortfolio> getCustomerPortfolio(@Filter Set<String> customerIds, String customerId,
+                                                 int transactionsPerAccount);
+}
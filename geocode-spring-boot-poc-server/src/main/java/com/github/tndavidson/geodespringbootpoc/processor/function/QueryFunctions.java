@@ -0,0 +1,24 @@
+package com.github.tndavidson.geodespringbootpoc.processor.function;
+
+import com.github.tndavidson.geodespringbootpoc.function.QueryPlanFunction;
+import com.github.tndavidson.geodespringbootpoc.model.QueryPlan;
+import org.springframework.data.gemfire.function.annotation.FunctionId;
+import org.springframework.data.gemfire.function.annotation.OnServer;
+
+/**
+ * Provides server-side operations for inspecting how the servers execute the application's OQL queries.
+ */
+@OnServer
+public interface QueryFunctions {
+
+    /**
+     * Executes the query on a server and reports the indexes it used, the number of results and the time it took.
+     * The query is also traced in the server's log.
+     *
+     * @param query      the OQL text, with {@code $1}, {@code $2}, ... bind parameters
+     * @param parameters the values of the bind parameters
+     * @return how the server executed the query
+     */
+    @FunctionId(QueryPlanFunction.ID)
+    QueryPlan explain(String query, Object[] parameters);
+}
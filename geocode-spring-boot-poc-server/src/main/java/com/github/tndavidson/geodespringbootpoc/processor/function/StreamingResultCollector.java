@@ -0,0 +1,213 @@
+package com.github.tndavidson.geodespringbootpoc.processor.function;
+
+import org.apache.geode.cache.execute.Execution;
+import org.apache.geode.cache.execute.FunctionException;
+import org.apache.geode.cache.execute.ResultCollector;
+import org.apache.geode.distributed.DistributedMember;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link ResultCollector} that exposes the chunks sent by a server-side function as a {@link Stream} of their
+ * elements while the function is still executing.
+ * <p>
+ * Function execution on a client blocks until the last result has been received, so {@link #stream(Execution, String)}
+ * runs the execution on its own platform thread, which the Geode client may block while it holds a connection, and
+ * returns immediately. Each chunk the function sends with {@code sendResult} is a {@link List} that is placed on a
+ * bounded queue as it arrives. When the queue is full, receiving waits for the stream to be consumed, so no more
+ * than {@code bufferedChunks} chunks are held by the client at a time, regardless of the size of the whole result.
+ * <p>
+ * Exceptions sent by the function, or thrown by the execution, are rethrown from the stream as a
+ * {@link FunctionException} once the chunks preceding them have been consumed. Closing the stream before it is
+ * exhausted discards any remaining chunks. The timeout is an idle timeout: it starts with the execution and again
+ * each time the stream takes a chunk, so a stream consumed slowly but steadily may take as long as it needs. A stream
+ * from which no chunk is taken, and which is not closed, within {@code timeout} while the queue is full fails the
+ * execution: the remaining chunks are discarded, receiving throws, so the execution and its connection are released,
+ * and the stream throws a {@link FunctionException} in place of the discarded chunks.
+ *
+ * @param <T> the type of the elements in each chunk
+ */
+public class StreamingResultCollector<T> implements ResultCollector<Object, Stream<T>> {
+
+    private static final Object END = new Object();
+
+    private static final long OFFER_INTERVAL_MILLIS = 100;
+
+    private final BlockingQueue<Object> chunks;
+
+    private final Duration timeout;
+
+    private final Stream<T> stream;
+
+    private volatile boolean closed;
+
+    private volatile boolean consumed;
+
+    /**
+     * When receiving gives up waiting for the stream, moved forward each time the stream takes a chunk.
+     */
+    private volatile long deadline;
+
+    public StreamingResultCollector(int bufferedChunks, Duration timeout) {
+        this.chunks = new ArrayBlockingQueue<>(bufferedChunks);
+        this.timeout = timeout;
+        this.stream = StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(new ChunkIterator(), Spliterator.ORDERED | Spliterator.NONNULL),
+                        false)
+                .onClose(this::close);
+    }
+
+    /**
+     * Executes the function with this collector on a new platform thread and returns the stream of its results.
+     *
+     * @param execution  the execution, with its target, filter and arguments already set
+     * @param functionId the ID of the function to execute
+     * @return a stream that must be closed by the caller
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Stream<T> stream(Execution execution, String functionId) {
+        deadline = System.nanoTime() + timeout.toNanos();
+
+        Thread.ofPlatform().daemon().name("streaming-function-" + functionId).start(() -> {
+            try {
+                execution.withCollector(this).execute(functionId);
+            } catch (RuntimeException e) {
+                put(e);
+                put(END);
+            }
+        });
+
+        return stream;
+    }
+
+    @Override
+    public void addResult(DistributedMember memberID, Object resultOfSingleExecution) {
+        put(resultOfSingleExecution);
+    }
+
+    @Override
+    public void endResults() {
+        put(END);
+    }
+
+    @Override
+    public void clearResults() {
+        // The execution is being retried. Chunks already consumed cannot be taken back, so the stream fails
+        // rather than repeating them.
+        if (consumed) {
+            put(new FunctionException("function execution was retried after results were consumed"));
+        } else {
+            chunks.clear();
+        }
+    }
+
+    @Override
+    public Stream<T> getResult() throws FunctionException {
+        return stream;
+    }
+
+    @Override
+    public Stream<T> getResult(long timeout, TimeUnit unit) throws FunctionException {
+        return stream;
+    }
+
+    private void put(Object result) {
+        try {
+            while (!closed) {
+                if (chunks.offer(result, OFFER_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+
+                if (System.nanoTime() - deadline > 0) {
+                    throw expire();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FunctionException("interrupted while waiting for streamed results to be consumed", e);
+        }
+    }
+
+    private void close() {
+        closed = true;
+        chunks.clear();
+    }
+
+    /**
+     * Discards the chunks that were not consumed in time and leaves the exception for the stream in their place.
+     */
+    private FunctionException expire() {
+        var e = new FunctionException("no streamed results were consumed within " + timeout);
+        closed = true;
+        chunks.clear();
+        chunks.offer(e);
+        return e;
+    }
+
+    private class ChunkIterator implements Iterator<T> {
+
+        private Iterator<T> current = Collections.emptyIterator();
+
+        private boolean ended;
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && !ended) {
+                current = next(take());
+            }
+
+            return current.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return current.next();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Iterator<T> next(Object result) {
+            if (result == END) {
+                ended = true;
+                return Collections.emptyIterator();
+            }
+
+            if (result instanceof FunctionException e) {
+                throw e;
+            }
+
+            if (result instanceof Throwable t) {
+                throw new FunctionException(t);
+            }
+
+            consumed = true;
+
+            return result instanceof List<?> chunk ? (Iterator<T>) chunk.iterator() : (Iterator<T>) List.of(result).iterator();
+        }
+
+        private Object take() {
+            try {
+                var chunk = chunks.take();
+                deadline = System.nanoTime() + timeout.toNanos();
+                return chunk;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FunctionException("interrupted while waiting for streamed results", e);
+            }
+        }
+    }
+}
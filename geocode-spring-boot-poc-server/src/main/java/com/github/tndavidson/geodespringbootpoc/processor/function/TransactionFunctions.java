@@ -1,11 +1,18 @@
 package com.github.tndavidson.geodespringbootpoc.processor.function;
 
+import com.github.tndavidson.geodespringbootpoc.function.AccountBalanceServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.function.CustomerPortfolioServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.function.DepositHistoryPageServerSideFunction;
 import com.github.tndavidson.geodespringbootpoc.function.DepositHistoryServerSideFunction;
 import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPortfolio;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPageRequest;
 import com.github.tndavidson.geodespringbootpoc.model.Transaction;
 import org.springframework.data.gemfire.function.annotation.FunctionId;
 import org.springframework.data.gemfire.function.annotation.OnServer;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -30,4 +37,37 @@ public interface TransactionFunctions {
      */
     @FunctionId(DepositHistoryServerSideFunction.ID)
     List<Transaction> getDepositHistoryAllAccounts(Customer customer);
+
+    /**
+     * Retrieves one page of the deposit transaction history for all accounts associated with a customer,
+     * newest first. The server-side function runs an ordered, limited query, so only the requested page
+     * is read and returned, however long the history is.
+     *
+     * @param request The customer ID, time range, page size and keyset position of the page to retrieve.
+     * @return The page of deposit transactions, with a cursor for the next page if more remain.
+     */
+    @FunctionId(DepositHistoryPageServerSideFunction.ID)
+    DepositHistoryPage getDepositHistoryPage(DepositHistoryPageRequest request);
+
+    /**
+     * Calculates the balance of the given account by summing the amounts of all of its cleared transactions.
+     * The sum is computed by a server-side function where the transactions live, so only the total
+     * is returned to the client instead of every transaction for the account.
+     *
+     * @param accountId The unique identifier of the account whose balance is to be calculated.
+     * @return The sum of the amounts of the cleared transactions for the account, scaled to two decimal places.
+     */
+    @FunctionId(AccountBalanceServerSideFunction.ID)
+    BigDecimal calculateAccountBalance(String accountId);
+
+    /**
+     * Retrieves a customer with all of their accounts and balances and the most recent transactions of each
+     * account, gathered by a single server-side function execution.
+     *
+     * @param customerId             The ID of the customer.
+     * @param transactionsPerAccount The number of most recent transactions to return for each account.
+     * @return The portfolio, without a customer if the customer does not exist.
+     */
+    @FunctionId(CustomerPortfolioServerSideFunction.ID)
+    CustomerPortfolio getCustomerPortfolio(String customerId, int transactionsPerAccount);
 }
@@ -0,0 +1,24 @@
+package com.github.tndavidson.geodespringbootpoc.processor.function;
+
+import com.github.tndavidson.geodespringbootpoc.writebehind.WriteBehindReloadFunction;
+import org.springframework.data.gemfire.function.annotation.FunctionId;
+import org.springframework.data.gemfire.function.annotation.OnServer;
+
+import java.util.Map;
+
+/**
+ * Provides the server-side operations of the write-behind store, which the servers write region changes to when
+ * they are started with a write-behind queue.
+ */
+@OnServer
+public interface WriteBehindFunctions {
+
+    /**
+     * Reloads the empty regions from the write-behind store of the server that executes the function.
+     *
+     * @param batchSize the number of entries written with each {@code putAll}
+     * @return the number of entries reloaded into each region
+     */
+    @FunctionId(WriteBehindReloadFunction.ID)
+    Map<String, Integer> reload(Integer batchSize);
+}
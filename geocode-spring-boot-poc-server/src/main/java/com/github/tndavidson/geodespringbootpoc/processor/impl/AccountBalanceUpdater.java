@@ -0,0 +1,151 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.BalanceProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.geode.cache.Region;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Updates account balances with an optimistic compare-and-set on the "account" region, so concurrent updates of the
+ * same account are never lost, whichever thread or application instance makes them.
+ * <p>
+ * Key Details:
+ * - The account is read, its new value is computed from the value read, and the entry is replaced with
+ *   {@link Region#replace(Object, Object, Object)} only if it still holds that value. If another writer changed the
+ *   account in between, the replace fails and the update is retried on the new value, after a short randomized
+ *   backoff that grows with each attempt.
+ * - The new value is computed again on every attempt, so computations with side effects must be safe to repeat.
+ * - An empty set of pending transactions is written as null, as accounts without pending transactions are stored.
+ * - Updates of different accounts never wait for each other, and updates of one account only retry when they
+ *   actually collide, so no lock is held across the round trips to the servers.
+ * - The account read is never modified: with a near cache it is the locally cached value, so the update writes a
+ *   copy.
+ * - Failed replaces are counted as {@code account.balance.update.conflicts}.
+ * <p>
+ * Thread-Safety:
+ * - This class is thread-safe.
+ * <p>
+ * Error Handling:
+ * - A missing account, or an update still conflicting after {@code geode-poc.balance.max-update-attempts}
+ *   attempts, throws a {@link RuntimeException}. The balance is then left as the other writers made it, and can be
+ *   corrected with {@code POST /account/{accountId}/reconcile-balance}.
+ */
+@Component
+public class AccountBalanceUpdater {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccountBalanceUpdater.class);
+
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Region<String, Account> accountRegion;
+
+    private final BalanceProperties balanceProperties;
+
+    private final Counter conflictsCounter;
+
+    public AccountBalanceUpdater(@Qualifier("account") Region<String, Account> accountRegion,
+                                 BalanceProperties balanceProperties, MeterRegistry meterRegistry) {
+        this.accountRegion = accountRegion;
+        this.balanceProperties = balanceProperties;
+        this.conflictsCounter = Counter.builder("account.balance.update.conflicts")
+                .description("Account balance updates retried because the account changed since it was read")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replaces the balance of an account with the one computed from its current value.
+     *
+     * @param accountId  the unique identifier of the account
+     * @param operation  the operation performing the update, for error messages
+     * @param newBalance computes the new balance from the account as read; called once per attempt
+     * @return the account as written
+     * @throws RuntimeException if the account is not found or the update keeps conflicting with other writers
+     */
+    public Account update(String accountId, String operation, Function<Account, BigDecimal> newBalance) {
+        return update(accountId, operation, (current, updated) -> {
+            updated.setBalance(newBalance.apply(current));
+            return true;
+        });
+    }
+
+    /**
+     * Replaces an account with the copy changed from its current value.
+     *
+     * @param accountId the unique identifier of the account
+     * @param operation the operation performing the update, for error messages
+     * @param change    changes the copy of the account as read; called once per attempt
+     * @return the account as written, or as read if the change left it unchanged
+     * @throws RuntimeException if the account is not found or the update keeps conflicting with other writers
+     */
+    public Account update(String accountId, String operation, Change change) {
+        for (int attempt = 1; attempt <= balanceProperties.getMaxUpdateAttempts(); attempt++) {
+            var current = accountRegion.get(accountId);
+
+            if (current == null) {
+                throw new RuntimeException("accountId not found when attempting to " + operation + ": " + accountId);
+            }
+
+            var updated = new Account();
+            updated.setAccountId(current.getAccountId());
+            updated.setCustomerId(current.getCustomerId());
+            updated.setBalance(current.getBalance());
+            updated.setBalanceCalculatedDate(Instant.now());
+            updated.setPendingTransactionIds(current.getPendingTransactionIds() == null ? null
+                    : new LinkedHashSet<>(current.getPendingTransactionIds()));
+
+            if (!change.apply(current, updated)) {
+                return current;
+            }
+
+            if (updated.getPendingTransactionIds() != null && updated.getPendingTransactionIds().isEmpty()) {
+                updated.setPendingTransactionIds(null);
+            }
+
+            if (accountRegion.replace(accountId, current, updated)) {
+                return updated;
+            }
+
+            conflictsCounter.increment();
+            LOGGER.debug("accountId: {} changed while attempting to {}, attempt {}", accountId, operation, attempt);
+
+            backoff(attempt);
+        }
+
+        throw new RuntimeException("accountId: " + accountId + " kept changing when attempting to " + operation
+                + ", gave up after " + balanceProperties.getMaxUpdateAttempts() + " attempts");
+    }
+
+    private static void backoff(int attempt) {
+        var bound = Math.min(MAX_BACKOFF_NANOS, TimeUnit.MICROSECONDS.toNanos(50) << Math.min(attempt, 16));
+        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(bound));
+    }
+
+    /**
+     * A change to an account, made on a copy of the account as read.
+     */
+    @FunctionalInterface
+    public interface Change {
+
+        /**
+         * Changes the copy of the account. The copy has the values read, with the balance calculation date set to
+         * now, and a null set of pending transactions is left null unless the change sets one.
+         *
+         * @param current the account as read, which must not be modified
+         * @param updated the copy to change
+         * @return false to leave the account unchanged
+         */
+        boolean apply(Account current, Account updated);
+    }
+}
@@ -1,13 +1,25 @@
 package com.github.tndavidson.geodespringbootpoc.processor.impl;
 
+import com.github.tndavidson.geodespringbootpoc.config.RegionLayoutProperties;
+import com.github.tndavidson.geodespringbootpoc.config.SerializationProperties;
+import com.github.tndavidson.geodespringbootpoc.config.TransactionBatchProperties;
 import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.MinorUnits;
 import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.model.TransactionBatchItem;
+import com.github.tndavidson.geodespringbootpoc.model.TransactionBatchResult;
+import com.github.tndavidson.geodespringbootpoc.partition.CustomerRoutingPartitionResolver;
 import com.github.tndavidson.geodespringbootpoc.processor.AccountProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.function.AccountRegionFunctions;
+import com.github.tndavidson.geodespringbootpoc.processor.function.TransactionFunctions;
 import com.github.tndavidson.geodespringbootpoc.repository.AccountRepository;
 import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
 import com.github.tndavidson.geodespringbootpoc.repository.TransactionRepository;
+import com.github.tndavidson.geodespringbootpoc.serialization.ModelPdxSerializer;
+import org.apache.geode.cache.Region;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ResponseStatusException;
@@ -15,6 +27,14 @@ import org.springframework.web.server.ResponseStatusException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -24,7 +44,28 @@ import java.util.UUID;
  * account balances based on related transactions.
  *
  * This class uses {@link CustomerRepository}, {@link AccountRepository}, and {@link TransactionRepository}
- * to interact with the data layer.
+ * to interact with the data layer, and {@link TransactionFunctions} to sum an account's transactions on the servers.
+ * <p>
+ * With the colocated region layout, account and transaction IDs are generated as routing keys prefixed with the
+ * owning customer's ID, and balances are summed through {@link AccountRegionFunctions} on the member that owns
+ * the account.
+ * <p>
+ * A transaction's {@code cleared} flag records whether its amount has been applied to the account balance.
+ * New transactions are applied by adding their amounts to the balance and their IDs to the account's
+ * {@code pendingTransactionIds} in the same write, and are cleared afterwards, so a transaction is never counted
+ * twice, even when the same event is delivered more than once, and never lost when the balance cannot be written.
+ * Pending transactions that have since been cleared are dropped from the account by the next write of its balance,
+ * so applying a transaction costs one write of the account.
+ * Balances are written through the {@link AccountBalanceUpdater}, which replaces the account only if it has not
+ * changed since it was read, so concurrent updates of the same account, from this or another application instance,
+ * are never lost.
+ * <p>
+ * Bulk ingestion validates and writes transactions in batches of {@link TransactionBatchProperties#getBatchSize()},
+ * using one {@code getAll} on the "account" region for the batch's unseen accounts and one {@code putAll} on the
+ * "transaction" region for the batch's valid transactions.
+ * <p>
+ * When amounts are serialized in {@link MinorUnits}, amounts that cannot be held in them are rejected before they
+ * are written, instead of failing in the serializer.
  */
 @Component
 public class AccountProcessorImpl implements AccountProcessor {
@@ -36,10 +77,38 @@ public class AccountProcessorImpl implements AccountProcessor {
 
     private final TransactionRepository transactionRepository;
 
-    public AccountProcessorImpl(CustomerRepository customerRepository, AccountRepository accountRepository, TransactionRepository transactionRepository) {
+    private final Region<String, Transaction> transactionRegion;
+
+    private final TransactionFunctions transactionFunctions;
+
+    private final AccountRegionFunctions accountRegionFunctions;
+
+    private final RegionLayoutProperties regionLayoutProperties;
+
+    private final TransactionBatchProperties transactionBatchProperties;
+
+    private final SerializationProperties serializationProperties;
+
+    private final AccountBalanceUpdater accountBalanceUpdater;
+
+    public AccountProcessorImpl(CustomerRepository customerRepository, AccountRepository accountRepository,
+                                TransactionRepository transactionRepository,
+                                @Qualifier("transaction") Region<String, Transaction> transactionRegion,
+                                TransactionFunctions transactionFunctions, AccountRegionFunctions accountRegionFunctions,
+                                RegionLayoutProperties regionLayoutProperties,
+                                TransactionBatchProperties transactionBatchProperties,
+                                SerializationProperties serializationProperties,
+                                AccountBalanceUpdater accountBalanceUpdater) {
         this.customerRepository = customerRepository;
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.transactionRegion = transactionRegion;
+        this.transactionFunctions = transactionFunctions;
+        this.accountRegionFunctions = accountRegionFunctions;
+        this.regionLayoutProperties = regionLayoutProperties;
+        this.transactionBatchProperties = transactionBatchProperties;
+        this.serializationProperties = serializationProperties;
+        this.accountBalanceUpdater = accountBalanceUpdater;
     }
 
     /**
@@ -74,8 +143,9 @@ public class AccountProcessorImpl implements AccountProcessor {
         customerRepository.findById(account.getCustomerId()).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found"));
 
-        account.setAccountId(UUID.randomUUID().toString());
+        account.setAccountId(newId(account.getCustomerId()));
         account.setBalance(BigDecimal.ZERO);
+        account.setPendingTransactionIds(null);
         accountRepository.save(account);
 
         return account;
@@ -92,14 +162,21 @@ public class AccountProcessorImpl implements AccountProcessor {
      *                    associated with an existing account.
      * @return the {@link Transaction} object after it has been saved to the repository, with its
      *         {@code transactionId}, {@code timestamp}, and {@code cleared} fields populated.
-     * @throws ResponseStatusException if the account associated with the transaction is not found.
+     * @throws ResponseStatusException if the account associated with the transaction is not found, or its amount
+     *                                 cannot be held in minor units when they are the amount encoding.
      */
     @Override
     public Transaction createTransaction(Transaction transaction) {
-        accountRepository.findById(transaction.getAccountId()).orElseThrow(
+        var amountError = amountError(transaction.getAmount());
+
+        if (amountError != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, amountError);
+        }
+
+        var account = accountRepository.findById(transaction.getAccountId()).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found"));
 
-        transaction.setTransactionId(UUID.randomUUID().toString());
+        transaction.setTransactionId(newId(account.getCustomerId()));
         transaction.setTimestamp(Instant.now());
         transaction.setCleared(false);
         transactionRepository.save(transaction);
@@ -107,6 +184,146 @@ public class AccountProcessorImpl implements AccountProcessor {
         return transaction;
     }
 
+    /**
+     * Creates many transactions at once. Transactions are read from the iterator into batches; for each batch, the
+     * accounts not already seen in an earlier batch are loaded with a single {@code findAllById}, and the valid
+     * transactions are written with a single {@code saveAll}. A transaction without an {@code accountId} or
+     * {@code amount}, whose amount cannot be held in minor units when they are the amount encoding, or whose account
+     * does not exist, is rejected. Each created transaction is given a unique
+     * identifier and, if it has none, the current timestamp.
+     * <p>
+     * When balance updates are deferred, the transactions are written as already cleared, so the continuous query
+     * raises no events for them, and the balance of each account that received a transaction is recalculated once
+     * when the batch ends, including when reading the transactions fails part-way. An account whose recalculation
+     * fails is reported in {@link TransactionBatchResult#getFailedAccountIds()}. Otherwise they are written as
+     * uncleared, and the continuous query applies them to the balances as it does for single transactions.
+     *
+     * @param transactions        the transactions to create, consumed in order
+     * @param deferBalanceUpdates whether to recalculate each affected account's balance once at the end, or null
+     *                            to use {@link TransactionBatchProperties#isDeferBalanceUpdates()}
+     * @return a {@link TransactionBatchResult} with one item per transaction read from the iterator
+     */
+    @Override
+    public TransactionBatchResult createTransactions(Iterator<Transaction> transactions, Boolean deferBalanceUpdates) {
+        var defer = deferBalanceUpdates == null ? transactionBatchProperties.isDeferBalanceUpdates() : deferBalanceUpdates;
+        var batchSize = transactionBatchProperties.getBatchSize();
+
+        var result = new TransactionBatchResult();
+        var customerIds = new HashMap<String, String>();
+        var affectedAccountIds = new LinkedHashSet<String>();
+        var batch = new ArrayList<Transaction>(batchSize);
+
+        try {
+            while (transactions.hasNext()) {
+                batch.add(transactions.next());
+
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, defer, customerIds, affectedAccountIds, result);
+                    batch.clear();
+                }
+            }
+
+            writeBatch(batch, defer, customerIds, affectedAccountIds, result);
+        } finally {
+            if (defer) {
+                for (String accountId : affectedAccountIds) {
+                    try {
+                        recalculateBalance(accountId);
+                        result.setBalancesRecalculated(result.getBalancesRecalculated() + 1);
+                    } catch (RuntimeException e) {
+                        LOGGER.error("failed to recalculate balance after batch for accountId: {}", accountId, e);
+                        result.getFailedAccountIds().add(accountId);
+                    }
+                }
+            }
+        }
+
+        LOGGER.debug("batch created {} transactions, rejected {}, recalculated {} balances, failed to recalculate {}",
+                result.getCreated(), result.getRejected(), result.getBalancesRecalculated(),
+                result.getFailedAccountIds().size());
+
+        return result;
+    }
+
+    /**
+     * Validates one batch of transactions against their accounts and writes the valid ones with a single putAll.
+     * {@code customerIds} maps each account already loaded to its customer's identifier, so only the identifiers
+     * are kept for the rest of the stream.
+     */
+    private void writeBatch(List<Transaction> batch, boolean defer, Map<String, String> customerIds,
+                            Set<String> affectedAccountIds, TransactionBatchResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        var unseenAccountIds = new HashSet<String>();
+        for (Transaction transaction : batch) {
+            if (transaction.getAccountId() != null && !customerIds.containsKey(transaction.getAccountId())) {
+                unseenAccountIds.add(transaction.getAccountId());
+            }
+        }
+
+        if (!unseenAccountIds.isEmpty()) {
+            accountRepository.findAllById(unseenAccountIds)
+                    .forEach(account -> customerIds.put(account.getAccountId(), account.getCustomerId()));
+        }
+
+        var now = Instant.now();
+        var valid = new ArrayList<Transaction>(batch.size());
+        var firstIndex = result.getItems().size();
+
+        for (int i = 0; i < batch.size(); i++) {
+            var transaction = batch.get(i);
+            var error = transaction.getAccountId() == null ? "accountId is required"
+                    : transaction.getAmount() == null ? "amount is required"
+                    : amountError(transaction.getAmount());
+
+            if (error == null && !customerIds.containsKey(transaction.getAccountId())) {
+                error = "Account not found";
+            }
+
+            if (error != null) {
+                result.getItems().add(batchItem(firstIndex + i, null, TransactionBatchItem.Status.REJECTED, error));
+                result.setRejected(result.getRejected() + 1);
+                continue;
+            }
+
+            transaction.setTransactionId(newId(customerIds.get(transaction.getAccountId())));
+            if (transaction.getTimestamp() == null) {
+                transaction.setTimestamp(now);
+            }
+            transaction.setCleared(defer);
+
+            valid.add(transaction);
+            affectedAccountIds.add(transaction.getAccountId());
+            result.getItems().add(batchItem(firstIndex + i, transaction.getTransactionId(),
+                    TransactionBatchItem.Status.CREATED, null));
+            result.setCreated(result.getCreated() + 1);
+        }
+
+        if (!valid.isEmpty()) {
+            transactionRepository.saveAll(valid);
+        }
+    }
+
+    /**
+     * Returns why an amount cannot be serialized with the configured amount encoding, or null if it can. Only
+     * {@link ModelPdxSerializer.AmountEncoding#MINOR_UNITS} restricts the amounts a request may hold.
+     */
+    private String amountError(BigDecimal amount) {
+        if (amount == null || serializationProperties.getMode() != SerializationProperties.Mode.CODEC
+                || serializationProperties.getAmountEncoding() != ModelPdxSerializer.AmountEncoding.MINOR_UNITS) {
+            return null;
+        }
+
+        try {
+            MinorUnits.of(amount);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return "amount must have at most " + MinorUnits.SCALE + " decimal places and fit in minor units";
+        }
+    }
+
     /**
      * Retrieves a {@link Transaction} by its unique identifier. If no transaction is found
      * with the provided identifier, a {@link ResponseStatusException} with HTTP status 404 is thrown.
@@ -122,38 +339,209 @@ public class AccountProcessorImpl implements AccountProcessor {
     }
 
     /**
-     * Recalculates the balance of an account by summing up the amounts of all its associated transactions.
+     * Applies the amount of a new transaction to its account's balance as a delta, and then marks the transaction
+     * as cleared. If the transaction is already cleared, or pending on the account, it has already been applied
+     * and the balance is left untouched.
+     *
+     * @param transaction the uncleared {@link Transaction} to apply
+     * @return true if the transaction's amount was added to the balance, false if it was already applied
+     * @throws RuntimeException if the account referenced by the transaction is not found.
+     */
+    @Override
+    public boolean applyTransaction(Transaction transaction) {
+        return applyTransactions(transaction.getAccountId(), List.of(transaction)) == 1;
+    }
+
+    /**
+     * Applies the amounts of a batch of new transactions for one account to its balance as a single delta.
+     * <p>
+     * The delta is written together with the IDs of the applied transactions, added to the account's
+     * {@code pendingTransactionIds}, in one conditional replace of the account. Only then are the transactions
+     * marked cleared. On each attempt the account is read first, and then the stored transactions: a transaction
+     * applied by another event is either still pending on the account read, or was cleared before it was removed
+     * from the account, so it is skipped either way, and each transaction is applied exactly once however often its
+     * event is delivered. The same read of the stored transactions finds the pending transactions already cleared,
+     * which the replace drops from the account, so no second write of the account is needed to remove them.
+     * <p>
+     * If the balance cannot be written, no transaction is cleared, so the amounts are applied by the next
+     * recalculation, or by the events raised again when the transactions change. Failures after the balance is
+     * written are only logged: the transactions stay pending on the account and are not applied again.
+     *
+     * @param accountId    the unique identifier of the account the transactions belong to
+     * @param transactions the uncleared {@link Transaction} objects to apply
+     * @return the number of transactions whose amounts were added to the balance
+     * @throws RuntimeException if the account is not found, or the balance keeps conflicting with other writers
+     */
+    @Override
+    public int applyTransactions(String accountId, List<Transaction> transactions) {
+        var transactionIds = new LinkedHashSet<String>();
+
+        for (Transaction transaction : transactions) {
+            if (transaction.isCleared()) {
+                LOGGER.debug("transactionId: {} already applied to accountId: {}", transaction.getTransactionId(), accountId);
+                continue;
+            }
+
+            transactionIds.add(transaction.getTransactionId());
+        }
+
+        if (transactionIds.isEmpty()) {
+            return 0;
+        }
+
+        var applied = new ArrayList<Transaction>();
+
+        var account = accountBalanceUpdater.update(accountId, "apply transactions", (current, updated) -> {
+            applied.clear();
+
+            var pending = current.getPendingTransactionIds() == null ? Set.<String>of() : current.getPendingTransactionIds();
+            var unapplied = new ArrayList<String>(transactionIds);
+            unapplied.removeAll(pending);
+
+            if (unapplied.isEmpty()) {
+                return false;
+            }
+
+            var keys = new ArrayList<String>(unapplied);
+            keys.addAll(pending);
+            var stored = transactionRegion.getAll(keys);
+
+            for (String transactionId : unapplied) {
+                var transaction = stored.get(transactionId);
+                if (transaction != null && !transaction.isCleared() && transaction.getAmount() != null) {
+                    applied.add(transaction);
+                }
+            }
+
+            if (applied.isEmpty()) {
+                return false;
+            }
+
+            var balance = current.getBalance() == null ? BigDecimal.ZERO : current.getBalance();
+            for (Transaction transaction : applied) {
+                balance = balance.add(transaction.getAmount());
+            }
+            updated.setBalance(balance.setScale(2, RoundingMode.HALF_UP));
+
+            if (updated.getPendingTransactionIds() == null) {
+                updated.setPendingTransactionIds(new LinkedHashSet<>());
+            }
+            // a pending transaction that is cleared, or gone, can no longer be applied, so it need not be kept
+            for (String transactionId : pending) {
+                var transaction = stored.get(transactionId);
+                if (transaction == null || transaction.isCleared()) {
+                    updated.getPendingTransactionIds().remove(transactionId);
+                }
+            }
+            applied.forEach(transaction -> updated.getPendingTransactionIds().add(transaction.getTransactionId()));
+
+            return true;
+        });
+
+        if (applied.isEmpty()) {
+            LOGGER.debug("transactionIds: {} already applied to accountId: {}", transactionIds, accountId);
+            return 0;
+        }
+
+        LOGGER.debug("applied {} transactions to accountId: {} newBalance: {}", applied.size(), accountId, account.getBalance());
+
+        try {
+            for (Transaction transaction : applied) {
+                claim(transaction);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("failed to clear {} transactions applied to accountId: {}", applied.size(), accountId, e);
+        }
+
+        return applied.size();
+    }
+
+    /**
+     * Recalculates the balance of an account by summing up the amounts of all its cleared transactions.
+     * The sum is computed on the servers by {@link TransactionFunctions#calculateAccountBalance(String)},
+     * so the account's transactions are not transferred to the client.
      * If the account is not found by its unique identifier, an exception is thrown.
-     * Once the balance is recalculated, the account's balance and balance calculation date
-     * are updated and saved to the repository.
+     * <p>
+     * Any transactions that have not yet been applied incrementally are claimed first, once, so they are cleared
+     * before the sum and not counted again when their events are processed. The sum is then written with the
+     * balance calculation date, and with no pending transactions, in one conditional replace of the account as
+     * read; an incremental update written in the meantime makes the replace fail, and only the sum is computed
+     * again. The transactions still pending on the account as read were applied after the claim and may not be
+     * cleared yet, so they are claimed before each sum; on most attempts there are none. A transaction written
+     * after the claim and not yet applied is not cleared when it is summed, so its event adds it to the new balance
+     * once.
      *
      * @param accountId the unique identifier of the account for which the balance will be recalculated.
      *                  This identifier is used to retrieve the account and its transactions.
+     * @return the {@link Account} with its recalculated balance
      * @throws RuntimeException if the account with the specified identifier is not found.
      */
     @Override
-    public void recalculateBalance(String accountId) {
-        var account = accountRepository.findById(accountId).orElseThrow(
-                () -> new RuntimeException("accountId not found when attempting to recalculate balance: " + accountId));
+    public Account recalculateBalance(String accountId) {
+        var unclearedTransactions = transactionRepository.findUnclearedByAccountId(accountId);
 
-        LOGGER.debug("recalculating balance for accountId: {} oldBalance: {} lastCalculatedDate: {}",
-                accountId, account.getBalance(), account.getBalanceCalculatedDate());
+        LOGGER.debug("claiming {} uncleared transactions for accountId: {}", unclearedTransactions.size(), accountId);
 
-        var accountTransactions = transactionRepository.findByAccountId(accountId);
+        for (Transaction transaction : unclearedTransactions) {
+            claim(transaction);
+        }
 
-        LOGGER.debug("found {} transactions for accountId: {}", accountTransactions.size(), accountId);
+        return accountBalanceUpdater.update(accountId, "recalculate balance", (account, updated) -> {
+            LOGGER.debug("recalculating balance for accountId: {} oldBalance: {} lastCalculatedDate: {}",
+                    accountId, account.getBalance(), account.getBalanceCalculatedDate());
 
-        var newBalance = BigDecimal.ZERO;
+            var pendingTransactionIds = account.getPendingTransactionIds();
 
-        for (Transaction transaction : accountTransactions) {
-            newBalance = newBalance.add(transaction.getAmount()).setScale(2, RoundingMode.HALF_UP);
-        }
+            if (pendingTransactionIds != null && !pendingTransactionIds.isEmpty()) {
+                for (Transaction transaction : transactionRegion.getAll(pendingTransactionIds).values()) {
+                    if (transaction != null && !transaction.isCleared()) {
+                        claim(transaction);
+                    }
+                }
+            }
 
-        LOGGER.debug("Calculated new balance of {} for accountId: {}", newBalance, accountId);
+            var newBalance = regionLayoutProperties.isColocated()
+                    ? accountRegionFunctions.calculateAccountBalance(Set.of(accountId), accountId)
+                    : transactionFunctions.calculateAccountBalance(accountId);
 
-        account.setBalance(newBalance);
-        account.setBalanceCalculatedDate(Instant.now());
+            LOGGER.debug("Calculated new balance of {} for accountId: {}", newBalance, accountId);
 
-        accountRepository.save(account);
+            updated.setBalance(newBalance);
+            updated.setPendingTransactionIds(null);
+            return true;
+        });
+    }
+
+    /**
+     * Generates a new entry ID, prefixed with the customer ID as a routing key when the regions are colocated.
+     */
+    private String newId(String customerId) {
+        var id = UUID.randomUUID().toString();
+        return regionLayoutProperties.isColocated() ? CustomerRoutingPartitionResolver.routingKey(customerId, id) : id;
+    }
+
+    private static TransactionBatchItem batchItem(int index, String transactionId, TransactionBatchItem.Status status,
+                                                  String error) {
+        var item = new TransactionBatchItem();
+        item.setIndex(index);
+        item.setTransactionId(transactionId);
+        item.setStatus(status);
+        item.setError(error);
+        return item;
+    }
+
+    /**
+     * Atomically marks a transaction as cleared, provided the stored entry still matches the given value.
+     */
+    private boolean claim(Transaction transaction) {
+        var cleared = new Transaction();
+        cleared.setTransactionId(transaction.getTransactionId());
+        cleared.setAccountId(transaction.getAccountId());
+        cleared.setTimestamp(transaction.getTimestamp());
+        cleared.setDescription(transaction.getDescription());
+        cleared.setAmount(transaction.getAmount());
+        cleared.setCleared(true);
+
+        return transactionRegion.replace(transaction.getTransactionId(), transaction, cleared);
     }
 }
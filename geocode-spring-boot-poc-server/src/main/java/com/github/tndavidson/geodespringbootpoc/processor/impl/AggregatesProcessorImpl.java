@@ -0,0 +1,91 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.aggregate.AccountAggregatesListener;
+import com.github.tndavidson.geodespringbootpoc.aggregate.AccountAggregation;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.AccountAggregates;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerAggregates;
+import com.github.tndavidson.geodespringbootpoc.processor.AggregatesProcessor;
+import com.github.tndavidson.geodespringbootpoc.repository.AccountAggregatesRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.AccountRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implementation of the {@link AggregatesProcessor} interface, which reads the running totals that the
+ * {@link AccountAggregatesListener} maintains in the "accountAggregates" region on the servers.
+ *
+ * An account's aggregates are read with a single get. A customer's aggregates are read with one query for the
+ * customer's accounts, through the {@code customerId} index, and one {@code getAll} for their aggregates, which are
+ * then combined on the client. No transactions are read.
+ *
+ * The aggregates of an account without transactions are not stored; they are returned empty if the account exists.
+ */
+@Component
+public class AggregatesProcessorImpl implements AggregatesProcessor {
+
+    private final CustomerRepository customerRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final AccountAggregatesRepository accountAggregatesRepository;
+
+    public AggregatesProcessorImpl(CustomerRepository customerRepository, AccountRepository accountRepository,
+                                   AccountAggregatesRepository accountAggregatesRepository) {
+        this.customerRepository = customerRepository;
+        this.accountRepository = accountRepository;
+        this.accountAggregatesRepository = accountAggregatesRepository;
+    }
+
+    /**
+     * Retrieves the aggregates of an account, or empty aggregates if the account has no transactions.
+     *
+     * @throws ResponseStatusException if the account has no aggregates and does not exist
+     */
+    @Override
+    public AccountAggregates getAccountAggregates(String accountId) {
+        return accountAggregatesRepository.findById(accountId).orElseGet(() -> {
+            accountRepository.findById(accountId).orElseThrow(
+                    () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found"));
+
+            return AccountAggregation.empty(accountId);
+        });
+    }
+
+    /**
+     * Retrieves the aggregates of each of the customer's accounts, in no particular order, and their total.
+     *
+     * @throws ResponseStatusException if the customer is not found
+     */
+    @Override
+    public CustomerAggregates getCustomerAggregates(String customerId) {
+        customerRepository.findById(customerId).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found"));
+
+        var accountIds = accountRepository.findByCustomerId(customerId).stream()
+                .map(Account::getAccountId)
+                .toList();
+
+        Map<String, AccountAggregates> stored = new HashMap<>();
+        accountAggregatesRepository.findAllById(accountIds)
+                .forEach(aggregates -> stored.put(aggregates.getAccountId(), aggregates));
+
+        var customerAggregates = new CustomerAggregates();
+        customerAggregates.setCustomerId(customerId);
+        var total = AccountAggregation.empty(null);
+
+        for (var accountId : accountIds) {
+            var aggregates = stored.getOrDefault(accountId, AccountAggregation.empty(accountId));
+            customerAggregates.getAccounts().add(aggregates);
+            total = AccountAggregation.plus(total, aggregates);
+        }
+
+        customerAggregates.setTotal(total);
+        return customerAggregates;
+    }
+}
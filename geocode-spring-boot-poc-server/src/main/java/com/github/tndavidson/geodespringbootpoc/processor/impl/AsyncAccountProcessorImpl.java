@@ -0,0 +1,60 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.processor.AccountProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.AsyncAccountProcessor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Implementation of the {@link AsyncAccountProcessor} interface, executing the {@link AccountProcessor} operations
+ * on the {@link AsyncGeodeExecutor}.
+ * <p>
+ * Key Details:
+ * - Each operation's lookups depend on one another (the customer or account must exist before anything is saved),
+ *   so each runs as a single call of the synchronous processor, keeping its validation and metrics.
+ * - Balance reconciliation first checks that the account exists, so a missing account completes the future with
+ *   {@code 404 Not Found}.
+ */
+@Component
+public class AsyncAccountProcessorImpl implements AsyncAccountProcessor {
+
+    private final AccountProcessor accountProcessor;
+
+    private final AsyncGeodeExecutor asyncGeodeExecutor;
+
+    public AsyncAccountProcessorImpl(AccountProcessor accountProcessor, AsyncGeodeExecutor asyncGeodeExecutor) {
+        this.accountProcessor = accountProcessor;
+        this.asyncGeodeExecutor = asyncGeodeExecutor;
+    }
+
+    @Override
+    public CompletableFuture<Account> findAccountById(String accountId) {
+        return asyncGeodeExecutor.supply(() -> accountProcessor.findAccountById(accountId));
+    }
+
+    @Override
+    public CompletableFuture<Account> createAccount(Account account) {
+        return asyncGeodeExecutor.supply(() -> accountProcessor.createAccount(account));
+    }
+
+    @Override
+    public CompletableFuture<Transaction> createTransaction(Transaction transaction) {
+        return asyncGeodeExecutor.supply(() -> accountProcessor.createTransaction(transaction));
+    }
+
+    @Override
+    public CompletableFuture<Transaction> findTransactionById(String transactionId) {
+        return asyncGeodeExecutor.supply(() -> accountProcessor.findTransactionById(transactionId));
+    }
+
+    @Override
+    public CompletableFuture<Account> recalculateBalance(String accountId) {
+        return asyncGeodeExecutor.supply(() -> {
+            accountProcessor.findAccountById(accountId);
+            return accountProcessor.recalculateBalance(accountId);
+        });
+    }
+}
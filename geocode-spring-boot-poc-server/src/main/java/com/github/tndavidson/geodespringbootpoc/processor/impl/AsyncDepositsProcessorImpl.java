@@ -0,0 +1,91 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.DepositHistoryProperties;
+import com.github.tndavidson.geodespringbootpoc.config.RegionLayoutProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPageRequest;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.processor.AsyncDepositsProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.DepositsProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.function.CustomerRegionFunctions;
+import com.github.tndavidson.geodespringbootpoc.processor.function.TransactionFunctions;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Implementation of the {@link AsyncDepositsProcessor} interface, executing the deposit history reads on the
+ * {@link AsyncGeodeExecutor}.
+ * <p>
+ * Key Details:
+ * - The page of the deposit history does not need the customer, only its ID, so the customer lookup and the page
+ *   function execution run concurrently, and the page is returned once both complete. The latency of a page request
+ *   is the longer of the two round trips rather than their sum.
+ * - The page size and cursor are validated before anything is submitted, as in {@link DepositsProcessorImpl}.
+ * - The full deposit history needs the customer's accounts, so it runs as a single call of the synchronous processor.
+ * <p>
+ * Error Handling:
+ * - A missing customer completes the future with {@code 404 Not Found}, even if the page was read.
+ * - An invalid page size or cursor completes the future with {@code 400 Bad Request}.
+ */
+@Component
+public class AsyncDepositsProcessorImpl implements AsyncDepositsProcessor {
+
+    private final DepositsProcessor depositsProcessor;
+    private final CustomerRepository customerRepository;
+    private final TransactionFunctions transactionFunctions;
+    private final CustomerRegionFunctions customerRegionFunctions;
+    private final RegionLayoutProperties regionLayoutProperties;
+    private final DepositHistoryProperties depositHistoryProperties;
+    private final AsyncGeodeExecutor asyncGeodeExecutor;
+
+    public AsyncDepositsProcessorImpl(DepositsProcessor depositsProcessor, CustomerRepository customerRepository,
+                                      TransactionFunctions transactionFunctions,
+                                      CustomerRegionFunctions customerRegionFunctions,
+                                      RegionLayoutProperties regionLayoutProperties,
+                                      DepositHistoryProperties depositHistoryProperties,
+                                      AsyncGeodeExecutor asyncGeodeExecutor) {
+        this.depositsProcessor = depositsProcessor;
+        this.customerRepository = customerRepository;
+        this.transactionFunctions = transactionFunctions;
+        this.customerRegionFunctions = customerRegionFunctions;
+        this.regionLayoutProperties = regionLayoutProperties;
+        this.depositHistoryProperties = depositHistoryProperties;
+        this.asyncGeodeExecutor = asyncGeodeExecutor;
+    }
+
+    @Override
+    public CompletableFuture<List<Transaction>> getDepositHistoryAllAccounts(String customerId) {
+        return asyncGeodeExecutor.supply(() -> depositsProcessor.getDepositHistoryAllAccounts(customerId));
+    }
+
+    @Override
+    public CompletableFuture<DepositHistoryPage> getDepositHistoryPage(String customerId, Instant from, Instant to,
+                                                                       Integer pageSize, String cursor) {
+        DepositHistoryPageRequest request;
+
+        try {
+            request = DepositsProcessorImpl.pageRequest(customerId, from, to, pageSize, cursor, depositHistoryProperties);
+        } catch (ResponseStatusException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Customer> customer = asyncGeodeExecutor.supply(() -> customerRepository.findById(customerId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found")));
+
+        CompletableFuture<DepositHistoryPage> page = asyncGeodeExecutor.supply(() -> regionLayoutProperties.isColocated()
+                ? DepositsProcessorImpl.merge(customerRegionFunctions.getDepositHistoryPage(Set.of(customerId), request),
+                        request.getPageSize())
+                : transactionFunctions.getDepositHistoryPage(request));
+
+        // The customer is combined first, so its 404 takes precedence over a failure of the page read.
+        return customer.thenCombine(page, (found, result) -> result);
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.AsyncProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Executes the blocking Geode calls of the asynchronous processors on a bounded pool of threads, and returns their
+ * results as {@link CompletableFuture}s.
+ * <p>
+ * The Geode client has no non-blocking operations: region operations, queries and function executions all wait for
+ * the server's response, so an asynchronous call still holds a thread while it is in progress, but a thread of this
+ * pool rather than the request's. The pool has {@code geode-poc.async.threads} threads and holds at most
+ * {@code geode-poc.async.queue-capacity} waiting calls.
+ * <p>
+ * Error Handling:
+ * - A call submitted while the queue is full returns a future failed with a {@link ResponseStatusException} with
+ *   {@code 503 Service Unavailable}, so the application sheds load instead of queueing without bound.
+ * - Exceptions thrown by a call complete its future exceptionally.
+ */
+@Component
+public class AsyncGeodeExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    public AsyncGeodeExecutor(AsyncProperties asyncProperties) {
+        this.executor = new ThreadPoolExecutor(asyncProperties.getThreads(), asyncProperties.getThreads(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(asyncProperties.getQueueCapacity()),
+                Thread.ofPlatform().name("geode-async-", 0).daemon().factory());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Executes the call on the pool.
+     *
+     * @param call the blocking call
+     * @return a future completed with the call's result or exception
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many requests in progress", e));
+        }
+    }
+}
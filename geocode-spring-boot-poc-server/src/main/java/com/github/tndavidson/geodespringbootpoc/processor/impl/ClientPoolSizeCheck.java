@@ -0,0 +1,112 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.TransactionPipelineProperties;
+import com.github.tndavidson.geodespringbootpoc.config.VirtualThreadProperties;
+import org.apache.geode.cache.client.ClientCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks when the application starts that the Geode client pool can serve as many round trips at a time as the
+ * threads that make them, and logs a warning for each setting that would leave requests waiting for a connection.
+ * <p>
+ * The threads making round trips are the request threads, {@code server.tomcat.threads.max}, or with
+ * {@code spring.threads.virtual.enabled}, the {@code geode-poc.virtual-threads.geode-call-threads} executing the
+ * virtual threads' calls, plus the transaction pipeline workers.
+ * <p>
+ * Key Details:
+ * - When the pool's {@code max-connections} is lower than the threads, the threads beyond it wait for a free
+ *   connection by spinning on {@link Thread#yield()} for up to {@code free-connection-timeout}, and then fail with
+ *   {@code AllConnectionsInUseException}.
+ * - When virtual threads make their own round trips, with {@code offload-geode-calls} false, each round trip pins
+ *   its carrier thread on Java 21, so no more round trips than carrier threads are in progress at a time.
+ * - Each connection is served by a thread on the server, and a server accepts 800 connections by default, which
+ *   the threads of all application instances share.
+ */
+@Component
+public class ClientPoolSizeCheck implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClientPoolSizeCheck.class);
+
+    private static final int DEFAULT_TOMCAT_THREADS = 200;
+
+    private final ClientCache clientCache;
+
+    private final VirtualThreadProperties virtualThreadProperties;
+
+    private final TransactionPipelineProperties pipelineProperties;
+
+    private final Environment environment;
+
+    public ClientPoolSizeCheck(ClientCache clientCache, VirtualThreadProperties virtualThreadProperties,
+                               TransactionPipelineProperties pipelineProperties, Environment environment) {
+        this.clientCache = clientCache;
+        this.virtualThreadProperties = virtualThreadProperties;
+        this.pipelineProperties = pipelineProperties;
+        this.environment = environment;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var pool = clientCache.getDefaultPool();
+
+        if (pool == null) {
+            return;
+        }
+
+        var virtual = Threading.VIRTUAL.isActive(environment);
+        var tomcatThreads = environment.getProperty("server.tomcat.threads.max", Integer.class, DEFAULT_TOMCAT_THREADS);
+        var callers = callers(virtual, tomcatThreads);
+
+        LOGGER.info("Geode client pool: {} round-trip threads on {} threads, max-connections {}, "
+                        + "free-connection-timeout {} ms", callers, virtual ? "virtual" : "platform",
+                pool.getMaxConnections() < 0 ? "unlimited" : pool.getMaxConnections(), pool.getFreeConnectionTimeout());
+
+        check(virtual, callers, pool.getMaxConnections(), Runtime.version().feature()).forEach(LOGGER::warn);
+    }
+
+    /**
+     * Returns the number of threads that make round trips at the same time, or -1 if it is not bounded.
+     */
+    int callers(boolean virtual, int tomcatThreads) {
+        var workers = pipelineProperties.isEnabled() ? pipelineProperties.getWorkers() : 1;
+
+        if (!virtual) {
+            return tomcatThreads + workers;
+        }
+
+        return virtualThreadProperties.isOffloadGeodeCalls()
+                ? virtualThreadProperties.getGeodeCallThreads() + workers
+                : -1;
+    }
+
+    /**
+     * Returns a warning for each pool or thread setting that limits the round trips in progress below the threads
+     * making them.
+     */
+    List<String> check(boolean virtual, int callers, int maxConnections, int javaVersion) {
+        var warnings = new ArrayList<String>();
+
+        if (virtual && !virtualThreadProperties.isOffloadGeodeCalls() && javaVersion < 24) {
+            warnings.add("Virtual threads make their own Geode round trips, which pin their carrier thread on Java "
+                    + javaVersion + ", so at most one round trip per carrier thread is in progress; set "
+                    + "geode-poc.virtual-threads.offload-geode-calls to true");
+        }
+
+        if (maxConnections >= 0 && (callers < 0 || maxConnections < callers)) {
+            warnings.add("The Geode client pool allows " + maxConnections + " connections for "
+                    + (callers < 0 ? "an unbounded number of" : String.valueOf(callers)) + " threads making round "
+                    + "trips; the others spin until a connection is free and then fail with "
+                    + "AllConnectionsInUseException. Raise spring.data.gemfire.pool.max-connections or lower the threads");
+        }
+
+        return warnings;
+    }
+}
@@ -0,0 +1,188 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.CustomerSearchProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerCursor;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPage;
+import com.github.tndavidson.geodespringbootpoc.processor.CustomerProcessor;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * The CustomerProcessorImpl class provides an implementation of the {@link CustomerProcessor} interface.
+ * It searches customers by last name prefix with the range queries of the {@link CustomerRepository}, so the
+ * servers select the matching customers from the {@code customerLastNameIdx} index, sort only those, and return
+ * at most one page of them.
+ * <p>
+ * Key Details:
+ * - A prefix is searched as the range from the prefix, inclusive, to the prefix with its last character
+ *   incremented, exclusive, which a range index answers directly, unlike {@code LIKE} combined with
+ *   {@code ORDER BY}.
+ * - Pages are positioned by keyset rather than offset, in {@code (lastName, id)} order, and most pages are read
+ *   with a single range query. The servers sort the range on the last name only, as sorting on two fields is much
+ *   slower, and the page is ordered by ID within each last name on the client.
+ * - One customer more than the page size is requested. When that many are returned, the customers sharing the
+ *   last last name of the range may be any of them, so they are left for the next page, and the page ends after
+ *   the last customer of the previous last name. Pages may therefore hold fewer than the page size while more
+ *   customers follow.
+ * - When the customers sharing one last name fill a whole page, they are read ordered by ID instead, and the next
+ *   page continues among them from the last ID of the page.
+ * - Customers without a last name are never returned.
+ * <p>
+ * Error Handling:
+ * - Page sizes outside 1 to {@code geode-poc.customer-search.max-page-size}, prefixes containing a {@code %}
+ *   other than a trailing one, and invalid cursors are rejected with {@code 400 Bad Request}.
+ */
+@Component
+public class CustomerProcessorImpl implements CustomerProcessor {
+
+    /**
+     * An upper bound greater than any last name that does not start with {@code U+FFFF}, a non-character.
+     */
+    static final String MAX_LAST_NAME = String.valueOf(Character.MAX_VALUE);
+
+    private static final Comparator<Customer> PAGE_ORDER =
+            Comparator.comparing(Customer::getLastName).thenComparing(Customer::getId);
+
+    private final CustomerRepository customerRepository;
+    private final CustomerSearchProperties customerSearchProperties;
+
+    public CustomerProcessorImpl(CustomerRepository customerRepository, CustomerSearchProperties customerSearchProperties) {
+        this.customerRepository = customerRepository;
+        this.customerSearchProperties = customerSearchProperties;
+    }
+
+    @Override
+    public CustomerPage findCustomers(String lastNamePrefix, Integer pageSize, String cursor) {
+        var size = pageSize != null ? pageSize : customerSearchProperties.getDefaultPageSize();
+
+        if (size <= 0 || size > customerSearchProperties.getMaxPageSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Page size must be between 1 and " + customerSearchProperties.getMaxPageSize());
+        }
+
+        var prefix = prefix(lastNamePrefix);
+        var from = prefix;
+        var to = upperBound(prefix);
+        var customers = new ArrayList<Customer>(size + 1);
+
+        if (cursor != null) {
+            CustomerCursor position;
+
+            try {
+                position = CustomerCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+            }
+
+            if (position.id() != null) {
+                customers.addAll(customerRepository.findByLastNameAfterId(position.lastName(), position.id(), size + 1));
+            }
+
+            // the smallest string greater than the cursor's last name
+            var after = position.lastName() + Character.MIN_VALUE;
+
+            if (after.compareTo(from) > 0) {
+                from = after;
+            }
+        }
+
+        var page = new CustomerPage();
+
+        if (customers.size() > size) {
+            page.setCustomers(new ArrayList<>(customers.subList(0, size)));
+            page.setNextCursor(CustomerCursor.of(customers.get(size - 1)).encode());
+            return page;
+        }
+
+        var more = false;
+
+        if (from.compareTo(to) < 0) {
+            var limit = size + 1 - customers.size();
+            var range = new ArrayList<>(customerRepository.findByLastNameRange(from, to, limit));
+            more = range.size() == limit;
+
+            if (more) {
+                // the range ends with some of the customers sharing its last last name, in no particular order
+                var lastName = range.get(range.size() - 1).getLastName();
+                range.removeIf(customer -> customer.getLastName().equals(lastName));
+
+                if (range.isEmpty() && customers.isEmpty()) {
+                    return group(lastName, size);
+                }
+            }
+
+            range.sort(PAGE_ORDER);
+            customers.addAll(range);
+        }
+
+        page.setCustomers(customers);
+
+        if (more) {
+            page.setNextCursor(CustomerCursor.after(customers.get(customers.size() - 1).getLastName()).encode());
+        }
+
+        return page;
+    }
+
+    /**
+     * Returns the first page of the customers with the given last name, when they fill a whole page.
+     */
+    private CustomerPage group(String lastName, int size) {
+        // every ID sorts after the empty string
+        var customers = customerRepository.findByLastNameAfterId(lastName, "", size + 1);
+        var page = new CustomerPage();
+
+        if (customers.size() > size) {
+            page.setCustomers(new ArrayList<>(customers.subList(0, size)));
+            page.setNextCursor(CustomerCursor.of(customers.get(size - 1)).encode());
+        } else {
+            page.setCustomers(new ArrayList<>(customers));
+            page.setNextCursor(CustomerCursor.after(lastName).encode());
+        }
+
+        return page;
+    }
+
+    private static String prefix(String lastNamePrefix) {
+        if (lastNamePrefix == null) {
+            return "";
+        }
+
+        var end = lastNamePrefix.length();
+
+        while (end > 0 && lastNamePrefix.charAt(end - 1) == '%') {
+            end--;
+        }
+
+        var prefix = lastNamePrefix.substring(0, end);
+
+        if (prefix.indexOf('%') >= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only last name prefixes can be searched");
+        }
+
+        return prefix;
+    }
+
+    /**
+     * Returns the smallest string greater than every string starting with the prefix.
+     */
+    static String upperBound(String prefix) {
+        var end = prefix.length();
+
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+
+        if (end == 0) {
+            return MAX_LAST_NAME;
+        }
+
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+}
@@ -0,0 +1,249 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.DataGenerationProperties;
+import com.github.tndavidson.geodespringbootpoc.config.RegionLayoutProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.DataGenerationReport;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.partition.CustomerRoutingPartitionResolver;
+import com.github.tndavidson.geodespringbootpoc.processor.DataGenerationProcessor;
+import com.github.tndavidson.geodespringbootpoc.repository.AccountRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.TransactionRepository;
+import net.datafaker.Faker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of the {@link DataGenerationProcessor} interface that generates fake datasets in parallel.
+ * <p>
+ * The customers are split evenly between the generator threads. Each thread has its own {@link Faker} and
+ * random source, and collects the entries it generates into lists that are written with
+ * {@code saveAll} (a {@code putAll} on the region) whenever they reach the configured batch size, so only one
+ * batch per region and thread is held in memory at a time.
+ * <p>
+ * The generated distributions are controlled by {@link DataGenerationProperties}:
+ * - A fraction of accounts are hot and receive a multiple of the requested number of transactions.
+ * - Amounts are log-normally distributed around a median, and a fraction of them are deposits.
+ * - Timestamps are spread uniformly over a period ending now.
+ * <p>
+ * Transactions are written as cleared, and each account is written with the sum of its transactions as its
+ * balance, so generating a dataset raises no continuous query events.
+ */
+@Component
+public class DataGenerationProcessorImpl implements DataGenerationProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataGenerationProcessorImpl.class);
+
+    private static final int MERCHANT_NAMES = 1_000;
+
+    private final CustomerRepository customerRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final RegionLayoutProperties regionLayoutProperties;
+
+    private final DataGenerationProperties dataGenerationProperties;
+
+    public DataGenerationProcessorImpl(CustomerRepository customerRepository, AccountRepository accountRepository,
+                                       TransactionRepository transactionRepository,
+                                       RegionLayoutProperties regionLayoutProperties,
+                                       DataGenerationProperties dataGenerationProperties) {
+        this.customerRepository = customerRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.regionLayoutProperties = regionLayoutProperties;
+        this.dataGenerationProperties = dataGenerationProperties;
+    }
+
+    /**
+     * Generates the dataset on a pool of generator threads and waits for every thread to finish.
+     *
+     * @throws IllegalStateException if a generator thread fails or the calling thread is interrupted
+     */
+    @Override
+    public DataGenerationReport generate(int customers, int accountsPerCustomer, int transactionsPerAccount) {
+        var configuredThreads = dataGenerationProperties.getThreads() > 0
+                ? dataGenerationProperties.getThreads() : Runtime.getRuntime().availableProcessors();
+        var threads = Math.max(1, Math.min(configuredThreads, customers));
+
+        LOGGER.info("generating {} customers x {} accounts x {} transactions on {} threads",
+                customers, accountsPerCustomer, transactionsPerAccount, threads);
+
+        var report = new DataGenerationReport();
+        report.setThreads(threads);
+
+        var start = System.nanoTime();
+
+        try (var executor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("data-generator-", 0).factory())) {
+            var slices = new ArrayList<Future<Counts>>(threads);
+
+            for (int t = 0; t < threads; t++) {
+                var sliceCustomers = (int) ((long) customers * (t + 1) / threads - (long) customers * t / threads);
+                slices.add(executor.submit(() -> generateSlice(sliceCustomers, accountsPerCustomer, transactionsPerAccount)));
+            }
+
+            for (Future<Counts> slice : slices) {
+                var counts = slice.get();
+                report.setCustomers(report.getCustomers() + counts.customers);
+                report.setAccounts(report.getAccounts() + counts.accounts);
+                report.setTransactions(report.getTransactions() + counts.transactions);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while generating data", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("failed to generate data", e.getCause());
+        }
+
+        var elapsedNanos = System.nanoTime() - start;
+        var records = report.getCustomers() + report.getAccounts() + report.getTransactions();
+
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRecordsPerSecond(elapsedNanos == 0 ? 0 : records / (elapsedNanos / 1e9));
+
+        LOGGER.info("generated {} records in {} ms ({} records/s)", records, report.getElapsedMillis(),
+                Math.round(report.getRecordsPerSecond()));
+
+        return report;
+    }
+
+    /**
+     * Generates one thread's share of the customers, with their accounts and transactions.
+     */
+    private Counts generateSlice(int customerCount, int accountsPerCustomer, int transactionsPerAccount) {
+        var faker = new Faker();
+        var random = ThreadLocalRandom.current();
+        var merchants = new String[MERCHANT_NAMES];
+        for (int i = 0; i < merchants.length; i++) {
+            merchants[i] = faker.company().name();
+        }
+
+        var batchSize = dataGenerationProperties.getBatchSize();
+        var customers = new Batch<Customer>(batchSize, customerRepository::saveAll);
+        var accounts = new Batch<Account>(batchSize, accountRepository::saveAll);
+        var transactions = new Batch<Transaction>(batchSize, transactionRepository::saveAll);
+        var counts = new Counts();
+
+        var historyMillis = Math.max(1, dataGenerationProperties.getHistory().toMillis());
+        var now = Instant.now();
+
+        for (int c = 0; c < customerCount; c++) {
+            var customer = new Customer();
+            customer.setId(UUID.randomUUID().toString());
+            customer.setFirstName(faker.name().firstName());
+            customer.setLastName(faker.name().lastName());
+            customers.add(customer);
+            counts.customers++;
+
+            for (int a = 0; a < accountsPerCustomer; a++) {
+                var account = new Account();
+                account.setAccountId(newId(customer.getId()));
+                account.setCustomerId(customer.getId());
+
+                var hot = random.nextDouble() < dataGenerationProperties.getHotAccountRatio();
+                var transactionCount = hot
+                        ? transactionsPerAccount * dataGenerationProperties.getHotAccountMultiplier()
+                        : transactionsPerAccount;
+                var balance = BigDecimal.ZERO;
+
+                for (int t = 0; t < transactionCount; t++) {
+                    var deposit = random.nextDouble() < dataGenerationProperties.getDepositRatio();
+                    var amount = amount(random);
+
+                    var transaction = new Transaction();
+                    transaction.setTransactionId(newId(customer.getId()));
+                    transaction.setAccountId(account.getAccountId());
+                    transaction.setTimestamp(now.minusMillis(random.nextLong(historyMillis)));
+                    transaction.setDescription(deposit ? "Deposit" : merchants[random.nextInt(merchants.length)]);
+                    transaction.setAmount(deposit ? amount : amount.negate());
+                    transaction.setCleared(true);
+
+                    balance = balance.add(transaction.getAmount());
+                    transactions.add(transaction);
+                    counts.transactions++;
+                }
+
+                account.setBalance(balance);
+                account.setBalanceCalculatedDate(now);
+                accounts.add(account);
+                counts.accounts++;
+            }
+        }
+
+        customers.flush();
+        accounts.flush();
+        transactions.flush();
+
+        return counts;
+    }
+
+    /**
+     * Draws an absolute amount from a log-normal distribution around the configured median, rounded to cents.
+     */
+    private BigDecimal amount(ThreadLocalRandom random) {
+        var amount = dataGenerationProperties.getAmountMedian()
+                * Math.exp(dataGenerationProperties.getAmountSigma() * random.nextGaussian());
+        return BigDecimal.valueOf(Math.max(amount, 0.01)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Generates a new entry ID, prefixed with the customer ID as a routing key when the regions are colocated.
+     */
+    private String newId(String customerId) {
+        var id = UUID.randomUUID().toString();
+        return regionLayoutProperties.isColocated() ? CustomerRoutingPartitionResolver.routingKey(customerId, id) : id;
+    }
+
+    private static final class Counts {
+        private long customers;
+        private long accounts;
+        private long transactions;
+    }
+
+    /**
+     * Entries waiting to be written together, written as soon as the batch size is reached.
+     */
+    private static final class Batch<T> {
+        private final int size;
+        private final Consumer<List<T>> writer;
+        private final List<T> entries;
+
+        private Batch(int size, Consumer<List<T>> writer) {
+            this.size = size;
+            this.writer = writer;
+            this.entries = new ArrayList<>(size);
+        }
+
+        void add(T entry) {
+            entries.add(entry);
+
+            if (entries.size() >= size) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!entries.isEmpty()) {
+                writer.accept(new ArrayList<>(entries));
+                entries.clear();
+            }
+        }
+    }
+}
@@ -1,20 +1,44 @@
 package com.github.tndavidson.geodespringbootpoc.processor.impl;
 
+import com.github.tndavidson.geodespringbootpoc.config.DepositHistoryProperties;
+import com.github.tndavidson.geodespringbootpoc.config.RegionLayoutProperties;
+import com.github.tndavidson.geodespringbootpoc.function.DepositHistoryServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPageRequest;
+import com.github.tndavidson.geodespringbootpoc.model.TransactionCursor;
 import com.github.tndavidson.geodespringbootpoc.model.Transaction;
 import com.github.tndavidson.geodespringbootpoc.processor.DepositsProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.function.CustomerRegionFunctions;
+import com.github.tndavidson.geodespringbootpoc.processor.function.StreamingResultCollector;
 import com.github.tndavidson.geodespringbootpoc.processor.function.TransactionFunctions;
 import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.client.ClientCache;
+import org.apache.geode.cache.execute.Execution;
+import org.apache.geode.cache.execute.FunctionService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * The DepositsProcessorImpl class provides an implementation of the {@link DepositsProcessor} interface.
  * It is responsible for retrieving the deposit transaction history across all accounts for a specified customer.
  * This implementation uses the {@link CustomerRepository} to retrieve customer information
- * and the {@link TransactionFunctions} to fetch deposit transaction data.
+ * and the {@link TransactionFunctions} to fetch deposit transaction data. With the colocated region layout,
+ * the deposit history is fetched through {@link CustomerRegionFunctions}, executing on the member that owns the customer.
+ * The streaming variant executes the same function directly with a {@link StreamingResultCollector}, asking the
+ * function to send its results in chunks of {@code geode-poc.deposit-history.chunk-size} transactions.
+ * Pages of the deposit history are read with a keyset cursor through the deposit history page function.
  *
  * The class is marked as a Spring {@code @Component}, making it eligible for component scanning and
  * dependency injection.
@@ -24,17 +48,142 @@ public class DepositsProcessorImpl implements DepositsProcessor {
 
     private final CustomerRepository customerRepository;
     private final TransactionFunctions transactionFunctions;
+    private final CustomerRegionFunctions customerRegionFunctions;
+    private final RegionLayoutProperties regionLayoutProperties;
+    private final ClientCache clientCache;
+    private final Region<String, Customer> customerRegion;
+    private final DepositHistoryProperties depositHistoryProperties;
 
-    public DepositsProcessorImpl(CustomerRepository customerRepository, TransactionFunctions transactionFunctions) {
+    public DepositsProcessorImpl(CustomerRepository customerRepository, TransactionFunctions transactionFunctions,
+                                 CustomerRegionFunctions customerRegionFunctions, RegionLayoutProperties regionLayoutProperties,
+                                 ClientCache clientCache, @Qualifier("customer") Region<String, Customer> customerRegion,
+                                 DepositHistoryProperties depositHistoryProperties) {
         this.customerRepository = customerRepository;
         this.transactionFunctions = transactionFunctions;
+        this.customerRegionFunctions = customerRegionFunctions;
+        this.regionLayoutProperties = regionLayoutProperties;
+        this.clientCache = clientCache;
+        this.customerRegion = customerRegion;
+        this.depositHistoryProperties = depositHistoryProperties;
     }
 
     @Override
     public List<Transaction> getDepositHistoryAllAccounts(String customerId) {
-        var customer = customerRepository.findById(customerId).orElseThrow(
-                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found"));
+        var customer = findCustomer(customerId);
+
+        if (regionLayoutProperties.isColocated()) {
+            return customerRegionFunctions.getDepositHistoryAllAccounts(Set.of(customerId), customer).stream()
+                    .flatMap(Collection::stream)
+                    .toList();
+        }
 
         return transactionFunctions.getDepositHistoryAllAccounts(customer);
     }
+
+    @Override
+    public Stream<Transaction> streamDepositHistoryAllAccounts(String customerId) {
+        var customer = findCustomer(customerId);
+
+        var execution = depositHistoryExecution(customerId)
+                .setArguments(new Object[]{customer, depositHistoryProperties.getChunkSize()});
+
+        return new StreamingResultCollector<Transaction>(depositHistoryProperties.getBufferedChunks(),
+                depositHistoryProperties.getStreamTimeout())
+                .stream(execution, DepositHistoryServerSideFunction.ID);
+    }
+
+    /**
+     * Returns an execution of the deposit history function on the member that owns the customer when the regions
+     * are colocated, or on any server. {@link FunctionService} returns raw executions.
+     */
+    @SuppressWarnings("unchecked")
+    private Execution<Object, Object, Object> depositHistoryExecution(String customerId) {
+        if (regionLayoutProperties.isColocated()) {
+            Execution<Object, Object, Object> onRegion = FunctionService.onRegion(customerRegion);
+            return onRegion.withFilter(Set.of(customerId));
+        }
+
+        return FunctionService.onServer(clientCache.getDefaultPool());
+    }
+
+    @Override
+    public DepositHistoryPage getDepositHistoryPage(String customerId, Instant from, Instant to, Integer pageSize,
+                                                    String cursor) {
+        findCustomer(customerId);
+
+        var request = pageRequest(customerId, from, to, pageSize, cursor, depositHistoryProperties);
+
+        if (regionLayoutProperties.isColocated()) {
+            return merge(customerRegionFunctions.getDepositHistoryPage(Set.of(customerId), request), request.getPageSize());
+        }
+
+        return transactionFunctions.getDepositHistoryPage(request);
+    }
+
+    /**
+     * Validates the page size and cursor of a deposit history page and returns the request for the page function.
+     *
+     * @throws ResponseStatusException with {@code 400 Bad Request} if the page size is out of range or the cursor
+     *                                 is invalid
+     */
+    static DepositHistoryPageRequest pageRequest(String customerId, Instant from, Instant to, Integer pageSize,
+                                                 String cursor, DepositHistoryProperties depositHistoryProperties) {
+        var size = pageSize != null ? pageSize : depositHistoryProperties.getDefaultPageSize();
+
+        if (size <= 0 || size > depositHistoryProperties.getMaxPageSize()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Page size must be between 1 and " + depositHistoryProperties.getMaxPageSize());
+        }
+
+        var request = new DepositHistoryPageRequest();
+        request.setCustomerId(customerId);
+        request.setFrom(from);
+        request.setTo(to);
+        request.setPageSize(size);
+
+        if (cursor != null) {
+            try {
+                var position = TransactionCursor.decode(cursor);
+                request.setAfterTimestamp(position.timestamp());
+                request.setAfterTransactionId(position.transactionId());
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+            }
+        }
+
+        return request;
+    }
+
+    /**
+     * Merges the pages returned by each member that executed the function into a single page of at most
+     * {@code pageSize} transactions, in the same newest-first order.
+     */
+    static DepositHistoryPage merge(List<DepositHistoryPage> pages, int pageSize) {
+        if (pages.size() == 1) {
+            return pages.get(0);
+        }
+
+        var transactions = pages.stream()
+                .flatMap(page -> page.getTransactions().stream())
+                .sorted(Comparator.comparing(Transaction::getTimestamp)
+                        .thenComparing(Transaction::getTransactionId)
+                        .reversed())
+                .toList();
+
+        var merged = new DepositHistoryPage();
+        merged.setTransactions(transactions.stream().limit(pageSize).toList());
+
+        var more = transactions.size() > pageSize || pages.stream().map(DepositHistoryPage::getNextCursor).anyMatch(Objects::nonNull);
+
+        if (more && !merged.getTransactions().isEmpty()) {
+            merged.setNextCursor(TransactionCursor.of(merged.getTransactions().get(merged.getTransactions().size() - 1)).encode());
+        }
+
+        return merged;
+    }
+
+    private Customer findCustomer(String customerId) {
+        return customerRepository.findById(customerId).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found"));
+    }
 }
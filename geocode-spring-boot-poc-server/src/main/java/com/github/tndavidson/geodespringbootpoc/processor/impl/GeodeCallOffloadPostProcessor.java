@@ -0,0 +1,129 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.VirtualThreadProperties;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A Spring {@link Component} that implements {@link BeanPostProcessor} to execute the Geode calls of virtual threads
+ * on a bounded pool of platform threads.
+ * <p>
+ * With {@code spring.threads.virtual.enabled}, Tomcat serves each request on a virtual thread, and the controllers
+ * and processors run on it. The Geode 1.14 client reads each response inside a {@code synchronized} block of the
+ * connection, which on Java 21 pins the virtual thread to its carrier thread for the whole round trip, so no more
+ * round trips than carrier threads, one per core by default, would be in progress at a time.
+ * <p>
+ * Key Details:
+ * - Each Geode repository and each function interface annotated with {@code @OnServer} or {@code @OnRegion} is wrapped
+ *   in a proxy. A call made on a virtual thread is executed on one of {@code geode-poc.virtual-threads.geode-call-threads}
+ *   platform threads, and the virtual thread waits for it without holding its carrier. Calls made on platform threads,
+ *   such as the transaction pipeline workers, are executed directly.
+ * - The platform threads bound the round trips in progress, and so the connections of the client pool they use.
+ *   Calls beyond them wait in the pool's queue rather than in the Geode client, which waits for a free connection by
+ *   spinning on {@link Thread#yield()}.
+ * - The proxy is applied after the {@link QueryLoggingPostProcessor}'s, so the repository methods are timed, and their
+ *   queries recorded, on the thread that executes them.
+ * - The processors' own region and function service calls, such as the streamed deposit history, are not offloaded.
+ * - The pool and the properties are looked up when they are first needed, and the threads are started by the first
+ *   offloaded call.
+ * <p>
+ * Error Handling:
+ * - Exceptions thrown by the call are rethrown to the caller as they are. When the waiting virtual thread is
+ *   interrupted, the call is cancelled and an {@link IllegalStateException} is thrown, with the interrupt status set.
+ */
+@Component
+public class GeodeCallOffloadPostProcessor implements BeanPostProcessor, DisposableBean {
+
+    private final ObjectProvider<VirtualThreadProperties> virtualThreadProperties;
+
+    private volatile ExecutorService geodeCallExecutor;
+
+    public GeodeCallOffloadPostProcessor(ObjectProvider<VirtualThreadProperties> virtualThreadProperties) {
+        this.virtualThreadProperties = virtualThreadProperties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        var instrumented = MethodMetricsPostProcessor.instrumented(bean);
+
+        if (instrumented == null || instrumented.component().equals("processor")
+                || !properties().isOffloadGeodeCalls()) {
+            return bean;
+        }
+
+        var proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(new OffloadInterceptor());
+        return proxyFactory.getProxy();
+    }
+
+    @Override
+    public void destroy() {
+        var executor = geodeCallExecutor;
+
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private VirtualThreadProperties properties() {
+        return virtualThreadProperties.getIfAvailable(VirtualThreadProperties::new);
+    }
+
+    private ExecutorService executor() {
+        var executor = geodeCallExecutor;
+
+        if (executor == null) {
+            synchronized (this) {
+                executor = geodeCallExecutor;
+
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(properties().getGeodeCallThreads(),
+                            Thread.ofPlatform().name("geode-call-", 0).daemon().factory());
+                    geodeCallExecutor = executor;
+                }
+            }
+        }
+
+        return executor;
+    }
+
+    private final class OffloadInterceptor implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (!Thread.currentThread().isVirtual() || invocation.getMethod().getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+
+            var future = executor().submit(() -> {
+                try {
+                    return invocation.proceed();
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new UndeclaredThrowableException(e);
+                }
+            });
+
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + invocation.getMethod().getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.MetricsProperties;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPage;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.processor.AccountProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.AggregatesProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.CustomerProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.DepositsProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.MultiGetProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.PortfolioProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.function.TransactionFunctions;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.gemfire.function.annotation.FunctionId;
+import org.springframework.data.gemfire.function.annotation.OnRegion;
+import org.springframework.data.gemfire.function.annotation.OnServer;
+import org.springframework.data.gemfire.mapping.annotation.Region;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Spring {@link Component} that implements {@link BeanPostProcessor} to time the methods of the processors,
+ * repositories and server-side function interfaces with Micrometer.
+ * <p>
+ * Each bean implementing {@link AccountProcessor}, {@link DepositsProcessor}, {@link AggregatesProcessor},
+ * {@link CustomerProcessor}, {@link MultiGetProcessor} or {@link PortfolioProcessor}, each Geode repository and each function interface annotated with {@link OnServer} or
+ * {@link OnRegion} is wrapped in a proxy that records:
+ * - {@code geode.poc.method}: the latency of processor and repository methods, tagged with the component
+ *   ({@code processor} or {@code repository}), interface, method, region and exception.
+ * - {@code geode.poc.function.client}: the latency of server-side functions as observed by the client, including the
+ *   round trip and the deserialization of the results, tagged with the function ID, region and exception. Compare it
+ *   with {@code geode.poc.function.server}, the time reported by the servers, published by
+ *   {@link ServerFunctionMetrics}.
+ * - {@code geode.poc.result.size}: the number of elements returned by methods returning a collection, a map, a
+ *   {@link DepositHistoryPage} or a {@link CustomerPage}, tagged with the component, interface, method and region.
+ * <p>
+ * The region tag is the region of the repository's entity or of the {@link OnRegion} function interface, and
+ * {@code none} for processors and {@link OnServer} functions. The meters of a method are created on its first call
+ * and reused, so each call costs two clock reads and a timer update. Methods returning a {@code Stream} are timed
+ * until the stream is returned, not until it is consumed.
+ * <p>
+ * The meter registry and the properties are looked up when they are first needed, so this post-processor does not
+ * create the registry before Spring Boot has configured it.
+ */
+@Component
+public class MethodMetricsPostProcessor implements BeanPostProcessor {
+
+    static final String METHOD_TIMER = "geode.poc.method";
+
+    static final String FUNCTION_TIMER = "geode.poc.function.client";
+
+    static final String RESULT_SIZE = "geode.poc.result.size";
+
+    private static final String NONE = "none";
+
+    private static final List<Class<?>> PROCESSOR_INTERFACES =
+            List.of(AccountProcessor.class, DepositsProcessor.class, AggregatesProcessor.class, CustomerProcessor.class,
+                    MultiGetProcessor.class, PortfolioProcessor.class);
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final ObjectProvider<MetricsProperties> metricsProperties;
+
+    public MethodMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                      ObjectProvider<MetricsProperties> metricsProperties) {
+        this.meterRegistry = meterRegistry;
+        this.metricsProperties = metricsProperties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        var instrumented = instrumented(bean);
+
+        if (instrumented == null || !properties().isEnabled()) {
+            return bean;
+        }
+
+        var proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(new MetricsInterceptor(instrumented));
+        return proxyFactory.getProxy();
+    }
+
+    /**
+     * Returns the component, interface and region of the bean's meters, or null if the bean is not timed.
+     */
+    static Instrumented instrumented(Object bean) {
+        for (var type : PROCESSOR_INTERFACES) {
+            if (type.isInstance(bean)) {
+                return new Instrumented("processor", type, NONE);
+            }
+        }
+
+        for (var type : ClassUtils.getAllInterfaces(bean)) {
+            if (type.getPackageName().equals(CustomerRepository.class.getPackageName())
+                    && Repository.class.isAssignableFrom(type)) {
+                var entity = ResolvableType.forClass(type).as(Repository.class).getGeneric(0).resolve();
+                var region = entity == null ? null : AnnotationUtils.findAnnotation(entity, Region.class);
+                return new Instrumented("repository", type, region != null ? region.value() : NONE);
+            }
+
+            if (type.getPackageName().equals(TransactionFunctions.class.getPackageName())) {
+                var onRegion = AnnotationUtils.findAnnotation(type, OnRegion.class);
+
+                if (onRegion != null) {
+                    return new Instrumented("function", type, onRegion.region());
+                }
+
+                if (AnnotationUtils.findAnnotation(type, OnServer.class) != null) {
+                    return new Instrumented("function", type, NONE);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private MetricsProperties properties() {
+        return metricsProperties.getIfAvailable(MetricsProperties::new);
+    }
+
+    record Instrumented(String component, Class<?> type, String region) {
+
+        boolean isFunction() {
+            return component.equals("function");
+        }
+    }
+
+    private final class MetricsInterceptor implements MethodInterceptor {
+
+        private final Instrumented instrumented;
+
+        private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+        MetricsInterceptor(Instrumented instrumented) {
+            this.instrumented = instrumented;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            var method = invocation.getMethod();
+
+            if (method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+
+            var methodMeters = meters.computeIfAbsent(method, this::meters);
+            var start = System.nanoTime();
+
+            try {
+                var result = invocation.proceed();
+                methodMeters.success(System.nanoTime() - start, result);
+                return result;
+            } catch (Throwable e) {
+                methodMeters.failure(System.nanoTime() - start, e);
+                throw e;
+            }
+        }
+
+        private MethodMeters meters(Method method) {
+            var registry = meterRegistry.getObject();
+            var histograms = properties().isPercentileHistograms();
+
+            var tags = Tags.of("component", instrumented.component(), "interface", instrumented.type().getSimpleName(),
+                    "method", method.getName(), "region", instrumented.region());
+
+            String timerName;
+            Tags timerTags;
+
+            if (instrumented.isFunction()) {
+                var functionId = AnnotationUtils.findAnnotation(method, FunctionId.class);
+                timerName = FUNCTION_TIMER;
+                timerTags = Tags.of("function", functionId != null ? functionId.value() : method.getName(),
+                        "region", instrumented.region());
+            } else {
+                timerName = METHOD_TIMER;
+                timerTags = tags;
+            }
+
+            var returnType = method.getReturnType();
+            var sized = Collection.class.isAssignableFrom(returnType) || Map.class.isAssignableFrom(returnType)
+                    || DepositHistoryPage.class.isAssignableFrom(returnType)
+                    || CustomerPage.class.isAssignableFrom(returnType);
+
+            var resultSize = !sized ? null : DistributionSummary.builder(RESULT_SIZE)
+                    .description("Elements returned by processor, repository and function methods")
+                    .tags(tags)
+                    .publishPercentileHistogram(histograms)
+                    .register(registry);
+
+            return new MethodMeters(registry, timerName, timerTags, histograms, resultSize);
+        }
+    }
+
+    private static final class MethodMeters {
+
+        private final MeterRegistry registry;
+
+        private final String timerName;
+
+        private final Tags tags;
+
+        private final boolean histograms;
+
+        private final Timer successTimer;
+
+        private final DistributionSummary resultSize;
+
+        private final Map<Class<?>, Timer> failureTimers = new ConcurrentHashMap<>();
+
+        MethodMeters(MeterRegistry registry, String timerName, Tags tags, boolean histograms,
+                     DistributionSummary resultSize) {
+            this.registry = registry;
+            this.timerName = timerName;
+            this.tags = tags;
+            this.histograms = histograms;
+            this.resultSize = resultSize;
+            this.successTimer = timer(NONE);
+        }
+
+        void success(long nanos, Object result) {
+            successTimer.record(nanos, TimeUnit.NANOSECONDS);
+
+            if (resultSize != null) {
+                resultSize.record(size(result));
+            }
+        }
+
+        void failure(long nanos, Throwable exception) {
+            failureTimers.computeIfAbsent(exception.getClass(), type -> timer(type.getSimpleName()))
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        private Timer timer(String exception) {
+            return Timer.builder(timerName)
+                    .description(timerName.equals(FUNCTION_TIMER)
+                            ? "Server-side function executions as observed by the client"
+                            : "Processor and repository method calls")
+                    .tags(tags)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram(histograms)
+                    .register(registry);
+        }
+
+        private static int size(Object result) {
+            if (result instanceof Collection<?> collection) {
+                return collection.size();
+            }
+
+            if (result instanceof Map<?, ?> map) {
+                return map.size();
+            }
+
+            if (result instanceof DepositHistoryPage page && page.getTransactions() != null) {
+                return page.getTransactions().size();
+            }
+
+            if (result instanceof CustomerPage page && page.getCustomers() != null) {
+                return page.getCustomers().size();
+            }
+
+            return 0;
+        }
+    }
+}
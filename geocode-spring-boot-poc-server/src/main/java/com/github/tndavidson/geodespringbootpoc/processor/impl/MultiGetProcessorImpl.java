@@ -0,0 +1,125 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.MultiGetProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.MultiGetResult;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.processor.MultiGetProcessor;
+import com.github.tndavidson.geodespringbootpoc.repository.AccountRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.TransactionRepository;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Implementation of the {@link MultiGetProcessor} interface, reading entities through the {@code findAllById} of
+ * their repository, which is a single {@code getAll} on their region.
+ * <p>
+ * Key Details:
+ * - The requested IDs are deduplicated and read in batches of {@code geode-poc.multi-get.batch-size}, one
+ *   {@code getAll} per batch.
+ * - Within a batch, the client pool's single-hop metadata groups the keys of a partitioned region by the server
+ *   hosting their bucket and sends each server only its own keys, in parallel. Keys of a replicated region are
+ *   read from one server.
+ * - Found entities are returned in the order of the request; the other IDs are reported as missing.
+ * <p>
+ * Error Handling:
+ * - A request with more than {@code geode-poc.multi-get.max-ids} IDs, or with a null or blank ID, is rejected with
+ *   {@code 400 Bad Request} before anything is read.
+ */
+@Component
+public class MultiGetProcessorImpl implements MultiGetProcessor {
+
+    private final CustomerRepository customerRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final MultiGetProperties multiGetProperties;
+
+    public MultiGetProcessorImpl(CustomerRepository customerRepository, AccountRepository accountRepository,
+                                 TransactionRepository transactionRepository, MultiGetProperties multiGetProperties) {
+        this.customerRepository = customerRepository;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.multiGetProperties = multiGetProperties;
+    }
+
+    @Override
+    public MultiGetResult<Customer> getCustomers(List<String> ids) {
+        return getAll(ids, customerRepository, Customer::getId);
+    }
+
+    @Override
+    public MultiGetResult<Account> getAccounts(List<String> ids) {
+        return getAll(ids, accountRepository, Account::getAccountId);
+    }
+
+    @Override
+    public MultiGetResult<Transaction> getTransactions(List<String> ids) {
+        return getAll(ids, transactionRepository, Transaction::getTransactionId);
+    }
+
+    private <T> MultiGetResult<T> getAll(List<String> ids, CrudRepository<T, String> repository,
+                                         Function<T, String> idOf) {
+        var requested = validate(ids);
+        var batch = new ArrayList<String>(Math.min(requested.size(), multiGetProperties.getBatchSize()));
+        Map<String, T> found = new HashMap<>();
+
+        for (var id : requested) {
+            batch.add(id);
+
+            if (batch.size() == multiGetProperties.getBatchSize()) {
+                repository.findAllById(batch).forEach(entity -> found.put(idOf.apply(entity), entity));
+                batch.clear();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            repository.findAllById(batch).forEach(entity -> found.put(idOf.apply(entity), entity));
+        }
+
+        var result = new MultiGetResult<T>();
+
+        for (var id : requested) {
+            var entity = found.get(id);
+
+            if (entity != null) {
+                result.getFound().add(entity);
+            } else {
+                result.getMissing().add(id);
+            }
+        }
+
+        return result;
+    }
+
+    private LinkedHashSet<String> validate(List<String> ids) {
+        if (ids == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids is required");
+        }
+
+        if (ids.size() > multiGetProperties.getMaxIds()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + multiGetProperties.getMaxIds() + " ids may be requested at once");
+        }
+
+        if (ids.stream().anyMatch(id -> Objects.isNull(id) || id.isBlank())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids may not be null or blank");
+        }
+
+        return new LinkedHashSet<>(ids);
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.PortfolioProperties;
+import com.github.tndavidson.geodespringbootpoc.config.RegionLayoutProperties;
+import com.github.tndavidson.geodespringbootpoc.function.CustomerPortfolioServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPortfolio;
+import com.github.tndavidson.geodespringbootpoc.processor.PortfolioProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.function.CustomerRegionFunctions;
+import com.github.tndavidson.geodespringbootpoc.processor.function.TransactionFunctions;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Implementation of the {@link PortfolioProcessor} interface, which reads the portfolio with a single execution of
+ * {@link CustomerPortfolioServerSideFunction} instead of reading the customer, each account and each account's
+ * transactions separately.
+ * <p>
+ * With the colocated region layout, the function is executed through {@link CustomerRegionFunctions} on the member
+ * that owns the customer, where the customer's accounts and transactions are local. Otherwise it is executed on one
+ * server through {@link TransactionFunctions}.
+ * <p>
+ * Error Handling:
+ * - A number of transactions per account outside {@code 0} to {@code geode-poc.portfolio.max-transactions-per-account}
+ *   is rejected with {@code 400 Bad Request}.
+ * - A portfolio without a customer is reported as {@code 404 Not Found}.
+ */
+@Component
+public class PortfolioProcessorImpl implements PortfolioProcessor {
+
+    private final TransactionFunctions transactionFunctions;
+
+    private final CustomerRegionFunctions customerRegionFunctions;
+
+    private final RegionLayoutProperties regionLayoutProperties;
+
+    private final PortfolioProperties portfolioProperties;
+
+    public PortfolioProcessorImpl(TransactionFunctions transactionFunctions,
+                                  CustomerRegionFunctions customerRegionFunctions,
+                                  RegionLayoutProperties regionLayoutProperties,
+                                  PortfolioProperties portfolioProperties) {
+        this.transactionFunctions = transactionFunctions;
+        this.customerRegionFunctions = customerRegionFunctions;
+        this.regionLayoutProperties = regionLayoutProperties;
+        this.portfolioProperties = portfolioProperties;
+    }
+
+    @Override
+    public CustomerPortfolio getCustomerPortfolio(String customerId, Integer transactionsPerAccount) {
+        var transactions = transactionsPerAccount != null
+                ? transactionsPerAccount
+                : portfolioProperties.getDefaultTransactionsPerAccount();
+
+        if (transactions < 0 || transactions > portfolioProperties.getMaxTransactionsPerAccount()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Transactions per account must be between 0 and " + portfolioProperties.getMaxTransactionsPerAccount());
+        }
+
+        CustomerPortfolio portfolio;
+
+        if (regionLayoutProperties.isColocated()) {
+            portfolio = customerRegionFunctions.getCustomerPortfolio(Set.of(customerId), customerId, transactions).stream()
+                    .filter(Objects::nonNull)
+                    .filter(result -> result.getCustomer() != null)
+                    .findFirst()
+                    .orElse(null);
+        } else {
+            portfolio = transactionFunctions.getCustomerPortfolio(customerId, transactions);
+        }
+
+        if (portfolio == null || portfolio.getCustomer() == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Customer not found");
+        }
+
+        return portfolio;
+    }
+}
@@ -1,29 +1,144 @@
 package com.github.tndavidson.geodespringbootpoc.processor.impl;
 
+import com.github.tndavidson.geodespringbootpoc.config.SlowQueryProperties;
 import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
 import lombok.NonNull;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
 import org.springframework.data.gemfire.repository.query.QueryPostProcessor;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.query.QueryMethod;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
 /**
  * A Spring {@link Component} that implements {@link QueryPostProcessor} to intercept and log
- * OQL queries generated by {@link CustomerRepository}.
+ * OQL queries generated by the repositories, such as {@link CustomerRepository}, and time them.
  * <p>
  * This post-processor is invoked by the Spring Data Geode framework after a query is
  * derived from a repository method but before it is executed against the Geode cache.
  * It provides visibility into the generated OQL strings and the arguments passed to them.
+ * <p>
+ * Key Details:
+ * - The query and its arguments are logged at debug level, and only formatted when debug logging is enabled.
+ * - As a {@link BeanPostProcessor}, it also wraps each repository in a proxy that times its methods. When a method
+ *   executes an OQL query, the time, the query and its arguments are recorded by the {@link SlowQueryDetector}, which
+ *   warns about slow queries and queries that use no index. Methods that do not execute a query, such as
+ *   {@code findById}, are not recorded.
+ * - The detector and the properties are looked up when they are first needed, so this post-processor does not
+ *   create the function executions the detector depends on before they are configured.
+ * - As a {@link QueryPostProcessor} is {@link Ordered}, this post-processor is applied before the unordered ones, so
+ *   its proxy is the innermost and runs on the thread that executes the query, also when
+ *   {@link GeodeCallOffloadPostProcessor} moves the call to another thread.
+ * <p>
+ * Thread-Safety:
+ * - The query of a repository call is passed from {@link #postProcess} to the proxy in a thread local, as Spring
+ *   Data Geode executes the query on the calling thread.
  */
 @Component
-public class QueryLoggingPostProcessor implements QueryPostProcessor<Repository, String> {
+public class QueryLoggingPostProcessor implements QueryPostProcessor<Repository, String>, BeanPostProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(QueryLoggingPostProcessor.class);
 
+    private static final ThreadLocal<QueryExecution> CURRENT = new ThreadLocal<>();
+
+    private final ObjectProvider<SlowQueryDetector> slowQueryDetector;
+
+    private final ObjectProvider<SlowQueryProperties> slowQueryProperties;
+
+    public QueryLoggingPostProcessor(ObjectProvider<SlowQueryDetector> slowQueryDetector,
+                                     ObjectProvider<SlowQueryProperties> slowQueryProperties) {
+        this.slowQueryDetector = slowQueryDetector;
+        this.slowQueryProperties = slowQueryProperties;
+    }
+
     @Override
     public String postProcess(@NonNull QueryMethod queryMethod, String query, Object... arguments) {
-        LOGGER.debug("Executing query {} with arguments {}", query, arguments);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Executing query {} with arguments {}", query, arguments);
+        }
+
+        var execution = CURRENT.get();
+
+        if (execution != null) {
+            execution.query = query;
+            execution.arguments = arguments;
+        }
+
         return query;
     }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        var repository = repositoryInterface(bean);
+
+        if (repository == null || !slowQueryProperties.getIfAvailable(SlowQueryProperties::new).isEnabled()) {
+            return bean;
+        }
+
+        var proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(new QueryTimingInterceptor(repository.getSimpleName()));
+        return proxyFactory.getProxy();
+    }
+
+    private static Class<?> repositoryInterface(Object bean) {
+        for (var type : ClassUtils.getAllInterfaces(bean)) {
+            if (type.getPackageName().equals(CustomerRepository.class.getPackageName())
+                    && Repository.class.isAssignableFrom(type)) {
+                return type;
+            }
+        }
+
+        return null;
+    }
+
+    private static final class QueryExecution {
+
+        private String query;
+
+        private Object[] arguments;
+    }
+
+    private final class QueryTimingInterceptor implements MethodInterceptor {
+
+        private final String repository;
+
+        QueryTimingInterceptor(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (invocation.getMethod().getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+
+            var outer = CURRENT.get();
+            var execution = new QueryExecution();
+            CURRENT.set(execution);
+            var start = System.nanoTime();
+
+            try {
+                return invocation.proceed();
+            } finally {
+                var nanos = System.nanoTime() - start;
+
+                if (outer == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(outer);
+                }
+
+                if (execution.query != null) {
+                    slowQueryDetector.getObject().record(repository + "." + invocation.getMethod().getName(),
+                            execution.query, execution.arguments, nanos);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.MetricsProperties;
+import com.github.tndavidson.geodespringbootpoc.function.FunctionStatisticsFunction;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.geode.cache.client.ClientCache;
+import org.apache.geode.cache.execute.FunctionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the time the servers spend executing each server-side function, as reported by the servers.
+ * <p>
+ * Every {@code geode-poc.metrics.server-function-refresh}, the {@link FunctionStatisticsFunction} is executed on all
+ * servers, and the executions and execution times they report are summed per function and published as the
+ * {@code geode.poc.function.server} function timer, tagged with the function ID. Its mean, next to the mean of the
+ * {@code geode.poc.function.client} timer recorded by {@link MethodMetricsPostProcessor}, shows how much of a
+ * function call is spent on the servers and how much on the network, serialization and the client.
+ * <p>
+ * The totals are cumulative since the servers started, so they drop when a server restarts, which Prometheus treats
+ * as a counter reset. When the statistics cannot be read, for example because a server does not have the models jar
+ * with the function deployed, the last totals are kept.
+ */
+@Component
+public class ServerFunctionMetrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServerFunctionMetrics.class);
+
+    static final String SERVER_TIMER = "geode.poc.function.server";
+
+    private final ClientCache clientCache;
+
+    private final MeterRegistry meterRegistry;
+
+    private final MetricsProperties metricsProperties;
+
+    private final Map<String, long[]> totals = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public ServerFunctionMetrics(ClientCache clientCache, MeterRegistry meterRegistry,
+                                 MetricsProperties metricsProperties) {
+        this.clientCache = clientCache;
+        this.meterRegistry = meterRegistry;
+        this.metricsProperties = metricsProperties;
+    }
+
+    @PostConstruct
+    public void start() {
+        var refresh = metricsProperties.getServerFunctionRefresh();
+
+        if (!metricsProperties.isEnabled() || refresh == null || refresh.isZero() || refresh.isNegative()) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("server-function-metrics").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::refresh, refresh.toMillis(), refresh.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the function statistics of all servers and updates the published totals.
+     */
+    @SuppressWarnings("unchecked")
+    void refresh() {
+        List<Map<String, long[]>> results;
+
+        try {
+            results = (List<Map<String, long[]>>) FunctionService.onServers(clientCache.getDefaultPool())
+                    .execute(FunctionStatisticsFunction.ID)
+                    .getResult();
+        } catch (Exception e) {
+            LOGGER.debug("could not read the servers' function statistics", e);
+            return;
+        }
+
+        var summed = new HashMap<String, long[]>();
+
+        for (var result : results) {
+            result.forEach((functionId, statistics) -> summed.merge(functionId, statistics.clone(),
+                    (total, member) -> new long[]{total[0] + member[0], total[1] + member[1]}));
+        }
+
+        summed.forEach((functionId, total) -> {
+            if (totals.put(functionId, total) == null) {
+                FunctionTimer.builder(SERVER_TIMER, totals, t -> t.get(functionId)[0], t -> t.get(functionId)[1],
+                                TimeUnit.NANOSECONDS)
+                        .description("Server-side function executions as timed on the servers")
+                        .tag("function", functionId)
+                        .register(meterRegistry);
+            }
+        });
+    }
+}
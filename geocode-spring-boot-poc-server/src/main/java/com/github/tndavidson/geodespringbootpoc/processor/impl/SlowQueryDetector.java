@@ -0,0 +1,250 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.SlowQueryProperties;
+import com.github.tndavidson.geodespringbootpoc.model.QueryPlan;
+import com.github.tndavidson.geodespringbootpoc.processor.function.QueryFunctions;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the execution statistics of the repositories' OQL queries, recorded by {@link QueryLoggingPostProcessor},
+ * and checks which indexes they use.
+ * <p>
+ * Queries are tracked per repository method, OQL text and argument shape. The shape of an argument is its type,
+ * or for a {@code LIKE} pattern, the pattern with each run of literal characters replaced by {@code x}, such as
+ * {@code 'x%'}, so the table shows which patterns are slow without holding the values. A query slower than
+ * {@code geode-poc.slow-query.threshold} is logged as a warning.
+ * <p>
+ * The first execution of each query, and a {@code plan-sample-rate} fraction of the others, are executed again on a
+ * server through {@link QueryFunctions#explain}, on a background thread, to find the indexes the query uses. A query
+ * that uses no index scans its regions, and is logged as a warning the first time this is found.
+ * <p>
+ * Thread-Safety:
+ * - This class is thread-safe. Statistics are updated without locking; at most one index check per query is
+ *   pending at a time, and checks that do not fit in the background thread's queue are dropped.
+ */
+@Component
+public class SlowQueryDetector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryDetector.class);
+
+    private static final int PLAN_QUEUE_CAPACITY = 100;
+
+    private final QueryFunctions queryFunctions;
+
+    private final SlowQueryProperties properties;
+
+    private final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+
+    private final ThreadPoolExecutor planExecutor;
+
+    public SlowQueryDetector(QueryFunctions queryFunctions, SlowQueryProperties properties) {
+        this.queryFunctions = queryFunctions;
+        this.properties = properties;
+        this.planExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(PLAN_QUEUE_CAPACITY),
+                Thread.ofPlatform().name("slow-query-plan").daemon().factory());
+    }
+
+    @PreDestroy
+    public void stop() {
+        planExecutor.shutdownNow();
+    }
+
+    /**
+     * Records an execution of a repository query.
+     *
+     * @param method    the repository interface and method, such as {@code CustomerRepository.findByLastNameRange}
+     * @param query     the OQL text executed
+     * @param arguments the bind parameters of the query
+     * @param nanos     the time the repository method took
+     */
+    public void record(String method, String query, Object[] arguments, long nanos) {
+        var shapes = shapes(arguments);
+        var key = method + '\n' + query + '\n' + shapes;
+        var tracker = trackers.get(key);
+
+        if (tracker == null) {
+            if (trackers.size() >= properties.getMaxTracked()) {
+                return;
+            }
+
+            tracker = trackers.computeIfAbsent(key, k -> new Tracker(method, query, shapes));
+        }
+
+        var first = tracker.record(nanos);
+
+        if (nanos > properties.getThreshold().toNanos()) {
+            LOGGER.warn("slow query {} took {} ms: {} with arguments {}", method,
+                    TimeUnit.NANOSECONDS.toMillis(nanos), query, shapes);
+        }
+
+        if (first || ThreadLocalRandom.current().nextDouble() < properties.getPlanSampleRate()) {
+            checkPlan(tracker, arguments);
+        }
+    }
+
+    /**
+     * Returns the {@code geode-poc.slow-query.top-n} queries with the longest executions, slowest first.
+     */
+    public List<SlowQuery> slowest() {
+        return trackers.values().stream()
+                .map(Tracker::snapshot)
+                .sorted(Comparator.comparingDouble(SlowQuery::maxMillis).reversed()
+                        .thenComparing(Comparator.comparingDouble(SlowQuery::totalMillis).reversed()))
+                .limit(properties.getTopN())
+                .toList();
+    }
+
+    /**
+     * Forgets the statistics of every query.
+     */
+    public void reset() {
+        trackers.clear();
+    }
+
+    private void checkPlan(Tracker tracker, Object[] arguments) {
+        if (!tracker.planPending.compareAndSet(false, true)) {
+            return;
+        }
+
+        var parameters = arguments == null ? new Object[0] : arguments.clone();
+
+        try {
+            planExecutor.execute(() -> {
+                try {
+                    var plan = queryFunctions.explain(tracker.query, parameters);
+                    var previous = tracker.plan;
+                    tracker.plan = plan;
+                    tracker.planCheckedAt = Instant.now();
+
+                    if (plan.getIndexesUsed().isEmpty()
+                            && (previous == null || !previous.getIndexesUsed().isEmpty())) {
+                        LOGGER.warn("query {} uses no index and scans its regions: {} with arguments {}",
+                                tracker.method, tracker.query, tracker.shapes);
+                    }
+                } catch (Exception e) {
+                    LOGGER.debug("could not check the indexes used by query {}", tracker.query, e);
+                } finally {
+                    tracker.planPending.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            tracker.planPending.set(false);
+        }
+    }
+
+    static String shapes(Object[] arguments) {
+        var joiner = new StringJoiner(", ", "(", ")");
+
+        if (arguments != null) {
+            for (var argument : arguments) {
+                joiner.add(shape(argument));
+            }
+        }
+
+        return joiner.toString();
+    }
+
+    static String shape(Object argument) {
+        if (argument == null) {
+            return "null";
+        }
+
+        if (argument instanceof CharSequence text) {
+            var value = text.toString();
+            return value.indexOf('%') < 0 ? "String" : "'" + value.replaceAll("[^%]+", "x") + "'";
+        }
+
+        if (argument instanceof Collection<?> collection) {
+            return "Collection[" + collection.size() + "]";
+        }
+
+        if (argument instanceof Object[] array) {
+            return "Array[" + array.length + "]";
+        }
+
+        return argument.getClass().getSimpleName();
+    }
+
+    /**
+     * The statistics of a query, as listed by the {@code slowqueries} actuator endpoint. {@code indexesUsed} is null
+     * until the query's indexes have been checked.
+     */
+    public record SlowQuery(String method, String query, String argumentShapes, long executions, double totalMillis,
+                            double meanMillis, double maxMillis, double lastMillis, List<String> indexesUsed,
+                            Instant indexesCheckedAt) {
+    }
+
+    private static final class Tracker {
+
+        private final String method;
+
+        private final String query;
+
+        private final String shapes;
+
+        private final LongAdder executions = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private final AtomicBoolean planPending = new AtomicBoolean();
+
+        private volatile long lastNanos;
+
+        private volatile QueryPlan plan;
+
+        private volatile Instant planCheckedAt;
+
+        Tracker(String method, String query, String shapes) {
+            this.method = method;
+            this.query = query;
+            this.shapes = shapes;
+        }
+
+        /**
+         * Records an execution, and returns true if it is the first.
+         */
+        boolean record(long nanos) {
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            lastNanos = nanos;
+            var first = executions.sum() == 0;
+            executions.increment();
+            return first;
+        }
+
+        SlowQuery snapshot() {
+            var count = executions.sum();
+            var total = totalNanos.sum();
+            var currentPlan = plan;
+
+            return new SlowQuery(method, query, shapes, count, millis(total), count == 0 ? 0 : millis(total / count),
+                    millis(maxNanos.get()), millis(lastNanos),
+                    currentPlan == null ? null : List.copyOf(currentPlan.getIndexesUsed()), planCheckedAt);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.BalanceProperties;
+import com.github.tndavidson.geodespringbootpoc.config.MetricsProperties;
+import com.github.tndavidson.geodespringbootpoc.config.TransactionPipelineProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.processor.AccountProcessor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A staged pipeline that decouples balance maintenance from the continuous query listener thread.
+ * <p>
+ * New transactions are placed on a bounded queue. A single dispatcher thread collects events until the coalescing
+ * window that started with the first of them ends, groups them by {@code accountId}, and appends each group to the
+ * account's lane. A lane holds the events of one account that are waiting to be processed, and is run on a worker
+ * pool by at most one task at a time, which processes everything the lane holds as one update. Updates for the same
+ * account are therefore never processed concurrently by the pipeline, and events that arrive while an account is
+ * being updated are coalesced into its next update, while other accounts are updated independently: a slow account
+ * does not hold up the next window for the others.
+ * <p>
+ * At most {@code queue-capacity} events are held in the lanes. When they are full, the dispatcher waits for the
+ * workers, and the queue fills up, so the listener thread blocks as it would with a full queue.
+ * <p>
+ * When the pipeline is disabled, transactions are processed synchronously on the caller's thread. Once it has
+ * been stopped, and the events still queued have been drained, new transactions are processed the same way.
+ * <p>
+ * The metrics are registered when the pipeline is started.
+ * <p>
+ * The following Micrometer metrics are published:
+ * - {@code transaction.pipeline.queue.depth}: events waiting in the queue.
+ * - {@code transaction.pipeline.events}: events received.
+ * - {@code transaction.pipeline.account.updates}: coalesced account updates performed.
+ * - {@code transaction.pipeline.coalescing.ratio}: events received per account update.
+ * - {@code transaction.pipeline.batch.events}: distribution of events coalesced into each account update.
+ * - {@code transaction.pipeline.drain}: time from the end of a coalescing window until the account update holding
+ *   its events has been processed, per account update. An update that coalesces several windows is timed from the
+ *   earliest of them.
+ * - {@code transaction.pipeline.lanes}: accounts with an update waiting or in progress.
+ */
+@Component
+public class TransactionEventPipeline {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionEventPipeline.class);
+
+    private final AccountProcessor accountProcessor;
+
+    private final BalanceProperties balanceProperties;
+
+    private final TransactionPipelineProperties pipelineProperties;
+
+    private final MetricsProperties metricsProperties;
+
+    private final BlockingQueue<Transaction> queue;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * The events waiting to be processed, per account with an update waiting or in progress. An account is present
+     * from when its first events are appended until its task finds nothing more to process.
+     */
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * One permit per event that may be held in the lanes.
+     */
+    private final Semaphore lanePermits;
+
+    /**
+     * Guards {@link #running}: submitters hold the read lock from their check of {@code running} until their event
+     * is queued, and {@link #stop()} takes the write lock to clear it, so no event is queued after the final drain.
+     */
+    private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+
+    private Counter eventsCounter;
+
+    private Counter accountUpdatesCounter;
+
+    private DistributionSummary batchEventsSummary;
+
+    private Timer drainTimer;
+
+    private ExecutorService workers;
+
+    private Thread dispatcher;
+
+    private volatile boolean running;
+
+    public TransactionEventPipeline(AccountProcessor accountProcessor, BalanceProperties balanceProperties,
+                                    TransactionPipelineProperties pipelineProperties, MetricsProperties metricsProperties,
+                                    MeterRegistry meterRegistry) {
+        this.accountProcessor = accountProcessor;
+        this.balanceProperties = balanceProperties;
+        this.pipelineProperties = pipelineProperties;
+        this.metricsProperties = metricsProperties;
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(pipelineProperties.getQueueCapacity());
+        this.lanePermits = new Semaphore(pipelineProperties.getQueueCapacity());
+    }
+
+    @PostConstruct
+    public void start() {
+        registerMeters();
+
+        if (!pipelineProperties.isEnabled()) {
+            LOGGER.info("transaction pipeline disabled, events will be processed on the listener thread");
+            return;
+        }
+
+        workers = Executors.newFixedThreadPool(pipelineProperties.getWorkers(),
+                Thread.ofPlatform().name("transaction-pipeline-worker-", 0).daemon().factory());
+
+        running = true;
+        dispatcher = Thread.ofPlatform().name("transaction-pipeline-dispatcher").daemon().start(this::dispatch);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        runningLock.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+
+            running = false;
+        } finally {
+            runningLock.writeLock().unlock();
+        }
+
+        dispatcher.join();
+
+        var remaining = new ArrayList<Transaction>();
+        queue.drainTo(remaining);
+
+        if (!remaining.isEmpty()) {
+            LOGGER.info("draining {} remaining transaction events before shutdown", remaining.size());
+            drain(remaining);
+        }
+
+        if (!lanePermits.tryAcquire(pipelineProperties.getQueueCapacity(), 30, TimeUnit.SECONDS)) {
+            LOGGER.warn("{} accounts still had transaction events to process at shutdown", lanes.size());
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Submits a new transaction for processing. Blocks while the queue is full. Once the pipeline is stopped, or
+     * when it is disabled, the transaction is processed on the caller's thread.
+     *
+     * @param transaction the new, uncleared transaction
+     */
+    public void submit(Transaction transaction) throws InterruptedException {
+        eventsCounter.increment();
+
+        runningLock.readLock().lockInterruptibly();
+        try {
+            if (running) {
+                queue.put(transaction);
+                return;
+            }
+        } finally {
+            runningLock.readLock().unlock();
+        }
+
+        process(transaction.getAccountId(), List.of(transaction));
+    }
+
+    private void registerMeters() {
+        Gauge.builder("transaction.pipeline.queue.depth", queue, BlockingQueue::size)
+                .description("Transaction events waiting to be processed")
+                .register(meterRegistry);
+
+        eventsCounter = Counter.builder("transaction.pipeline.events")
+                .description("Transaction events received")
+                .register(meterRegistry);
+
+        accountUpdatesCounter = Counter.builder("transaction.pipeline.account.updates")
+                .description("Coalesced account balance updates performed")
+                .register(meterRegistry);
+
+        Gauge.builder("transaction.pipeline.coalescing.ratio", this, TransactionEventPipeline::coalescingRatio)
+                .description("Transaction events received per account balance update")
+                .register(meterRegistry);
+
+        batchEventsSummary = DistributionSummary.builder("transaction.pipeline.batch.events")
+                .description("Transaction events coalesced into a single account balance update")
+                .register(meterRegistry);
+
+        drainTimer = Timer.builder("transaction.pipeline.drain")
+                .description("Time from the end of a coalescing window until the account update holding its events"
+                        + " has been processed")
+                .publishPercentileHistogram(metricsProperties.isPercentileHistograms())
+                .register(meterRegistry);
+
+        Gauge.builder("transaction.pipeline.lanes", lanes, Map::size)
+                .description("Accounts with a balance update waiting or in progress")
+                .register(meterRegistry);
+    }
+
+    private void dispatch() {
+        var windowNanos = pipelineProperties.getCoalesceWindow().toNanos();
+        var maxBatch = pipelineProperties.getQueueCapacity();
+
+        while (running) {
+            try {
+                var first = queue.poll(windowNanos, TimeUnit.NANOSECONDS);
+
+                if (first == null) {
+                    continue;
+                }
+
+                var batch = new ArrayList<Transaction>();
+                batch.add(first);
+
+                // collect until the window that started with the first event ends, however many events arrive
+                var deadline = System.nanoTime() + windowNanos;
+                for (var remaining = windowNanos; remaining > 0 && batch.size() < maxBatch;
+                     remaining = deadline - System.nanoTime()) {
+                    var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+
+                    if (next == null) {
+                        break;
+                    }
+
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+
+                drain(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("failed to drain transaction events", e);
+            }
+        }
+    }
+
+    /**
+     * Coalesces a window of events per account and appends each account's events to its lane, starting a task for
+     * the accounts whose lane was idle. Waits while the lanes are full, but not for the accounts to be processed.
+     */
+    void drain(List<Transaction> batch) throws InterruptedException {
+        var windowEnd = System.nanoTime();
+
+        Map<String, List<Transaction>> byAccount = new LinkedHashMap<>();
+        for (Transaction transaction : batch) {
+            byAccount.computeIfAbsent(transaction.getAccountId(), accountId -> new ArrayList<>()).add(transaction);
+        }
+
+        LOGGER.debug("coalesced {} transaction events into {} account updates", batch.size(), byAccount.size());
+
+        for (Map.Entry<String, List<Transaction>> entry : byAccount.entrySet()) {
+            var accountId = entry.getKey();
+            var transactions = entry.getValue();
+
+            if (workers == null || workers.isShutdown()) {
+                processLogged(accountId, transactions);
+                drainTimer.record(System.nanoTime() - windowEnd, TimeUnit.NANOSECONDS);
+                continue;
+            }
+
+            lanePermits.acquire(transactions.size());
+
+            // merge returns the lane given only when the account had no lane, which then needs a task
+            var lane = new Lane(windowEnd, transactions);
+            if (lanes.merge(accountId, lane, TransactionEventPipeline::append) == lane) {
+                schedule(accountId);
+            }
+        }
+    }
+
+    /**
+     * Appends a window's events to a lane. A lane emptied by its running task takes the end of this window as the
+     * start of its next update.
+     */
+    private static Lane append(Lane pending, Lane window) {
+        var windowEnd = pending.transactions().isEmpty() ? window.windowEnd() : pending.windowEnd();
+        pending.transactions().addAll(window.transactions());
+        return new Lane(windowEnd, pending.transactions());
+    }
+
+    private void schedule(String accountId) {
+        try {
+            workers.execute(() -> runLane(accountId));
+        } catch (RejectedExecutionException e) {
+            runLane(accountId);
+        }
+    }
+
+    /**
+     * Processes everything the account's lane holds as one update, and then either schedules the lane again for the
+     * events appended in the meantime, or removes it.
+     */
+    private void runLane(String accountId) {
+        var lane = lanes.replace(accountId, new Lane(0, new ArrayList<>()));
+
+        try {
+            processLogged(accountId, lane.transactions());
+            drainTimer.record(System.nanoTime() - lane.windowEnd(), TimeUnit.NANOSECONDS);
+        } finally {
+            lanePermits.release(lane.transactions().size());
+        }
+
+        var pending = lanes.computeIfPresent(accountId,
+                (key, waiting) -> waiting.transactions().isEmpty() ? null : waiting);
+
+        if (pending != null) {
+            schedule(accountId);
+        }
+    }
+
+    private void processLogged(String accountId, List<Transaction> transactions) {
+        try {
+            process(accountId, transactions);
+        } catch (RuntimeException e) {
+            LOGGER.error("failed to update balance for accountId: {}", accountId, e);
+        }
+    }
+
+    private void process(String accountId, List<Transaction> transactions) {
+        accountUpdatesCounter.increment();
+        batchEventsSummary.record(transactions.size());
+
+        if (balanceProperties.getMode() == BalanceProperties.Mode.INCREMENTAL) {
+            accountProcessor.applyTransactions(accountId, transactions);
+        } else {
+            accountProcessor.recalculateBalance(accountId);
+        }
+    }
+
+    /**
+     * The events of one account waiting to be processed, and the end of the earliest coalescing window they came
+     * from, as a {@link System#nanoTime()}.
+     */
+    private record Lane(long windowEnd, List<Transaction> transactions) {
+    }
+
+    private double coalescingRatio() {
+        var updates = accountUpdatesCounter.count();
+        return updates == 0 ? 0 : eventsCounter.count() / updates;
+    }
+}
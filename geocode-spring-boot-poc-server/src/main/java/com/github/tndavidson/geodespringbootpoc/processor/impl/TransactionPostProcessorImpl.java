@@ -1,14 +1,20 @@
 package com.github.tndavidson.geodespringbootpoc.processor.impl;
 
+import com.github.tndavidson.geodespringbootpoc.config.BalanceProperties;
+import com.github.tndavidson.geodespringbootpoc.config.MetricsProperties;
 import com.github.tndavidson.geodespringbootpoc.model.Transaction;
-import com.github.tndavidson.geodespringbootpoc.processor.AccountProcessor;
 import com.github.tndavidson.geodespringbootpoc.processor.TransactionPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.apache.geode.cache.query.CqEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.gemfire.listener.annotation.ContinuousQuery;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
+
 /**
  * Implementation of the {@link TransactionPostProcessor} interface that processes
  * new transaction events received from a continuous query.
@@ -18,7 +24,14 @@ import org.springframework.stereotype.Component;
  * consistency after processing the transaction.
  * <p>
  * The continuous query is configured to monitor the transaction region and select
- * transactions where the `isCleared` property is false.
+ * transactions where the `isCleared` property is false. Events are handed to the
+ * {@link TransactionEventPipeline}, which coalesces them per account and, depending on the configured
+ * {@link BalanceProperties.Mode}, either applies the transactions' amounts to the balance as a delta
+ * or fully re-sums the balance.
+ * <p>
+ * The {@code transaction.cq.lag} timer records the lag of each event, from the transaction's {@code timestamp},
+ * set when the application created it, to its arrival here, so it includes the time the servers took to apply
+ * the put and deliver the event, and any clock difference between the application instances.
  * <p>
  * Component annotation allows it to be detected and managed as a Spring component.
  */
@@ -26,16 +39,25 @@ import org.springframework.stereotype.Component;
 public class TransactionPostProcessorImpl implements TransactionPostProcessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(TransactionPostProcessorImpl.class);
 
-    private final AccountProcessor accountProcessor;
+    private final TransactionEventPipeline transactionEventPipeline;
 
-    public TransactionPostProcessorImpl(AccountProcessor accountProcessor) {
-        this.accountProcessor = accountProcessor;
+    private final Timer lagTimer;
+
+    public TransactionPostProcessorImpl(TransactionEventPipeline transactionEventPipeline,
+                                        MetricsProperties metricsProperties, MeterRegistry meterRegistry) {
+        this.transactionEventPipeline = transactionEventPipeline;
+        this.lagTimer = Timer.builder("transaction.cq.lag")
+                .description("Time from a transaction's timestamp to the arrival of its continuous query event")
+                .publishPercentileHistogram(metricsProperties.isPercentileHistograms())
+                .register(meterRegistry);
     }
 
     /**
      * Processes a new transaction event received from a continuous query. This method
-     * handles events for transactions that have not been cleared and triggers a
-     * recalculation of the account balance for the associated account.
+     * handles events for transactions that have not been cleared and submits them to the
+     * pipeline that updates the balance of the associated account.
+     * Events raised when a transaction leaves the query's result set (for example, once it has
+     * been cleared) are ignored.
      *
      * @param event the continuous query event containing information about the new transaction.
      *              The event provides access to the transaction object and its relevant details.
@@ -44,8 +66,26 @@ public class TransactionPostProcessorImpl implements TransactionPostProcessor {
     public void processNewTransaction(CqEvent event) {
         LOGGER.debug("TransactionHandler processed event: {}", event);
 
+        if (event.getQueryOperation().isDestroy()) {
+            return;
+        }
+
         var transaction = (Transaction) event.getNewValue();
-        accountProcessor.recalculateBalance(transaction.getAccountId());
+
+        if (transaction.getTimestamp() != null) {
+            var lag = Duration.between(transaction.getTimestamp(), Instant.now());
+
+            if (!lag.isNegative()) {
+                lagTimer.record(lag);
+            }
+        }
+
+        try {
+            transactionEventPipeline.submit(transaction);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("interrupted while submitting transactionId: {}", transaction.getTransactionId());
+        }
     }
 
 }
@@ -0,0 +1,44 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.WriteBehindProperties;
+import com.github.tndavidson.geodespringbootpoc.processor.function.WriteBehindFunctions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reloads the regions from the servers' write-behind store when the application starts, if
+ * {@code geode-poc.write-behind.reload-on-startup} is true.
+ *
+ * The reload runs on a single server, through {@link WriteBehindFunctions}, which reads the store and writes the
+ * entries back with {@code putAll}, so the entries do not travel through the application. Regions that already
+ * hold data are left as they are, so restarting the application against a running cluster reloads nothing.
+ */
+@Component
+public class WriteBehindReloader implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindReloader.class);
+
+    private final WriteBehindFunctions writeBehindFunctions;
+
+    private final WriteBehindProperties writeBehindProperties;
+
+    public WriteBehindReloader(WriteBehindFunctions writeBehindFunctions, WriteBehindProperties writeBehindProperties) {
+        this.writeBehindFunctions = writeBehindFunctions;
+        this.writeBehindProperties = writeBehindProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!writeBehindProperties.isReloadOnStartup()) {
+            return;
+        }
+
+        var start = System.nanoTime();
+        var reloaded = writeBehindFunctions.reload(writeBehindProperties.getReloadBatchSize());
+
+        LOGGER.info("Reloaded {} from the write-behind store in {} ms", reloaded,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,13 @@
+package com.github.tndavidson.geodespringbootpoc.repository;
+
+import com.github.tndavidson.geodespringbootpoc.model.AccountAggregates;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Repository interface for reading the {@link AccountAggregates} entity from the "accountAggregates" region,
+ * keyed by {@code accountId}. The aggregates are maintained on the servers as transactions are written, so this
+ * repository is only read from.
+ */
+public interface AccountAggregatesRepository extends CrudRepository<AccountAggregates, String> {
+
+}
@@ -3,6 +3,8 @@ package com.github.tndavidson.geodespringbootpoc.repository;
 import com.github.tndavidson.geodespringbootpoc.model.Account;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.List;
+
 /**
  * This interface provides the mechanism for CRUD operations and custom query execution
  * for the {@link Account} entity. It extends the {@code CrudRepository} interface,
@@ -11,7 +13,10 @@ import org.springframework.data.repository.CrudRepository;
  * By default, this repository enables interaction with the "account" region in a Geode
  * data grid, allowing for the storage and manipulation of {@link Account} instances,
  * indexed by their unique {@code accountId}.
+ *
+ * The {@code findByCustomerId} method retrieves a customer's accounts through the {@code customerId} index.
  */
 public interface AccountRepository extends CrudRepository<Account, String> {
 
+    List<Account> findByCustomerId(String customerId);
 }
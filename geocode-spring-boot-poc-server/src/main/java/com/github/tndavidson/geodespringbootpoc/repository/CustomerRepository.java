@@ -1,6 +1,7 @@
 package com.github.tndavidson.geodespringbootpoc.repository;
 
 import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import org.springframework.data.gemfire.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 import java.util.List;
@@ -10,12 +11,22 @@ import java.util.List;
  * for the {@link Customer} entity. It extends the {@code CrudRepository} interface,
  * enabling methods for persistence, retrieval, update, and deletion of {@link Customer} objects.
  *
- * The {@code findAll} method is specifically defined to retrieve all customer records
- * from the data store as a list.
+ * Customers are searched by last name a page at a time, with conditions the servers answer from the
+ * {@code customerLastNameIdx} range index. Each query returns at most {@code limit} customers, so the servers sort
+ * only the customers in the range and the client receives only one page. Each query sorts on a single field, as
+ * Geode sorts on several fields far more slowly:
+ *
+ * - {@code findByLastNameRange(String from, String to, int limit)}: Retrieves the customers whose last name is
+ *   at least {@code from} and less than {@code to}, ordered by last name only.
+ * - {@code findByLastNameAfterId(String lastName, String afterId, int limit)}: Retrieves the customers with the
+ *   given last name whose ID sorts after {@code afterId}, ordered by ID, to read a page's customers sharing a last
+ *   name in a stable order.
  */
 public interface CustomerRepository extends CrudRepository<Customer, String> {
 
-    List<Customer> findAllByOrderByLastName();
+    @Query("SELECT * FROM /customer c WHERE c.lastName >= $1 AND c.lastName < $2 ORDER BY c.lastName LIMIT $3")
+    List<Customer> findByLastNameRange(String from, String to, int limit);
 
-    List<Customer>  findByLastNameLikeOrderByLastName(String lastName);
+    @Query("SELECT * FROM /customer c WHERE c.lastName = $1 AND c.id > $2 ORDER BY c.id LIMIT $3")
+    List<Customer> findByLastNameAfterId(String lastName, String afterId, int limit);
 }
@@ -1,6 +1,7 @@
 package com.github.tndavidson.geodespringbootpoc.repository;
 
 import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import org.springframework.data.gemfire.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 import java.util.List;
@@ -17,9 +18,14 @@ import java.util.List;
  *
  * - {@code findByAccountId(String accountId)}: Retrieves a list of transactions associated with
  *   a specific {@code accountId}.
+ * - {@code findUnclearedByAccountId(String accountId)}: Retrieves the transactions for a specific
+ *   {@code accountId} that have not yet been applied to the account balance.
  */
 public interface TransactionRepository extends CrudRepository<Transaction, String> {
 
     List<Transaction> findByAccountId(String accountId);
 
+    @Query("select * from /transaction t where t.accountId = $1 and t.isCleared() = false")
+    List<Transaction> findUnclearedByAccountId(String accountId);
+
 }
@@ -1,52 +1,193 @@
 package com.github.tndavidson.geodespringbootpoc.rest.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.AccountAggregates;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerAggregates;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.model.MultiGetRequest;
+import com.github.tndavidson.geodespringbootpoc.model.MultiGetResult;
 import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.model.TransactionBatchResult;
 import com.github.tndavidson.geodespringbootpoc.processor.AccountProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.AggregatesProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.AsyncAccountProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.AsyncDepositsProcessor;
 import com.github.tndavidson.geodespringbootpoc.processor.DepositsProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.MultiGetProcessor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * REST controller for handling account and transaction-related operations.
  * Provides endpoints for retrieving and creating accounts and transactions.
+ * Many accounts or transactions can be read by ID at once through the {@code _mget} endpoints, which report the IDs
+ * that were not found.
+ * <p>
+ * The deposit history is streamed: transactions are written to the response as they are received from the
+ * servers, either as a JSON array or, when {@code application/x-ndjson} is accepted, as one JSON document per line.
+ * The function execution is started by the response body, so it does not run until the response is written.
+ * It can also be read a page at a time, newest first, by following the {@code nextCursor} of each page.
+ * <p>
+ * Transactions can be created in bulk from a JSON array or an {@code application/x-ndjson} stream, which is read
+ * incrementally, so the request body is never held in memory as a whole.
+ * <p>
+ * The running totals of an account or of all of a customer's accounts are read from the aggregates maintained on
+ * the servers, without reading their transactions.
+ * <p>
+ * Single account and transaction requests and deposit history pages are served asynchronously: the handler returns a
+ * {@link CompletableFuture} and the request thread is released while the Geode calls run on the
+ * {@code AsyncGeodeExecutor}, whose rejections are returned as {@code 503 Service Unavailable}.
  */
 @RestController
 public class AccountRestController {
     private final AccountProcessor accountProcessor;
     private final DepositsProcessor depositsProcessor;
+    private final AsyncAccountProcessor asyncAccountProcessor;
+    private final AsyncDepositsProcessor asyncDepositsProcessor;
+    private final AggregatesProcessor aggregatesProcessor;
+    private final MultiGetProcessor multiGetProcessor;
+    private final ObjectMapper objectMapper;
 
-    public AccountRestController(AccountProcessor accountProcessor, DepositsProcessor depositsProcessor) {
+    public AccountRestController(AccountProcessor accountProcessor, DepositsProcessor depositsProcessor,
+                                 AsyncAccountProcessor asyncAccountProcessor,
+                                 AsyncDepositsProcessor asyncDepositsProcessor,
+                                 AggregatesProcessor aggregatesProcessor, MultiGetProcessor multiGetProcessor,
+                                 ObjectMapper objectMapper) {
         this.accountProcessor = accountProcessor;
         this.depositsProcessor = depositsProcessor;
+        this.asyncAccountProcessor = asyncAccountProcessor;
+        this.asyncDepositsProcessor = asyncDepositsProcessor;
+        this.aggregatesProcessor = aggregatesProcessor;
+        this.multiGetProcessor = multiGetProcessor;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping(value = "/account/{accountId}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Account> getAccount(@PathVariable String accountId) {
-        return new ResponseEntity<>(accountProcessor.findAccountById(accountId), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<Account>> getAccount(@PathVariable String accountId) {
+        return asyncAccountProcessor.findAccountById(accountId).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/account/_mget", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MultiGetResult<Account>> getAccounts(@RequestBody MultiGetRequest request) {
+        return new ResponseEntity<>(multiGetProcessor.getAccounts(request.getIds()), HttpStatus.OK);
     }
 
     @PostMapping(value = "/account", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Account> createAccount(@RequestBody Account account) {
-        return new ResponseEntity<>(accountProcessor.createAccount(account), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<Account>> createAccount(@RequestBody Account account) {
+        return asyncAccountProcessor.createAccount(account).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/account/{accountId}/reconcile-balance", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<Account>> reconcileBalance(@PathVariable String accountId) {
+        return asyncAccountProcessor.recalculateBalance(accountId).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/account/{accountId}/aggregates", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AccountAggregates> getAccountAggregates(@PathVariable String accountId) {
+        return new ResponseEntity<>(aggregatesProcessor.getAccountAggregates(accountId), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/customer/{customerId}/aggregates", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CustomerAggregates> getCustomerAggregates(@PathVariable String customerId) {
+        return new ResponseEntity<>(aggregatesProcessor.getCustomerAggregates(customerId), HttpStatus.OK);
     }
 
     @GetMapping(value = "/transaction/{transactionId}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Transaction> getTransaction(@PathVariable String transactionId) {
-        return new ResponseEntity<>(accountProcessor.findTransactionById(transactionId), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<Transaction>> getTransaction(@PathVariable String transactionId) {
+        return asyncAccountProcessor.findTransactionById(transactionId).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/transaction/_mget", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MultiGetResult<Transaction>> getTransactions(@RequestBody MultiGetRequest request) {
+        return new ResponseEntity<>(multiGetProcessor.getTransactions(request.getIds()), HttpStatus.OK);
     }
 
     @PostMapping(value = "/transaction", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Transaction> createTransaction(@RequestBody Transaction transaction) {
-        return new ResponseEntity<>(accountProcessor.createTransaction(transaction), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<Transaction>> createTransaction(@RequestBody Transaction transaction) {
+        return asyncAccountProcessor.createTransaction(transaction).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/transaction/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TransactionBatchResult> createTransactions(InputStream body,
+                                                                     @RequestParam(required = false) Boolean deferBalanceUpdates)
+            throws IOException {
+        try (MappingIterator<Transaction> transactions = objectMapper.readerFor(Transaction.class).readValues(body)) {
+            return new ResponseEntity<>(accountProcessor.createTransactions(transactions, deferBalanceUpdates), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof JsonProcessingException cause) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Malformed transaction batch, transactions before the malformed one were created: "
+                                + cause.getOriginalMessage());
+            }
+            throw e;
+        }
     }
 
     @GetMapping(value = "/customer/{customerId}/deposit-history-all-accounts", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<Transaction>> getDepositHistoryAllAccounts(@PathVariable String customerId) {
-        return new ResponseEntity<>(depositsProcessor.getDepositHistoryAllAccounts(customerId), HttpStatus.OK);
+    public ResponseEntity<StreamingResponseBody> getDepositHistoryAllAccounts(@PathVariable String customerId) {
+        return new ResponseEntity<>(out -> write(depositsProcessor.streamDepositHistoryAllAccounts(customerId), out, false),
+                HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/customer/{customerId}/deposit-history-all-accounts", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getDepositHistoryAllAccountsNdjson(@PathVariable String customerId) {
+        return new ResponseEntity<>(out -> write(depositsProcessor.streamDepositHistoryAllAccounts(customerId), out, true),
+                HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/customer/{customerId}/deposit-history-all-accounts/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<DepositHistoryPage>> getDepositHistoryPage(@PathVariable String customerId,
+                                                                                       @RequestParam(required = false) Instant from,
+                                                                                       @RequestParam(required = false) Instant to,
+                                                                                       @RequestParam(required = false) Integer size,
+                                                                                       @RequestParam(required = false) String cursor) {
+        return asyncDepositsProcessor.getDepositHistoryPage(customerId, from, to, size, cursor)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    private void write(Stream<Transaction> transactions, OutputStream out, boolean ndjson) throws IOException {
+        try (transactions; JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+
+            transactions.forEach(transaction -> {
+                try {
+                    generator.writeObject(transaction);
+
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 }
@@ -1,12 +1,20 @@
 package com.github.tndavidson.geodespringbootpoc.rest.controller;
 
 import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPage;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPortfolio;
+import com.github.tndavidson.geodespringbootpoc.model.DataGenerationReport;
+import com.github.tndavidson.geodespringbootpoc.model.MultiGetRequest;
+import com.github.tndavidson.geodespringbootpoc.model.MultiGetResult;
+import com.github.tndavidson.geodespringbootpoc.processor.CustomerProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.DataGenerationProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.MultiGetProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.PortfolioProcessor;
 import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
 import net.datafaker.Faker;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
@@ -19,12 +27,18 @@ import java.util.UUID;
  * and offer CRUD functionalities as well as a utility for generating mock customer data.
  * <p>
  * Endpoints:
- * - Retrieve all customers.
+ * - Retrieve a page of the customers by last name prefix, following the {@code nextCursor} of the previous page.
  * - Retrieve a specific customer by their ID.
+ * - Retrieve many customers by ID at once, with the IDs that were not found.
+ * - Retrieve a customer's portfolio: their accounts with balances and each account's recent transactions.
  * - Create a new customer.
  * - Generate fake customer data for testing purposes.
+ * - Generate a fake dataset of customers, accounts and transactions for load testing.
  * <p>
- * The controller interacts with the {@link CustomerRepository} for persistence operations.
+ * The controller interacts with the {@link CustomerRepository} for persistence operations, with the
+ * {@link CustomerProcessor} to search customers by last name a page at a time, with the {@link MultiGetProcessor} to
+ * read customers by ID in batches, with the {@link PortfolioProcessor} to read a customer's portfolio in one round
+ * trip, and with the {@link DataGenerationProcessor} to generate load-testing datasets.
  */
 @RestController
 @RequestMapping("/customer")
@@ -32,22 +46,30 @@ public class CustomerRestController {
 
     private final CustomerRepository customerRepository;
 
-    public CustomerRestController(CustomerRepository customerRepository) {
+    private final CustomerProcessor customerProcessor;
+
+    private final MultiGetProcessor multiGetProcessor;
+
+    private final PortfolioProcessor portfolioProcessor;
+
+    private final DataGenerationProcessor dataGenerationProcessor;
+
+    public CustomerRestController(CustomerRepository customerRepository, CustomerProcessor customerProcessor,
+                                  MultiGetProcessor multiGetProcessor, PortfolioProcessor portfolioProcessor,
+                                  DataGenerationProcessor dataGenerationProcessor) {
         this.customerRepository = customerRepository;
+        this.customerProcessor = customerProcessor;
+        this.multiGetProcessor = multiGetProcessor;
+        this.portfolioProcessor = portfolioProcessor;
+        this.dataGenerationProcessor = dataGenerationProcessor;
     }
 
 
     @GetMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<Customer>> getCustomers(@RequestParam(required = false) String lastName) {
-        List<Customer> customers = null;
-
-        if(!StringUtils.hasLength(lastName)) {
-            customers = customerRepository.findAllByOrderByLastName();
-        } else {
-            customers = customerRepository.findByLastNameLikeOrderByLastName(lastName);
-        }
-
-        return new ResponseEntity<>(customers, HttpStatus.OK);
+    public ResponseEntity<CustomerPage> getCustomers(@RequestParam(required = false) String lastName,
+                                                     @RequestParam(required = false) Integer size,
+                                                     @RequestParam(required = false) String cursor) {
+        return new ResponseEntity<>(customerProcessor.findCustomers(lastName, size, cursor), HttpStatus.OK);
     }
 
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -58,6 +80,17 @@ public class CustomerRestController {
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    @GetMapping(value = "/{id}/portfolio", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CustomerPortfolio> getCustomerPortfolio(@PathVariable String id,
+                                                                  @RequestParam(required = false) Integer transactions) {
+        return new ResponseEntity<>(portfolioProcessor.getCustomerPortfolio(id, transactions), HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/_mget", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MultiGetResult<Customer>> getCustomersById(@RequestBody MultiGetRequest request) {
+        return new ResponseEntity<>(multiGetProcessor.getCustomers(request.getIds()), HttpStatus.OK);
+    }
+
     @PostMapping(value = "", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Customer> createCustomer(@RequestBody Customer customer) {
         customer.setId(UUID.randomUUID().toString());
@@ -74,11 +107,22 @@ public class CustomerRestController {
 
         for (int i = 0; i < numberOfRecords; i++) {
             var customer = new Customer();
+            customer.setId(UUID.randomUUID().toString());
             customer.setFirstName(faker.name().firstName());
             customer.setLastName(faker.name().lastName());
-            customers.add(this.createCustomer(customer).getBody());
+            customers.add(customer);
         }
 
+        customerRepository.saveAll(customers);
+
         return new ResponseEntity<>(customers, HttpStatus.OK);
     }
+
+    @PostMapping(value = "/generate-fake-dataset", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DataGenerationReport> generateFakeDataset(@RequestParam int customers,
+                                                                    @RequestParam(defaultValue = "2") int accountsPerCustomer,
+                                                                    @RequestParam(defaultValue = "20") int transactionsPerAccount) {
+        return new ResponseEntity<>(dataGenerationProcessor.generate(customers, accountsPerCustomer, transactionsPerAccount),
+                HttpStatus.OK);
+    }
 }
@@ -0,0 +1,36 @@
+package com.github.tndavidson.geodespringbootpoc.rest.endpoint;
+
+import com.github.tndavidson.geodespringbootpoc.processor.impl.SlowQueryDetector;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint listing the repositories' slowest OQL queries, at {@code /actuator/slowqueries}.
+ * <p>
+ * Each entry shows the repository method, the OQL text, the shape of its arguments, its execution statistics and
+ * the indexes it was last found to use, as kept by the {@link SlowQueryDetector}. A {@code DELETE} clears the
+ * statistics, for example before a load test.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueriesEndpoint {
+    private final SlowQueryDetector slowQueryDetector;
+
+    public SlowQueriesEndpoint(SlowQueryDetector slowQueryDetector) {
+        this.slowQueryDetector = slowQueryDetector;
+    }
+
+    @ReadOperation
+    public List<SlowQueryDetector.SlowQuery> slowQueries() {
+        return slowQueryDetector.slowest();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        slowQueryDetector.reset();
+    }
+}
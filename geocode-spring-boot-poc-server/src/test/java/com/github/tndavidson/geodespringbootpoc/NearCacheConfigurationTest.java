@@ -0,0 +1,130 @@
+package com.github.tndavidson.geodespringbootpoc;
+
+import com.github.tndavidson.geodespringbootpoc.config.NearCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.geode.cache.CacheListener;
+import org.apache.geode.cache.CacheStatistics;
+import org.apache.geode.cache.EntryEvent;
+import org.apache.geode.cache.EvictionAction;
+import org.apache.geode.cache.EvictionAttributes;
+import org.apache.geode.cache.Operation;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.client.ClientCache;
+import org.apache.geode.cache.client.ClientRegionShortcut;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.gemfire.client.ClientRegionFactoryBean;
+import org.springframework.data.gemfire.client.Interest;
+import org.springframework.data.gemfire.client.RegexInterest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.Mockito.*;
+
+public class NearCacheConfigurationTest {
+
+    @Mock
+    private ClientRegionFactoryBean<Object, Object> regionFactoryBean;
+
+    @Mock
+    private ClientCache clientCache;
+
+    @Mock
+    private Region<Object, Object> region;
+
+    @Mock
+    private CacheStatistics statistics;
+
+    private NearCacheProperties nearCacheProperties;
+
+    private NearCacheConfiguration configuration;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        nearCacheProperties = new NearCacheProperties();
+        configuration = new NearCacheConfiguration();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testConfigureLeavesRegionsUnchangedWhenDisabled() {
+        configuration.nearCacheRegionConfigurer(nearCacheProperties).configure("customer", regionFactoryBean);
+
+        verifyNoInteractions(regionFactoryBean);
+    }
+
+    @Test
+    public void testConfigureLeavesUnlistedRegionsUnchanged() {
+        nearCacheProperties.setEnabled(true);
+
+        configuration.nearCacheRegionConfigurer(nearCacheProperties).configure("transaction", regionFactoryBean);
+
+        verifyNoInteractions(regionFactoryBean);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConfigureMakesListedRegionsCachingProxies() {
+        nearCacheProperties.setEnabled(true);
+
+        configuration.nearCacheRegionConfigurer(nearCacheProperties).configure("account", regionFactoryBean);
+
+        verify(regionFactoryBean).setShortcut(ClientRegionShortcut.CACHING_PROXY);
+        verify(regionFactoryBean).setEvictionAttributes(
+                EvictionAttributes.createLRUEntryAttributes(50_000, EvictionAction.LOCAL_DESTROY));
+        verify(regionFactoryBean).setStatisticsEnabled(true);
+
+        ArgumentCaptor<Interest<Object>[]> interests = ArgumentCaptor.forClass(Interest[].class);
+        verify(regionFactoryBean).setInterests(interests.capture());
+        assertEquals(1, interests.getValue().length);
+        assertInstanceOf(RegexInterest.class, interests.getValue()[0]);
+        assertEquals(false, interests.getValue()[0].isReceiveValues());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMetricsReportRegionStatisticsAndEvictions() {
+        nearCacheProperties.setEnabled(true);
+        configuration.nearCacheRegionConfigurer(nearCacheProperties).configure("customer", regionFactoryBean);
+
+        ArgumentCaptor<CacheListener<Object, Object>[]> listeners = ArgumentCaptor.forClass(CacheListener[].class);
+        verify(regionFactoryBean).setCacheListeners(listeners.capture());
+
+        EntryEvent<Object, Object> eviction = mock(EntryEvent.class);
+        when(eviction.getOperation()).thenReturn(Operation.EVICT_DESTROY);
+        EntryEvent<Object, Object> destroy = mock(EntryEvent.class);
+        when(destroy.getOperation()).thenReturn(Operation.DESTROY);
+
+        listeners.getValue()[0].afterDestroy(eviction);
+        listeners.getValue()[0].afterDestroy(eviction);
+        listeners.getValue()[0].afterDestroy(destroy);
+
+        when(clientCache.getRegion("customer")).thenReturn(region);
+        when(region.getStatistics()).thenReturn(statistics);
+        when(region.size()).thenReturn(7);
+        when(statistics.getHitCount()).thenReturn(30L);
+        when(statistics.getMissCount()).thenReturn(10L);
+        when(statistics.getHitRatio()).thenReturn(0.75f);
+
+        var registry = new SimpleMeterRegistry();
+        configuration.nearCacheMetrics(nearCacheProperties, clientCache).bindTo(registry);
+
+        assertEquals(30, registry.get("geode.near.cache.hits").tag("region", "customer").functionCounter().count());
+        assertEquals(10, registry.get("geode.near.cache.misses").tag("region", "customer").functionCounter().count());
+        assertEquals(0.75, registry.get("geode.near.cache.hit.ratio").tag("region", "customer").gauge().value());
+        assertEquals(7, registry.get("geode.near.cache.size").tag("region", "customer").gauge().value());
+        assertEquals(2, registry.get("geode.near.cache.evictions").tag("region", "customer").functionCounter().count());
+        assertEquals(0, registry.get("geode.near.cache.evictions").tag("region", "account").functionCounter().count());
+    }
+}
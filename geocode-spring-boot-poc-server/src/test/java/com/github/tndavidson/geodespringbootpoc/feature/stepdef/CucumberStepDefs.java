@@ -3,6 +3,7 @@ package com.github.tndavidson.geodespringbootpoc.feature.stepdef;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPage;
 import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
 import io.cucumber.java.en.And;
 import io.cucumber.java.en.Given;
@@ -34,6 +35,7 @@ public class CucumberStepDefs {
 
     private ValidatableResponse response;
     private String customerId;
+    private String nextCursor;
 
     @Given("the following entries exists in the {string} region")
     public void anEntryExistsInTheRegion(String region, List<Customer> customer) {
@@ -63,6 +65,34 @@ public class CucumberStepDefs {
                 .get(url).then();
     }
 
+    @When("a GET request is made to {string} with lastName: {string} and size: {int}")
+    public void aGETRequestIsMadeToWithLastNameAndSize(String url, String lastName, int size) {
+        response = RestAssured.given(requestSpecification()).when()
+                .queryParam("lastName", lastName)
+                .queryParam("size", size)
+                .get(url).then();
+    }
+
+    @When("a GET request is made to {string} with lastName: {string}, size: {int} and the next cursor")
+    public void aGETRequestIsMadeToWithLastNameSizeAndTheNextCursor(String url, String lastName, int size) {
+        response = RestAssured.given(requestSpecification()).when()
+                .queryParam("lastName", lastName)
+                .queryParam("size", size)
+                .queryParam("cursor", nextCursor)
+                .get(url).then();
+    }
+
+    @And("the response contains the customers {string} and a next cursor")
+    public void theResponseContainsTheCustomersAndANextCursor(String customerIds) throws JsonProcessingException {
+        var actualResponse = response.extract().asString();
+        var page = objectMapper.readValue(actualResponse, CustomerPage.class);
+
+        Assertions.assertThat(page.getCustomers()).extracting(Customer::getId)
+                .containsExactly(customerIds.split(","));
+        Assertions.assertThat(page.getNextCursor()).isNotNull();
+        nextCursor = page.getNextCursor();
+    }
+
     @When("a POST request is made to {string}")
     public void aPOSTRequestIsMadeTo(String url, String body) {
         response = RestAssured.given(requestSpecification()).when()
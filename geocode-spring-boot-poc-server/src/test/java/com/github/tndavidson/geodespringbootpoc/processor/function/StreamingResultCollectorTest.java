@@ -0,0 +1,160 @@
+package com.github.tndavidson.geodespringbootpoc.processor.function;
+
+import org.apache.geode.cache.execute.Execution;
+import org.apache.geode.cache.execute.FunctionException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StreamingResultCollectorTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Test
+    public void testStreamFlattensChunksInOrder() {
+        var collector = new StreamingResultCollector<String>(2, TIMEOUT);
+        var execution = execution(collector, () -> {
+            collector.addResult(null, List.of("a", "b"));
+            collector.addResult(null, List.of("c"));
+            collector.addResult(null, List.of());
+            collector.endResults();
+        });
+
+        try (var stream = collector.stream(execution, "FUNCTION")) {
+            assertEquals(List.of("a", "b", "c"), stream.toList());
+        }
+    }
+
+    @Test
+    public void testReceivingWaitsForConsumerWhenBufferIsFull() throws Exception {
+        var collector = new StreamingResultCollector<Integer>(1, TIMEOUT);
+        var received = new CountDownLatch(3);
+        var execution = execution(collector, () -> {
+            for (int i = 0; i < 3; i++) {
+                collector.addResult(null, List.of(i));
+                received.countDown();
+            }
+            collector.endResults();
+        });
+
+        try (var stream = collector.stream(execution, "FUNCTION")) {
+            assertFalse(received.await(300, TimeUnit.MILLISECONDS));
+            assertEquals(List.of(0, 1, 2), stream.toList());
+            assertTrue(received.await(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testExceptionSentByFunctionIsRethrownAfterPrecedingChunks() {
+        var collector = new StreamingResultCollector<String>(4, TIMEOUT);
+        var execution = execution(collector, () -> {
+            collector.addResult(null, List.of("a"));
+            collector.addResult(null, new IllegalStateException("no accounts"));
+            collector.endResults();
+        });
+
+        try (var stream = collector.stream(execution, "FUNCTION")) {
+            var iterator = stream.iterator();
+            assertEquals("a", iterator.next());
+            var e = assertThrows(FunctionException.class, iterator::hasNext);
+            assertEquals("no accounts", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testExecutionFailureIsRethrown() {
+        var collector = new StreamingResultCollector<String>(4, TIMEOUT);
+        var execution = execution(collector, () -> {
+            throw new FunctionException("server unavailable");
+        });
+
+        try (var stream = collector.stream(execution, "FUNCTION")) {
+            var e = assertThrows(FunctionException.class, stream::toList);
+            assertEquals("server unavailable", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testClosingStreamReleasesBlockedExecution() throws Exception {
+        var collector = new StreamingResultCollector<Integer>(1, TIMEOUT);
+        var finished = new CountDownLatch(1);
+        var execution = execution(collector, () -> {
+            for (int i = 0; i < 100; i++) {
+                collector.addResult(null, List.of(i));
+            }
+            collector.endResults();
+            finished.countDown();
+        });
+
+        var stream = collector.stream(execution, "FUNCTION");
+        assertEquals(0, stream.iterator().next());
+        stream.close();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testUnconsumedStreamFailsExecutionAfterTimeout() throws Exception {
+        var collector = new StreamingResultCollector<Integer>(1, Duration.ofMillis(200));
+        var failure = new CompletableFuture<Throwable>();
+        var execution = execution(collector, () -> {
+            try {
+                for (int i = 0; i < 100; i++) {
+                    collector.addResult(null, List.of(i));
+                }
+                collector.endResults();
+            } catch (FunctionException e) {
+                failure.complete(e);
+                throw e;
+            }
+        });
+
+        try (var stream = collector.stream(execution, "FUNCTION")) {
+            assertTrue(failure.get(5, TimeUnit.SECONDS).getMessage().contains("no streamed results were consumed"));
+            assertThrows(FunctionException.class, stream::toList);
+        }
+    }
+
+    @Test
+    public void testSlowlyConsumedStreamOutlivesTheTimeout() {
+        var collector = new StreamingResultCollector<Integer>(1, Duration.ofMillis(200));
+        var execution = execution(collector, () -> {
+            for (int i = 0; i < 10; i++) {
+                collector.addResult(null, List.of(i));
+            }
+            collector.endResults();
+        });
+
+        // each chunk is taken well within the timeout, but the whole stream takes several times as long
+        try (var stream = collector.stream(execution, "FUNCTION")) {
+            var consumed = stream.peek(i -> LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100))).toList();
+
+            assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), consumed);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Execution<Object, Object, Object> execution(StreamingResultCollector<?> collector, Runnable results) {
+        Execution<Object, Object, Object> execution = mock(Execution.class);
+        when(execution.withCollector(any())).thenReturn(execution);
+        doAnswer(invocation -> {
+            results.run();
+            return collector;
+        }).when(execution).execute("FUNCTION");
+        return execution;
+    }
+}
@@ -0,0 +1,235 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.BalanceProperties;
+import com.github.tndavidson.geodespringbootpoc.config.RegionLayoutProperties;
+import com.github.tndavidson.geodespringbootpoc.config.SerializationProperties;
+import com.github.tndavidson.geodespringbootpoc.config.TransactionBatchProperties;
+import com.github.tndavidson.geodespringbootpoc.function.AccountBalanceServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.processor.function.AccountRegionFunctions;
+import com.github.tndavidson.geodespringbootpoc.processor.function.TransactionFunctions;
+import com.github.tndavidson.geodespringbootpoc.repository.AccountRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.cache.execute.FunctionService;
+import org.apache.geode.cache.partition.PartitionRegionHelper;
+import org.apache.geode.cache.query.SelectResults;
+import org.apache.geode.pdx.ReflectionBasedAutoSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.gemfire.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs incremental balance updates and recalculations of the same accounts concurrently against an embedded Geode
+ * member, with partitioned "account" and "transaction" regions, the balance function and the uncleared transaction
+ * query of {@link TransactionRepository}, and checks that every transaction is counted exactly once.
+ */
+public class AccountBalanceConcurrencyTest {
+
+    private static final String MODEL_PACKAGE_PATTERN = "com\\.github\\.tndavidson\\.geodespringbootpoc\\.model\\..*";
+
+    private static final List<String> ACCOUNT_IDS = List.of("acc1", "acc2", "acc3", "acc4");
+
+    private static final int WRITERS_PER_ACCOUNT = 2;
+
+    private static final int TRANSACTIONS_PER_WRITER = 25;
+
+    private static final BigDecimal[] AMOUNTS = {
+            new BigDecimal("1.00"), new BigDecimal("2.50"), new BigDecimal("-0.75"), new BigDecimal("10.01")};
+
+    private static final long EVENT_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private static final long MAX_SUM_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private static final long RECALCULATION_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(40);
+
+    private Cache cache;
+
+    private Region<String, Account> accountRegion;
+
+    private Region<String, Transaction> transactionRegion;
+
+    private AccountProcessorImpl accountProcessor;
+
+    /**
+     * Runs after a recalculation has claimed the uncleared transactions and before it sums them.
+     */
+    private volatile Runnable beforeSum = () -> { };
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        cache = new CacheFactory()
+                .set("mcast-port", "0")
+                .set("locators", "")
+                .setPdxSerializer(new ReflectionBasedAutoSerializer(MODEL_PACKAGE_PATTERN))
+                .create();
+        accountRegion = cache.<String, Account>createRegionFactory(RegionShortcut.PARTITION).create("account");
+        transactionRegion = cache.<String, Transaction>createRegionFactory(RegionShortcut.PARTITION).create("transaction");
+        cache.getQueryService().createIndex("transactionAccountIdIdx", "accountId", "/transaction");
+        FunctionService.registerFunction(new AccountBalanceServerSideFunction());
+
+        var uncleared = TransactionRepository.class.getMethod("findUnclearedByAccountId", String.class)
+                .getAnnotation(Query.class).value();
+        var transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findUnclearedByAccountId(anyString())).thenAnswer(invocation ->
+                new ArrayList<>((SelectResults<?>) cache.getQueryService().newQuery(uncleared)
+                        .execute(invocation.<String>getArgument(0))));
+
+        var transactionFunctions = mock(TransactionFunctions.class);
+        when(transactionFunctions.calculateAccountBalance(anyString())).thenAnswer(invocation -> {
+            beforeSum.run();
+            return ((List<?>) FunctionService.onMember(cache.getDistributedSystem().getDistributedMember())
+                    .setArguments(invocation.getArgument(0))
+                    .execute(AccountBalanceServerSideFunction.ID).getResult()).get(0);
+        });
+
+        var balanceProperties = new BalanceProperties();
+        balanceProperties.setMaxUpdateAttempts(10_000);
+
+        accountProcessor = new AccountProcessorImpl(mock(CustomerRepository.class), mock(AccountRepository.class),
+                transactionRepository, transactionRegion, transactionFunctions, mock(AccountRegionFunctions.class),
+                new RegionLayoutProperties(), new TransactionBatchProperties(), new SerializationProperties(),
+                new AccountBalanceUpdater(accountRegion, balanceProperties, new SimpleMeterRegistry()));
+
+        for (String accountId : ACCOUNT_IDS) {
+            var account = new Account();
+            account.setAccountId(accountId);
+            account.setCustomerId("cust1");
+            account.setBalance(BigDecimal.ZERO.setScale(2));
+            accountRegion.put(accountId, account);
+        }
+
+        // create the buckets and compile the queries before any timing matters
+        PartitionRegionHelper.assignBucketsToPartitions(accountRegion);
+        PartitionRegionHelper.assignBucketsToPartitions(transactionRegion);
+        ACCOUNT_IDS.forEach(accountProcessor::recalculateBalance);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        FunctionService.unregisterFunction(AccountBalanceServerSideFunction.ID);
+        cache.close();
+    }
+
+    @Test
+    public void testTransactionWrittenWhileTheBalanceIsSummedIsCountedOnce() {
+        var late = transaction("acc1", new BigDecimal("5.00"));
+        beforeSum = () -> transactionRegion.putIfAbsent(late.getTransactionId(), late);
+
+        accountProcessor.recalculateBalance("acc1");
+        beforeSum = () -> { };
+        accountProcessor.applyTransaction(late);
+
+        assertEquals(new BigDecimal("5.00"), accountRegion.get("acc1").getBalance());
+        assertTrue(transactionRegion.get(late.getTransactionId()).isCleared());
+    }
+
+    @Test
+    public void testConcurrentAppliesAndRecalculationsCountEachTransactionOnce() throws Exception {
+        var created = new ConcurrentLinkedQueue<Transaction>();
+        var createdCount = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(ACCOUNT_IDS.size() * (WRITERS_PER_ACCOUNT + 1));
+
+        // a slow member: the sum waits for another transaction to be written, for at most a few milliseconds
+        beforeSum = () -> {
+            var count = createdCount.get();
+            var deadline = System.nanoTime() + MAX_SUM_DELAY_NANOS;
+            while (createdCount.get() == count && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        };
+
+        try {
+            var tasks = new ArrayList<Future<?>>();
+
+            for (String accountId : ACCOUNT_IDS) {
+                for (int writer = 0; writer < WRITERS_PER_ACCOUNT; writer++) {
+                    tasks.add(executor.submit((Callable<Void>) () -> {
+                        var random = ThreadLocalRandom.current();
+                        for (int i = 0; i < TRANSACTIONS_PER_WRITER; i++) {
+                            var transaction = transaction(accountId, AMOUNTS[random.nextInt(AMOUNTS.length)]);
+                            transactionRegion.put(transaction.getTransactionId(), transaction);
+                            created.add(transaction);
+                            createdCount.incrementAndGet();
+
+                            // as the continuous query would, deliver the event a little later, and sometimes again
+                            LockSupport.parkNanos(EVENT_DELAY_NANOS + random.nextLong(EVENT_DELAY_NANOS));
+                            accountProcessor.applyTransaction(transaction);
+                            if (random.nextInt(4) == 0) {
+                                accountProcessor.applyTransaction(transaction);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+
+                // one recalculation while the transactions are written, so none corrects the balance afterwards
+                tasks.add(executor.submit(() -> {
+                    LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(RECALCULATION_DELAY_NANOS));
+                    return accountProcessor.recalculateBalance(accountId);
+                }));
+            }
+
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        var expected = new HashMap<String, BigDecimal>();
+        created.forEach(transaction -> expected.merge(transaction.getAccountId(), transaction.getAmount(), BigDecimal::add));
+
+        for (String accountId : ACCOUNT_IDS) {
+            var account = accountRegion.get(accountId);
+            assertEquals(expected.get(accountId).setScale(2), account.getBalance(), "balance of " + accountId);
+            // a pending transaction is only dropped by the next write of the balance, once it is cleared
+            if (account.getPendingTransactionIds() != null) {
+                account.getPendingTransactionIds().forEach(transactionId ->
+                        assertTrue(transactionRegion.get(transactionId).isCleared(), "pending " + transactionId));
+            }
+        }
+
+        for (Transaction transaction : created) {
+            assertTrue(transactionRegion.get(transaction.getTransactionId()).isCleared(), transaction.getTransactionId());
+        }
+    }
+
+    private static Transaction transaction(String accountId, BigDecimal amount) {
+        var transaction = new Transaction();
+        transaction.setTransactionId(UUID.randomUUID().toString());
+        transaction.setAccountId(accountId);
+        transaction.setTimestamp(Instant.now());
+        transaction.setAmount(amount);
+        transaction.setCleared(false);
+        return transaction;
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.BalanceProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.geode.cache.Region;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class AccountBalanceUpdaterTest {
+
+    @Mock
+    private Region<String, Account> accountRegion;
+
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+
+    private BalanceProperties balanceProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccountBalanceUpdater updater;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        // The region mock behaves like a server: replace succeeds only if the entry still equals the expected value.
+        when(accountRegion.get(anyString())).thenAnswer(invocation -> accounts.get(invocation.<String>getArgument(0)));
+        when(accountRegion.replace(anyString(), any(Account.class), any(Account.class))).thenAnswer(invocation ->
+                accounts.replace(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+
+        balanceProperties = new BalanceProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        updater = new AccountBalanceUpdater(accountRegion, balanceProperties, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testConcurrentUpdatesOfHotAccountsAreNeverLost() throws Exception {
+        for (int a = 0; a < 4; a++) {
+            accounts.put("acc" + a, account("acc" + a, "0.00"));
+        }
+
+        var writers = Executors.newFixedThreadPool(16);
+        var futures = new ArrayList<Future<?>>();
+
+        try {
+            for (int w = 0; w < 16; w++) {
+                var accountId = "acc" + (w % 4);
+                futures.add(writers.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        updater.update(accountId, "apply transactions", current -> current.getBalance().add(BigDecimal.ONE));
+                    }
+                }));
+            }
+
+            for (var future : futures) {
+                future.get();
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        for (int a = 0; a < 4; a++) {
+            assertEquals(new BigDecimal("2000.00"), accounts.get("acc" + a).getBalance());
+        }
+        assertTrue(meterRegistry.counter("account.balance.update.conflicts").count() > 0);
+    }
+
+    @Test
+    public void testUpdateGivesUpWhenTheAccountKeepsChanging() {
+        balanceProperties.setMaxUpdateAttempts(3);
+        accounts.put("acc1", account("acc1", "0.00"));
+        when(accountRegion.replace(anyString(), any(Account.class), any(Account.class))).thenReturn(false);
+
+        var thrown = assertThrows(RuntimeException.class,
+                () -> updater.update("acc1", "apply transactions", current -> BigDecimal.TEN));
+
+        assertTrue(thrown.getMessage().contains("gave up after 3 attempts"));
+        verify(accountRegion, times(3)).replace(anyString(), any(Account.class), any(Account.class));
+        assertEquals(new BigDecimal("0.00"), accounts.get("acc1").getBalance());
+    }
+
+    @Test
+    public void testMissingAccount() {
+        var thrown = assertThrows(RuntimeException.class,
+                () -> updater.update("missing", "recalculate balance", current -> BigDecimal.TEN));
+
+        assertEquals("accountId not found when attempting to recalculate balance: missing", thrown.getMessage());
+    }
+
+    private static Account account(String accountId, String balance) {
+        var account = new Account();
+        account.setAccountId(accountId);
+        account.setBalance(new BigDecimal(balance));
+        return account;
+    }
+}
@@ -0,0 +1,398 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.BalanceProperties;
+import com.github.tndavidson.geodespringbootpoc.config.RegionLayoutProperties;
+import com.github.tndavidson.geodespringbootpoc.config.SerializationProperties;
+import com.github.tndavidson.geodespringbootpoc.config.TransactionBatchProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.model.TransactionBatchItem;
+import com.github.tndavidson.geodespringbootpoc.processor.function.AccountRegionFunctions;
+import com.github.tndavidson.geodespringbootpoc.processor.function.TransactionFunctions;
+import com.github.tndavidson.geodespringbootpoc.repository.AccountRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.TransactionRepository;
+import com.github.tndavidson.geodespringbootpoc.serialization.ModelPdxSerializer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.geode.cache.Region;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AccountProcessorImplTest {
+
+    private AccountProcessorImpl accountProcessor;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private Region<String, Transaction> transactionRegion;
+
+    @Mock
+    private Region<String, Account> accountRegion;
+
+    @Mock
+    private TransactionFunctions transactionFunctions;
+
+    @Mock
+    private AccountRegionFunctions accountRegionFunctions;
+
+    private RegionLayoutProperties regionLayoutProperties;
+
+    private TransactionBatchProperties transactionBatchProperties;
+
+    private SerializationProperties serializationProperties;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        regionLayoutProperties = new RegionLayoutProperties();
+        transactionBatchProperties = new TransactionBatchProperties();
+        serializationProperties = new SerializationProperties();
+        accountProcessor = new AccountProcessorImpl(customerRepository, accountRepository, transactionRepository,
+                transactionRegion, transactionFunctions, accountRegionFunctions, regionLayoutProperties,
+                transactionBatchProperties, serializationProperties,
+                new AccountBalanceUpdater(accountRegion, new BalanceProperties(), new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testApplyTransactionAddsDeltaBeforeClearing() {
+        var account = account("acc1", "100.00");
+        var transaction = transaction("tx1", "acc1", "25.50", false);
+        var written = new ArrayList<Account>();
+
+        when(transactionRegion.getAll(List.of("tx1"))).thenReturn(Map.of("tx1", transaction));
+        when(transactionRegion.replace(eq("tx1"), eq(transaction), any(Transaction.class))).thenReturn(true);
+        when(accountRegion.get("acc1")).thenAnswer(invocation -> written.isEmpty() ? account : written.get(written.size() - 1));
+        when(accountRegion.replace(eq("acc1"), any(Account.class), any(Account.class))).thenAnswer(invocation -> {
+            written.add(invocation.getArgument(2));
+            return true;
+        });
+
+        assertTrue(accountProcessor.applyTransaction(transaction));
+
+        assertEquals(1, written.size());
+        assertEquals(new BigDecimal("125.50"), written.get(0).getBalance());
+        assertEquals(Set.of("tx1"), written.get(0).getPendingTransactionIds());
+
+        var inOrder = inOrder(accountRegion, transactionRegion);
+        inOrder.verify(accountRegion).replace(eq("acc1"), eq(account), eq(written.get(0)));
+        inOrder.verify(transactionRegion).replace(eq("tx1"), eq(transaction), argThat(Transaction::isCleared));
+        verify(transactionRepository, never()).findByAccountId(any());
+    }
+
+    @Test
+    public void testApplyTransactionDropsPendingTransactionsClearedSinceTheLastWrite() {
+        var account = account("acc1", "125.50");
+        account.setPendingTransactionIds(new LinkedHashSet<>(List.of("tx1", "tx2")));
+        var transaction = transaction("tx3", "acc1", "1.00", false);
+
+        when(accountRegion.get("acc1")).thenReturn(account);
+        when(accountRegion.replace(eq("acc1"), eq(account), any(Account.class))).thenReturn(true);
+        when(transactionRegion.getAll(List.of("tx3", "tx1", "tx2"))).thenReturn(Map.of(
+                "tx1", transaction("tx1", "acc1", "25.50", true),
+                "tx2", transaction("tx2", "acc1", "5.00", false),
+                "tx3", transaction));
+
+        assertTrue(accountProcessor.applyTransaction(transaction));
+
+        var written = ArgumentCaptor.forClass(Account.class);
+        verify(accountRegion).replace(eq("acc1"), eq(account), written.capture());
+        assertEquals(new BigDecimal("126.50"), written.getValue().getBalance());
+        assertEquals(Set.of("tx2", "tx3"), written.getValue().getPendingTransactionIds());
+    }
+
+    @Test
+    public void testApplyTransactionPendingOnTheAccount() {
+        var account = account("acc1", "125.50");
+        account.setPendingTransactionIds(Set.of("tx1"));
+        var transaction = transaction("tx1", "acc1", "25.50", false);
+
+        when(accountRegion.get("acc1")).thenReturn(account);
+
+        assertFalse(accountProcessor.applyTransaction(transaction));
+
+        verify(accountRegion, never()).replace(any(), any(), any());
+        verifyNoInteractions(transactionRegion);
+    }
+
+    @Test
+    public void testApplyTransactionClearedSinceTheEvent() {
+        var account = account("acc1", "125.50");
+        var transaction = transaction("tx1", "acc1", "25.50", false);
+
+        when(accountRegion.get("acc1")).thenReturn(account);
+        when(transactionRegion.getAll(List.of("tx1")))
+                .thenReturn(Map.of("tx1", transaction("tx1", "acc1", "25.50", true)));
+
+        assertFalse(accountProcessor.applyTransaction(transaction));
+
+        verify(accountRegion, never()).replace(any(), any(), any());
+        verify(transactionRegion, never()).replace(any(), any(), any());
+    }
+
+    @Test
+    public void testApplyTransactionLeavesTheTransactionUnclearedWhenTheBalanceIsNotWritten() {
+        var transaction = transaction("tx1", "acc1", "25.50", false);
+
+        assertThrows(RuntimeException.class, () -> accountProcessor.applyTransaction(transaction));
+
+        verify(transactionRegion, never()).replace(any(), any(), any());
+    }
+
+    @Test
+    public void testApplyTransactionAlreadyCleared() {
+        var transaction = transaction("tx1", "acc1", "25.50", true);
+
+        assertFalse(accountProcessor.applyTransaction(transaction));
+
+        verifyNoInteractions(transactionRegion, accountRegion);
+    }
+
+    @Test
+    public void testRecalculateBalanceUsesServerSideSum() {
+        var account = account("acc1", "0.00");
+        account.setPendingTransactionIds(new LinkedHashSet<>(List.of("tx2")));
+        var uncleared = transaction("tx2", "acc1", "-2.25", false);
+
+        when(accountRegion.get("acc1")).thenReturn(account);
+        when(accountRegion.replace(eq("acc1"), eq(account), any(Account.class))).thenReturn(true);
+        when(transactionRepository.findUnclearedByAccountId("acc1")).thenReturn(List.of(uncleared));
+        when(transactionFunctions.calculateAccountBalance("acc1")).thenReturn(new BigDecimal("7.75"));
+
+        var result = accountProcessor.recalculateBalance("acc1");
+
+        assertEquals(new BigDecimal("7.75"), result.getBalance());
+        assertNull(result.getPendingTransactionIds());
+        verify(accountRegion).replace(eq("acc1"), eq(account), eq(result));
+        verify(transactionRegion).replace(eq("tx2"), eq(uncleared), argThat(Transaction::isCleared));
+        verify(transactionRepository, never()).findByAccountId(any());
+    }
+
+    @Test
+    public void testRecalculateBalanceClaimsOnceAndOnlySumsAgainOnConflict() {
+        var account = account("acc1", "0.00");
+        var applied = account("acc1", "1.00");
+        applied.setPendingTransactionIds(new LinkedHashSet<>(List.of("tx3")));
+        var pending = transaction("tx3", "acc1", "1.00", false);
+
+        when(accountRegion.get("acc1")).thenReturn(account, applied);
+        when(accountRegion.replace(eq("acc1"), eq(account), any(Account.class))).thenReturn(false);
+        when(accountRegion.replace(eq("acc1"), eq(applied), any(Account.class))).thenReturn(true);
+        when(transactionRepository.findUnclearedByAccountId("acc1")).thenReturn(List.of());
+        when(transactionRegion.getAll(Set.of("tx3"))).thenReturn(Map.of("tx3", pending));
+        when(transactionFunctions.calculateAccountBalance("acc1")).thenReturn(new BigDecimal("1.00"));
+
+        var result = accountProcessor.recalculateBalance("acc1");
+
+        assertEquals(new BigDecimal("1.00"), result.getBalance());
+        assertNull(result.getPendingTransactionIds());
+        verify(transactionRepository, times(1)).findUnclearedByAccountId("acc1");
+        verify(transactionFunctions, times(2)).calculateAccountBalance("acc1");
+        verify(transactionRegion).replace(eq("tx3"), eq(pending), argThat(Transaction::isCleared));
+    }
+
+    @Test
+    public void testRecalculateBalanceColocatedRoutesByAccount() {
+        regionLayoutProperties.setLayout(RegionLayoutProperties.Layout.COLOCATED);
+        var account = account("cust1:acc1", "0.00");
+
+        when(accountRegion.get("cust1:acc1")).thenReturn(account);
+        when(accountRegion.replace(eq("cust1:acc1"), eq(account), any(Account.class))).thenReturn(true);
+        when(accountRegionFunctions.calculateAccountBalance(Set.of("cust1:acc1"), "cust1:acc1"))
+                .thenReturn(new BigDecimal("3.00"));
+
+        assertEquals(new BigDecimal("3.00"), accountProcessor.recalculateBalance("cust1:acc1").getBalance());
+        verifyNoInteractions(transactionFunctions);
+    }
+
+    @Test
+    public void testCreateTransactionColocatedUsesRoutingKey() {
+        regionLayoutProperties.setLayout(RegionLayoutProperties.Layout.COLOCATED);
+        var account = account("cust1:acc1", "0.00");
+        account.setCustomerId("cust1");
+
+        when(accountRepository.findById("cust1:acc1")).thenReturn(Optional.of(account));
+
+        var transaction = new Transaction();
+        transaction.setAccountId("cust1:acc1");
+        transaction.setAmount(BigDecimal.ONE);
+
+        var created = accountProcessor.createTransaction(transaction);
+
+        assertTrue(created.getTransactionId().startsWith("cust1:"));
+        verify(transactionRepository).save(transaction);
+    }
+
+    @Test
+    public void testCreateTransactionRejectsAmountsThatDoNotFitMinorUnits() {
+        useMinorUnits();
+        var transaction = newTransaction("acc1", "1.005");
+
+        var e = assertThrows(ResponseStatusException.class, () -> accountProcessor.createTransaction(transaction));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        verifyNoInteractions(accountRepository, transactionRepository);
+    }
+
+    @Test
+    public void testCreateTransactionsRejectsAmountsThatDoNotFitMinorUnits() {
+        useMinorUnits();
+        when(accountRepository.findAllById(any())).thenReturn(List.of(account("acc1", "0.00")));
+
+        var valid = newTransaction("acc1", "1.5");
+        var result = accountProcessor.createTransactions(
+                List.of(valid, newTransaction("acc1", "1.005")).iterator(), false);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getRejected());
+        assertEquals(TransactionBatchItem.Status.REJECTED, result.getItems().get(1).getStatus());
+        assertTrue(result.getItems().get(1).getError().startsWith("amount must have at most 2 decimal places"));
+        verify(transactionRepository).saveAll(List.of(valid));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCreateTransactionsWritesBatchesAndRejectsInvalidItems() {
+        transactionBatchProperties.setBatchSize(2);
+
+        when(accountRepository.findAllById(any())).thenAnswer(invocation -> {
+            var ids = (Iterable<String>) invocation.getArgument(0);
+            var found = new ArrayList<Account>();
+            ids.forEach(id -> {
+                if (!id.equals("missing")) {
+                    found.add(account(id, "0.00"));
+                }
+            });
+            return found;
+        });
+        var acc1 = account("acc1", "0.00");
+        when(accountRegion.get("acc1")).thenReturn(acc1);
+        when(accountRegion.replace(eq("acc1"), eq(acc1), any(Account.class))).thenReturn(true);
+        when(transactionFunctions.calculateAccountBalance("acc1")).thenReturn(new BigDecimal("4.00"));
+
+        var transactions = List.of(
+                newTransaction("acc1", "1.00"),
+                newTransaction("missing", "1.00"),
+                newTransaction("acc1", "3.00"),
+                newTransaction(null, "1.00"),
+                newTransaction("acc1", null));
+
+        var result = accountProcessor.createTransactions(transactions.iterator(), null);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(3, result.getRejected());
+        assertEquals(1, result.getBalancesRecalculated());
+        assertEquals(List.of(TransactionBatchItem.Status.CREATED, TransactionBatchItem.Status.REJECTED,
+                        TransactionBatchItem.Status.CREATED, TransactionBatchItem.Status.REJECTED,
+                        TransactionBatchItem.Status.REJECTED),
+                result.getItems().stream().map(TransactionBatchItem::getStatus).toList());
+        assertEquals("Account not found", result.getItems().get(1).getError());
+        assertEquals(4, result.getItems().get(4).getIndex());
+
+        // accounts loaded by the first batch are not looked up again, and a batch with no valid items is not written
+        verify(accountRepository, times(1)).findAllById(any());
+        verify(transactionRepository, times(2)).saveAll(any());
+        assertTrue(transactions.get(0).isCleared());
+        assertTrue(transactions.get(0).getTimestamp() != null);
+        verify(accountRegion).replace(eq("acc1"), eq(acc1), argThat(account -> new BigDecimal("4.00").equals(account.getBalance())));
+    }
+
+    @Test
+    public void testCreateTransactionsReportsAccountsWhoseRecalculationFailed() {
+        when(accountRepository.findAllById(any())).thenReturn(List.of(account("acc1", "0.00"), account("acc2", "0.00")));
+        var acc1 = account("acc1", "0.00");
+        when(accountRegion.get("acc1")).thenReturn(acc1);
+        when(accountRegion.replace(eq("acc1"), eq(acc1), any(Account.class))).thenReturn(true);
+        when(accountRegion.get("acc2")).thenReturn(account("acc2", "0.00"));
+        when(transactionFunctions.calculateAccountBalance("acc1")).thenReturn(new BigDecimal("1.00"));
+        when(transactionFunctions.calculateAccountBalance("acc2")).thenThrow(new IllegalStateException("member departed"));
+
+        var result = accountProcessor.createTransactions(
+                List.of(newTransaction("acc1", "1.00"), newTransaction("acc2", "2.00")).iterator(), true);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getBalancesRecalculated());
+        assertEquals(List.of("acc2"), result.getFailedAccountIds());
+    }
+
+    @Test
+    public void testCreateTransactionsWithoutDeferralLeavesBalancesToTheContinuousQuery() {
+        when(accountRepository.findAllById(any())).thenReturn(List.of(account("acc1", "0.00")));
+
+        var transaction = newTransaction("acc1", "1.00");
+        var result = accountProcessor.createTransactions(List.of(transaction).iterator(), false);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(0, result.getBalancesRecalculated());
+        assertTrue(result.getFailedAccountIds().isEmpty());
+        assertFalse(transaction.isCleared());
+        verify(transactionRepository).saveAll(List.of(transaction));
+        verifyNoInteractions(transactionFunctions, accountRegion);
+    }
+
+    private void useMinorUnits() {
+        serializationProperties.setMode(SerializationProperties.Mode.CODEC);
+        serializationProperties.setAmountEncoding(ModelPdxSerializer.AmountEncoding.MINOR_UNITS);
+    }
+
+    private static Transaction newTransaction(String accountId, String amount) {
+        var transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setAmount(amount == null ? null : new BigDecimal(amount));
+        return transaction;
+    }
+
+    private static Account account(String accountId, String balance) {
+        var account = new Account();
+        account.setAccountId(accountId);
+        account.setBalance(new BigDecimal(balance));
+        return account;
+    }
+
+    private static Transaction transaction(String transactionId, String accountId, String amount, boolean cleared) {
+        var transaction = new Transaction();
+        transaction.setTransactionId(transactionId);
+        transaction.setAccountId(accountId);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setCleared(cleared);
+        return transaction;
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.aggregate.AccountAggregation;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.AccountAggregates;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.repository.AccountAggregatesRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.AccountRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class AggregatesProcessorImplTest {
+
+    private AggregatesProcessorImpl aggregatesProcessor;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountAggregatesRepository accountAggregatesRepository;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        aggregatesProcessor = new AggregatesProcessorImpl(customerRepository, accountRepository,
+                accountAggregatesRepository);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testGetAccountAggregatesIsASingleRead() {
+        var aggregates = aggregates("acc1", "10.00", Instant.ofEpochSecond(10));
+        when(accountAggregatesRepository.findById("acc1")).thenReturn(Optional.of(aggregates));
+
+        assertSame(aggregates, aggregatesProcessor.getAccountAggregates("acc1"));
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    public void testGetAccountAggregatesOfAnAccountWithoutTransactions() {
+        when(accountAggregatesRepository.findById("acc1")).thenReturn(Optional.empty());
+        when(accountRepository.findById("acc1")).thenReturn(Optional.of(account("acc1")));
+
+        assertEquals(AccountAggregation.empty("acc1"), aggregatesProcessor.getAccountAggregates("acc1"));
+    }
+
+    @Test
+    public void testGetAccountAggregatesOfAMissingAccount() {
+        when(accountAggregatesRepository.findById("acc1")).thenReturn(Optional.empty());
+        when(accountRepository.findById("acc1")).thenReturn(Optional.empty());
+
+        var e = assertThrows(ResponseStatusException.class, () -> aggregatesProcessor.getAccountAggregates("acc1"));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+
+    @Test
+    public void testGetCustomerAggregatesCombinesTheAccounts() {
+        var customer = new Customer();
+        customer.setId("cust1");
+        when(customerRepository.findById("cust1")).thenReturn(Optional.of(customer));
+        when(accountRepository.findByCustomerId("cust1")).thenReturn(List.of(account("acc1"), account("acc2"),
+                account("acc3")));
+        var first = aggregates("acc1", "10.00", Instant.ofEpochSecond(10));
+        var second = aggregates("acc2", "-4.00", Instant.ofEpochSecond(20));
+        when(accountAggregatesRepository.findAllById(List.of("acc1", "acc2", "acc3"))).thenReturn(List.of(second, first));
+
+        var customerAggregates = aggregatesProcessor.getCustomerAggregates("cust1");
+
+        assertEquals("cust1", customerAggregates.getCustomerId());
+        assertEquals(List.of(first, second, AccountAggregation.empty("acc3")), customerAggregates.getAccounts());
+        var total = customerAggregates.getTotal();
+        assertNull(total.getAccountId());
+        assertEquals(2, total.getTransactionCount());
+        assertEquals(1, total.getDepositCount());
+        assertEquals(new BigDecimal("6.00"), total.getNetTotal());
+        assertEquals(new BigDecimal("10.00"), total.getDepositTotal());
+        assertEquals(new BigDecimal("4.00"), total.getWithdrawalTotal());
+        assertEquals(Instant.ofEpochSecond(10), total.getFirstActivity());
+        assertEquals(Instant.ofEpochSecond(20), total.getLastActivity());
+    }
+
+    @Test
+    public void testGetCustomerAggregatesOfAMissingCustomer() {
+        when(customerRepository.findById("cust1")).thenReturn(Optional.empty());
+
+        var e = assertThrows(ResponseStatusException.class, () -> aggregatesProcessor.getCustomerAggregates("cust1"));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+        verifyNoInteractions(accountRepository, accountAggregatesRepository);
+    }
+
+    private static Account account(String accountId) {
+        var account = new Account();
+        account.setAccountId(accountId);
+        account.setCustomerId("cust1");
+        return account;
+    }
+
+    private static AccountAggregates aggregates(String accountId, String amount, Instant timestamp) {
+        return AccountAggregation.plus(AccountAggregation.empty(accountId),
+                AccountAggregation.change(new BigDecimal(amount), timestamp, 1));
+    }
+}
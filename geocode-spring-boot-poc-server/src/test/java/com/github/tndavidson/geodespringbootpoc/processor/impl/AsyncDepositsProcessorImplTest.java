@@ -0,0 +1,106 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.AsyncProperties;
+import com.github.tndavidson.geodespringbootpoc.config.DepositHistoryProperties;
+import com.github.tndavidson.geodespringbootpoc.config.RegionLayoutProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.processor.DepositsProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.function.CustomerRegionFunctions;
+import com.github.tndavidson.geodespringbootpoc.processor.function.TransactionFunctions;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AsyncDepositsProcessorImplTest {
+
+    @Mock
+    private DepositsProcessor depositsProcessor;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private TransactionFunctions transactionFunctions;
+
+    @Mock
+    private CustomerRegionFunctions customerRegionFunctions;
+
+    private AsyncGeodeExecutor executor;
+
+    private AsyncDepositsProcessorImpl asyncDepositsProcessor;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        executor = new AsyncGeodeExecutor(new AsyncProperties());
+        asyncDepositsProcessor = new AsyncDepositsProcessorImpl(depositsProcessor, customerRepository,
+                transactionFunctions, customerRegionFunctions, new RegionLayoutProperties(),
+                new DepositHistoryProperties(), executor);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        executor.stop();
+        closeable.close();
+    }
+
+    @Test
+    public void testTheCustomerLookupAndThePageReadRunConcurrently() throws Exception {
+        var pageStarted = new CountDownLatch(1);
+        var page = new DepositHistoryPage();
+        when(transactionFunctions.getDepositHistoryPage(any())).thenAnswer(invocation -> {
+            pageStarted.countDown();
+            return page;
+        });
+        when(customerRepository.findById("cust1")).thenAnswer(invocation -> {
+            // Completes only if the page is read while the customer is being looked up.
+            assertTrue(pageStarted.await(5, TimeUnit.SECONDS));
+            return Optional.of(new Customer());
+        });
+
+        assertSame(page, asyncDepositsProcessor.getDepositHistoryPage("cust1", null, null, 10, null).get());
+    }
+
+    @Test
+    public void testAMissingCustomerFailsThePage() {
+        when(customerRepository.findById("missing")).thenReturn(Optional.empty());
+        when(transactionFunctions.getDepositHistoryPage(any())).thenReturn(new DepositHistoryPage());
+
+        var thrown = assertThrows(ExecutionException.class,
+                () -> asyncDepositsProcessor.getDepositHistoryPage("missing", null, null, 10, null).get());
+
+        var exception = assertInstanceOf(ResponseStatusException.class, thrown.getCause());
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
+    @Test
+    public void testAnInvalidPageSizeFailsWithoutReadingThePage() {
+        var thrown = assertThrows(ExecutionException.class,
+                () -> asyncDepositsProcessor.getDepositHistoryPage("cust1", null, null, 0, null).get());
+
+        var exception = assertInstanceOf(ResponseStatusException.class, thrown.getCause());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(customerRepository, transactionFunctions);
+    }
+}
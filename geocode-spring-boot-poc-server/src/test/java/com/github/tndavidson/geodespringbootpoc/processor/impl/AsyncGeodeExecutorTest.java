@@ -0,0 +1,65 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.AsyncProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncGeodeExecutorTest {
+
+    private AsyncGeodeExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        var properties = new AsyncProperties();
+        properties.setThreads(1);
+        properties.setQueueCapacity(1);
+        executor = new AsyncGeodeExecutor(properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.stop();
+    }
+
+    @Test
+    public void testCallsRunOnTheExecutorThreads() throws Exception {
+        var thread = executor.supply(() -> Thread.currentThread().getName()).get();
+
+        assertTrue(thread.startsWith("geode-async-"));
+    }
+
+    @Test
+    public void testCallsBeyondTheQueueCapacityAreRejected() throws Exception {
+        var release = new CountDownLatch(1);
+        var running = executor.supply(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "running";
+        });
+        var queued = executor.supply(() -> "queued");
+
+        var rejected = executor.supply(() -> "rejected");
+
+        var thrown = assertThrows(ExecutionException.class, rejected::get);
+        var exception = assertInstanceOf(ResponseStatusException.class, thrown.getCause());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+
+        release.countDown();
+        assertEquals("running", running.get());
+        assertEquals("queued", queued.get());
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.TransactionPipelineProperties;
+import com.github.tndavidson.geodespringbootpoc.config.VirtualThreadProperties;
+import org.apache.geode.cache.client.ClientCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClientPoolSizeCheckTest {
+
+    @Mock
+    private ClientCache clientCache;
+
+    private VirtualThreadProperties virtualThreadProperties;
+
+    private ClientPoolSizeCheck check;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        virtualThreadProperties = new VirtualThreadProperties();
+        check = new ClientPoolSizeCheck(clientCache, virtualThreadProperties, new TransactionPipelineProperties(),
+                new MockEnvironment());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testCallersAreTheRequestOrGeodeCallThreadsAndThePipelineWorkers() {
+        assertEquals(204, check.callers(false, 200));
+        assertEquals(68, check.callers(true, 200));
+
+        virtualThreadProperties.setOffloadGeodeCalls(false);
+        assertEquals(-1, check.callers(true, 200));
+    }
+
+    @Test
+    public void testAPoolSmallerThanItsCallersIsReported() {
+        assertTrue(check.check(true, 68, -1, 21).isEmpty());
+        assertTrue(check.check(true, 68, 68, 21).isEmpty());
+
+        var warnings = check.check(false, 204, 100, 21);
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0).contains("100 connections for 204 threads"));
+    }
+
+    @Test
+    public void testPinnedVirtualThreadsAreReportedBeforeJava24() {
+        virtualThreadProperties.setOffloadGeodeCalls(false);
+
+        var warnings = check.check(true, -1, 100, 21);
+        assertEquals(2, warnings.size());
+        assertTrue(warnings.get(0).contains("pin their carrier thread"));
+        assertTrue(warnings.get(1).contains("an unbounded number of threads"));
+
+        assertTrue(check.check(true, -1, -1, 24).isEmpty());
+    }
+}
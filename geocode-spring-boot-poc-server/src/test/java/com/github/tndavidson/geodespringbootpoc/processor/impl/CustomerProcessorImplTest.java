@@ -0,0 +1,121 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.CustomerSearchProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerCursor;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class CustomerProcessorImplTest {
+
+    private CustomerProcessorImpl customerProcessor;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    private CustomerSearchProperties customerSearchProperties;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        customerSearchProperties = new CustomerSearchProperties();
+        customerProcessor = new CustomerProcessorImpl(customerRepository, customerSearchProperties);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testPageEndsBeforeTheLastNameTheRangeMayHaveCut() {
+        when(customerRepository.findByLastNameRange("Davi", "Davj", 4)).thenReturn(List.of(customer("c5", "Davidson"),
+                customer("c1", "Davidson"), customer("c3", "Davis"), customer("c9", "Davis")));
+
+        var page = customerProcessor.findCustomers("Davi%", 3, null);
+
+        assertEquals(List.of("c1", "c5"), page.getCustomers().stream().map(Customer::getId).toList());
+        assertEquals(CustomerCursor.after("Davidson"), CustomerCursor.decode(page.getNextCursor()));
+        verify(customerRepository, never()).findByLastNameAfterId(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testALastNameFillingAPageIsReadByIdAfterTheCursor() {
+        var cursor = CustomerCursor.after("Davidson").encode();
+        when(customerRepository.findByLastNameRange("Davidson\u0000", "Davj", 3))
+                .thenReturn(List.of(customer("c9", "Davis"), customer("c3", "Davis"), customer("c2", "Davis")));
+        when(customerRepository.findByLastNameAfterId("Davis", "", 3))
+                .thenReturn(List.of(customer("c2", "Davis"), customer("c3", "Davis"), customer("c9", "Davis")));
+
+        var page = customerProcessor.findCustomers("Davi", 2, cursor);
+
+        assertEquals(List.of("c2", "c3"), page.getCustomers().stream().map(Customer::getId).toList());
+        assertEquals(new CustomerCursor("Davis", "c3"), CustomerCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    public void testNextPageContinuesAmongCustomersSharingTheCursorsLastName() {
+        var cursor = new CustomerCursor("Davis", "c2").encode();
+        when(customerRepository.findByLastNameAfterId("Davis", "c2", 3)).thenReturn(List.of(customer("c3", "Davis")));
+        when(customerRepository.findByLastNameRange("Davis\u0000", "Davj", 2))
+                .thenReturn(List.of(customer("c0", "Davison")));
+
+        var page = customerProcessor.findCustomers("Davi", 2, cursor);
+
+        assertEquals(List.of("c3", "c0"), page.getCustomers().stream().map(Customer::getId).toList());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testAllCustomersAreSearchedWithoutAPrefix() {
+        when(customerRepository.findByLastNameRange("", CustomerProcessorImpl.MAX_LAST_NAME, 101)).thenReturn(List.of());
+
+        assertEquals(List.of(), customerProcessor.findCustomers(null, null, null).getCustomers());
+        verify(customerRepository).findByLastNameRange("", CustomerProcessorImpl.MAX_LAST_NAME, 101);
+    }
+
+    @Test
+    public void testUpperBound() {
+        assertEquals("Smj", CustomerProcessorImpl.upperBound("Smi"));
+        assertEquals("Sn", CustomerProcessorImpl.upperBound("Sm\uffff"));
+        assertEquals(CustomerProcessorImpl.MAX_LAST_NAME, CustomerProcessorImpl.upperBound(""));
+    }
+
+    @Test
+    public void testInvalidRequestsAreRejected() {
+        for (var request : List.<Runnable>of(
+                () -> customerProcessor.findCustomers("Davi", 0, null),
+                () -> customerProcessor.findCustomers("Davi", customerSearchProperties.getMaxPageSize() + 1, null),
+                () -> customerProcessor.findCustomers("D%s", null, null),
+                () -> customerProcessor.findCustomers("Davi", null, "not a cursor"))) {
+            var e = assertThrows(ResponseStatusException.class, request::run);
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        }
+
+        verifyNoInteractions(customerRepository);
+    }
+
+    private static Customer customer(String id, String lastName) {
+        var customer = new Customer();
+        customer.setId(id);
+        customer.setLastName(lastName);
+        return customer;
+    }
+}
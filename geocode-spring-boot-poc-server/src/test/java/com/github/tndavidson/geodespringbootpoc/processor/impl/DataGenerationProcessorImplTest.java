@@ -0,0 +1,126 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.DataGenerationProperties;
+import com.github.tndavidson.geodespringbootpoc.config.RegionLayoutProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.repository.AccountRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class DataGenerationProcessorImplTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private DataGenerationProperties dataGenerationProperties;
+
+    private DataGenerationProcessorImpl dataGenerationProcessor;
+
+    private final List<Account> savedAccounts = new CopyOnWriteArrayList<>();
+
+    private final List<Transaction> savedTransactions = new CopyOnWriteArrayList<>();
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        dataGenerationProperties = new DataGenerationProperties();
+        dataGenerationProperties.setThreads(3);
+        dataGenerationProperties.setBatchSize(7);
+        dataGenerationProcessor = new DataGenerationProcessorImpl(customerRepository, accountRepository,
+                transactionRepository, new RegionLayoutProperties(), dataGenerationProperties);
+
+        when(accountRepository.saveAll(any())).thenAnswer(invocation -> {
+            ((Iterable<Account>) invocation.getArgument(0)).forEach(savedAccounts::add);
+            return invocation.getArgument(0);
+        });
+        when(transactionRepository.saveAll(any())).thenAnswer(invocation -> {
+            ((Iterable<Transaction>) invocation.getArgument(0)).forEach(savedTransactions::add);
+            return invocation.getArgument(0);
+        });
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testGenerateWritesEveryEntityInBatches() {
+        dataGenerationProperties.setHotAccountRatio(0);
+
+        var report = dataGenerationProcessor.generate(10, 2, 5);
+
+        assertEquals(10, report.getCustomers());
+        assertEquals(20, report.getAccounts());
+        assertEquals(100, report.getTransactions());
+        assertEquals(3, report.getThreads());
+        assertTrue(report.getRecordsPerSecond() > 0);
+
+        assertEquals(20, savedAccounts.size());
+        assertEquals(100, savedTransactions.size());
+        // each of the 3 threads writes its 33 or 34 transactions in batches of at most 7
+        verify(transactionRepository, atLeast(15)).saveAll(any());
+        verify(customerRepository, atLeast(3)).saveAll(any());
+    }
+
+    @Test
+    public void testGenerateBalancesMatchClearedTransactions() {
+        dataGenerationProperties.setHistory(Duration.ofDays(1));
+        var start = Instant.now();
+
+        dataGenerationProcessor.generate(4, 3, 10);
+
+        var sums = savedTransactions.stream().collect(Collectors.groupingBy(Transaction::getAccountId,
+                Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)));
+
+        savedAccounts.forEach(account -> assertEquals(0,
+                sums.getOrDefault(account.getAccountId(), BigDecimal.ZERO).compareTo(account.getBalance())));
+        assertTrue(savedTransactions.stream().allMatch(Transaction::isCleared));
+        assertTrue(savedTransactions.stream().allMatch(transaction ->
+                !transaction.getTimestamp().isBefore(start.minus(Duration.ofDays(1)))
+                        && !transaction.getTimestamp().isAfter(Instant.now())));
+    }
+
+    @Test
+    public void testGenerateGivesHotAccountsMoreTransactions() {
+        dataGenerationProperties.setHotAccountRatio(1);
+        dataGenerationProperties.setHotAccountMultiplier(4);
+
+        var report = dataGenerationProcessor.generate(2, 1, 5);
+
+        assertEquals(40, report.getTransactions());
+        var perAccount = savedTransactions.stream()
+                .collect(Collectors.groupingBy(Transaction::getAccountId, Collectors.counting()));
+        assertEquals(List.of(20L, 20L), perAccount.values().stream().toList());
+        assertEquals(Collections.emptyList(), savedTransactions.stream()
+                .filter(transaction -> transaction.getAmount().signum() == 0).toList());
+    }
+}
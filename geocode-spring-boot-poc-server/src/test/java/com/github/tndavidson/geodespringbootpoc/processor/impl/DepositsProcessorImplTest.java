@@ -0,0 +1,170 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.DepositHistoryProperties;
+import com.github.tndavidson.geodespringbootpoc.config.RegionLayoutProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPageRequest;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.model.TransactionCursor;
+import com.github.tndavidson.geodespringbootpoc.processor.function.CustomerRegionFunctions;
+import com.github.tndavidson.geodespringbootpoc.processor.function.TransactionFunctions;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.client.ClientCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class DepositsProcessorImplTest {
+
+    private DepositsProcessorImpl depositsProcessor;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private TransactionFunctions transactionFunctions;
+
+    @Mock
+    private CustomerRegionFunctions customerRegionFunctions;
+
+    @Mock
+    private ClientCache clientCache;
+
+    @Mock
+    private Region<String, Customer> customerRegion;
+
+    private RegionLayoutProperties regionLayoutProperties;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        regionLayoutProperties = new RegionLayoutProperties();
+        depositsProcessor = new DepositsProcessorImpl(customerRepository, transactionFunctions, customerRegionFunctions,
+                regionLayoutProperties, clientCache, customerRegion, new DepositHistoryProperties());
+
+        var customer = new Customer();
+        customer.setId("cust1");
+        when(customerRepository.findById("cust1")).thenReturn(Optional.of(customer));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testGetDepositHistoryPageDecodesCursor() {
+        var page = new DepositHistoryPage();
+        when(transactionFunctions.getDepositHistoryPage(any())).thenReturn(page);
+
+        var cursor = new TransactionCursor(Instant.ofEpochSecond(20), "tx2").encode();
+        var from = Instant.ofEpochSecond(1);
+
+        assertSame(page, depositsProcessor.getDepositHistoryPage("cust1", from, null, 10, cursor));
+
+        var request = ArgumentCaptor.forClass(DepositHistoryPageRequest.class);
+        verify(transactionFunctions).getDepositHistoryPage(request.capture());
+        assertEquals("cust1", request.getValue().getCustomerId());
+        assertEquals(from, request.getValue().getFrom());
+        assertNull(request.getValue().getTo());
+        assertEquals(10, request.getValue().getPageSize());
+        assertEquals(Instant.ofEpochSecond(20), request.getValue().getAfterTimestamp());
+        assertEquals("tx2", request.getValue().getAfterTransactionId());
+    }
+
+    @Test
+    public void testGetDepositHistoryPageUsesDefaultPageSize() {
+        when(transactionFunctions.getDepositHistoryPage(any())).thenReturn(new DepositHistoryPage());
+
+        depositsProcessor.getDepositHistoryPage("cust1", null, null, null, null);
+
+        var request = ArgumentCaptor.forClass(DepositHistoryPageRequest.class);
+        verify(transactionFunctions).getDepositHistoryPage(request.capture());
+        assertEquals(50, request.getValue().getPageSize());
+        assertNull(request.getValue().getAfterTimestamp());
+    }
+
+    @Test
+    public void testGetDepositHistoryPageRejectsInvalidRequests() {
+        var tooLarge = assertThrows(ResponseStatusException.class,
+                () -> depositsProcessor.getDepositHistoryPage("cust1", null, null, 1_001, null));
+        assertEquals(HttpStatus.BAD_REQUEST, tooLarge.getStatusCode());
+
+        var badCursor = assertThrows(ResponseStatusException.class,
+                () -> depositsProcessor.getDepositHistoryPage("cust1", null, null, 10, "not a cursor!"));
+        assertEquals(HttpStatus.BAD_REQUEST, badCursor.getStatusCode());
+
+        var unknownCustomer = assertThrows(ResponseStatusException.class,
+                () -> depositsProcessor.getDepositHistoryPage("cust2", null, null, 10, null));
+        assertEquals(HttpStatus.NOT_FOUND, unknownCustomer.getStatusCode());
+
+        verifyNoInteractions(transactionFunctions);
+    }
+
+    @Test
+    public void testGetDepositHistoryPageColocatedRoutesByCustomer() {
+        regionLayoutProperties.setLayout(RegionLayoutProperties.Layout.COLOCATED);
+        var page = new DepositHistoryPage();
+        when(customerRegionFunctions.getDepositHistoryPage(any(), any())).thenReturn(List.of(page));
+
+        assertSame(page, depositsProcessor.getDepositHistoryPage("cust1", null, null, 10, null));
+
+        verify(customerRegionFunctions).getDepositHistoryPage(eq(Set.of("cust1")), any());
+        verifyNoInteractions(transactionFunctions);
+    }
+
+    @Test
+    public void testMergeKeepsNewestTransactionsAcrossMembers() {
+        var first = page(null, transaction("t5", 50), transaction("t2", 20));
+        var second = page(null, transaction("t4", 40), transaction("t3", 30));
+
+        var merged = DepositsProcessorImpl.merge(List.of(first, second), 3);
+
+        assertEquals(List.of("t5", "t4", "t3"), merged.getTransactions().stream().map(Transaction::getTransactionId).toList());
+        assertEquals(new TransactionCursor(Instant.ofEpochSecond(30), "t3"), TransactionCursor.decode(merged.getNextCursor()));
+    }
+
+    @Test
+    public void testMergeWithoutMoreResultsHasNoCursor() {
+        var merged = DepositsProcessorImpl.merge(List.of(page(null, transaction("t1", 10)), page(null)), 3);
+
+        assertEquals(1, merged.getTransactions().size());
+        assertNull(merged.getNextCursor());
+    }
+
+    private static DepositHistoryPage page(String nextCursor, Transaction... transactions) {
+        var page = new DepositHistoryPage();
+        page.setTransactions(List.of(transactions));
+        page.setNextCursor(nextCursor);
+        return page;
+    }
+
+    private static Transaction transaction(String id, long epochSecond) {
+        var transaction = new Transaction();
+        transaction.setTransactionId(id);
+        transaction.setTimestamp(Instant.ofEpochSecond(epochSecond));
+        return transaction;
+    }
+}
@@ -0,0 +1,123 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.VirtualThreadProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.processor.AccountProcessor;
+import com.github.tndavidson.geodespringbootpoc.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class GeodeCallOffloadPostProcessorTest {
+
+    @Mock
+    private ObjectProvider<VirtualThreadProperties> propertiesProvider;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountProcessor accountProcessor;
+
+    private VirtualThreadProperties properties;
+
+    private GeodeCallOffloadPostProcessor postProcessor;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        properties = new VirtualThreadProperties();
+        properties.setGeodeCallThreads(2);
+        when(propertiesProvider.getIfAvailable(any(Supplier.class))).thenAnswer(invocation -> properties);
+        postProcessor = new GeodeCallOffloadPostProcessor(propertiesProvider);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        postProcessor.destroy();
+        closeable.close();
+    }
+
+    @Test
+    public void testVirtualThreadCallsRunOnThePlatformThreads() throws Exception {
+        var caller = new AtomicReference<Thread>();
+        var transactions = List.of(new Transaction());
+        when(transactionRepository.findByAccountId("acc1")).thenAnswer(invocation -> {
+            caller.set(Thread.currentThread());
+            return transactions;
+        });
+        var offloaded = (TransactionRepository) postProcessor.postProcessAfterInitialization(transactionRepository,
+                "transactionRepository");
+
+        var result = new AtomicReference<List<Transaction>>();
+        Thread.ofVirtual().start(() -> result.set(offloaded.findByAccountId("acc1"))).join();
+
+        assertSame(transactions, result.get());
+        assertFalse(caller.get().isVirtual());
+        assertTrue(caller.get().getName().startsWith("geode-call-"));
+    }
+
+    @Test
+    public void testPlatformThreadCallsRunDirectly() {
+        var caller = new AtomicReference<Thread>();
+        when(transactionRepository.findByAccountId("acc1")).thenAnswer(invocation -> {
+            caller.set(Thread.currentThread());
+            return List.of();
+        });
+        var offloaded = (TransactionRepository) postProcessor.postProcessAfterInitialization(transactionRepository,
+                "transactionRepository");
+
+        offloaded.findByAccountId("acc1");
+
+        assertSame(Thread.currentThread(), caller.get());
+    }
+
+    @Test
+    public void testExceptionsAreRethrownToTheVirtualThread() throws Exception {
+        when(transactionRepository.findByAccountId("missing"))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
+        var offloaded = (TransactionRepository) postProcessor.postProcessAfterInitialization(transactionRepository,
+                "transactionRepository");
+
+        var thrown = new AtomicReference<Throwable>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                offloaded.findByAccountId("missing");
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+        }).join();
+
+        var exception = assertInstanceOf(ResponseStatusException.class, thrown.get());
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
+    @Test
+    public void testProcessorsAndDisabledOffloadAreNotProxied() {
+        assertSame(accountProcessor, postProcessor.postProcessAfterInitialization(accountProcessor, "accountProcessor"));
+
+        properties.setOffloadGeodeCalls(false);
+        assertSame(transactionRepository, postProcessor.postProcessAfterInitialization(transactionRepository,
+                "transactionRepository"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.MetricsProperties;
+import com.github.tndavidson.geodespringbootpoc.function.DepositHistoryPageServerSideFunction;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPage;
+import com.github.tndavidson.geodespringbootpoc.model.DepositHistoryPageRequest;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.processor.AccountProcessor;
+import com.github.tndavidson.geodespringbootpoc.processor.function.TransactionFunctions;
+import com.github.tndavidson.geodespringbootpoc.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class MethodMetricsPostProcessorTest {
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Mock
+    private ObjectProvider<MetricsProperties> metricsPropertiesProvider;
+
+    @Mock
+    private AccountProcessor accountProcessor;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionFunctions transactionFunctions;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MetricsProperties metricsProperties;
+
+    private MethodMetricsPostProcessor postProcessor;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        metricsProperties = new MetricsProperties();
+        when(meterRegistryProvider.getObject()).thenReturn(meterRegistry);
+        when(metricsPropertiesProvider.getIfAvailable(any(Supplier.class))).thenAnswer(invocation -> metricsProperties);
+        postProcessor = new MethodMetricsPostProcessor(meterRegistryProvider, metricsPropertiesProvider);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testProcessorCallsAreTimedWithTheirOutcome() {
+        var account = new Account();
+        when(accountProcessor.findAccountById("acc1")).thenReturn(account);
+        when(accountProcessor.findAccountById("missing")).thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND));
+        var timed = (AccountProcessor) postProcessor.postProcessAfterInitialization(accountProcessor, "accountProcessor");
+
+        assertSame(account, timed.findAccountById("acc1"));
+        assertThrows(ResponseStatusException.class, () -> timed.findAccountById("missing"));
+
+        for (var exception : List.of("none", "ResponseStatusException")) {
+            assertEquals(1, meterRegistry.get(MethodMetricsPostProcessor.METHOD_TIMER)
+                    .tags("component", "processor", "interface", "AccountProcessor", "method", "findAccountById",
+                            "region", "none", "exception", exception)
+                    .timer().count());
+        }
+    }
+
+    @Test
+    public void testRepositoryCallsRecordTheirRegionAndResultSize() {
+        when(transactionRepository.findByAccountId("acc1")).thenReturn(List.of(new Transaction(), new Transaction()));
+        var timed = (TransactionRepository) postProcessor.postProcessAfterInitialization(transactionRepository,
+                "transactionRepository");
+
+        assertEquals(2, timed.findByAccountId("acc1").size());
+
+        assertEquals(1, meterRegistry.get(MethodMetricsPostProcessor.METHOD_TIMER)
+                .tags("component", "repository", "interface", "TransactionRepository", "region", "transaction")
+                .timer().count());
+        assertEquals(2.0, meterRegistry.get(MethodMetricsPostProcessor.RESULT_SIZE)
+                .tags("method", "findByAccountId", "region", "transaction").summary().totalAmount());
+    }
+
+    @Test
+    public void testFunctionCallsAreTimedByFunctionId() {
+        var page = new DepositHistoryPage();
+        page.setTransactions(List.of(new Transaction(), new Transaction(), new Transaction()));
+        when(transactionFunctions.getDepositHistoryPage(any())).thenReturn(page);
+        var timed = (TransactionFunctions) postProcessor.postProcessAfterInitialization(transactionFunctions,
+                "transactionFunctions");
+
+        assertSame(page, timed.getDepositHistoryPage(new DepositHistoryPageRequest()));
+
+        assertEquals(1, meterRegistry.get(MethodMetricsPostProcessor.FUNCTION_TIMER)
+                .tags("function", DepositHistoryPageServerSideFunction.ID, "region", "none", "exception", "none")
+                .timer().count());
+        assertEquals(3.0, meterRegistry.get(MethodMetricsPostProcessor.RESULT_SIZE)
+                .tags("component", "function", "method", "getDepositHistoryPage").summary().totalAmount());
+    }
+
+    @Test
+    public void testOtherBeansAndDisabledMetricsAreNotProxied() {
+        var other = new Object();
+        assertSame(other, postProcessor.postProcessAfterInitialization(other, "other"));
+
+        metricsProperties.setEnabled(false);
+        assertSame(accountProcessor, postProcessor.postProcessAfterInitialization(accountProcessor, "accountProcessor"));
+        verifyNoInteractions(meterRegistryProvider);
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.MultiGetProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Account;
+import com.github.tndavidson.geodespringbootpoc.repository.AccountRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import com.github.tndavidson.geodespringbootpoc.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class MultiGetProcessorImplTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private MultiGetProperties multiGetProperties;
+
+    private MultiGetProcessorImpl multiGetProcessor;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        multiGetProperties = new MultiGetProperties();
+        multiGetProcessor = new MultiGetProcessorImpl(customerRepository, accountRepository, transactionRepository,
+                multiGetProperties);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAccountsAreReadInBatchesAndReturnedInRequestOrder() {
+        multiGetProperties.setBatchSize(2);
+        var batches = new ArrayList<List<String>>();
+        when(accountRepository.findAllById(any())).thenAnswer(invocation -> {
+            var ids = new ArrayList<>((List<String>) invocation.getArgument(0));
+            batches.add(ids);
+            return ids.stream().filter(id -> !id.equals("acc2")).map(this::account).toList();
+        });
+
+        var result = multiGetProcessor.getAccounts(List.of("acc3", "acc1", "acc2", "acc1", "acc4"));
+
+        assertEquals(List.of(List.of("acc3", "acc1"), List.of("acc2", "acc4")), batches);
+        assertEquals(List.of("acc3", "acc1", "acc4"), result.getFound().stream().map(Account::getAccountId).toList());
+        assertEquals(List.of("acc2"), result.getMissing());
+    }
+
+    @Test
+    public void testTooManyOrBlankIdsAreRejected() {
+        multiGetProperties.setMaxIds(2);
+
+        var tooMany = assertThrows(ResponseStatusException.class,
+                () -> multiGetProcessor.getCustomers(List.of("c1", "c2", "c3")));
+        var blank = assertThrows(ResponseStatusException.class,
+                () -> multiGetProcessor.getTransactions(Arrays.asList("t1", null)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, tooMany.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, blank.getStatusCode());
+        verifyNoInteractions(customerRepository, transactionRepository);
+    }
+
+    private Account account(String accountId) {
+        var account = new Account();
+        account.setAccountId(accountId);
+        return account;
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.PortfolioProperties;
+import com.github.tndavidson.geodespringbootpoc.config.RegionLayoutProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.CustomerPortfolio;
+import com.github.tndavidson.geodespringbootpoc.processor.function.CustomerRegionFunctions;
+import com.github.tndavidson.geodespringbootpoc.processor.function.TransactionFunctions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class PortfolioProcessorImplTest {
+
+    @Mock
+    private TransactionFunctions transactionFunctions;
+
+    @Mock
+    private CustomerRegionFunctions customerRegionFunctions;
+
+    private RegionLayoutProperties regionLayoutProperties;
+
+    private PortfolioProcessorImpl portfolioProcessor;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        regionLayoutProperties = new RegionLayoutProperties();
+        portfolioProcessor = new PortfolioProcessorImpl(transactionFunctions, customerRegionFunctions,
+                regionLayoutProperties, new PortfolioProperties());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testPortfolioIsReadWithOneFunctionExecution() {
+        var portfolio = portfolio();
+        when(transactionFunctions.getCustomerPortfolio("cust1", 10)).thenReturn(portfolio);
+
+        assertSame(portfolio, portfolioProcessor.getCustomerPortfolio("cust1", null));
+        verifyNoInteractions(customerRegionFunctions);
+    }
+
+    @Test
+    public void testColocatedPortfolioIsRoutedToTheCustomer() {
+        regionLayoutProperties.setLayout(RegionLayoutProperties.Layout.COLOCATED);
+        var portfolio = portfolio();
+        when(customerRegionFunctions.getCustomerPortfolio(Set.of("cust1"), "cust1", 5)).thenReturn(List.of(portfolio));
+
+        assertSame(portfolio, portfolioProcessor.getCustomerPortfolio("cust1", 5));
+        verifyNoInteractions(transactionFunctions);
+    }
+
+    @Test
+    public void testMissingCustomerAndInvalidCountAreRejected() {
+        when(transactionFunctions.getCustomerPortfolio("missing", 10)).thenReturn(new CustomerPortfolio());
+
+        var missing = assertThrows(ResponseStatusException.class,
+                () -> portfolioProcessor.getCustomerPortfolio("missing", null));
+        var invalid = assertThrows(ResponseStatusException.class,
+                () -> portfolioProcessor.getCustomerPortfolio("cust1", 101));
+
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+        verify(transactionFunctions, never()).getCustomerPortfolio(anyString(), eq(101));
+    }
+
+    private static CustomerPortfolio portfolio() {
+        var customer = new Customer();
+        customer.setId("cust1");
+        var portfolio = new CustomerPortfolio();
+        portfolio.setCustomer(customer);
+        return portfolio;
+    }
+}
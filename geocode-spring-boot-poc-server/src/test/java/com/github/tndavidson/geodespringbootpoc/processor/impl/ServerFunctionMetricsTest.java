@@ -0,0 +1,99 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.MetricsProperties;
+import com.github.tndavidson.geodespringbootpoc.function.FunctionStatisticsFunction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.geode.cache.client.ClientCache;
+import org.apache.geode.cache.client.Pool;
+import org.apache.geode.cache.execute.Execution;
+import org.apache.geode.cache.execute.FunctionException;
+import org.apache.geode.cache.execute.FunctionService;
+import org.apache.geode.cache.execute.ResultCollector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class ServerFunctionMetricsTest {
+
+    @Mock
+    private ClientCache clientCache;
+
+    @Mock
+    private Pool pool;
+
+    @Mock
+    private Execution<Object, Object, Object> execution;
+
+    @Mock
+    private ResultCollector<Object, Object> resultCollector;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MockedStatic<FunctionService> mockedFunctionService;
+
+    private ServerFunctionMetrics serverFunctionMetrics;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        when(clientCache.getDefaultPool()).thenReturn(pool);
+        mockedFunctionService = mockStatic(FunctionService.class);
+        mockedFunctionService.when(() -> FunctionService.onServers(pool)).thenReturn(execution);
+        when(execution.execute(FunctionStatisticsFunction.ID)).thenReturn(resultCollector);
+        serverFunctionMetrics = new ServerFunctionMetrics(clientCache, meterRegistry, new MetricsProperties());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        mockedFunctionService.close();
+        closeable.close();
+    }
+
+    @Test
+    public void testServerStatisticsAreSummedPerFunction() {
+        when(resultCollector.getResult()).thenReturn(List.of(
+                Map.of("F1", new long[]{2, 3_000_000}, "F2", new long[]{1, 500_000}),
+                Map.of("F1", new long[]{1, 1_000_000})));
+
+        serverFunctionMetrics.refresh();
+
+        var f1 = meterRegistry.get(ServerFunctionMetrics.SERVER_TIMER).tag("function", "F1").functionTimer();
+        assertEquals(3.0, f1.count());
+        assertEquals(4.0, f1.totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1.0, meterRegistry.get(ServerFunctionMetrics.SERVER_TIMER).tag("function", "F2")
+                .functionTimer().count());
+
+        when(resultCollector.getResult()).thenReturn(List.of(Map.of("F1", new long[]{5, 9_000_000})));
+
+        serverFunctionMetrics.refresh();
+
+        assertEquals(5.0, f1.count());
+        assertEquals(9.0, f1.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testTotalsAreKeptWhenTheStatisticsCannotBeRead() {
+        when(resultCollector.getResult()).thenReturn(List.of(Map.of("F1", new long[]{2, 3_000_000})));
+        serverFunctionMetrics.refresh();
+
+        when(resultCollector.getResult()).thenThrow(new FunctionException("Function named "
+                + FunctionStatisticsFunction.ID + " is not registered"));
+        serverFunctionMetrics.refresh();
+
+        assertEquals(2.0, meterRegistry.get(ServerFunctionMetrics.SERVER_TIMER).tag("function", "F1")
+                .functionTimer().count());
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.SlowQueryProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Customer;
+import com.github.tndavidson.geodespringbootpoc.model.QueryPlan;
+import com.github.tndavidson.geodespringbootpoc.processor.function.QueryFunctions;
+import com.github.tndavidson.geodespringbootpoc.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.repository.query.QueryMethod;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class SlowQueryDetectorTest {
+
+    private static final String OQL = "SELECT * FROM /customer c WHERE c.lastName >= $1 AND c.lastName < $2 "
+            + "ORDER BY c.lastName, c.id LIMIT $3";
+
+    @Mock
+    private QueryFunctions queryFunctions;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private ObjectProvider<SlowQueryDetector> slowQueryDetectorProvider;
+
+    @Mock
+    private ObjectProvider<SlowQueryProperties> slowQueryPropertiesProvider;
+
+    @Mock
+    private QueryMethod queryMethod;
+
+    private SlowQueryProperties properties;
+
+    private SlowQueryDetector slowQueryDetector;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        properties = new SlowQueryProperties();
+        properties.setPlanSampleRate(0);
+        slowQueryDetector = new SlowQueryDetector(queryFunctions, properties);
+        when(slowQueryDetectorProvider.getObject()).thenReturn(slowQueryDetector);
+        when(slowQueryPropertiesProvider.getIfAvailable(any(Supplier.class))).thenAnswer(invocation -> properties);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        slowQueryDetector.stop();
+        closeable.close();
+    }
+
+    @Test
+    public void testArgumentShapesDoNotHoldTheValues() {
+        assertEquals("('x%', String, null, Collection[2], Array[3], Integer)", SlowQueryDetector.shapes(
+                new Object[]{"Smi%", "acc1", null, Set.of("a", "b"), new Object[3], 7}));
+        assertEquals("('%x%x')", SlowQueryDetector.shapes(new Object[]{"%a b%c"}));
+        assertEquals("()", SlowQueryDetector.shapes(null));
+    }
+
+    @Test
+    public void testRepositoryQueriesAreRecordedAndTheirIndexesCheckedOnce() {
+        var plan = new QueryPlan();
+        plan.setIndexesUsed(List.of("customerLastNameIdx"));
+        when(queryFunctions.explain(any(), any())).thenReturn(plan);
+
+        var postProcessor = new QueryLoggingPostProcessor(slowQueryDetectorProvider, slowQueryPropertiesProvider);
+        var customers = List.of(new Customer());
+        when(customerRepository.findByLastNameRange(any(), any(), anyInt())).thenAnswer(invocation -> {
+            postProcessor.postProcess(queryMethod, OQL, invocation.getArguments());
+            return customers;
+        });
+        var timed = (CustomerRepository) postProcessor.postProcessAfterInitialization(customerRepository,
+                "customerRepository");
+
+        assertSame(customers, timed.findByLastNameRange("Smi", "Smj", 11));
+        assertSame(customers, timed.findByLastNameRange("Jon", "Joo", 11));
+
+        verify(queryFunctions, timeout(5_000)).explain(OQL, new Object[]{"Smi", "Smj", 11});
+        var slowest = slowQueryDetector.slowest();
+        assertEquals(1, slowest.size());
+        assertEquals("CustomerRepository.findByLastNameRange", slowest.get(0).method());
+        assertEquals("(String, String, Integer)", slowest.get(0).argumentShapes());
+        assertEquals(2, slowest.get(0).executions());
+        verify(queryFunctions, times(1)).explain(any(), any());
+    }
+
+    @Test
+    public void testSlowestQueriesAreListedFirstUpToTopN() {
+        properties.setTopN(2);
+        properties.setMaxTracked(3);
+        when(queryFunctions.explain(any(), any())).thenThrow(new IllegalStateException("no servers"));
+
+        slowQueryDetector.record("R.a", "q1", new Object[0], 1_000_000);
+        slowQueryDetector.record("R.b", "q2", new Object[0], 5_000_000);
+        slowQueryDetector.record("R.c", "q3", new Object[0], 3_000_000);
+        slowQueryDetector.record("R.d", "q4", new Object[0], 9_000_000);
+
+        var slowest = slowQueryDetector.slowest();
+        assertEquals(List.of("q2", "q3"), slowest.stream().map(SlowQueryDetector.SlowQuery::query).toList());
+        assertEquals(5.0, slowest.get(0).maxMillis());
+        assertNull(slowest.get(0).indexesUsed());
+
+        slowQueryDetector.reset();
+        assertTrue(slowQueryDetector.slowest().isEmpty());
+    }
+
+    @Test
+    public void testRepositoriesAreNotProxiedWhenDisabled() {
+        properties.setEnabled(false);
+        var postProcessor = new QueryLoggingPostProcessor(slowQueryDetectorProvider, slowQueryPropertiesProvider);
+
+        assertSame(customerRepository, postProcessor.postProcessAfterInitialization(customerRepository,
+                "customerRepository"));
+        assertEquals(OQL, postProcessor.postProcess(queryMethod, OQL, "Smi%"));
+        verifyNoInteractions(slowQueryDetectorProvider);
+    }
+}
@@ -0,0 +1,183 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.BalanceProperties;
+import com.github.tndavidson.geodespringbootpoc.config.MetricsProperties;
+import com.github.tndavidson.geodespringbootpoc.config.TransactionPipelineProperties;
+import com.github.tndavidson.geodespringbootpoc.model.Transaction;
+import com.github.tndavidson.geodespringbootpoc.processor.AccountProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class TransactionEventPipelineTest {
+
+    @Mock
+    private AccountProcessor accountProcessor;
+
+    private BalanceProperties balanceProperties;
+
+    private TransactionPipelineProperties pipelineProperties;
+
+    private MetricsProperties metricsProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TransactionEventPipeline pipeline;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        balanceProperties = new BalanceProperties();
+        pipelineProperties = new TransactionPipelineProperties();
+        pipelineProperties.setCoalesceWindow(Duration.ofMillis(20));
+        metricsProperties = new MetricsProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+        closeable.close();
+    }
+
+    @Test
+    public void testDrainCoalescesPerAccount() throws Exception {
+        pipeline = new TransactionEventPipeline(accountProcessor, balanceProperties, pipelineProperties,
+                metricsProperties, meterRegistry);
+        pipeline.start();
+
+        var tx1 = transaction("tx1", "acc1");
+        var tx2 = transaction("tx2", "acc2");
+        var tx3 = transaction("tx3", "acc1");
+
+        pipeline.drain(List.of(tx1, tx2, tx3));
+
+        verify(accountProcessor, timeout(5_000)).applyTransactions("acc1", List.of(tx1, tx3));
+        verify(accountProcessor, timeout(5_000)).applyTransactions("acc2", List.of(tx2));
+        verifyNoMoreInteractions(accountProcessor);
+
+        // stopping waits for the account updates, which are timed once they have been processed
+        pipeline.stop();
+        assertEquals(2, meterRegistry.get("transaction.pipeline.drain").timer().count());
+    }
+
+    @Test
+    public void testDrainTimerHonorsPercentileHistograms() throws Exception {
+        metricsProperties.setPercentileHistograms(false);
+        pipeline = new TransactionEventPipeline(accountProcessor, balanceProperties, pipelineProperties,
+                metricsProperties, meterRegistry);
+        pipeline.start();
+
+        pipeline.drain(List.of(transaction("tx1", "acc1")));
+        pipeline.stop();
+
+        var snapshot = meterRegistry.get("transaction.pipeline.drain").timer().takeSnapshot();
+        assertEquals(0, snapshot.histogramCounts().length);
+    }
+
+    @Test
+    public void testFullModeRecalculatesOncePerAccount() throws Exception {
+        balanceProperties.setMode(BalanceProperties.Mode.FULL);
+        pipeline = new TransactionEventPipeline(accountProcessor, balanceProperties, pipelineProperties,
+                metricsProperties, meterRegistry);
+        pipeline.start();
+
+        pipeline.drain(List.of(transaction("tx1", "acc1"), transaction("tx2", "acc1"), transaction("tx3", "acc1")));
+
+        verify(accountProcessor, timeout(5_000).times(1)).recalculateBalance("acc1");
+        verify(accountProcessor, never()).applyTransactions(any(), any());
+    }
+
+    @Test
+    public void testSlowAccountDoesNotHoldUpOtherAccounts() throws Exception {
+        pipeline = new TransactionEventPipeline(accountProcessor, balanceProperties, pipelineProperties,
+                metricsProperties, meterRegistry);
+        pipeline.start();
+
+        var release = new CountDownLatch(1);
+        when(accountProcessor.applyTransactions(eq("slow"), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.<List<?>>getArgument(1).size();
+        });
+
+        pipeline.drain(List.of(transaction("tx1", "slow")));
+        pipeline.drain(List.of(transaction("tx2", "slow"), transaction("tx3", "slow")));
+        pipeline.drain(List.of(transaction("tx4", "fast")));
+        pipeline.drain(List.of(transaction("tx5", "fast")));
+
+        // the fast account is updated for both windows while the slow account's first update is still running
+        verify(accountProcessor, timeout(5_000).times(2)).applyTransactions(eq("fast"), any());
+        verify(accountProcessor, times(1)).applyTransactions(eq("slow"), any());
+        release.countDown();
+
+        // the windows that arrived while the slow account was updated are coalesced into its next update
+        verify(accountProcessor, timeout(5_000)).applyTransactions(eq("slow"),
+                argThat(transactions -> transactions.size() == 2));
+        verify(accountProcessor, timeout(5_000).times(2)).applyTransactions(eq("slow"), any());
+    }
+
+    @Test
+    public void testRunningPipelineCoalescesBurst() throws Exception {
+        pipelineProperties.setCoalesceWindow(Duration.ofMillis(200));
+        pipeline = new TransactionEventPipeline(accountProcessor, balanceProperties, pipelineProperties,
+                metricsProperties, meterRegistry);
+        pipeline.start();
+
+        for (int i = 0; i < 100; i++) {
+            pipeline.submit(transaction("tx" + i, "acc1"));
+        }
+
+        verify(accountProcessor, timeout(5_000)).applyTransactions(eq("acc1"), argThat(transactions -> transactions.size() == 100));
+        assertEquals(100.0, meterRegistry.get("transaction.pipeline.coalescing.ratio").gauge().value());
+        assertEquals(0.0, meterRegistry.get("transaction.pipeline.queue.depth").gauge().value());
+    }
+
+    @Test
+    public void testDisabledPipelineProcessesInline() throws Exception {
+        pipelineProperties.setEnabled(false);
+        pipeline = new TransactionEventPipeline(accountProcessor, balanceProperties, pipelineProperties,
+                metricsProperties, meterRegistry);
+        pipeline.start();
+
+        var transaction = transaction("tx1", "acc1");
+        pipeline.submit(transaction);
+
+        verify(accountProcessor).applyTransactions("acc1", List.of(transaction));
+    }
+
+    @Test
+    public void testStoppedPipelineProcessesInline() throws Exception {
+        pipeline = new TransactionEventPipeline(accountProcessor, balanceProperties, pipelineProperties,
+                metricsProperties, meterRegistry);
+        pipeline.start();
+        pipeline.stop();
+
+        var transaction = transaction("tx1", "acc1");
+        pipeline.submit(transaction);
+
+        verify(accountProcessor).applyTransactions("acc1", List.of(transaction));
+        assertEquals(0.0, meterRegistry.get("transaction.pipeline.queue.depth").gauge().value());
+    }
+
+    private static Transaction transaction(String transactionId, String accountId) {
+        var transaction = new Transaction();
+        transaction.setTransactionId(transactionId);
+        transaction.setAccountId(accountId);
+        return transaction;
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.tndavidson.geodespringbootpoc.processor.impl;
+
+import com.github.tndavidson.geodespringbootpoc.config.WriteBehindProperties;
+import com.github.tndavidson.geodespringbootpoc.processor.function.WriteBehindFunctions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+public class WriteBehindReloaderTest {
+
+    @Mock
+    private WriteBehindFunctions writeBehindFunctions;
+
+    private WriteBehindProperties writeBehindProperties;
+
+    private WriteBehindReloader reloader;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        writeBehindProperties = new WriteBehindProperties();
+        reloader = new WriteBehindReloader(writeBehindFunctions, writeBehindProperties);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void testReloadIsDisabledByDefault() {
+        reloader.run(null);
+
+        verifyNoInteractions(writeBehindFunctions);
+    }
+
+    @Test
+    public void testReloadsWithTheConfiguredBatchSize() {
+        writeBehindProperties.setReloadOnStartup(true);
+        writeBehindProperties.setReloadBatchSize(250);
+        when(writeBehindFunctions.reload(250)).thenReturn(Map.of("customer", 10));
+
+        reloader.run(null);
+
+        verify(writeBehindFunctions).reload(250);
+    }
+}
@@ -34,18 +34,41 @@ Feature: This set of tests demonstrates basic object cacheing using spring-boot
     Then the service will return a 200 response
     And the response contains the payload
       """json
-        [
-          {
-            "id": "a9687413-5684-4869-8263-637951058473",
-            "firstName": "Jack",
-            "lastName": "Davidson"
-          },
-          {
-            "id": "47530843-7f2a-4f51-9686-21808603683a",
-            "firstName": "Grace",
-            "lastName": "Davis"
-          }
-        ]
+        {
+          "customers": [
+            {
+              "id": "a9687413-5684-4869-8263-637951058473",
+              "firstName": "Jack",
+              "lastName": "Davidson"
+            },
+            {
+              "id": "47530843-7f2a-4f51-9686-21808603683a",
+              "firstName": "Grace",
+              "lastName": "Davis"
+            }
+          ],
+          "nextCursor": null
+        }
+      """
+
+  Scenario: Retrieve customers by last name a page at a time
+    When a GET request is made to "/customer" with lastName: "D" and size: 1
+    Then the service will return a 200 response
+    And the response contains the customers "a9687413-5684-4869-8263-637951058473" and a next cursor
+    When a GET request is made to "/customer" with lastName: "D", size: 1 and the next cursor
+    Then the service will return a 200 response
+    And the response contains the payload
+      """json
+        {
+          "customers": [
+            {
+              "id": "47530843-7f2a-4f51-9686-21808603683a",
+              "firstName": "Grace",
+              "lastName": "Davis"
+            }
+          ],
+          "nextCursor": null
+        }
       """
 
   Scenario: Create customer
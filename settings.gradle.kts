@@ -1,3 +1,4 @@
 rootProject.name = "geode-spring-boot-poc"
 include("geocode-spring-boot-poc-models")
 include("geocode-spring-boot-poc-server")
+include("geocode-spring-boot-poc-benchmarks")